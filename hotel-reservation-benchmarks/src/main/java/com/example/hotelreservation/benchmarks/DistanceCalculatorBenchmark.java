@@ -0,0 +1,63 @@
+package com.example.hotelreservation.benchmarks;
+
+import com.example.hotelreservation.utlis.DistanceCalculator;
+import com.example.hotelreservation.utlis.GeoPoints;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the haversine distance of {@link DistanceCalculator}: one pair at a time, and the batch
+ * methods over {@link GeoPoints}. Runs with the Vector API module; see {@link ScalarDistanceCalculatorBenchmark}
+ * for the batch methods without it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class DistanceCalculatorBenchmark {
+
+    private static final int POINTS = 1024;
+
+    private final double[] latitudes = new double[POINTS];
+    private final double[] longitudes = new double[POINTS];
+    private final double[] distances = new double[POINTS];
+    private final boolean[] matches = new boolean[POINTS];
+    private GeoPoints points;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < POINTS; i++) {
+            latitudes[i] = 46.77 + random.nextGaussian() * 0.5;
+            longitudes[i] = 23.62 + random.nextGaussian() * 0.5;
+        }
+        points = GeoPoints.fromDegrees(latitudes, longitudes);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public void calculateDistance(Blackhole blackhole) {
+        for (int i = 0; i < POINTS; i++) {
+            blackhole.consume(DistanceCalculator.calculateDistance(46.7712, 23.6236, latitudes[i], longitudes[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public double[] calculateDistances() {
+        DistanceCalculator.calculateDistances(46.7712, 23.6236, points, distances);
+        return distances;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public boolean[] withinRadius() {
+        DistanceCalculator.withinRadius(46.7712, 23.6236, 50, points, matches);
+        return matches;
+    }
+}
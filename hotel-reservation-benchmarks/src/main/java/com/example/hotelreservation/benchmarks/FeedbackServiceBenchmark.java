@@ -0,0 +1,47 @@
+package com.example.hotelreservation.benchmarks;
+
+import com.example.hotelreservation.model.Feedback;
+import com.example.hotelreservation.model.Hotel;
+import com.example.hotelreservation.modelDto.FeedbackDto;
+import com.example.hotelreservation.repository.FeedbackRepository;
+import com.example.hotelreservation.service.FeedbackService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the entity to DTO mapping of {@link FeedbackService#getFeedbacks}, with the feedbacks
+ * of a hotel served from memory.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FeedbackServiceBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int feedbacks;
+
+    private FeedbackService feedbackService;
+
+    @Setup
+    public void setUp() {
+        Hotel hotel = SyntheticData.hotels(1, 42).get(0);
+        List<Feedback> hotelFeedbacks = SyntheticData.feedbacks(hotel, feedbacks, new Random(42));
+
+        FeedbackRepository feedbackRepository = InMemoryRepositories.of(FeedbackRepository.class)
+                .answer("findByHotelId", args -> hotelFeedbacks)
+                .build();
+
+        feedbackService = new FeedbackService(feedbackRepository);
+    }
+
+    @Benchmark
+    public List<FeedbackDto> getFeedbacks() {
+        return feedbackService.getFeedbacks(1L);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.hotelreservation.benchmarks;
+
+import com.example.hotelreservation.model.Feedback;
+import com.example.hotelreservation.model.Hotel;
+import com.example.hotelreservation.modelDto.HotelAverageRating;
+import com.example.hotelreservation.modelDto.HotelWithRating;
+import com.example.hotelreservation.repository.FeedbackRepository;
+import com.example.hotelreservation.repository.HotelRepository;
+import com.example.hotelreservation.repository.RoomRepository;
+import com.example.hotelreservation.service.HotelFacetService;
+import com.example.hotelreservation.service.HotelGeoIndex;
+import com.example.hotelreservation.service.HotelLeaderboard;
+import com.example.hotelreservation.service.HotelService;
+import com.example.hotelreservation.service.HotelTextIndex;
+import com.example.hotelreservation.service.HotelVersionService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link HotelService#getHotelsWithinRadius} over synthetic catalogues of 1k to 1M hotels
+ * served from memory, with the positions already held by {@link HotelGeoIndex}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class HotelSearchBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int hotels;
+
+    @Param({"5", "50"})
+    public double radius;
+
+    private HotelService hotelService;
+
+    @Setup
+    public void setUp() {
+        List<Hotel> catalogue = SyntheticData.hotels(hotels, 42);
+
+        HotelRepository hotelRepository = InMemoryRepositories.of(HotelRepository.class)
+                .answer("findAll", args -> catalogue)
+                .build();
+        // Hotels without rooms, so the facets add their lookup but no counting
+        RoomRepository roomRepository = InMemoryRepositories.of(RoomRepository.class)
+                .answer("countRoomsByPrice", args -> List.of())
+                .build();
+
+        // The grouped average query, answered from the feedbacks of the catalogue
+        Map<Long, Hotel> hotelsById = new HashMap<>();
+        catalogue.forEach(hotel -> hotelsById.put(hotel.getId(), hotel));
+        FeedbackRepository feedbackRepository = InMemoryRepositories.of(FeedbackRepository.class)
+                .answer("findAverageRatings", args -> averageRatings(hotelsById, (Collection<?>) args[0]))
+                .answer("findRatingTotals", args -> List.of())
+                .build();
+
+        HotelVersionService hotelVersionService = new HotelVersionService(hotelRepository, Duration.ofSeconds(1), 100);
+        HotelGeoIndex hotelGeoIndex = new HotelGeoIndex(hotelRepository, feedbackRepository, hotelVersionService, 0.25);
+        HotelFacetService hotelFacetService = new HotelFacetService(roomRepository, hotelVersionService, 100, 10);
+        HotelTextIndex hotelTextIndex = new HotelTextIndex(hotelRepository, feedbackRepository, hotelVersionService);
+        HotelLeaderboard hotelLeaderboard = new HotelLeaderboard(hotelRepository, feedbackRepository, hotelVersionService, 10, 10);
+        hotelService = new HotelService(hotelRepository, roomRepository, feedbackRepository, hotelGeoIndex, hotelFacetService,
+                hotelTextIndex, hotelLeaderboard);
+        // Build the index outside of the measurement
+        hotelService.getHotelsWithinRadius(0, 0, 0);
+    }
+
+    private static List<HotelAverageRating> averageRatings(Map<Long, Hotel> hotelsById, Collection<?> hotelIds) {
+        List<HotelAverageRating> ratings = new ArrayList<>();
+        for (Object id : hotelIds) {
+            List<Feedback> feedbacks = hotelsById.get((Long) id).getFeedbacks();
+            if (feedbacks.isEmpty()) {
+                continue;
+            }
+            double average = feedbacks.stream().mapToInt(Feedback::getRating).average().orElse(0);
+            ratings.add(new HotelAverageRating() {
+                @Override
+                public Long getHotelId() {
+                    return (Long) id;
+                }
+
+                @Override
+                public Double getAverageRating() {
+                    return average;
+                }
+            });
+        }
+        return ratings;
+    }
+
+    @Benchmark
+    public List<HotelWithRating> getHotelsWithinRadius() {
+        return hotelService.getHotelsWithinRadius(46.7712, 23.6236, radius);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.hotelreservation.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Builds in-memory stand-ins for the Spring Data repositories, so the services can be benchmarked
+ * without a database or a Spring context. Only the methods registered on the builder are answered;
+ * any other call fails, which keeps a benchmark from silently measuring something else.
+ */
+final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    /**
+     * Starts a stand-in for the given repository interface.
+     *
+     * @param repositoryType the repository interface.
+     * @param <T> the repository type.
+     * @return a builder to register the answered methods on.
+     */
+    static <T> Builder<T> of(Class<T> repositoryType) {
+        return new Builder<>(repositoryType);
+    }
+
+    static final class Builder<T> {
+
+        private final Class<T> repositoryType;
+        private final Map<String, Function<Object[], Object>> answers = new HashMap<>();
+
+        private Builder(Class<T> repositoryType) {
+            this.repositoryType = repositoryType;
+        }
+
+        /**
+         * Registers the answer of a repository method, by name.
+         *
+         * @param methodName the name of the method.
+         * @param answer computes the result from the call arguments.
+         * @return this builder.
+         */
+        Builder<T> answer(String methodName, Function<Object[], Object> answer) {
+            answers.put(methodName, answer);
+            return this;
+        }
+
+        T build() {
+            Object proxy = Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[]{repositoryType},
+                    (self, method, args) -> {
+                        if (method.getDeclaringClass() == Object.class) {
+                            return switch (method.getName()) {
+                                case "hashCode" -> System.identityHashCode(self);
+                                case "equals" -> self == args[0];
+                                default -> "InMemory" + repositoryType.getSimpleName();
+                            };
+                        }
+                        Function<Object[], Object> answer = answers.get(method.getName());
+                        if (answer == null) {
+                            throw new UnsupportedOperationException(repositoryType.getSimpleName() + "." + method.getName());
+                        }
+                        return answer.apply(args);
+                    });
+            return repositoryType.cast(proxy);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.hotelreservation.benchmarks;
+
+import com.example.hotelreservation.model.Hotel;
+import com.example.hotelreservation.modelDto.HotelRatingTotals;
+import com.example.hotelreservation.modelDto.RankedHotel;
+import com.example.hotelreservation.repository.FeedbackRepository;
+import com.example.hotelreservation.repository.HotelRepository;
+import com.example.hotelreservation.service.HotelLeaderboard;
+import com.example.hotelreservation.service.HotelVersionService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link HotelLeaderboard} over synthetic catalogues where every hotel has ratings: adding
+ * a rating, which moves its hotel in the rankings, and reading the top hotels overall and of a region.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LeaderboardBenchmark {
+
+    @Param({"10000", "100000"})
+    public int hotels;
+
+    private HotelLeaderboard hotelLeaderboard;
+    private List<Hotel> catalogue;
+
+    @Setup
+    public void setUp() {
+        catalogue = SyntheticData.hotels(hotels, 42);
+        List<HotelRatingTotals> totals = totals(catalogue, new Random(42));
+
+        HotelRepository hotelRepository = InMemoryRepositories.of(HotelRepository.class)
+                .answer("findAll", args -> catalogue)
+                .build();
+        FeedbackRepository feedbackRepository = InMemoryRepositories.of(FeedbackRepository.class)
+                .answer("findRatingTotals", args -> totals)
+                .build();
+
+        hotelLeaderboard = new HotelLeaderboard(hotelRepository, feedbackRepository,
+                new HotelVersionService(hotelRepository, Duration.ofSeconds(1), 100), 10, 10);
+        // Build the rankings outside of the measurement
+        hotelLeaderboard.top(1);
+    }
+
+    @Benchmark
+    public void recordRating() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        hotelLeaderboard.recordRating(catalogue.get(random.nextInt(catalogue.size())).getId(), 1 + random.nextInt(5));
+    }
+
+    @Benchmark
+    public List<RankedHotel> top() {
+        return hotelLeaderboard.top(10);
+    }
+
+    @Benchmark
+    public List<RankedHotel> topInRegion() {
+        Hotel hotel = catalogue.get(0);
+        return hotelLeaderboard.topInRegion(hotel.getLatitude(), hotel.getLongitude(), 10);
+    }
+
+    private static List<HotelRatingTotals> totals(List<Hotel> catalogue, Random random) {
+        List<HotelRatingTotals> totals = new ArrayList<>();
+        for (Hotel hotel : catalogue) {
+            long count = 1 + random.nextInt(200);
+            long sum = count + (long) (random.nextDouble() * 4 * count);
+            totals.add(new HotelRatingTotals() {
+                @Override
+                public Long getHotelId() {
+                    return hotel.getId();
+                }
+
+                @Override
+                public Long getRatingSum() {
+                    return sum;
+                }
+
+                @Override
+                public Long getRatingCount() {
+                    return count;
+                }
+            });
+        }
+        return totals;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.hotelreservation.benchmarks;
+
+import com.example.hotelreservation.model.Hotel;
+import com.example.hotelreservation.modelDto.HotelWithDistance;
+import com.example.hotelreservation.repository.FeedbackRepository;
+import com.example.hotelreservation.repository.HotelRepository;
+import com.example.hotelreservation.service.HotelGeoIndex;
+import com.example.hotelreservation.service.HotelVersionService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the k-nearest search of {@link HotelGeoIndex} over synthetic catalogues of 1k to 1M hotels,
+ * to compare with the radius search of {@link HotelSearchBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "--add-modules=jdk.incubator.vector"})
+@State(Scope.Benchmark)
+public class NearestHotelsBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int hotels;
+
+    @Param({"1", "10", "100"})
+    public int k;
+
+    private HotelGeoIndex hotelGeoIndex;
+
+    @Setup
+    public void setUp() {
+        List<Hotel> catalogue = SyntheticData.hotels(hotels, 42);
+
+        HotelRepository hotelRepository = InMemoryRepositories.of(HotelRepository.class)
+                .answer("findAll", args -> catalogue)
+                .build();
+        FeedbackRepository feedbackRepository = InMemoryRepositories.of(FeedbackRepository.class)
+                .answer("findRatingTotals", args -> List.of())
+                .build();
+
+        hotelGeoIndex = new HotelGeoIndex(hotelRepository, feedbackRepository,
+                new HotelVersionService(hotelRepository, Duration.ofSeconds(1), 100), 0.25);
+        // Build the grid outside of the measurement
+        hotelGeoIndex.findNearest(0, 0, 1, 0);
+    }
+
+    @Benchmark
+    public List<HotelWithDistance> findNearest() {
+        return hotelGeoIndex.findNearest(46.7712, 23.6236, k, 0);
+    }
+
+    @Benchmark
+    public List<HotelWithDistance> findNearestRatingWeighted() {
+        return hotelGeoIndex.findNearest(46.7712, 23.6236, k, 0.5);
+    }
+}
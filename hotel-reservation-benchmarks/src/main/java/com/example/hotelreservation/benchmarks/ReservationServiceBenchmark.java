@@ -0,0 +1,69 @@
+package com.example.hotelreservation.benchmarks;
+
+import com.example.hotelreservation.model.Hotel;
+import com.example.hotelreservation.model.Reservation;
+import com.example.hotelreservation.model.Room;
+import com.example.hotelreservation.repository.ArchivedReservationRepository;
+import com.example.hotelreservation.repository.HotelRepository;
+import com.example.hotelreservation.repository.ReservationRepository;
+import com.example.hotelreservation.repository.RoomRepository;
+import com.example.hotelreservation.repository.RoomTypeInventoryRepository;
+import com.example.hotelreservation.service.HotelFacetService;
+import com.example.hotelreservation.service.HotelVersionService;
+import com.example.hotelreservation.service.ReservationService;
+import com.example.hotelreservation.service.RoomAllotmentService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the in-memory filtering of {@link ReservationService#getAvailableRooms}, with the
+ * rooms of a hotel and the reservations overlapping the requested stay served from memory.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReservationServiceBenchmark {
+
+    @Param({"50", "500", "5000"})
+    public int rooms;
+
+    private final LocalDateTime start = LocalDateTime.of(2030, 6, 1, 14, 0);
+    private ReservationService reservationService;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        Hotel hotel = SyntheticData.hotels(1, 42).get(0);
+        List<Room> hotelRooms = SyntheticData.rooms(hotel, rooms, random);
+        List<Reservation> conflicting = SyntheticData.reservations(hotelRooms, rooms / 2, start, random);
+
+        RoomRepository roomRepository = InMemoryRepositories.of(RoomRepository.class)
+                .answer("findAvailableRoomsByHotelId", args -> hotelRooms)
+                .build();
+        ReservationRepository reservationRepository = InMemoryRepositories.of(ReservationRepository.class)
+                .answer("findConflictingReservations", args -> conflicting)
+                .build();
+        RoomTypeInventoryRepository inventoryRepository = InMemoryRepositories.of(RoomTypeInventoryRepository.class).build();
+
+        RoomAllotmentService roomAllotmentService =
+                new RoomAllotmentService(inventoryRepository, roomRepository, reservationRepository);
+        HotelRepository hotelRepository = InMemoryRepositories.of(HotelRepository.class).build();
+        HotelVersionService hotelVersionService = new HotelVersionService(hotelRepository, Duration.ofSeconds(1), 100);
+        reservationService = new ReservationService(reservationRepository,
+                InMemoryRepositories.of(ArchivedReservationRepository.class).build(), roomRepository, roomAllotmentService,
+                hotelVersionService, new HotelFacetService(roomRepository, hotelVersionService, 100, 10), null);
+    }
+
+    @Benchmark
+    public List<Room> getAvailableRooms() {
+        return reservationService.getAvailableRooms(1L, start, start.plusDays(2));
+    }
+}
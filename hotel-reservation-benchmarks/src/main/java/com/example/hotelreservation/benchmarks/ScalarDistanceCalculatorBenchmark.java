@@ -0,0 +1,11 @@
+package com.example.hotelreservation.benchmarks;
+
+import org.openjdk.jmh.annotations.Fork;
+
+/**
+ * The benchmarks of {@link DistanceCalculatorBenchmark} without the Vector API module, so the batch
+ * methods fall back to their scalar loop.
+ */
+@Fork(1)
+public class ScalarDistanceCalculatorBenchmark extends DistanceCalculatorBenchmark {
+}
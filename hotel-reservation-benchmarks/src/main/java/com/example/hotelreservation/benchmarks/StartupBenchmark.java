@@ -0,0 +1,174 @@
+package com.example.hotelreservation.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time from launching the application to its first successful response, for each way
+ * the application can be built: the executable jar on the JVM ({@code jvm}), the AOT processed jar
+ * with a class data sharing archive ({@code cds}, built with {@code mvn -Pcds package}) and the GraalVM
+ * native executable ({@code native}, built with {@code mvn -Pnative native:compile}). Modes whose build
+ * output is missing are skipped.
+ *
+ * Every run starts a fresh process on an in-memory H2 database, so the time includes schema creation
+ * and seeding. Options are given as {@code key=value} pairs:
+ *
+ * <pre>
+ * app-dir=../hotel-reservation   directory of the application module
+ * modes=jvm,cds,native           modes to measure
+ * runs=3                         launches per mode
+ * path=/hotels/withinRadius?...  request that has to succeed
+ * timeout=120                    seconds a launch may take before it counts as failed
+ * </pre>
+ *
+ * Run with {@code java -cp target/benchmarks.jar com.example.hotelreservation.benchmarks.StartupBenchmark}.
+ */
+public final class StartupBenchmark {
+
+    private static final Set<String> KEYS = Set.of("app-dir", "modes", "runs", "path", "timeout");
+
+    private final Path appDir;
+    private final List<String> modes;
+    private final int runs;
+    private final String path;
+    private final Duration timeout;
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    private StartupBenchmark(Map<String, String> options) {
+        this.appDir = Path.of(options.getOrDefault("app-dir", "../hotel-reservation")).toAbsolutePath().normalize();
+        this.modes = Arrays.asList(options.getOrDefault("modes", "jvm,cds,native").split(","));
+        this.runs = Integer.parseInt(options.getOrDefault("runs", "3"));
+        this.path = options.getOrDefault("path", "/hotels/withinRadius?userLat=46.77&userLon=23.62&radius=50");
+        this.timeout = Duration.ofSeconds(Long.parseLong(options.getOrDefault("timeout", "120")));
+        if (runs < 1) {
+            throw new IllegalArgumentException("runs must be positive");
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            String key = separator > 0 ? arg.substring(0, separator) : arg;
+            if (separator <= 0 || !KEYS.contains(key)) {
+                throw new IllegalArgumentException("Unknown argument: " + arg + " (expected one of " + KEYS + " as key=value)");
+            }
+            options.put(key, arg.substring(separator + 1));
+        }
+        new StartupBenchmark(options).run();
+    }
+
+    private void run() throws Exception {
+        System.out.printf("%-8s %6s %10s %10s %10s%n", "mode", "runs", "min ms", "median ms", "max ms");
+        for (String mode : modes) {
+            List<String> command = command(mode.trim());
+            if (command == null) {
+                System.out.printf("%-8s skipped, not built%n", mode);
+                continue;
+            }
+            List<Long> millis = new ArrayList<>();
+            for (int i = 0; i < runs; i++) {
+                millis.add(timeToFirstRequest(mode, command));
+            }
+            Collections.sort(millis);
+            System.out.printf("%-8s %6d %10d %10d %10d%n", mode, runs, millis.get(0), millis.get(runs / 2), millis.get(runs - 1));
+        }
+    }
+
+    /**
+     * Builds the launch command of a mode.
+     *
+     * @return the command, or {@code null} if the mode has not been built.
+     */
+    private List<String> command(String mode) {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Path target = appDir.resolve("target");
+        switch (mode) {
+            case "jvm" -> {
+                Path jar = target.resolve("hotel-reservation-0.0.1-SNAPSHOT-exec.jar");
+                return Files.exists(jar) ? List.of(java, "--add-modules", "jdk.incubator.vector", "-jar", jar.toString()) : null;
+            }
+            case "cds" -> {
+                Path jar = target.resolve("cds").resolve("hotel-reservation-cds.jar");
+                Path archive = target.resolve("cds").resolve("application.jsa");
+                return Files.exists(jar) && Files.exists(archive)
+                        ? List.of(java, "-XX:SharedArchiveFile=" + archive, "-Dspring.aot.enabled=true",
+                                "--add-modules", "jdk.incubator.vector", "-jar", jar.toString())
+                        : null;
+            }
+            case "native" -> {
+                Path executable = target.resolve(File.separatorChar == '\\' ? "hotel-reservation.exe" : "hotel-reservation");
+                return Files.isExecutable(executable) ? List.of(executable.toString()) : null;
+            }
+            default -> throw new IllegalArgumentException("Unknown mode: " + mode + " (expected jvm, cds or native)");
+        }
+    }
+
+    /**
+     * Launches the application and polls it until the request succeeds.
+     *
+     * @return the milliseconds from launch to the first successful response.
+     */
+    private long timeToFirstRequest(String mode, List<String> command) throws Exception {
+        int port = freePort();
+        Path work = Files.createTempDirectory("startup-" + mode);
+        List<String> arguments = new ArrayList<>(command);
+        arguments.addAll(List.of("--spring.profiles.active=h2", "--server.port=" + port, "--rate-limit.enabled=false",
+                "--feedback.ingestion.journal-dir=" + work.resolve("journal")));
+        Path log = work.resolve("application.log");
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(arguments)
+                .directory(work.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            long deadline = start + timeout.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(mode + " exited with " + process.exitValue() + ", see " + log);
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    }
+                } catch (IOException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException(mode + " did not answer within " + timeout + ", see " + log);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
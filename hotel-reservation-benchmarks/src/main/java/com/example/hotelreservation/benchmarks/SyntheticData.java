@@ -0,0 +1,126 @@
+package com.example.hotelreservation.benchmarks;
+
+import com.example.hotelreservation.model.Feedback;
+import com.example.hotelreservation.model.Hotel;
+import com.example.hotelreservation.model.Reservation;
+import com.example.hotelreservation.model.Room;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic datasets for the benchmarks. The same seed always produces the same data,
+ * so results of different builds are comparable.
+ */
+final class SyntheticData {
+
+    // City centres the generated hotels are clustered around (latitude, longitude)
+    private static final double[][] CITIES = {
+            {46.7712, 23.6236}, // Cluj-Napoca
+            {44.4268, 26.1025}, // Bucharest
+            {45.7489, 21.2087}, // Timisoara
+            {47.1585, 27.6014}, // Iasi
+            {45.6427, 25.5887}, // Brasov
+    };
+
+    private SyntheticData() {
+    }
+
+    /**
+     * Generates hotels clustered around a few city centres, each with a handful of feedbacks.
+     *
+     * @param count the number of hotels.
+     * @param seed the random seed.
+     * @return the generated hotels.
+     */
+    static List<Hotel> hotels(int count, long seed) {
+        Random random = new Random(seed);
+        List<Hotel> hotels = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double[] city = CITIES[random.nextInt(CITIES.length)];
+
+            Hotel hotel = new Hotel();
+            hotel.setId((long) i + 1);
+            hotel.setName("Hotel " + (i + 1));
+            // Roughly 10 km of spread around the city centre
+            hotel.setLatitude(city[0] + random.nextGaussian() * 0.09);
+            hotel.setLongitude(city[1] + random.nextGaussian() * 0.13);
+            hotel.setFeedbacks(feedbacks(hotel, random.nextInt(5), random));
+            hotels.add(hotel);
+        }
+        return hotels;
+    }
+
+    /**
+     * Generates the feedbacks of a hotel.
+     *
+     * @param hotel the hotel the feedbacks belong to.
+     * @param count the number of feedbacks.
+     * @param random the source of randomness.
+     * @return the generated feedbacks.
+     */
+    static List<Feedback> feedbacks(Hotel hotel, int count, Random random) {
+        List<Feedback> feedbacks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Feedback feedback = new Feedback();
+            feedback.setId((long) i + 1);
+            feedback.setHotel(hotel);
+            feedback.setUserId((long) random.nextInt(10_000));
+            feedback.setComment("Synthetic review number " + i + " with a comment of typical length for a stay");
+            feedback.setRating(1 + random.nextInt(5));
+            feedbacks.add(feedback);
+        }
+        return feedbacks;
+    }
+
+    /**
+     * Generates the rooms of a hotel.
+     *
+     * @param hotel the hotel the rooms belong to.
+     * @param count the number of rooms.
+     * @param random the source of randomness.
+     * @return the generated rooms.
+     */
+    static List<Room> rooms(Hotel hotel, int count, Random random) {
+        List<Room> rooms = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Room room = new Room();
+            room.setId((long) i + 1);
+            room.setRoomNumber(100 + i);
+            room.setType(1 + random.nextInt(4));
+            room.setPrice(100 + random.nextInt(400));
+            room.setAvailable(true);
+            room.setHotel(hotel);
+            rooms.add(room);
+        }
+        return rooms;
+    }
+
+    /**
+     * Generates reservations of randomly chosen rooms overlapping the given stay.
+     *
+     * @param rooms the rooms to book.
+     * @param count the number of reservations.
+     * @param start the start of the stay the reservations overlap.
+     * @param random the source of randomness.
+     * @return the generated reservations.
+     */
+    static List<Reservation> reservations(List<Room> rooms, int count, LocalDateTime start, Random random) {
+        List<Reservation> reservations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Room room = rooms.get(random.nextInt(rooms.size()));
+
+            Reservation reservation = new Reservation();
+            reservation.setId((long) i + 1);
+            reservation.setUserId((long) random.nextInt(10_000));
+            reservation.setRoomId(room.getId());
+            reservation.setRoom(room);
+            reservation.setCheckInTime(start.minusDays(random.nextInt(3)));
+            reservation.setCheckOutTime(start.plusDays(1 + random.nextInt(3)));
+            reservations.add(reservation);
+        }
+        return reservations;
+    }
+}
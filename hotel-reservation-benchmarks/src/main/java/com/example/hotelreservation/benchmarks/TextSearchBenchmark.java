@@ -0,0 +1,102 @@
+package com.example.hotelreservation.benchmarks;
+
+import com.example.hotelreservation.model.Hotel;
+import com.example.hotelreservation.modelDto.FeedbackComment;
+import com.example.hotelreservation.modelDto.HotelTextMatch;
+import com.example.hotelreservation.modelDto.SimpleHotelDto;
+import com.example.hotelreservation.repository.FeedbackRepository;
+import com.example.hotelreservation.repository.HotelRepository;
+import com.example.hotelreservation.service.HotelTextIndex;
+import com.example.hotelreservation.service.HotelVersionService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks keyword search and autocompletion of {@link HotelTextIndex} over synthetic catalogues
+ * with five reviews per hotel.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class TextSearchBenchmark {
+
+    // Review vocabulary; words early in the list are used far more often, as in real text
+    private static final String[] WORDS = {
+            "the", "room", "was", "and", "very", "clean", "staff", "friendly", "breakfast", "good",
+            "location", "great", "quiet", "view", "pool", "parking", "noisy", "small", "spacious", "helpful",
+            "central", "comfortable", "bed", "shower", "wifi", "restaurant", "terrace", "spa", "garden", "airport"
+    };
+
+    @Param({"10000", "100000"})
+    public int hotels;
+
+    private HotelTextIndex hotelTextIndex;
+
+    @Setup
+    public void setUp() {
+        List<Hotel> catalogue = SyntheticData.hotels(hotels, 42);
+        List<FeedbackComment> comments = comments(catalogue, new Random(42));
+
+        HotelRepository hotelRepository = InMemoryRepositories.of(HotelRepository.class)
+                .answer("findAll", args -> catalogue)
+                .build();
+        FeedbackRepository feedbackRepository = InMemoryRepositories.of(FeedbackRepository.class)
+                .answer("findComments", args -> comments)
+                .build();
+
+        hotelTextIndex = new HotelTextIndex(hotelRepository, feedbackRepository,
+                new HotelVersionService(hotelRepository, Duration.ofSeconds(1), 100));
+        // Build the index outside of the measurement
+        hotelTextIndex.build();
+    }
+
+    @Benchmark
+    public List<HotelTextMatch> searchRareTerms() {
+        return hotelTextIndex.search("airport garden", 20);
+    }
+
+    @Benchmark
+    public List<HotelTextMatch> searchCommonTerms() {
+        return hotelTextIndex.search("clean room", 20);
+    }
+
+    @Benchmark
+    public List<SimpleHotelDto> autocomplete() {
+        return hotelTextIndex.autocomplete("hotel 12", 10);
+    }
+
+    private static List<FeedbackComment> comments(List<Hotel> catalogue, Random random) {
+        List<FeedbackComment> comments = new ArrayList<>();
+        for (Hotel hotel : catalogue) {
+            for (int i = 0; i < 5; i++) {
+                StringBuilder comment = new StringBuilder();
+                for (int word = 0; word < 15; word++) {
+                    // Squaring skews the choice towards the first words
+                    double skewed = random.nextDouble() * random.nextDouble();
+                    comment.append(WORDS[(int) (skewed * WORDS.length)]).append(' ');
+                }
+                String text = comment.toString();
+                comments.add(new FeedbackComment() {
+                    @Override
+                    public Long getHotelId() {
+                        return hotel.getId();
+                    }
+
+                    @Override
+                    public String getComment() {
+                        return text;
+                    }
+                });
+            }
+        }
+        return comments;
+    }
+}
@@ -0,0 +1,364 @@
+package com.example.hotelreservation.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The virtual users of a load test and the requests they send.
+ *
+ * Every virtual user is registered and logged in before the run. During the run the workload keeps
+ * track of the reservations its users made, so that change, cancel and check-out requests refer to
+ * reservations that exist. A user keeps at most one reservation per hotel, as the change endpoint
+ * identifies the reservation by user and hotel. An operation that needs a reservation the user does
+ * not have is sent as a booking instead.
+ */
+final class BookingWorkload {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final String PASSWORD = "load-test";
+    private static final double[] SEARCH_RADII_KM = {1, 5, 10, 50};
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<VirtualUser> users = new ArrayList<>();
+    private final List<HotelInfo> hotels = new ArrayList<>();
+
+    /**
+     * Constructor for BookingWorkload.
+     *
+     * @param client the HTTP client used for the requests.
+     * @param baseUrl the base URL of the instance under test, e.g. http://localhost:8080.
+     */
+    BookingWorkload(HttpClient client, String baseUrl) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+    }
+
+    /**
+     * Registers and logs in the virtual users and loads the hotel catalogue.
+     *
+     * @param userCount the number of virtual users.
+     * @throws IllegalStateException if registration, login or loading the catalogue fails.
+     */
+    void setUp(int userCount) {
+        // Unique names, so the same target can be used for several runs
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+
+        List<CompletableFuture<VirtualUser>> logins = new ArrayList<>();
+        for (int i = 0; i < userCount; i++) {
+            String username = "load-" + runId + "-" + i;
+            Map<String, Object> user = Map.of("username", username, "password", PASSWORD, "roles", List.of("USER"));
+            logins.add(sendAsync(post("/auth/register", user, null))
+                    .thenCompose(registered -> {
+                        expectOk(registered, "register " + username);
+                        return sendAsync(post("/auth/login", Map.of("username", username, "password", PASSWORD), null));
+                    })
+                    .thenApply(loggedIn -> {
+                        expectOk(loggedIn, "log in " + username);
+                        JsonNode body = readTree(loggedIn.body());
+                        return new VirtualUser(username, body.get("userId").asLong(), body.get("jwt").asText());
+                    }));
+        }
+        for (CompletableFuture<VirtualUser> login : logins) {
+            users.add(login.join());
+        }
+
+        HttpResponse<String> catalogue = sendAsync(get("/hotels", users.get(0).token)).join();
+        expectOk(catalogue, "load the hotel catalogue");
+        for (JsonNode hotel : readTree(catalogue.body())) {
+            List<Long> roomIds = new ArrayList<>();
+            hotel.path("rooms").forEach(room -> roomIds.add(room.get("id").asLong()));
+            hotels.add(new HotelInfo(hotel.get("id").asLong(), hotel.get("latitude").asDouble(),
+                    hotel.get("longitude").asDouble(), roomIds));
+        }
+        if (hotels.stream().allMatch(hotel -> hotel.roomIds.isEmpty())) {
+            throw new IllegalStateException("The instance under test has no hotels with rooms");
+        }
+    }
+
+    /**
+     * Gets the number of hotels in the catalogue.
+     *
+     * @return the number of hotels.
+     */
+    int getHotelCount() {
+        return hotels.size();
+    }
+
+    /**
+     * Builds the next request of an operation for a random virtual user.
+     *
+     * Only called from the generator thread; the returned request's completion may run on any thread.
+     *
+     * @param operation the operation picked from the mix.
+     * @param random the source of randomness of the generator.
+     * @return the prepared request, possibly for another operation if the user cannot perform this one.
+     */
+    PreparedRequest prepare(Operation operation, Random random) {
+        VirtualUser user = users.get(random.nextInt(users.size()));
+        switch (operation) {
+            case LOGIN:
+                return login(user);
+            case SEARCH:
+                return search(random);
+            case DETAILS:
+                return details(user, random);
+            case BOOK:
+                return book(user, random);
+            default:
+                // Change, cancel and check-out work on one of the user's reservations
+                TrackedReservation reservation = user.claimReservation(random);
+                if (reservation == null) {
+                    return book(user, random);
+                }
+                if (operation == Operation.CHANGE) {
+                    return change(user, reservation, random);
+                }
+                return operation == Operation.CANCEL ? cancel(user, reservation) : checkOut(user, reservation);
+        }
+    }
+
+    private PreparedRequest login(VirtualUser user) {
+        HttpRequest request = post("/auth/login", Map.of("username", user.username, "password", PASSWORD), null);
+        return new PreparedRequest(Operation.LOGIN, request, (status, body) -> {
+            if (status == 200) {
+                user.token = readTree(body).get("jwt").asText();
+            }
+        });
+    }
+
+    private PreparedRequest search(Random random) {
+        // Search around a known hotel, as visitors mostly look near the places hotels are in
+        HotelInfo hotel = hotels.get(random.nextInt(hotels.size()));
+        double latitude = hotel.latitude + (random.nextDouble() - 0.5) * 0.1;
+        double longitude = hotel.longitude + (random.nextDouble() - 0.5) * 0.1;
+        double radius = SEARCH_RADII_KM[random.nextInt(SEARCH_RADII_KM.length)];
+
+        HttpRequest request = get("/hotels/withinRadius?userLat=" + latitude + "&userLon=" + longitude + "&radius=" + radius, null);
+        return new PreparedRequest(Operation.SEARCH, request, (status, body) -> { });
+    }
+
+    private PreparedRequest details(VirtualUser user, Random random) {
+        HotelInfo hotel = hotels.get(random.nextInt(hotels.size()));
+        LocalDate start = LocalDate.now().plusDays(random.nextInt(90));
+        LocalDate end = start.plusDays(1 + random.nextInt(4));
+
+        HttpRequest request = get("/hotels/" + hotel.id + "/details?userId=" + user.userId
+                + "&startDate=" + start + "&endDate=" + end, user.token);
+        return new PreparedRequest(Operation.DETAILS, request, (status, body) -> { });
+    }
+
+    private PreparedRequest book(VirtualUser user, Random random) {
+        // Book in a hotel where the user has no reservation yet
+        List<HotelInfo> candidates = new ArrayList<>();
+        for (HotelInfo hotel : hotels) {
+            if (!hotel.roomIds.isEmpty() && !user.reservations.containsKey(hotel.id)) {
+                candidates.add(hotel);
+            }
+        }
+        if (candidates.isEmpty()) {
+            // The user already stays everywhere: free up a hotel, or just browse if nothing can be canceled
+            TrackedReservation reservation = user.claimReservation(random);
+            return reservation != null ? cancel(user, reservation) : details(user, random);
+        }
+
+        HotelInfo hotel = candidates.get(random.nextInt(candidates.size()));
+        long roomId = hotel.roomIds.get(random.nextInt(hotel.roomIds.size()));
+        LocalDate checkIn = LocalDate.now().plusDays(1 + random.nextInt(90));
+        LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(4));
+
+        // Reserve the slot now, so no other request books the same hotel for this user meanwhile
+        TrackedReservation reservation = new TrackedReservation(hotel.id, roomId);
+        user.reservations.put(hotel.id, reservation);
+
+        Map<String, Object> booking = new LinkedHashMap<>();
+        booking.put("userId", user.userId);
+        booking.put("roomId", roomId);
+        booking.put("checkIn", checkIn.atTime(14, 0).toString());
+        booking.put("checkOut", checkOut.atTime(11, 0).toString());
+
+        return new PreparedRequest(Operation.BOOK, post("/hotels/book", booking, user.token), (status, body) -> {
+            if (status == 200) {
+                reservation.id = readTree(body).get("id").asLong();
+                reservation.busy.set(false);
+            } else {
+                user.reservations.remove(hotel.id, reservation);
+            }
+        });
+    }
+
+    private PreparedRequest change(VirtualUser user, TrackedReservation reservation, Random random) {
+        List<Long> roomIds = hotelById(reservation.hotelId).roomIds;
+        long newRoomId = roomIds.get(random.nextInt(roomIds.size()));
+
+        Map<String, Object> change = Map.of("userId", user.userId, "hotelId", reservation.hotelId,
+                "reservationId", reservation.id, "newRoomId", newRoomId);
+        return new PreparedRequest(Operation.CHANGE, post("/hotels/change", change, user.token), (status, body) -> {
+            if (status == 200) {
+                reservation.roomId = newRoomId;
+            }
+            reservation.busy.set(false);
+        });
+    }
+
+    private PreparedRequest cancel(VirtualUser user, TrackedReservation reservation) {
+        HttpRequest request = authorized("/user/reservations/" + reservation.id, user.token).DELETE().build();
+        return new PreparedRequest(Operation.CANCEL, request, (status, body) -> {
+            if (status == 200 || status == 404) {
+                user.reservations.remove(reservation.hotelId, reservation);
+            } else {
+                reservation.busy.set(false);
+            }
+        });
+    }
+
+    private PreparedRequest checkOut(VirtualUser user, TrackedReservation reservation) {
+        long roomId = reservation.roomId;
+        HttpRequest request = authorized("/hotels/" + reservation.hotelId + "/rooms/" + roomId + "/check-out", user.token)
+                .PUT(HttpRequest.BodyPublishers.noBody())
+                .build();
+        return new PreparedRequest(Operation.CHECK_OUT, request, (status, body) -> {
+            if (status == 200) {
+                // Checking out a room deletes every reservation of that room, whoever made it
+                for (VirtualUser other : users) {
+                    other.reservations.values().removeIf(tracked -> tracked.id != null && tracked.roomId == roomId);
+                }
+            } else {
+                reservation.busy.set(false);
+            }
+        });
+    }
+
+    private HotelInfo hotelById(long hotelId) {
+        for (HotelInfo hotel : hotels) {
+            if (hotel.id == hotelId) {
+                return hotel;
+            }
+        }
+        throw new IllegalArgumentException("Unknown hotel " + hotelId);
+    }
+
+    private HttpRequest get(String path, String token) {
+        return authorized(path, token).GET().build();
+    }
+
+    private HttpRequest post(String path, Object body, String token) {
+        try {
+            return authorized(path, token)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode request body", e);
+        }
+    }
+
+    private HttpRequest.Builder authorized(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT);
+        return token != null ? builder.header("Authorization", "Bearer " + token) : builder;
+    }
+
+    private CompletableFuture<HttpResponse<String>> sendAsync(HttpRequest request) {
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private JsonNode readTree(String body) {
+        try {
+            return objectMapper.readTree(body);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unexpected response body: " + body, e);
+        }
+    }
+
+    private static void expectOk(HttpResponse<String> response, String action) {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Could not " + action + ": HTTP " + response.statusCode() + " " + response.body());
+        }
+    }
+
+    /**
+     * A registered user with its current token and reservations, keyed by hotel ID.
+     */
+    private static final class VirtualUser {
+
+        private final String username;
+        private final long userId;
+        private final Map<Long, TrackedReservation> reservations = new ConcurrentHashMap<>();
+        private volatile String token;
+
+        private VirtualUser(String username, long userId, String token) {
+            this.username = username;
+            this.userId = userId;
+            this.token = token;
+        }
+
+        /**
+         * Picks one of the user's booked reservations that no other request is working on, and marks it as busy.
+         *
+         * @param random the source of randomness of the generator.
+         * @return the claimed reservation, or {@code null} if the user has none available.
+         */
+        private TrackedReservation claimReservation(Random random) {
+            List<TrackedReservation> candidates = new ArrayList<>(reservations.values());
+            while (!candidates.isEmpty()) {
+                TrackedReservation candidate = candidates.remove(random.nextInt(candidates.size()));
+                if (candidate.busy.compareAndSet(false, true)) {
+                    return candidate;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * A reservation made by a virtual user. It is busy while a request for it is in flight,
+     * including the booking that creates it.
+     */
+    private static final class TrackedReservation {
+
+        private final long hotelId;
+        private final AtomicBoolean busy = new AtomicBoolean(true);
+        private volatile long roomId;
+        private volatile Long id;
+
+        private TrackedReservation(long hotelId, long roomId) {
+            this.hotelId = hotelId;
+            this.roomId = roomId;
+        }
+    }
+
+    /**
+     * The parts of a catalogue hotel the workload needs.
+     */
+    private static final class HotelInfo {
+
+        private final long id;
+        private final double latitude;
+        private final double longitude;
+        private final List<Long> roomIds;
+
+        private HotelInfo(long id, double latitude, double longitude, List<Long> roomIds) {
+            this.id = id;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.roomIds = roomIds;
+        }
+    }
+}
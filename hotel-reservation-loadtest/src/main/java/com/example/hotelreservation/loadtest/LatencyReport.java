@@ -0,0 +1,145 @@
+package com.example.hotelreservation.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and outcome counters of each endpoint.
+ *
+ * Latencies are recorded in microseconds, from the time a request was scheduled to be sent until its
+ * response arrived. When the generator or the client falls behind, the time a request waited to be
+ * sent is therefore part of its latency, as it would be for a real user (no coordinated omission).
+ */
+final class LatencyReport {
+
+    // Slowest latency that can be recorded: one hour
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
+
+    private final Map<Operation, EndpointStats> endpoints = new EnumMap<>(Operation.class);
+    private final LongAdder dropped = new LongAdder();
+
+    LatencyReport() {
+        for (Operation operation : Operation.values()) {
+            endpoints.put(operation, new EndpointStats());
+        }
+    }
+
+    /**
+     * Records a completed request.
+     *
+     * @param operation the operation that was sent.
+     * @param latencyNanos the time from the scheduled send time until the response arrived.
+     * @param outcome the classification of the response.
+     */
+    void record(Operation operation, long latencyNanos, Outcome outcome) {
+        EndpointStats stats = endpoints.get(operation);
+        stats.histogram.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_TRACKABLE_MICROS));
+        stats.outcomes[outcome.ordinal()].increment();
+    }
+
+    /**
+     * Records a request that was not sent because too many requests were already outstanding.
+     */
+    void recordDropped() {
+        dropped.increment();
+    }
+
+    /**
+     * Prints the summary table: throughput, latency percentiles, conflict and error rates per endpoint.
+     *
+     * @param out the stream to print to.
+     * @param targetRate the target arrival rate, in requests per second.
+     * @param measuredSeconds the length of the measured interval.
+     */
+    void print(PrintStream out, double targetRate, double measuredSeconds) {
+        String header = String.format("%-38s %8s %8s %8s %8s %8s %8s %9s %8s %9s %7s",
+                "endpoint", "count", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "mean ms", "conflict", "error");
+        out.println(header);
+        out.println("-".repeat(header.length()));
+
+        Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        long totalConflicts = 0;
+        long totalErrors = 0;
+        for (Map.Entry<Operation, EndpointStats> entry : endpoints.entrySet()) {
+            EndpointStats stats = entry.getValue();
+            Histogram histogram = stats.histogram.copy();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            long conflicts = stats.count(Outcome.CONFLICT);
+            long errors = stats.count(Outcome.ERROR);
+            printRow(out, entry.getKey().getEndpoint(), histogram, conflicts, errors, measuredSeconds);
+
+            total.add(histogram);
+            totalConflicts += conflicts;
+            totalErrors += errors;
+        }
+
+        out.println("-".repeat(header.length()));
+        printRow(out, "all", total, totalConflicts, totalErrors, measuredSeconds);
+        out.println();
+        out.printf("target rate %.1f req/s, achieved %.1f req/s over %.0f s, %d requests dropped (too many in flight)%n",
+                targetRate, total.getTotalCount() / measuredSeconds, measuredSeconds, dropped.sum());
+    }
+
+    /**
+     * Prints the full percentile distribution of every endpoint, in the format understood by
+     * the HdrHistogram plotter (https://hdrhistogram.github.io/HdrHistogram/plotFiles.html).
+     *
+     * @param out the stream to print to.
+     */
+    void printDistributions(PrintStream out) {
+        endpoints.forEach((operation, stats) -> {
+            Histogram histogram = stats.histogram.copy();
+            if (histogram.getTotalCount() > 0) {
+                out.println();
+                out.println("# " + operation.getEndpoint() + " (values in ms)");
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        });
+    }
+
+    private static void printRow(PrintStream out, String name, Histogram histogram,
+                                 long conflicts, long errors, double measuredSeconds) {
+        long count = histogram.getTotalCount();
+        out.printf("%-38s %8d %8.1f %8.2f %8.2f %8.2f %8.2f %9.2f %8.2f %8.2f%% %6.2f%%%n",
+                name, count, count / measuredSeconds,
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()),
+                histogram.getMean() / 1000.0,
+                conflicts * 100.0 / count,
+                errors * 100.0 / count);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    /**
+     * Statistics of a single endpoint, safe to update from the HTTP client's threads.
+     */
+    private static final class EndpointStats {
+
+        private final Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        private final LongAdder[] outcomes = new LongAdder[Outcome.values().length];
+
+        private EndpointStats() {
+            for (int i = 0; i < outcomes.length; i++) {
+                outcomes[i] = new LongAdder();
+            }
+        }
+
+        private long count(Outcome outcome) {
+            return outcomes[outcome.ordinal()].sum();
+        }
+    }
+}
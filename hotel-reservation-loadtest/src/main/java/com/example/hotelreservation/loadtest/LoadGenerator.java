@@ -0,0 +1,100 @@
+package com.example.hotelreservation.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator: requests are sent at the target arrival rate whether or not earlier
+ * requests have completed, the way independent visitors arrive at a real site.
+ *
+ * Each request has a scheduled send time and its latency is measured from that time. A slow server
+ * therefore shows up as growing latency instead of silently lowering the request rate.
+ */
+final class LoadGenerator {
+
+    private final HttpClient client;
+    private final BookingWorkload workload;
+    private final LoadTestConfig config;
+
+    /**
+     * Constructor for LoadGenerator.
+     *
+     * @param client the HTTP client used to send the requests.
+     * @param workload the set up workload that builds the requests.
+     * @param config the options of the run.
+     */
+    LoadGenerator(HttpClient client, BookingWorkload workload, LoadTestConfig config) {
+        this.client = client;
+        this.workload = workload;
+        this.config = config;
+    }
+
+    /**
+     * Sends the warm-up traffic followed by the measured traffic, and waits for outstanding requests.
+     *
+     * @return the report of the measured interval.
+     * @throws InterruptedException if the generator is interrupted.
+     */
+    LatencyReport run() throws InterruptedException {
+        LatencyReport report = new LatencyReport();
+        Random random = new Random(config.getSeed());
+        Semaphore inFlight = new Semaphore(config.getMaxInFlight());
+
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / config.getRate();
+        long start = System.nanoTime();
+        long measureFrom = start + config.getWarmup().toNanos();
+        long end = measureFrom + config.getDuration().toNanos();
+
+        long scheduled = start;
+        while (scheduled < end) {
+            parkUntil(scheduled);
+
+            PreparedRequest request = workload.prepare(config.getMix().next(random), random);
+            boolean measured = scheduled >= measureFrom;
+            long sendTime = scheduled;
+
+            if (!inFlight.tryAcquire()) {
+                // Never block the schedule: a request that cannot be sent is dropped and counted
+                request.complete(-1, null);
+                if (measured) {
+                    report.recordDropped();
+                }
+            } else {
+                client.sendAsync(request.getRequest(), HttpResponse.BodyHandlers.ofString())
+                        .whenComplete((response, failure) -> {
+                            long latency = System.nanoTime() - sendTime;
+                            int status = failure == null ? response.statusCode() : -1;
+                            try {
+                                request.complete(status, failure == null ? response.body() : null);
+                            } finally {
+                                inFlight.release();
+                            }
+                            if (measured) {
+                                report.record(request.getOperation(), latency, failure == null ? Outcome.of(status) : Outcome.ERROR);
+                            }
+                        });
+            }
+
+            scheduled += config.isPoissonArrivals()
+                    ? (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos)
+                    : (long) meanGapNanos;
+        }
+
+        // Let the outstanding requests finish, they belong to the measured interval
+        if (!inFlight.tryAcquire(config.getMaxInFlight(), 1, TimeUnit.MINUTES)) {
+            System.err.println("Some requests were still outstanding one minute after the run ended");
+        }
+        return report;
+    }
+
+    private static void parkUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
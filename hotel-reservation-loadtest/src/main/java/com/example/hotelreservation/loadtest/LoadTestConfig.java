@@ -0,0 +1,126 @@
+package com.example.hotelreservation.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Options of a load test run, given on the command line as {@code key=value} pairs.
+ *
+ * <pre>
+ * rate=100            target arrival rate in requests per second
+ * duration=60         measured duration in seconds
+ * warmup=15           seconds of traffic sent before measuring starts
+ * users=50            number of virtual users registered before the run
+ * mix=...             operation weights, see {@link WorkloadMix#DEFAULT}
+ * arrivals=poisson    poisson (exponential gaps) or uniform (fixed gaps)
+ * max-in-flight=5000  requests allowed to be outstanding before new ones are dropped
+ * seed=42             random seed of the workload
+ * target=http://...   run against an already running instance instead of an embedded one on H2
+ * report=file.txt     also write the report and full percentile distributions to a file
+ * </pre>
+ */
+final class LoadTestConfig {
+
+    private static final Set<String> KEYS = Set.of(
+            "rate", "duration", "warmup", "users", "mix", "arrivals", "max-in-flight", "seed", "target", "report");
+
+    private final double rate;
+    private final Duration duration;
+    private final Duration warmup;
+    private final int users;
+    private final WorkloadMix mix;
+    private final boolean poissonArrivals;
+    private final int maxInFlight;
+    private final long seed;
+    private final String target;
+    private final String report;
+
+    private LoadTestConfig(Map<String, String> options) {
+        this.rate = Double.parseDouble(options.getOrDefault("rate", "100"));
+        this.duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60")));
+        this.warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "15")));
+        this.users = Integer.parseInt(options.getOrDefault("users", "50"));
+        this.mix = WorkloadMix.parse(options.getOrDefault("mix", WorkloadMix.DEFAULT));
+        this.poissonArrivals = !"uniform".equalsIgnoreCase(options.getOrDefault("arrivals", "poisson"));
+        this.maxInFlight = Integer.parseInt(options.getOrDefault("max-in-flight", "5000"));
+        this.seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        this.target = options.get("target");
+        this.report = options.get("report");
+
+        if (rate <= 0 || users <= 0 || maxInFlight <= 0) {
+            throw new IllegalArgumentException("rate, users and max-in-flight must be positive");
+        }
+    }
+
+    /**
+     * Parses the command line.
+     *
+     * @param args the {@code key=value} arguments.
+     * @return the parsed options, with defaults for everything not given.
+     * @throws IllegalArgumentException if an argument is unknown or malformed.
+     */
+    static LoadTestConfig parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            String key = separator > 0 ? arg.substring(0, separator) : arg;
+            if (separator <= 0 || !KEYS.contains(key)) {
+                throw new IllegalArgumentException("Unknown argument: " + arg + " (expected one of " + KEYS + " as key=value)");
+            }
+            options.put(key, arg.substring(separator + 1));
+        }
+        return new LoadTestConfig(options);
+    }
+
+    double getRate() {
+        return rate;
+    }
+
+    Duration getDuration() {
+        return duration;
+    }
+
+    Duration getWarmup() {
+        return warmup;
+    }
+
+    int getUsers() {
+        return users;
+    }
+
+    WorkloadMix getMix() {
+        return mix;
+    }
+
+    boolean isPoissonArrivals() {
+        return poissonArrivals;
+    }
+
+    int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the base URL of the instance under test.
+     *
+     * @return the base URL, or {@code null} if an embedded instance should be started.
+     */
+    String getTarget() {
+        return target;
+    }
+
+    /**
+     * Gets the file the report is written to.
+     *
+     * @return the file name, or {@code null} if the report is only printed.
+     */
+    String getReport() {
+        return report;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.hotelreservation.loadtest;
+
+import com.example.hotelreservation.HotelReservationApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * Entry point of the load test.
+ *
+ * Unless a {@code target} is given, the application is started in this JVM on an in-memory H2
+ * database (the {@code h2} profile) and a random port. The load generator then shares the machine
+ * with the server, so absolute numbers are best compared between runs on the same machine.
+ * See {@link LoadTestConfig} for the options.
+ */
+public class LoadTestRunner {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+
+        ConfigurableApplicationContext application = null;
+        String baseUrl = config.getTarget();
+        if (baseUrl == null) {
+            application = startEmbeddedApplication();
+            baseUrl = "http://localhost:" + ((WebServerApplicationContext) application).getWebServer().getPort();
+        }
+
+        try {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+
+            BookingWorkload workload = new BookingWorkload(client, baseUrl);
+            workload.setUp(config.getUsers());
+
+            System.out.printf("Target %s: %d hotels, %d virtual users%n", baseUrl, workload.getHotelCount(), config.getUsers());
+            System.out.printf("Sending %.1f req/s (%s arrivals) for %d s after %d s of warm-up%n",
+                    config.getRate(), config.isPoissonArrivals() ? "poisson" : "uniform",
+                    config.getDuration().toSeconds(), config.getWarmup().toSeconds());
+            System.out.println("Mix: " + config.getMix());
+            System.out.println();
+
+            LatencyReport report = new LoadGenerator(client, workload, config).run();
+
+            double measuredSeconds = config.getDuration().toMillis() / 1000.0;
+            report.print(System.out, config.getRate(), measuredSeconds);
+            if (config.getReport() != null) {
+                writeReport(report, config, measuredSeconds);
+            }
+        } finally {
+            if (application != null) {
+                application.close();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startEmbeddedApplication() {
+        return new SpringApplicationBuilder(HotelReservationApplication.class)
+                .profiles("h2")
+                .properties(
+                        "server.port=0",
+                        // All simulated users send from one address
+                        "rate-limit.enabled=false",
+                        // Keep the console for the report
+                        "logging.level.root=WARN")
+                .run();
+    }
+
+    private static void writeReport(LatencyReport report, LoadTestConfig config, double measuredSeconds)
+            throws FileNotFoundException {
+        try (PrintStream out = new PrintStream(config.getReport())) {
+            report.print(out, config.getRate(), measuredSeconds);
+            report.printDistributions(out);
+        }
+        System.out.println("Report written to " + config.getReport());
+    }
+}
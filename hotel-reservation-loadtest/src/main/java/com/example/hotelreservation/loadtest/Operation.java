@@ -0,0 +1,57 @@
+package com.example.hotelreservation.loadtest;
+
+/**
+ * The kinds of requests a virtual user sends, with the endpoint each one is reported under.
+ */
+enum Operation {
+
+    LOGIN("login", "POST /auth/login"),
+    SEARCH("search", "GET /hotels/withinRadius"),
+    DETAILS("details", "GET /hotels/{id}/details"),
+    BOOK("book", "POST /hotels/book"),
+    CHANGE("change", "POST /hotels/change"),
+    CANCEL("cancel", "DELETE /user/reservations/{id}"),
+    CHECK_OUT("check-out", "PUT /hotels/{id}/rooms/{id}/check-out");
+
+    private final String key;
+    private final String endpoint;
+
+    Operation(String key, String endpoint) {
+        this.key = key;
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * Gets the name of the operation used in the {@code mix} option.
+     *
+     * @return the key, e.g. "check-out".
+     */
+    String getKey() {
+        return key;
+    }
+
+    /**
+     * Gets the endpoint the operation is reported under.
+     *
+     * @return the HTTP method and path template.
+     */
+    String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * Looks up an operation by its key.
+     *
+     * @param key the key used in the {@code mix} option.
+     * @return the matching operation.
+     * @throws IllegalArgumentException if no operation has this key.
+     */
+    static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equalsIgnoreCase(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation in mix: " + key);
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.hotelreservation.loadtest;
+
+/**
+ * Classification of a completed request.
+ */
+enum Outcome {
+
+    /** The request succeeded (2xx). */
+    SUCCESS,
+
+    /**
+     * The request lost a race against another virtual user: the room was already booked or the room
+     * type sold out (409), or the reservation was checked out in the meantime (404).
+     */
+    CONFLICT,
+
+    /** Any other status, a transport failure, or a request that could not be sent at all. */
+    ERROR;
+
+    /**
+     * Classifies an HTTP status code.
+     *
+     * @param status the status code of the response.
+     * @return the outcome of the request.
+     */
+    static Outcome of(int status) {
+        if (status >= 200 && status < 300) {
+            return SUCCESS;
+        }
+        if (status == 409 || status == 404) {
+            return CONFLICT;
+        }
+        return ERROR;
+    }
+}
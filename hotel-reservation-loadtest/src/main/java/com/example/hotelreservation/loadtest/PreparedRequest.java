@@ -0,0 +1,46 @@
+package com.example.hotelreservation.loadtest;
+
+import java.net.http.HttpRequest;
+import java.util.function.BiConsumer;
+
+/**
+ * A request built by {@link BookingWorkload}, together with the bookkeeping to run once its response arrives.
+ */
+final class PreparedRequest {
+
+    private final Operation operation;
+    private final HttpRequest request;
+    private final BiConsumer<Integer, String> onResponse;
+
+    /**
+     * Constructor for PreparedRequest.
+     *
+     * @param operation the operation the request is reported under.
+     * @param request the HTTP request to send.
+     * @param onResponse updates the workload state with the status and body of the response;
+     *                   the status is -1 if the request failed or was never sent.
+     */
+    PreparedRequest(Operation operation, HttpRequest request, BiConsumer<Integer, String> onResponse) {
+        this.operation = operation;
+        this.request = request;
+        this.onResponse = onResponse;
+    }
+
+    Operation getOperation() {
+        return operation;
+    }
+
+    HttpRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * Updates the workload state with the response.
+     *
+     * @param status the status code, or -1 if the request failed or was never sent.
+     * @param body the response body, or {@code null}.
+     */
+    void complete(int status, String body) {
+        onResponse.accept(status, body);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.hotelreservation.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Weighted mix of operations, e.g. {@code login:5,search:35,details:30,book:15,change:5,cancel:5,check-out:5}.
+ */
+final class WorkloadMix {
+
+    // Read-heavy mix of a typical booking site: most visitors search and browse, few of them book
+    static final String DEFAULT = "login:5,search:35,details:30,book:15,change:5,cancel:5,check-out:5";
+
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final int totalWeight;
+    private final Map<Operation, Integer> weights;
+
+    private WorkloadMix(Map<Operation, Integer> weights) {
+        this.weights = weights;
+        this.operations = new Operation[weights.size()];
+        this.cumulativeWeights = new int[weights.size()];
+
+        int total = 0;
+        int i = 0;
+        for (Map.Entry<Operation, Integer> entry : weights.entrySet()) {
+            total += entry.getValue();
+            operations[i] = entry.getKey();
+            cumulativeWeights[i] = total;
+            i++;
+        }
+        this.totalWeight = total;
+    }
+
+    /**
+     * Parses a mix specification.
+     *
+     * @param spec comma separated {@code operation:weight} pairs; operations that are left out are not sent.
+     * @return the parsed mix.
+     * @throws IllegalArgumentException if the specification is malformed or all weights are zero.
+     */
+    static WorkloadMix parse(String spec) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : spec.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected operation:weight but got: " + part);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Weights must not be negative: " + part);
+            }
+            if (weight > 0) {
+                weights.put(Operation.fromKey(pair[0].trim()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The mix must contain at least one operation");
+        }
+        return new WorkloadMix(weights);
+    }
+
+    /**
+     * Picks the next operation according to the weights.
+     *
+     * @param random the source of randomness.
+     * @return the picked operation.
+     */
+    Operation next(Random random) {
+        int ticket = random.nextInt(totalWeight);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (ticket < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder description = new StringBuilder();
+        weights.forEach((operation, weight) -> description
+                .append(description.length() == 0 ? "" : ", ")
+                .append(operation.getKey()).append(' ')
+                .append(Math.round(weight * 100.0 / totalWeight)).append('%'));
+        return description.toString();
+    }
+}
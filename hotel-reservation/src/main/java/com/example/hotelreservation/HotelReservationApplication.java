@@ -1,9 +1,14 @@
 package com.example.hotelreservation;
 
+import com.example.hotelreservation.config.NativeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
+@ImportRuntimeHints(NativeHints.class)
 public class HotelReservationApplication {
 
 	public static void main(String[] args) {
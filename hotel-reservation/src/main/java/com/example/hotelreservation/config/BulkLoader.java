@@ -0,0 +1,255 @@
+package com.example.hotelreservation.config;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Writes large numbers of rows straight to the database, bypassing JPA.
+ *
+ * On PostgreSQL rows are streamed with {@code COPY ... FROM STDIN}; on other databases (H2) they are
+ * sent as JDBC batches. Either way rows are committed in chunks, so memory use stays flat no matter
+ * how many rows are written.
+ */
+class BulkLoader implements AutoCloseable {
+
+    // Tables filled by the generator, children first so they can be emptied in this order
+    private static final List<String> TABLES = List.of(
+            "idempotency_records", "feedback", "reservations_archive", "reservations", "room_type_inventory", "rooms", "user_roles", "users", "hotels");
+
+    // Rows sent per COPY call or JDBC batch
+    private static final int CHUNK_ROWS = 50_000;
+
+    private final Connection connection;
+    private final boolean postgres;
+
+    /**
+     * Constructor for BulkLoader. Opens a dedicated connection that is closed by {@link #close()}.
+     *
+     * @param dataSource the data source to write to.
+     * @throws SQLException if no connection can be opened.
+     */
+    BulkLoader(DataSource dataSource) throws SQLException {
+        this.connection = dataSource.getConnection();
+        this.connection.setAutoCommit(false);
+        this.postgres = connection.isWrapperFor(PGConnection.class);
+    }
+
+    /**
+     * Deletes all rows of the generated tables.
+     *
+     * @throws SQLException if a table cannot be emptied.
+     */
+    void clear() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            if (postgres) {
+                statement.execute("TRUNCATE TABLE " + String.join(", ", TABLES));
+            } else {
+                statement.execute("SET REFERENTIAL_INTEGRITY FALSE");
+                for (String table : TABLES) {
+                    statement.execute("TRUNCATE TABLE " + table);
+                }
+                statement.execute("SET REFERENTIAL_INTEGRITY TRUE");
+            }
+        }
+        connection.commit();
+    }
+
+    /**
+     * Opens a writer for the rows of a table.
+     *
+     * @param table the table name.
+     * @param columns the columns, in the order the values of each row are given.
+     * @return a {@link TableWriter} that must be closed to write the last chunk.
+     * @throws SQLException if the writer cannot be created.
+     */
+    TableWriter table(String table, String... columns) throws SQLException {
+        return postgres ? new CopyWriter(table, columns) : new BatchWriter(table, columns);
+    }
+
+    /**
+     * Makes the identity column of a table continue after the generated IDs.
+     *
+     * @param table the table name.
+     * @param lastId the highest ID written to the table.
+     * @throws SQLException if the identity cannot be changed.
+     */
+    void continueIdentityAfter(String table, long lastId) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            if (postgres) {
+                statement.execute("SELECT setval(pg_get_serial_sequence('" + table + "', 'id'), " + Math.max(lastId, 1) + ")");
+            } else {
+                statement.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (lastId + 1));
+            }
+        }
+        connection.commit();
+    }
+
+    /**
+     * Refreshes the planner statistics after the load (PostgreSQL only).
+     *
+     * @throws SQLException if the statistics cannot be refreshed.
+     */
+    void analyze() throws SQLException {
+        if (postgres) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE");
+            }
+            connection.commit();
+        }
+    }
+
+    /**
+     * Checks whether rows are loaded with COPY.
+     *
+     * @return {@code true} on PostgreSQL; {@code false} if JDBC batches are used.
+     */
+    boolean isPostgres() {
+        return postgres;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        connection.close();
+    }
+
+    /**
+     * Writer for the rows of one table.
+     */
+    interface TableWriter extends AutoCloseable {
+
+        /**
+         * Adds a row; it is written once the current chunk is full or the writer is closed.
+         *
+         * @param values the column values, in the order the columns were given.
+         * @throws SQLException if a chunk cannot be written.
+         */
+        void row(Object... values) throws SQLException;
+
+        /**
+         * Writes the last chunk.
+         *
+         * @throws SQLException if the chunk cannot be written.
+         */
+        @Override
+        void close() throws SQLException;
+    }
+
+    /**
+     * Streams rows as CSV through the PostgreSQL COPY protocol.
+     */
+    private class CopyWriter implements TableWriter {
+
+        private final String sql;
+        private final CopyManager copyManager;
+        private final StringBuilder chunk = new StringBuilder(1 << 20);
+        private int rows;
+
+        private CopyWriter(String table, String[] columns) throws SQLException {
+            this.sql = "COPY " + table + " (" + String.join(", ", columns) + ") FROM STDIN WITH (FORMAT csv)";
+            this.copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+        }
+
+        @Override
+        public void row(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    chunk.append(',');
+                }
+                appendCsv(values[i]);
+            }
+            chunk.append('\n');
+            if (++rows == CHUNK_ROWS) {
+                flush();
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            flush();
+        }
+
+        private void appendCsv(Object value) {
+            if (value == null) {
+                // An unquoted empty field is NULL in CSV format
+                return;
+            }
+            if (value instanceof String) {
+                chunk.append('"').append(((String) value).replace("\"", "\"\"")).append('"');
+            } else if (value instanceof LocalDateTime) {
+                chunk.append(Timestamp.valueOf((LocalDateTime) value));
+            } else {
+                chunk.append(value);
+            }
+        }
+
+        private void flush() throws SQLException {
+            if (rows == 0) {
+                return;
+            }
+            try {
+                copyManager.copyIn(sql, new StringReader(chunk.toString()));
+            } catch (IOException e) {
+                throw new SQLException("Could not stream rows with COPY", e);
+            }
+            connection.commit();
+            chunk.setLength(0);
+            rows = 0;
+        }
+    }
+
+    /**
+     * Sends rows as batched prepared INSERT statements.
+     */
+    private class BatchWriter implements TableWriter {
+
+        private final PreparedStatement statement;
+        private int rows;
+
+        private BatchWriter(String table, String[] columns) throws SQLException {
+            String placeholders = String.join(", ", Collections.nCopies(columns.length, "?"));
+            this.statement = connection.prepareStatement(
+                    "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES (" + placeholders + ")");
+        }
+
+        @Override
+        public void row(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                statement.setObject(i + 1, values[i]);
+            }
+            statement.addBatch();
+            if (++rows == CHUNK_ROWS) {
+                flush();
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                flush();
+            } finally {
+                statement.close();
+            }
+        }
+
+        private void flush() throws SQLException {
+            if (rows == 0) {
+                return;
+            }
+            statement.executeBatch();
+            connection.commit();
+            rows = 0;
+        }
+    }
+}
@@ -3,22 +3,31 @@ package com.example.hotelreservation.config;
 import com.example.hotelreservation.model.Hotel;
 import com.example.hotelreservation.model.Room;
 import com.example.hotelreservation.repository.HotelRepository;
+import com.example.hotelreservation.service.HotelVersionService;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
 
+/**
+ * Loads the sample hotels from hotels.json, unless a synthetic dataset is generated instead.
+ */
 @Configuration
+@Profile("!generate-data")
 public class DataLoader {
 
     @Autowired
     private HotelRepository hotelRepository;
 
+    @Autowired
+    private HotelVersionService hotelVersionService;
+
     /**
      * Bean that loads data from a JSON file when the application starts.
      * The data is mapped to Hotel objects and saved to the database.
@@ -45,6 +54,7 @@ public class DataLoader {
 
                 // Save all Hotel objects to the database
                 hotelRepository.saveAll(hotels);
+                hotelVersionService.touchAll();
             } catch (IOException e) {
                 e.printStackTrace();
             }
@@ -0,0 +1,79 @@
+package com.example.hotelreservation.config;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.TypeFilter;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Reflection and resource hints for the native image that Spring AOT processing cannot infer.
+ *
+ * Entities and DTOs are read and written by Jackson and Hibernate through reflection, jjwt creates
+ * its builder, parser and JSON (de)serializers by class name, and a few resources are only opened
+ * by name at runtime. The hints are collected at build time, so the packages are scanned then.
+ */
+public class NativeHints implements RuntimeHintsRegistrar {
+
+    private static final String[] DATA_PACKAGES = {
+            "com.example.hotelreservation.model",
+            "com.example.hotelreservation.modelDto"
+    };
+
+    // Loaded by jjwt with Class.forName or the ServiceLoader
+    private static final String[] JJWT_TYPES = {
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParser",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.DefaultClaims",
+            "io.jsonwebtoken.impl.DefaultJwsHeader",
+            "io.jsonwebtoken.impl.DefaultHeader",
+            "io.jsonwebtoken.impl.compression.DefaultCompressionCodecResolver",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer"
+    };
+
+    private static final MemberCategory[] ALL_MEMBERS = {
+            MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+            MemberCategory.INVOKE_DECLARED_METHODS,
+            MemberCategory.DECLARED_FIELDS
+    };
+
+    /**
+     * Registers the hints.
+     *
+     * @param hints the hints of the application.
+     * @param classLoader the class loader of the application.
+     */
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // Every class of the entity and DTO packages, including nested ones and projection interfaces
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            @Override
+            protected boolean isCandidateComponent(AnnotatedBeanDefinition definition) {
+                return true;
+            }
+        };
+        scanner.addIncludeFilter((TypeFilter) (reader, factory) -> true);
+        for (String dataPackage : DATA_PACKAGES) {
+            for (BeanDefinition candidate : scanner.findCandidateComponents(dataPackage)) {
+                hints.reflection().registerType(TypeReference.of(candidate.getBeanClassName()), ALL_MEMBERS);
+            }
+        }
+
+        for (String type : JJWT_TYPES) {
+            if (ClassUtils.isPresent(type, classLoader)) {
+                hints.reflection().registerType(TypeReference.of(type), ALL_MEMBERS);
+            }
+        }
+
+        hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+        hints.resources().registerPattern("hotels.json");
+        hints.resources().registerPattern("application.conf");
+        hints.resources().registerPattern("db/migration/*/*.sql");
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.hotelreservation.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.security.Principal;
+import java.time.Duration;
+
+/**
+ * Interceptor that keeps requests on the primary database where a read replica could serve stale data.
+ *
+ * Requests that change data (anything but GET and HEAD) always use the primary. A user who sent such a
+ * request, e.g. booked a room, keeps reading from the primary for a while afterwards, so their own
+ * reservation never seems to be missing because the replica has not caught up yet.
+ */
+public class ReadYourWritesInterceptor implements HandlerInterceptor {
+
+    private final Cache<String, Boolean> recentWriters;
+
+    /**
+     * Constructor for ReadYourWritesInterceptor.
+     *
+     * @param window how long a user keeps reading from the primary after their last write.
+     */
+    public ReadYourWritesInterceptor(Duration window) {
+        this.recentWriters = Caffeine.newBuilder().expireAfterWrite(window).build();
+    }
+
+    /**
+     * Pins the request to the primary if it writes, or if its user wrote recently.
+     *
+     * The user is remembered before the write runs, so a read sent right after the response arrives is
+     * already pinned.
+     *
+     * @param request the current request.
+     * @param response the current response.
+     * @param handler the handler of the request.
+     * @return always {@code true}; the request is never rejected.
+     */
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Principal user = request.getUserPrincipal();
+        boolean writes = !"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod());
+        if (writes) {
+            if (user != null) {
+                recentWriters.put(user.getName(), Boolean.TRUE);
+            }
+            ReplicaRoutingDataSource.pinToPrimary();
+        } else if (user != null && recentWriters.getIfPresent(user.getName()) != null) {
+            ReplicaRoutingDataSource.pinToPrimary();
+        }
+        return true;
+    }
+
+    /**
+     * Releases the pin, so the next request handled by this thread is routed on its own.
+     *
+     * @param request the current request.
+     * @param response the current response.
+     * @param handler the handler of the request.
+     * @param ex the exception thrown by the handler, if any.
+     */
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ReplicaRoutingDataSource.unpin();
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.hotelreservation.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Configuration class that splits database traffic between the primary and a read replica.
+ *
+ * Only active when {@code app.datasource.replica.url} is set; otherwise Spring Boot's single data
+ * source is used as before. Read-only transactions (see
+ * {@link com.example.hotelreservation.service.ReadOnlyTransactional}) go to the replica, everything
+ * else to the primary, which is configured with the usual {@code spring.datasource.*} properties.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.url")
+public class ReplicaDataSourceConfig implements WebMvcConfigurer {
+
+    private final Duration readYourWritesWindow;
+
+    /**
+     * Constructor for ReplicaDataSourceConfig.
+     *
+     * @param readYourWritesWindow how long a user reads from the primary after a write; defaults to the lag tolerance.
+     */
+    public ReplicaDataSourceConfig(
+            @Value("${app.datasource.replica.read-your-writes-window:${app.datasource.replica.max-lag:5s}}") Duration readYourWritesWindow) {
+        this.readYourWritesWindow = readYourWritesWindow;
+    }
+
+    /**
+     * Provides the connection pool of the primary database.
+     *
+     * @param properties the {@code spring.datasource.*} properties.
+     * @return the pool, also configured by the {@code spring.datasource.hikari.*} properties.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Provides the connection pool of the read replica.
+     *
+     * Credentials and driver default to those of the primary. Connections are read-only, so a write
+     * routed here by mistake fails instead of diverging from the primary.
+     *
+     * @return the pool, also configured by the {@code app.datasource.replica.hikari.*} properties.
+     */
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Value("${app.datasource.replica.url}") String url,
+                                              @Value("${app.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${app.datasource.replica.password:${spring.datasource.password:}}") String password,
+                                              @Value("${app.datasource.replica.driver-class-name:${spring.datasource.driver-class-name:}}") String driverClassName) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        if (!driverClassName.isEmpty()) {
+            dataSource.setDriverClassName(driverClassName);
+        }
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * Provides the monitor measuring how far the replica lags behind.
+     *
+     * @param replica the replica's connection pool.
+     * @param lagQuery the query returning the lag in seconds; blank if the replica is always current enough.
+     * @param maxLag the largest lag at which reads are still sent to the replica.
+     * @param meterRegistry the registry the measured lag is published to.
+     * @return the {@link ReplicaLagMonitor}.
+     */
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replica,
+                                               @Value("${app.datasource.replica.lag-query:}") String lagQuery,
+                                               @Value("${app.datasource.replica.max-lag:5s}") Duration maxLag,
+                                               MeterRegistry meterRegistry) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, lagQuery, maxLag);
+        monitor.check();
+        Gauge.builder("db.replica.lag", monitor, ReplicaLagMonitor::getLagSeconds)
+                .baseUnit("seconds")
+                .description("Replication lag of the read replica; infinite while it cannot be checked")
+                .register(meterRegistry);
+        return monitor;
+    }
+
+    /**
+     * Provides the data source used by JPA and JDBC, routing each transaction to the primary or the replica.
+     *
+     * The lazy proxy delays fetching a physical connection until the first statement, when the
+     * transaction's read-only flag is already known.
+     *
+     * @param primary the primary's connection pool.
+     * @param replica the replica's connection pool.
+     * @param lagMonitor tells whether the replica is current enough to read from.
+     * @return the routing data source.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaLagMonitor lagMonitor) {
+        return new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica, lagMonitor));
+    }
+
+    /**
+     * Makes Hibernate release its connection after every transaction.
+     *
+     * With the session kept open for the whole request, Hibernate would otherwise reuse the connection
+     * of the first transaction, so a write following a read-only query would land on the replica.
+     *
+     * @return the customizer setting the connection handling mode.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionsAfterTransaction() {
+        return properties -> properties.put("hibernate.connection.handling_mode",
+                "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+    }
+
+    /**
+     * Registers the interceptor keeping writes and the reads that follow them on the primary.
+     *
+     * @param registry the registry of MVC interceptors.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ReadYourWritesInterceptor(readYourWritesWindow));
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.hotelreservation.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Periodically measures how far the read replica lags behind the primary database.
+ *
+ * The lag is read with a configurable query that returns the lag in seconds, e.g. on a PostgreSQL
+ * streaming standby {@code SELECT COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)}.
+ * Without a query the replica is assumed to be current. While the lag exceeds the tolerance, or the
+ * replica cannot be reached, {@link ReplicaRoutingDataSource} sends reads to the primary.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final DataSource replica;
+    private final String lagQuery;
+    private final Duration maxLag;
+
+    // Seconds behind the primary at the last check; infinite if the replica could not be checked
+    private volatile double lagSeconds;
+
+    /**
+     * Constructor for ReplicaLagMonitor.
+     *
+     * @param replica the replica's connection pool.
+     * @param lagQuery the query returning the replica lag in seconds, or blank to skip measuring.
+     * @param maxLag the largest lag at which reads are still sent to the replica.
+     */
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, Duration maxLag) {
+        this.replica = replica;
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+    }
+
+    /**
+     * Measures the replica lag.
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval:1000}")
+    public void check() {
+        if (lagQuery == null || lagQuery.isBlank()) {
+            lagSeconds = 0;
+            return;
+        }
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(lagQuery)) {
+            lagSeconds = result.next() ? Math.max(result.getDouble(1), 0) : Double.POSITIVE_INFINITY;
+        } catch (SQLException e) {
+            if (lagSeconds != Double.POSITIVE_INFINITY) {
+                logger.warn("Could not measure replica lag, reading from the primary until it recovers", e);
+            }
+            lagSeconds = Double.POSITIVE_INFINITY;
+        }
+    }
+
+    /**
+     * Checks whether reads may be sent to the replica.
+     *
+     * @return {@code true} if the lag measured last is within the tolerance; {@code false} otherwise.
+     */
+    public boolean isWithinTolerance() {
+        return lagSeconds * 1000 <= maxLag.toMillis();
+    }
+
+    /**
+     * Gets the replica lag measured last.
+     *
+     * @return the lag in seconds, or infinity if the replica could not be checked.
+     */
+    public double getLagSeconds() {
+        return lagSeconds;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.hotelreservation.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Data source that sends read-only transactions to a read replica and everything else to the primary.
+ *
+ * Reads still go to the primary while the replica lags too far behind ({@link ReplicaLagMonitor}) or
+ * while the current thread is pinned to the primary, e.g. to let a user read their own writes. The
+ * decision is made when a connection is requested, so this data source is wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the connection is then
+ * only fetched once the transaction's read-only flag is known.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * The databases connections are routed to.
+     */
+    public enum Target {
+        PRIMARY,
+        REPLICA
+    }
+
+    private static final ThreadLocal<Boolean> pinnedToPrimary = new ThreadLocal<>();
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    /**
+     * Constructor for ReplicaRoutingDataSource.
+     *
+     * @param primary the primary's connection pool.
+     * @param replica the replica's connection pool.
+     * @param lagMonitor tells whether the replica is current enough to read from.
+     */
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Sends all connections of the current thread to the primary, until {@link #unpin()} is called.
+     */
+    public static void pinToPrimary() {
+        pinnedToPrimary.set(Boolean.TRUE);
+    }
+
+    /**
+     * Lets read-only transactions of the current thread use the replica again.
+     */
+    public static void unpin() {
+        pinnedToPrimary.remove();
+    }
+
+    /**
+     * Chooses the database for a new connection of the current thread.
+     *
+     * @return {@link Target#REPLICA} inside a read-only transaction of an unpinned thread while the
+     *         replica is current enough; {@link Target#PRIMARY} otherwise.
+     */
+    @Override
+    protected Target determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && pinnedToPrimary.get() == null
+                && lagMonitor.isWithinTolerance()) {
+            return Target.REPLICA;
+        }
+        return Target.PRIMARY;
+    }
+}
@@ -0,0 +1,260 @@
+package com.example.hotelreservation.config;
+
+import com.example.hotelreservation.model.Hotel;
+import com.example.hotelreservation.repository.HotelRepository;
+import com.example.hotelreservation.security.JwtUtil;
+import com.example.hotelreservation.service.CatalogueResponseCache;
+import com.example.hotelreservation.service.HotelFacetService;
+import com.example.hotelreservation.service.HotelSearchService;
+import com.example.hotelreservation.service.HotelService;
+import com.example.hotelreservation.service.HotelVersionService;
+import com.example.hotelreservation.service.ReservationService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Warms the application up after the data has been loaded, before it is reported ready for traffic.
+ *
+ * The connection pools are filled, the catalogue caches and in-memory indexes are built, and the
+ * main read paths (geo, text and filtered search, top-rated lists, room availability, reservation
+ * lookups, token signing and validation) are run with synthetic requests, so the JIT compiler, the Hibernate query
+ * plan cache and the Jackson serializers are hot when the first real request arrives. Until the
+ * warm-up is done, the readiness probe ({@code /readyz}) answers 503, so a load
+ * balancer keeps routing to the instances that are already warm.
+ *
+ * The synthetic requests only read: they run against a sample of the loaded hotels on behalf of a
+ * user that does not exist.
+ */
+@Component
+public class StartupWarmUp {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupWarmUp.class);
+
+    // No user has this ID, so reservation lookups run their queries without finding anything
+    private static final long SYNTHETIC_USER_ID = -1L;
+    private static final double RADIUS_KM = 10;
+    private static final int RESULTS = 10;
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final HotelRepository hotelRepository;
+    private final HotelService hotelService;
+    private final HotelSearchService hotelSearchService;
+    private final HotelFacetService hotelFacetService;
+    private final ReservationService reservationService;
+    private final HotelVersionService hotelVersionService;
+    private final CatalogueResponseCache catalogueResponseCache;
+    private final JwtUtil jwtUtil;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<HikariDataSource> pools;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int iterations;
+    private final int sampleHotels;
+    private final Duration maxDuration;
+
+    private volatile int completedRounds;
+
+    /**
+     * Constructor for StartupWarmUp.
+     *
+     * @param eventPublisher publishes the readiness state of the application.
+     * @param hotelRepository the repository the sample hotels are loaded from.
+     * @param hotelService the service whose searches are warmed up.
+     * @param hotelSearchService the service whose filtered search is warmed up.
+     * @param hotelFacetService the service whose room summaries are built.
+     * @param reservationService the service whose availability and reservation lookups are warmed up.
+     * @param hotelVersionService tells the versions the catalogue caches are built for.
+     * @param catalogueResponseCache the cache the catalogue and room listings are built in.
+     * @param jwtUtil the utility whose token signing and validation is warmed up.
+     * @param objectMapper the object mapper used by the MVC layer, so its serializers are warmed up.
+     * @param pools the connection pools to fill.
+     * @param transactionManager the transaction manager the synthetic requests run in.
+     * @param enabled whether to warm up at all; if not, the application is ready as soon as it has started.
+     * @param iterations the number of rounds of synthetic requests.
+     * @param sampleHotels the number of hotels the synthetic requests are spread over.
+     * @param maxDuration the time after which the warm-up stops, even if not all rounds have run.
+     */
+    public StartupWarmUp(ApplicationEventPublisher eventPublisher, HotelRepository hotelRepository,
+                         HotelService hotelService, HotelSearchService hotelSearchService,
+                         HotelFacetService hotelFacetService, ReservationService reservationService,
+                         HotelVersionService hotelVersionService, CatalogueResponseCache catalogueResponseCache,
+                         JwtUtil jwtUtil, ObjectMapper objectMapper, ObjectProvider<HikariDataSource> pools,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${warmup.enabled:true}") boolean enabled,
+                         @Value("${warmup.iterations:200}") int iterations,
+                         @Value("${warmup.hotels:20}") int sampleHotels,
+                         @Value("${warmup.max-duration:60s}") Duration maxDuration) {
+        if (iterations < 0 || sampleHotels < 1 || maxDuration.isNegative()) {
+            throw new IllegalArgumentException("Invalid warm-up settings");
+        }
+        this.eventPublisher = eventPublisher;
+        this.hotelRepository = hotelRepository;
+        this.hotelService = hotelService;
+        this.hotelSearchService = hotelSearchService;
+        this.hotelFacetService = hotelFacetService;
+        this.reservationService = reservationService;
+        this.hotelVersionService = hotelVersionService;
+        this.catalogueResponseCache = catalogueResponseCache;
+        this.jwtUtil = jwtUtil;
+        this.objectMapper = objectMapper;
+        this.pools = pools;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Requests keep their session open until the response is written, so results are serialized within it too
+        this.transactionTemplate.setReadOnly(true);
+        this.enabled = enabled;
+        this.iterations = iterations;
+        this.sampleHotels = sampleHotels;
+        this.maxDuration = maxDuration;
+    }
+
+    /**
+     * Warms the application up once it has started, i.e. after the data loaders have run, and then
+     * reports it ready for traffic.
+     *
+     * The warm-up is best effort: if it fails, the failure is logged and the application is reported
+     * ready anyway, so a broken warm-up never keeps an instance out of rotation.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        long start = System.nanoTime();
+        try {
+            fillConnectionPools();
+            completedRounds = runSyntheticRequests(start + maxDuration.toNanos());
+            logger.info("Warm-up finished after {} rounds in {} ms", completedRounds, Duration.ofNanos(System.nanoTime() - start).toMillis());
+        } catch (RuntimeException e) {
+            logger.warn("Warm-up failed, accepting traffic without it", e);
+        } finally {
+            AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.ACCEPTING_TRAFFIC);
+        }
+    }
+
+    /**
+     * Gets the number of rounds of synthetic requests the warm-up ran.
+     *
+     * @return the number of rounds, or 0 if the warm-up has not run or failed.
+     */
+    public int getCompletedRounds() {
+        return completedRounds;
+    }
+
+    /**
+     * Opens as many connections in each pool as it keeps idle, all at the same time, so no request has
+     * to wait for a connection to be established.
+     */
+    private void fillConnectionPools() {
+        pools.orderedStream().forEach(pool -> {
+            List<Connection> connections = new ArrayList<>();
+            try {
+                int size = Math.min(pool.getMinimumIdle(), pool.getMaximumPoolSize());
+                for (int i = 0; i < size; i++) {
+                    connections.add(pool.getConnection());
+                }
+            } catch (SQLException e) {
+                logger.warn("Cannot fill connection pool {}", pool.getPoolName(), e);
+            } finally {
+                for (Connection connection : connections) {
+                    try {
+                        connection.close();
+                    } catch (SQLException e) {
+                        logger.debug("Cannot return warm-up connection", e);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Builds the catalogue caches and runs rounds of synthetic requests against the sample hotels.
+     *
+     * @param deadline the {@link System#nanoTime()} after which no further round is started.
+     * @return the number of rounds run.
+     */
+    private int runSyntheticRequests(long deadline) {
+        List<Hotel> hotels = hotelRepository.findAll(PageRequest.of(0, sampleHotels)).getContent();
+        if (hotels.isEmpty()) {
+            return 0;
+        }
+
+        // The catalogue and room listings are served from the response cache, so building them once is enough
+        transactionTemplate.executeWithoutResult(status -> {
+            catalogueResponseCache.get("hotels", hotelVersionService.getCatalogueVersion(), hotelService::getAllHotels);
+            for (Hotel hotel : hotels) {
+                Long hotelId = hotel.getId();
+                catalogueResponseCache.get("rooms-" + hotelId, hotelVersionService.getHotelVersion(hotelId), () -> hotelService.getRooms(hotelId));
+                hotelFacetService.getFacets(hotelId);
+            }
+        });
+
+        UserDetails user = User.withUsername("warm-up").password("").authorities(new ArrayList<>()).build();
+        LocalDate tomorrow = LocalDate.now().plusDays(1);
+        int round = 0;
+        while (round < iterations && System.nanoTime() < deadline) {
+            Hotel hotel = hotels.get(round % hotels.size());
+            transactionTemplate.executeWithoutResult(status -> request(hotel, user, tomorrow));
+            round++;
+        }
+        return round;
+    }
+
+    /**
+     * Runs one synthetic request of each warmed-up kind around a hotel, serializing the results the
+     * way the controllers' responses are.
+     */
+    private void request(Hotel hotel, UserDetails user, LocalDate checkIn) {
+        double lat = hotel.getLatitude();
+        double lon = hotel.getLongitude();
+        String name = hotel.getName() != null ? hotel.getName() : "";
+        LocalDateTime start = checkIn.atStartOfDay();
+
+        List<Object> results = new ArrayList<>();
+        results.add(hotelService.getHotelsWithinRadius(lat, lon, RADIUS_KM));
+        results.add(hotelService.getNearestHotels(lat, lon, RESULTS, 0.5));
+        results.add(hotelService.searchByText(name, RESULTS));
+        results.add(hotelService.autocomplete(name.substring(0, Math.min(3, name.length())), RESULTS));
+        results.add(hotelService.getTopRatedHotels(lat, lon, RESULTS));
+        results.add(hotelSearchService.search(lat, lon, RADIUS_KM, checkIn, checkIn.plusDays(1), null, null, null, 0, RESULTS));
+        results.add(reservationService.getAvailableRooms(hotel.getId(), start, start.plusDays(1)));
+        results.add(reservationService.userHasReservation(SYNTHETIC_USER_ID, hotel.getId()));
+        results.add(reservationService.getReservationsByUserId(SYNTHETIC_USER_ID));
+
+        String token = jwtUtil.generateToken(user);
+        results.add(jwtUtil.validateToken(token, user));
+
+        try {
+            objectMapper.writeValueAsBytes(results);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize warm-up results", e);
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package com.example.hotelreservation.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic generator of a large, realistic dataset: hotels, rooms, users, reservations and reviews.
+ *
+ * The same seed and anchor date always produce the same rows. The shape of the data follows what a
+ * booking site sees:
+ * - hotels cluster around cities, bigger cities getting more hotels spread over a wider area;
+ * - hotel sizes, price levels and popularity are heavy-tailed, a few hotels being very large,
+ *   expensive or sought after;
+ * - room types and prices follow a fixed type mix, priced relative to the hotel's price level;
+ * - every room has a history of stays around the anchor date that never overlap on the room itself,
+ *   while stays of different rooms and of the same guest overlap freely; popular hotels are booked densely;
+ * - review counts are skewed even more than bookings, and ratings scatter around each hotel's quality.
+ */
+class SyntheticDataGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    // BCrypt hash of "password", shared by all generated users (hashing millions of passwords would take hours)
+    static final String PASSWORD_HASH = "$2a$10$hsUHPKvEvjyXr0fYtct/ueF7rNT3zrmMGMnMBR35SCBwUUxPM01M2";
+
+    // Cities the hotels cluster around: name, latitude, longitude, relative size, spread in km, price level
+    private static final City[] CITIES = {
+            new City("Paris", 48.8566, 2.3522, 10.0, 9, 1.6),
+            new City("London", 51.5072, -0.1276, 10.0, 12, 1.8),
+            new City("Rome", 41.9028, 12.4964, 7.0, 8, 1.3),
+            new City("Barcelona", 41.3874, 2.1686, 6.5, 6, 1.3),
+            new City("Berlin", 52.5200, 13.4050, 6.0, 10, 1.2),
+            new City("Madrid", 40.4168, -3.7038, 5.5, 8, 1.2),
+            new City("Amsterdam", 52.3676, 4.9041, 5.0, 5, 1.6),
+            new City("Vienna", 48.2082, 16.3738, 4.5, 6, 1.3),
+            new City("Prague", 50.0755, 14.4378, 4.5, 6, 0.9),
+            new City("Lisbon", 38.7223, -9.1393, 4.0, 6, 1.0),
+            new City("Budapest", 47.4979, 19.0402, 3.5, 6, 0.8),
+            new City("Bucharest", 44.4268, 26.1025, 3.0, 8, 0.7),
+            new City("Cluj-Napoca", 46.7712, 23.6236, 1.5, 4, 0.6),
+            new City("Brasov", 45.6427, 25.5887, 1.2, 5, 0.6),
+            new City("Timisoara", 45.7489, 21.2087, 1.0, 4, 0.6),
+            new City("Iasi", 47.1585, 27.6014, 0.8, 4, 0.5),
+            new City("Krakow", 50.0647, 19.9450, 3.0, 5, 0.8),
+            new City("Athens", 37.9838, 23.7275, 3.5, 8, 1.0),
+            new City("Dubrovnik", 42.6507, 18.0944, 1.5, 3, 1.4),
+            new City("Zermatt", 46.0207, 7.7491, 0.5, 2, 2.5),
+    };
+
+    private static final String[] NAME_PREFIXES = {
+            "Hotel", "Grand Hotel", "Park Inn", "City Hostel", "Boutique", "Residence", "Palace", "Apartments", "Guesthouse", "Resort"
+    };
+
+    // Room types (see Room#getType()): share of the rooms and price relative to a single room
+    private static final double[] ROOM_TYPE_SHARES = {0.35, 0.40, 0.15, 0.10};
+    private static final double[] ROOM_TYPE_PRICE_FACTORS = {1.0, 1.45, 1.9, 3.2};
+
+    private static final String[][] REVIEW_COMMENTS = {
+            {"Dirty room and rude staff.", "Would not stay here again.", "Nothing like the pictures."},
+            {"Noisy at night, breakfast was poor.", "Overpriced for what you get.", "The room was smaller than expected."},
+            {"Decent stay for the price.", "Good location, average rooms.", "Fine for a night or two."},
+            {"Comfortable beds and friendly staff.", "Great breakfast, would come back.", "Clean and quiet, close to the centre."},
+            {"Perfect in every way!", "Outstanding service and a beautiful view.", "Best hotel we stayed at on this trip."},
+    };
+
+    // Reservation histories cover the year before and the half year after the anchor date
+    private static final int HISTORY_DAYS_BEFORE = 365;
+    private static final int HISTORY_DAYS_AFTER = 180;
+
+    private final long seed;
+    private final int hotelCount;
+    private final int userCount;
+    private final long reservationCount;
+    private final long reviewCount;
+    private final LocalDate anchorDate;
+
+    // Per hotel attributes, indexed by hotel ID - 1
+    private double[] popularity;
+    private double[] quality;
+    private long[] firstRoomId;
+    private int[] roomCounts;
+
+    // Per room attributes, indexed by room ID - 1
+    private byte[] roomTypes;
+
+    /**
+     * Constructor for SyntheticDataGenerator.
+     *
+     * @param seed the random seed.
+     * @param hotelCount the number of hotels.
+     * @param userCount the number of users.
+     * @param reservationCount the approximate number of reservations.
+     * @param reviewCount the approximate number of reviews.
+     * @param anchorDate the date reservation histories are centred on.
+     */
+    SyntheticDataGenerator(long seed, int hotelCount, int userCount, long reservationCount, long reviewCount, LocalDate anchorDate) {
+        this.seed = seed;
+        this.hotelCount = hotelCount;
+        this.userCount = userCount;
+        this.reservationCount = reservationCount;
+        this.reviewCount = reviewCount;
+        this.anchorDate = anchorDate;
+    }
+
+    /**
+     * Replaces the content of the database with the generated dataset.
+     *
+     * @param loader the bulk loader used to write the rows.
+     * @throws SQLException if the rows cannot be written.
+     */
+    void generate(BulkLoader loader) throws SQLException {
+        log.info("Generating {} hotels, {} users, ~{} reservations and ~{} reviews (seed {}, anchor date {}) using {}",
+                hotelCount, userCount, reservationCount, reviewCount, seed, anchorDate,
+                loader.isPostgres() ? "COPY" : "batched inserts");
+        long start = System.nanoTime();
+
+        loader.clear();
+        // Each part has its own random stream, so e.g. asking for more reviews leaves the reservations unchanged
+        long rooms = timed("hotel rooms", () -> writeHotelsAndRooms(loader, new SplittableRandom(seed)));
+        timed("users", () -> writeUsers(loader));
+        long reservations = timed("reservations", () -> writeReservations(loader, new SplittableRandom(seed + 1)));
+        long reviews = timed("reviews", () -> writeReviews(loader, new SplittableRandom(seed + 2)));
+
+        loader.continueIdentityAfter("hotels", hotelCount);
+        loader.continueIdentityAfter("rooms", rooms);
+        loader.continueIdentityAfter("users", userCount);
+        loader.continueIdentityAfter("reservations", reservations);
+        loader.continueIdentityAfter("feedback", reviews);
+        loader.analyze();
+
+        log.info("Generated dataset in {} s", (System.nanoTime() - start) / 1_000_000_000);
+    }
+
+    /**
+     * Writes the hotels and their rooms.
+     *
+     * @return the number of rooms written.
+     */
+    private long writeHotelsAndRooms(BulkLoader loader, SplittableRandom random) throws SQLException {
+        popularity = new double[hotelCount];
+        quality = new double[hotelCount];
+        firstRoomId = new long[hotelCount];
+        roomCounts = new int[hotelCount];
+        double[] priceLevels = new double[hotelCount];
+
+        double totalCitySize = 0;
+        for (City city : CITIES) {
+            totalCitySize += city.size;
+        }
+
+        try (BulkLoader.TableWriter hotels = loader.table("hotels", "id", "name", "latitude", "longitude")) {
+            for (int h = 0; h < hotelCount; h++) {
+                City city = pickCity(random, totalCitySize);
+
+                // Most hotels are close to the centre, a few are out in the surroundings
+                double spreadKm = city.spreadKm * (random.nextDouble() < 0.85 ? 1 : 4);
+                double latitude = city.latitude + gaussian(random) * spreadKm / 111.0;
+                double longitude = city.longitude + gaussian(random) * spreadKm / (111.0 * Math.cos(Math.toRadians(city.latitude)));
+
+                String prefix = NAME_PREFIXES[random.nextInt(NAME_PREFIXES.length)];
+                hotels.row((long) h + 1, prefix + " " + city.name + " " + (h + 1), latitude, longitude);
+
+                // Heavy tails: Pareto popularity, log-normal size and price level
+                popularity[h] = Math.min(50, Math.pow(1 - random.nextDouble(), -1 / 1.2));
+                quality[h] = clamp(3.8 + gaussian(random) * 0.5, 1.5, 4.9);
+                roomCounts[h] = (int) clamp(Math.round(18 * Math.exp(gaussian(random) * 0.8)), 4, 400);
+                priceLevels[h] = city.priceLevel * Math.exp(gaussian(random) * 0.35) * (0.6 + quality[h] / 5);
+            }
+        }
+
+        long totalRooms = 0;
+        for (int count : roomCounts) {
+            totalRooms += count;
+        }
+        roomTypes = new byte[(int) totalRooms];
+
+        long roomId = 0;
+        try (BulkLoader.TableWriter rooms = loader.table("rooms", "id", "room_number", "type", "price", "available", "hotel_id")) {
+            for (int h = 0; h < hotelCount; h++) {
+                firstRoomId[h] = roomId + 1;
+                for (int r = 0; r < roomCounts[h]; r++) {
+                    roomId++;
+                    int type = pickRoomType(random);
+                    roomTypes[(int) roomId - 1] = (byte) type;
+
+                    // Rooms are numbered per floor, 20 rooms to a floor
+                    int roomNumber = (r / 20 + 1) * 100 + r % 20 + 1;
+                    double price = Math.round(60 * priceLevels[h] * ROOM_TYPE_PRICE_FACTORS[type - 1]
+                            * (0.9 + random.nextDouble() * 0.2) / 5) * 5.0;
+                    boolean available = random.nextDouble() >= 0.03;
+                    rooms.row(roomId, roomNumber, type, price, available, (long) h + 1);
+                }
+            }
+        }
+        return roomId;
+    }
+
+    /**
+     * Writes the users, all with the password "password" and the role USER.
+     */
+    private long writeUsers(BulkLoader loader) throws SQLException {
+        try (BulkLoader.TableWriter users = loader.table("users", "id", "username", "password")) {
+            for (long id = 1; id <= userCount; id++) {
+                users.row(id, "user" + id, PASSWORD_HASH);
+            }
+        }
+        try (BulkLoader.TableWriter roles = loader.table("user_roles", "user_id", "role")) {
+            for (long id = 1; id <= userCount; id++) {
+                roles.row(id, "USER");
+            }
+        }
+        return userCount;
+    }
+
+    /**
+     * Writes a history of non-overlapping stays for every room, denser for popular hotels.
+     *
+     * @return the number of reservations written.
+     */
+    private long writeReservations(BulkLoader loader, SplittableRandom random) throws SQLException {
+        double totalDemand = 0;
+        for (int h = 0; h < hotelCount; h++) {
+            totalDemand += popularity[h] * roomCounts[h];
+        }
+
+        LocalDateTime historyStart = anchorDate.minusDays(HISTORY_DAYS_BEFORE).atStartOfDay();
+        int historyDays = HISTORY_DAYS_BEFORE + HISTORY_DAYS_AFTER;
+
+        long reservationId = 0;
+        try (BulkLoader.TableWriter reservations = loader.table("reservations",
+                "id", "user_id", "room_id", "hotel_id", "room_type", "check_in_time", "check_out_time")) {
+            for (int h = 0; h < hotelCount; h++) {
+                double expectedPerRoom = reservationCount * popularity[h] / totalDemand;
+
+                for (int r = 0; r < roomCounts[h]; r++) {
+                    long roomId = firstRoomId[h] + r;
+                    int stays = stochasticRound(expectedPerRoom, random);
+                    if (stays == 0) {
+                        continue;
+                    }
+
+                    // Spread the stays over the history, leaving random gaps between them
+                    double meanGap = Math.max(0, (double) historyDays / stays - 2.5);
+                    int day = (int) (random.nextDouble() * meanGap);
+                    for (int s = 0; s < stays; s++) {
+                        int nights = Math.min(14, 1 + geometric(random, 1.5));
+                        if (day + nights > historyDays) {
+                            break;
+                        }
+
+                        // Frequent travellers book much more often than occasional ones
+                        long userId = 1 + (long) (userCount * Math.pow(random.nextDouble(), 2));
+                        LocalDateTime checkIn = historyStart.plusDays(day).withHour(14);
+                        LocalDateTime checkOut = historyStart.plusDays(day + nights).withHour(11);
+                        reservations.row(++reservationId, userId, roomId, (long) h + 1, (int) roomTypes[(int) roomId - 1], checkIn, checkOut);
+
+                        day += nights + (int) (random.nextDouble() * 2 * meanGap);
+                    }
+                }
+            }
+        }
+        return reservationId;
+    }
+
+    /**
+     * Writes the reviews, whose count per hotel grows faster than the hotel's popularity.
+     *
+     * @return the number of reviews written.
+     */
+    private long writeReviews(BulkLoader loader, SplittableRandom random) throws SQLException {
+        double totalWeight = 0;
+        for (int h = 0; h < hotelCount; h++) {
+            totalWeight += Math.pow(popularity[h], 1.5);
+        }
+
+        long reviewId = 0;
+        try (BulkLoader.TableWriter reviews = loader.table("feedback", "id", "hotel_id", "user_id", "comment", "rating")) {
+            for (int h = 0; h < hotelCount; h++) {
+                int count = stochasticRound(reviewCount * Math.pow(popularity[h], 1.5) / totalWeight, random);
+                for (int i = 0; i < count; i++) {
+                    int rating = (int) clamp(Math.round(quality[h] + gaussian(random) * 0.9), 1, 5);
+                    String[] comments = REVIEW_COMMENTS[rating - 1];
+                    long userId = 1 + random.nextInt(userCount);
+                    reviews.row(++reviewId, (long) h + 1, userId, comments[random.nextInt(comments.length)], rating);
+                }
+            }
+        }
+        return reviewId;
+    }
+
+    private static City pickCity(SplittableRandom random, double totalCitySize) {
+        double ticket = random.nextDouble() * totalCitySize;
+        for (City city : CITIES) {
+            ticket -= city.size;
+            if (ticket < 0) {
+                return city;
+            }
+        }
+        return CITIES[CITIES.length - 1];
+    }
+
+    private static int pickRoomType(SplittableRandom random) {
+        double ticket = random.nextDouble();
+        for (int i = 0; i < ROOM_TYPE_SHARES.length; i++) {
+            ticket -= ROOM_TYPE_SHARES[i];
+            if (ticket < 0) {
+                return i + 1;
+            }
+        }
+        return ROOM_TYPE_SHARES.length;
+    }
+
+    private static double gaussian(SplittableRandom random) {
+        // Box-Muller, as SplittableRandom has no nextGaussian on Java 17
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    private static int geometric(SplittableRandom random, double mean) {
+        return (int) (Math.log(1 - random.nextDouble()) / Math.log(mean / (mean + 1)));
+    }
+
+    private static int stochasticRound(double value, SplittableRandom random) {
+        int whole = (int) value;
+        return whole + (random.nextDouble() < value - whole ? 1 : 0);
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static long timed(String part, Step step) throws SQLException {
+        long start = System.nanoTime();
+        long rows = step.run();
+        log.info("Wrote {} {} in {} ms", rows, part, (System.nanoTime() - start) / 1_000_000);
+        return rows;
+    }
+
+    /**
+     * A part of the generation that writes rows and returns how many.
+     */
+    @FunctionalInterface
+    private interface Step {
+        long run() throws SQLException;
+    }
+
+    /**
+     * A city hotels are clustered around.
+     */
+    private static final class City {
+
+        private final String name;
+        private final double latitude;
+        private final double longitude;
+        private final double size;
+        private final double spreadKm;
+        private final double priceLevel;
+
+        private City(String name, double latitude, double longitude, double size, double spreadKm, double priceLevel) {
+            this.name = name;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.size = size;
+            this.spreadKm = spreadKm;
+            this.priceLevel = priceLevel;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.hotelreservation.config;
+
+import com.example.hotelreservation.service.HotelVersionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+
+/**
+ * Replaces the database content with a large synthetic dataset when the "generate-data" profile is active.
+ *
+ * Sizes, seed and anchor date are set in application-generate-data.properties and can be overridden
+ * on the command line, e.g. {@code --generator.hotels=1000000}. Run it together with
+ * {@code --spring.main.web-application-type=none} to exit once the data is loaded.
+ */
+@Configuration
+@Profile("generate-data")
+public class SyntheticDataLoader {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private HotelVersionService hotelVersionService;
+
+    @Value("${generator.seed}")
+    private long seed;
+
+    @Value("${generator.hotels}")
+    private int hotels;
+
+    @Value("${generator.users}")
+    private int users;
+
+    @Value("${generator.reservations}")
+    private long reservations;
+
+    @Value("${generator.reviews}")
+    private long reviews;
+
+    @Value("${generator.anchor-date:}")
+    private String anchorDate;
+
+    /**
+     * Bean that generates the synthetic dataset when the application starts.
+     * All existing hotels, rooms, users, reservations and feedback are deleted first.
+     *
+     * @return CommandLineRunner that runs at application startup.
+     */
+    @Bean
+    public CommandLineRunner generateSyntheticData() {
+        return args -> {
+            // Without a fixed anchor date, reservation histories are centred on today
+            LocalDate anchor = anchorDate.isBlank() ? LocalDate.now() : LocalDate.parse(anchorDate);
+            SyntheticDataGenerator generator = new SyntheticDataGenerator(seed, hotels, users, reservations, reviews, anchor);
+
+            try (BulkLoader loader = new BulkLoader(dataSource)) {
+                generator.generate(loader);
+            }
+            hotelVersionService.touchAll();
+        };
+    }
+}
@@ -41,6 +41,7 @@ public class AuthController {
      * @return a {@link ResponseEntity} containing the JWT token and user ID if authentication is successful.
      * @throws Exception if the authentication fails due to incorrect credentials.
      */
+    @QueryBudget(2)
     @PostMapping("/login")
     public ResponseEntity<?> authenticateUser(@RequestBody AuthenticationRequest authenticationRequest) throws Exception {
         try {
@@ -75,6 +76,7 @@ public class AuthController {
      * @param user the user details to be registered.
      * @return a {@link ResponseEntity} with a success message upon successful registration.
      */
+    @QueryBudget(2)
     @PostMapping("/register")
     public ResponseEntity<?> registerNewUser(@RequestBody User user) {
         // Encode the user's password before saving it to the database
@@ -5,20 +5,41 @@ import com.example.hotelreservation.model.Hotel;
 import com.example.hotelreservation.model.Reservation;
 import com.example.hotelreservation.model.Room;
 import com.example.hotelreservation.modelDto.*;
+import com.example.hotelreservation.service.BookingMetrics;
+import com.example.hotelreservation.service.CatalogueResponseCache;
+import com.example.hotelreservation.service.FeedbackIngestionService;
 import com.example.hotelreservation.service.FeedbackService;
+import com.example.hotelreservation.service.HotelSearchService;
 import com.example.hotelreservation.service.HotelService;
+import com.example.hotelreservation.service.HotelVersionService;
+import com.example.hotelreservation.service.IdempotencyService;
 import com.example.hotelreservation.service.ReservationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 
+import java.security.Principal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 /**
  * Controller class for handling hotel-related operations.
+ *
+ * The catalogue, room and detail reads are conditional: they carry an ETag and a Last-Modified date
+ * derived from {@link HotelVersionService}, and a request whose validators still match is answered
+ * with 304 Not Modified before any data is loaded. The catalogue and room listings are written from
+ * pre-serialized bodies kept by {@link CatalogueResponseCache}; their gzipped and identity encodings
+ * carry different ETags, and every response, 304 included, varies by Accept-Encoding.
  */
 @RestController
 @RequestMapping("/hotels")
@@ -27,20 +48,48 @@ public class HotelController {
     @Autowired
     private HotelService hotelService;
 
+    @Autowired
+    private HotelSearchService hotelSearchService;
+
     @Autowired
     private ReservationService reservationService;
 
     @Autowired
     private FeedbackService feedbackService;
 
+    @Autowired
+    private FeedbackIngestionService feedbackIngestionService;
+
+    @Autowired
+    private HotelVersionService hotelVersionService;
+
+    @Autowired
+    private CatalogueResponseCache catalogueResponseCache;
+
+    @Autowired
+    private BookingMetrics bookingMetrics;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     /**
      * Retrieves a list of all hotels.
      *
-     * @return a list of {@link Hotel} objects.
+     * @param request the current request, used to evaluate its conditional headers.
+     * @param acceptEncoding the encodings accepted by the client.
+     * @return the JSON encoded list of {@link Hotel} objects, or nothing if the client's copy is still current.
      */
+    @QueryBudget(5)
     @GetMapping
-    public List<Hotel> getAllHotels() {
-        return hotelService.getAllHotels();
+    public ResponseEntity<byte[]> getAllHotels(ServletWebRequest request,
+                                               @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        // Answer 304 Not Modified if the client already has the current catalogue in the encoding it would get
+        HotelVersionService.ResourceVersion version = hotelVersionService.getCatalogueVersion();
+        if (checkNotModified(request, "hotels", version, acceptEncoding)) {
+            return null;
+        }
+
+        return jsonResponse(catalogueResponseCache.get("hotels", version, hotelService::getAllHotels), acceptEncoding);
     }
 
     /**
@@ -51,68 +100,245 @@ public class HotelController {
      * @param radius  the radius within which to search for hotels.
      * @return a list of {@link HotelWithRating} objects within the specified radius.
      */
+    @QueryBudget(4)
     @GetMapping("/withinRadius")
     public List<HotelWithRating> getHotelsWithinRadius(@RequestParam double userLat, @RequestParam double userLon, @RequestParam double radius) {
         return hotelService.getHotelsWithinRadius(userLat, userLon, radius);
     }
 
+    /**
+     * Retrieves the hotels nearest to the user's location, nearest first.
+     *
+     * Unlike {@link #getHotelsWithinRadius}, the client does not have to guess a radius: the search
+     * expands outward until the k nearest hotels are found.
+     *
+     * @param userLat the latitude of the user's location.
+     * @param userLon the longitude of the user's location.
+     * @param k the number of hotels to return (at most 100).
+     * @param ratingWeight between 0 (rank by distance only) and 0.9 (good ratings count almost as much as distance).
+     * @return a list of {@link HotelWithDistance} objects, best ranked first.
+     */
+    @QueryBudget(3)
+    @GetMapping("/nearest")
+    public List<HotelWithDistance> getNearestHotels(@RequestParam double userLat, @RequestParam double userLon,
+                                                    @RequestParam(defaultValue = "10") int k,
+                                                    @RequestParam(defaultValue = "0") double ratingWeight) {
+        return hotelService.getNearestHotels(userLat, userLon, k, ratingWeight);
+    }
+
+    /**
+     * Searches hotels by keywords in their names and reviews, best match first.
+     *
+     * @param q the keywords.
+     * @param limit the number of hotels to return (at most 100).
+     * @return a list of {@link HotelTextMatch} objects, best match first.
+     */
+    @QueryBudget(2)
+    @GetMapping("/text-search")
+    public List<HotelTextMatch> searchHotelsByText(@RequestParam String q, @RequestParam(defaultValue = "20") int limit) {
+        return hotelService.searchByText(q, limit);
+    }
+
+    /**
+     * Suggests hotels whose names match what the user has typed so far, for search-as-you-type.
+     *
+     * @param prefix the text typed so far; its last word may be incomplete.
+     * @param limit the number of hotels to return (at most 100).
+     * @return a list of {@link SimpleHotelDto} objects, best match first.
+     */
+    @QueryBudget(2)
+    @GetMapping("/autocomplete")
+    public List<SimpleHotelDto> autocomplete(@RequestParam String prefix, @RequestParam(defaultValue = "10") int limit) {
+        return hotelService.autocomplete(prefix, limit);
+    }
+
+    /**
+     * Retrieves the top-rated hotels, overall or in the geographic region of a position.
+     *
+     * Hotels are ranked by their average rating, pulled towards the overall average while they have
+     * few ratings, so a hotel with a single 5-star review does not top the list.
+     *
+     * @param lat optional latitude of a position in the region; requires lon.
+     * @param lon optional longitude of a position in the region; requires lat.
+     * @param limit the number of hotels to return (at most 100).
+     * @return a list of {@link RankedHotel} objects, best rated first, or 400 Bad Request if only one coordinate is given.
+     */
+    @QueryBudget(2)
+    @GetMapping("/top-rated")
+    public ResponseEntity<?> getTopRatedHotels(@RequestParam(required = false) Double lat,
+                                               @RequestParam(required = false) Double lon,
+                                               @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(hotelService.getTopRatedHotels(lat, lon, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Searches the hotels within a radius that have a room matching the stay, price range and room type.
+     *
+     * All filters are applied together by the database, so the search takes one round trip and one or
+     * two SQL statements however many hotels match.
+     *
+     * @param userLat the latitude of the user's location.
+     * @param userLon the longitude of the user's location.
+     * @param radius the radius within which to search for hotels, in kilometers.
+     * @param checkIn optional first day of the stay. If not provided, defaults to the current date.
+     * @param checkOut optional day the stay ends. If not provided, defaults to one day after check-in.
+     * @param minPrice optional lowest room price.
+     * @param maxPrice optional highest room price.
+     * @param roomType optional room type.
+     * @param page the zero-based page number.
+     * @param size the number of hotels per page (at most 100).
+     * @return a page of {@link HotelSearchResult} objects, nearest first, or 400 Bad Request if the stay or page is invalid.
+     */
+    @QueryBudget(2)
+    @GetMapping("/search")
+    public ResponseEntity<?> searchHotels(@RequestParam double userLat, @RequestParam double userLon, @RequestParam double radius,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkIn,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOut,
+                                          @RequestParam(required = false) Double minPrice,
+                                          @RequestParam(required = false) Double maxPrice,
+                                          @RequestParam(required = false) Integer roomType,
+                                          @RequestParam(defaultValue = "0") int page,
+                                          @RequestParam(defaultValue = "20") int size) {
+        try {
+            return ResponseEntity.ok(hotelSearchService.search(userLat, userLon, radius, checkIn, checkOut,
+                    minPrice, maxPrice, roomType, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     /**
      * Retrieves a list of rooms available in a specific hotel.
      *
      * @param hotelId the ID of the hotel.
-     * @return a list of {@link Room} objects available in the specified hotel.
+     * @param request the current request, used to evaluate its conditional headers.
+     * @param acceptEncoding the encodings accepted by the client.
+     * @return the JSON encoded list of {@link Room} objects available in the specified hotel,
+     *         or nothing if the client's copy is still current.
      */
+    @QueryBudget(4)
     @GetMapping("/{hotelId}/rooms")
-    public List<Room> getAvailableRooms(@PathVariable Long hotelId) {
-        return hotelService.getRooms(hotelId);
+    public ResponseEntity<byte[]> getAvailableRooms(@PathVariable Long hotelId, ServletWebRequest request,
+                                                    @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        // Answer 304 Not Modified if the client already has the current rooms of the hotel in the encoding it would get
+        HotelVersionService.ResourceVersion version = hotelVersionService.getHotelVersion(hotelId);
+        if (checkNotModified(request, "rooms-" + hotelId, version, acceptEncoding)) {
+            return null;
+        }
+
+        return jsonResponse(catalogueResponseCache.get("rooms-" + hotelId, version, () -> hotelService.getRooms(hotelId)), acceptEncoding);
     }
 
     /**
      * Books a room in a specified hotel for a user.
      *
+     * A retry carrying the same {@code Idempotency-Key} as an earlier successful request gets that
+     * request's reservation, marked with an {@code Idempotent-Replayed} header, and books nothing.
+     *
      * @param reservationDto the reservation details including user ID, room ID, check-in, and check-out dates.
+     * @param idempotencyKey the client's key for this booking attempt, if any.
+     * @param principal the authenticated user.
      * @return a {@link Reservation} object representing the booked room.
      */
+    @QueryBudget(23)
     @PostMapping("/book")
-    public Reservation bookRoom(@RequestBody ReservationDto reservationDto) {
-        return reservationService.bookRoom(
+    public ResponseEntity<?> bookRoom(@RequestBody ReservationDto reservationDto,
+                                      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                      Principal principal) {
+        return idempotent("book", idempotencyKey, principal, reservationDto, () -> bookingMetrics.record("room", () -> reservationService.bookRoom(
                 reservationDto.getUserId(),
                 reservationDto.getRoomId(),
                 reservationDto.getCheckIn(),
                 reservationDto.getCheckOut()
-        );
+        )));
+    }
+
+    /**
+     * Books a room of a given type in a specified hotel for a user.
+     *
+     * The specific room is not chosen at booking time; it is assigned when the guest checks in.
+     *
+     * @param roomTypeReservationDto the reservation details including user ID, hotel ID, room type, check-in, and check-out dates.
+     * @return a {@link Reservation} object representing the booked room type.
+     */
+    @QueryBudget(18)
+    @PostMapping("/book-type")
+    public Reservation bookRoomType(@RequestBody RoomTypeReservationDto roomTypeReservationDto) {
+        return bookingMetrics.record("room-type", () -> reservationService.bookRoomType(
+                roomTypeReservationDto.getUserId(),
+                roomTypeReservationDto.getHotelId(),
+                roomTypeReservationDto.getRoomType(),
+                roomTypeReservationDto.getCheckIn(),
+                roomTypeReservationDto.getCheckOut()
+        ));
+    }
+
+    /**
+     * Handles the check-in of a reservation, assigning a specific room to room-type bookings.
+     *
+     * @param reservationId the ID of the reservation being checked in.
+     * @return the {@link Reservation} object with its assigned room.
+     */
+    @QueryBudget(11)
+    @PutMapping("/reservations/{reservationId}/check-in")
+    public Reservation checkIn(@PathVariable Long reservationId) {
+        return reservationService.checkIn(reservationId);
     }
 
     /**
      * Changes an existing reservation for a given user in a specific hotel.
      *
-     * @param changeReservationDto the DTO containing user ID, hotel ID, and the new room ID.
+     * Retries with the same {@code Idempotency-Key} are answered like in {@link #bookRoom}.
+     *
+     * @param changeReservationDto the DTO containing user ID, hotel ID, optionally the reservation ID, and the new room ID.
+     * @param idempotencyKey the client's key for this change attempt, if any.
+     * @param principal the authenticated user.
      * @return the updated {@link Reservation} object after the change.
      */
+    @QueryBudget(28)
     @PostMapping("/change")
-    public Reservation changeReservation(@RequestBody ChangeReservationDto changeReservationDto) {
-        return reservationService.changeReservation(
+    public ResponseEntity<?> changeReservation(@RequestBody ChangeReservationDto changeReservationDto,
+                                               @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                               Principal principal) {
+        return idempotent("change", idempotencyKey, principal, changeReservationDto, () -> bookingMetrics.record("change", () -> reservationService.changeReservation(
                 changeReservationDto.getUserId(),
                 changeReservationDto.getHotelId(),
+                changeReservationDto.getReservationId(),
                 changeReservationDto.getNewRoomId()
-        );
+        )));
     }
 
     /**
      * Submits feedback for a specific hotel.
      *
+     * The feedback is accepted right away and written to the database with the next batch
+     * (see {@link FeedbackIngestionService}).
+     *
      * @param hotelId      the ID of the hotel.
      * @param feedbackDto  the feedback details including user ID, comment, and rating.
-     * @return a {@link boolean} representing the submitted feedback.
+     * @return {@code true} with HTTP status 202 Accepted, 400 Bad Request for an unknown hotel, or
+     *         503 Service Unavailable with a Retry-After header while too many submissions are waiting.
      */
+    @QueryBudget(4)
     @PostMapping("/{hotelId}/feedback")
-    public boolean submitFeedback(@PathVariable Long hotelId, @RequestBody FeedbackDto feedbackDto) {
-        return feedbackService.leaveFeedback(
-                hotelId,
-                feedbackDto.getUserId(),
-                feedbackDto.getComment(),
-                feedbackDto.getRating()
-        );
+    public ResponseEntity<?> submitFeedback(@PathVariable Long hotelId, @RequestBody FeedbackDto feedbackDto) {
+        try {
+            feedbackIngestionService.submit(
+                    hotelId,
+                    feedbackDto.getUserId(),
+                    feedbackDto.getComment(),
+                    feedbackDto.getRating()
+            );
+            return ResponseEntity.accepted().body(true);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(e.getMessage());
+        }
     }
 
     /**
@@ -125,19 +351,31 @@ public class HotelController {
      * @param userId the ID of the user to check for any existing reservations.
      * @param startDate optional start date for filtering available rooms. If not provided, defaults to the current date.
      * @param endDate optional end date for filtering available rooms. If not provided, defaults to one day after the start date.
-     * @return a {@link HotelDetailsDto} object containing details about the hotel, including available rooms and feedback.
+     * @param request the current request, used to evaluate its conditional headers.
+     * @return a {@link HotelDetailsDto} object containing details about the hotel, including available rooms and feedback,
+     *         or nothing if the client's copy is still current.
      */
+    @QueryBudget(7)
     @GetMapping("/{hotelId}/details")
     public HotelDetailsDto getHotelDetails(
             @PathVariable Long hotelId,
             @RequestParam Long userId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) String startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) String endDate) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) String endDate,
+            WebRequest request) {
 
         // Convert strings to LocalDate
         LocalDate startLocalDate = startDate != null ? LocalDate.parse(startDate) : LocalDate.now();
         LocalDate endLocalDate = endDate != null ? LocalDate.parse(endDate) : startLocalDate.plusDays(1);
 
+        // Answer 304 Not Modified if the client already has the current details for this user and date range
+        HotelVersionService.ResourceVersion version = hotelVersionService.getHotelVersion(hotelId);
+        String eTag = hotelVersionService.eTag(
+                "details-" + hotelId + "-" + userId + "-" + startLocalDate + "-" + endLocalDate, version);
+        if (request.checkNotModified(eTag, version.getLastModified())) {
+            return null;
+        }
+
         // Convert LocalDate to LocalDateTime with default time
         LocalDateTime start = startLocalDate.atStartOfDay();
         LocalDateTime end = endLocalDate.atStartOfDay().plusDays(1); // Consider end date as inclusive
@@ -170,6 +408,7 @@ public class HotelController {
      * @param roomId the ID of the room that is being checked out.
      * @return a {@link ResponseEntity} with HTTP status 200 OK if the operation is successful.
      */
+    @QueryBudget(16)
     @PutMapping("/{hotelId}/rooms/{roomId}/check-out")
     public ResponseEntity<Void> checkOut(@PathVariable Long hotelId, @PathVariable Long roomId) {
         // Perform the check-out operation
@@ -177,4 +416,116 @@ public class HotelController {
         // Return HTTP 200 OK response
         return ResponseEntity.ok().build();
     }
+
+    /**
+     * Handles booking conflicts, e.g. a room that is already reserved or a room type that is sold out.
+     *
+     * @param e the exception raised by the reservation service.
+     * @return a {@link ResponseEntity} with HTTP status 409 Conflict and the reason of the conflict.
+     */
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<String> handleConflict(IllegalStateException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+
+    /**
+     * Runs a booking operation, at most once per idempotency key if the client sent one.
+     *
+     * @param operation the name of the operation the key belongs to.
+     * @param idempotencyKey the client's key, or {@code null} to simply run the operation.
+     * @param principal the authenticated user.
+     * @param request the request body.
+     * @param booking the booking operation.
+     * @return a {@link ResponseEntity} with the result of the operation, or the stored result of its first run.
+     */
+    private ResponseEntity<?> idempotent(String operation, String idempotencyKey, Principal principal,
+                                         Object request, Supplier<?> booking) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return ResponseEntity.ok(booking.get());
+        }
+        IdempotencyService.StoredResponse response = idempotencyService.execute(
+                operation, principal != null ? principal.getName() : "", idempotencyKey, request, booking);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Idempotent-Replayed", Boolean.toString(response.isReplayed()))
+                .body(response.getJson());
+    }
+
+    /**
+     * Evaluates the conditional headers of a request for a pre-serialized listing.
+     *
+     * The gzipped body is a different representation than the identity one, so it gets an ETag of its
+     * own; a client switching encodings never revalidates the copy it holds against the other one.
+     *
+     * @param request the current request, whose response receives the Vary header.
+     * @param resource the name of the resource, e.g. "hotels" or "rooms-12".
+     * @param version the current version of the data the resource is built from.
+     * @param acceptEncoding the encodings accepted by the client.
+     * @return {@code true} if the client's copy is still current and 304 Not Modified was set.
+     */
+    private boolean checkNotModified(ServletWebRequest request, String resource,
+                                     HotelVersionService.ResourceVersion version, String acceptEncoding) {
+        // Set here as well, since a 304 is written without the headers of jsonResponse
+        if (request.getResponse() != null) {
+            request.getResponse().setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        String eTag = hotelVersionService.eTag(resource, version, sendsGzip(acceptEncoding) ? "gzip" : null);
+        return request.checkNotModified(eTag, version.getLastModified());
+    }
+
+    /**
+     * Builds a response that writes a pre-serialized JSON body as is.
+     *
+     * The gzipped copy is sent when the client accepts gzip, so neither Jackson nor the compressor runs for the request.
+     *
+     * @param body the cached body to write.
+     * @param acceptEncoding the encodings accepted by the client.
+     * @return a {@link ResponseEntity} carrying the body bytes.
+     */
+    private ResponseEntity<byte[]> jsonResponse(CatalogueResponseCache.CachedResponse body, String acceptEncoding) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (sendsGzip(acceptEncoding) && body.getGzippedJson() != null) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.getGzippedJson());
+        }
+        return response.body(body.getJson());
+    }
+
+    /**
+     * Tells whether a listing is sent gzipped to a client with the given accepted encodings.
+     *
+     * Gzip is sent when it, or failing that {@code *}, is accepted with a quality above 0, so
+     * {@code gzip;q=0} turns it off. A malformed quality counts as 0.
+     */
+    private boolean sendsGzip(String acceptEncoding) {
+        if (!catalogueResponseCache.isGzipEnabled() || acceptEncoding == null) {
+            return false;
+        }
+        Double gzip = null;
+        Double any = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzip = quality;
+            } else if (name.equals("*")) {
+                any = quality;
+            }
+        }
+        double quality = gzip != null ? gzip : any != null ? any : 0;
+        return quality > 0;
+    }
 }
@@ -0,0 +1,28 @@
+package com.example.hotelreservation.controller;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the maximum number of SQL statements an endpoint may issue for one request.
+ *
+ * The budget is measured with cold second-level, query and response caches and includes the
+ * statements of the authentication filter, so it is the worst case of a single request. It is
+ * enforced by the query budget test: every endpoint must declare a budget, and a change that makes
+ * an endpoint issue more statements (typically an N+1 query) fails the build.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface QueryBudget {
+
+    /**
+     * The maximum number of SQL statements.
+     *
+     * @return the budget.
+     */
+    int value();
+}
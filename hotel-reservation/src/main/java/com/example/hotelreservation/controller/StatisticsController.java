@@ -0,0 +1,35 @@
+package com.example.hotelreservation.controller;
+
+import com.example.hotelreservation.modelDto.CacheRegionStatisticsDto;
+import com.example.hotelreservation.service.CacheStatisticsService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Controller class for exposing runtime statistics of the application.
+ */
+@RestController
+@RequestMapping("/statistics")
+public class StatisticsController {
+
+    private final CacheStatisticsService cacheStatisticsService;
+
+    // Constructor injection for CacheStatisticsService
+    public StatisticsController(CacheStatisticsService cacheStatisticsService) {
+        this.cacheStatisticsService = cacheStatisticsService;
+    }
+
+    /**
+     * Retrieves the hit-rate statistics of the second-level and query caches.
+     *
+     * @return a list of {@link CacheRegionStatisticsDto} objects, one per cache region.
+     */
+    @QueryBudget(2)
+    @GetMapping("/cache")
+    public List<CacheRegionStatisticsDto> getCacheStatistics() {
+        return cacheStatisticsService.getRegionStatistics();
+    }
+}
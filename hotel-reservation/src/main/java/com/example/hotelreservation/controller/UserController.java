@@ -36,6 +36,7 @@ public class UserController {
      * @return a {@link ResponseEntity} containing user details if the user is found,
      *         or a NOT_FOUND status if the user does not exist.
      */
+    @QueryBudget(2)
     @GetMapping("/details")
     public ResponseEntity<?> getUserDetails(Authentication authentication) {
         // Fetch user details based on the authenticated user's username
@@ -57,6 +58,7 @@ public class UserController {
      * @return a {@link ResponseEntity} containing a list of reservations if the user is found,
      *         or a NOT_FOUND status if the user does not exist.
      */
+    @QueryBudget(4)
     @GetMapping("/reservations")
     public ResponseEntity<?> getUserReservations(Authentication authentication) {
         // Fetch user details based on the authenticated user's username
@@ -83,6 +85,7 @@ public class UserController {
      *         Returns UNAUTHORIZED status if the user does not exist, or NOT_FOUND status if
      *         the reservation does not belong to the user.
      */
+    @QueryBudget(8)
     @DeleteMapping("/reservations/{reservationId}")
     public ResponseEntity<?> cancelReservation(@PathVariable Long reservationId, Authentication authentication) {
         // Fetch user details based on the authenticated user's username
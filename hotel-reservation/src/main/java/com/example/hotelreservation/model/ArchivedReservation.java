@@ -0,0 +1,208 @@
+package com.example.hotelreservation.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entity class representing a completed stay that was moved out of the "reservations" table.
+ * This class maps to the "reservations_archive" table in the database. Rows keep the ID and the
+ * details of the original {@link Reservation} and are written by the archival job only, so the
+ * reservations table holds current and future stays alone.
+ */
+@Entity
+@Table(name = "reservations_archive")
+public class ArchivedReservation {
+
+    // ID of the original reservation
+    @Id
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "room_id")
+    private Long roomId;
+
+    @Column(name = "hotel_id")
+    private Long hotelId;
+
+    @Column(name = "room_type")
+    private Integer roomType;
+
+    @Column(name = "check_in_time", nullable = false)
+    private LocalDateTime checkInTime;
+
+    @Column(name = "check_out_time", nullable = false)
+    private LocalDateTime checkOutTime;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    @ManyToOne
+    @JoinColumn(name = "room_id", insertable = false, updatable = false)
+    private Room room;
+
+    // Getters and setters
+
+    /**
+     * Gets the ID of the original reservation.
+     *
+     * @return the ID of the reservation.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Sets the ID of the original reservation.
+     *
+     * @param id the ID to set.
+     */
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    /**
+     * Gets the ID of the user who made the reservation.
+     *
+     * @return the user ID.
+     */
+    public Long getUserId() {
+        return userId;
+    }
+
+    /**
+     * Sets the ID of the user who made the reservation.
+     *
+     * @param userId the user ID to set.
+     */
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    /**
+     * Gets the ID of the room that was reserved.
+     *
+     * @return the room ID, or {@code null} if no room was ever assigned.
+     */
+    public Long getRoomId() {
+        return roomId;
+    }
+
+    /**
+     * Sets the ID of the room that was reserved.
+     *
+     * @param roomId the room ID to set.
+     */
+    public void setRoomId(Long roomId) {
+        this.roomId = roomId;
+    }
+
+    /**
+     * Gets the ID of the hotel where the reservation was made.
+     *
+     * @return the hotel ID.
+     */
+    public Long getHotelId() {
+        return hotelId;
+    }
+
+    /**
+     * Sets the ID of the hotel where the reservation was made.
+     *
+     * @param hotelId the hotel ID to set.
+     */
+    public void setHotelId(Long hotelId) {
+        this.hotelId = hotelId;
+    }
+
+    /**
+     * Gets the room type booked by the reservation.
+     *
+     * @return the room type (see {@link Room#getType()}).
+     */
+    public Integer getRoomType() {
+        return roomType;
+    }
+
+    /**
+     * Sets the room type booked by the reservation.
+     *
+     * @param roomType the room type to set.
+     */
+    public void setRoomType(Integer roomType) {
+        this.roomType = roomType;
+    }
+
+    /**
+     * Gets the check-in time of the stay.
+     *
+     * @return the check-in time.
+     */
+    public LocalDateTime getCheckInTime() {
+        return checkInTime;
+    }
+
+    /**
+     * Sets the check-in time of the stay.
+     *
+     * @param checkInTime the check-in time to set.
+     */
+    public void setCheckInTime(LocalDateTime checkInTime) {
+        this.checkInTime = checkInTime;
+    }
+
+    /**
+     * Gets the check-out time of the stay.
+     *
+     * @return the check-out time.
+     */
+    public LocalDateTime getCheckOutTime() {
+        return checkOutTime;
+    }
+
+    /**
+     * Sets the check-out time of the stay.
+     *
+     * @param checkOutTime the check-out time to set.
+     */
+    public void setCheckOutTime(LocalDateTime checkOutTime) {
+        this.checkOutTime = checkOutTime;
+    }
+
+    /**
+     * Gets the time the reservation was archived.
+     *
+     * @return the archival time.
+     */
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+
+    /**
+     * Sets the time the reservation was archived.
+     *
+     * @param archivedAt the archival time to set.
+     */
+    public void setArchivedAt(LocalDateTime archivedAt) {
+        this.archivedAt = archivedAt;
+    }
+
+    /**
+     * Gets the room that was reserved.
+     *
+     * @return the {@link Room}, or {@code null} if no room was ever assigned.
+     */
+    public Room getRoom() {
+        return room;
+    }
+
+    /**
+     * Sets the room that was reserved.
+     *
+     * @param room the {@link Room} to set.
+     */
+    public void setRoom(Room room) {
+        this.room = room;
+    }
+}
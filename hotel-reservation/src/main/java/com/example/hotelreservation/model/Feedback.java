@@ -1,5 +1,6 @@
 package com.example.hotelreservation.model;
 
+import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
 
 /**
@@ -15,6 +16,7 @@ public class Feedback {
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "hotel_id", nullable = false)
+    @JsonBackReference("hotel-feedbacks")
     private Hotel hotel;
 
     @Column(name = "user_id", nullable = false)
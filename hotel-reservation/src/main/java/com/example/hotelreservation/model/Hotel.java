@@ -2,15 +2,22 @@ package com.example.hotelreservation.model;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.util.List;
 
 /**
  * Entity class representing a hotel.
  * This class maps to the "hotels" table in the database and contains details about the hotel,
  * including its name, location, and associated rooms and feedbacks.
+ * Hotels and their room lists are read on almost every request but rarely change,
+ * so both are kept in the second-level cache.
  */
 @Entity
 @Table(name = "hotels")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "hotels")
 public class Hotel {
 
     @Id
@@ -28,9 +35,11 @@ public class Hotel {
 
     @OneToMany(mappedBy = "hotel", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonManagedReference
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "hotel-rooms")
     private List<Room> rooms;
 
     @OneToMany(mappedBy = "hotel")
+    @JsonManagedReference("hotel-feedbacks")
     private List<Feedback> feedbacks;
 
     // Getters and setters
@@ -0,0 +1,126 @@
+package com.example.hotelreservation.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entity class representing the outcome of a request sent with an {@code Idempotency-Key} header.
+ * This class maps to the "idempotency_records" table in the database. A record is created, without a
+ * response, when the first request with a key starts; the JSON response is stored once it succeeds,
+ * so retries of the same request get that response instead of repeating the operation.
+ */
+@Entity
+@Table(name = "idempotency_records")
+public class IdempotencyRecord {
+
+    // Hash of the operation, the user and the client's key
+    @Id
+    @Column(name = "record_key", length = 64)
+    private String key;
+
+    // Hash of the request body, to detect a key reused for a different request
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    // JSON response, or null while the first request is still running
+    @Column(name = "response", length = 8000)
+    private String response;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Getters and setters
+
+    /**
+     * Gets the key of the record.
+     *
+     * @return the hash of the operation, the user and the client's key.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Sets the key of the record.
+     *
+     * @param key the hash of the operation, the user and the client's key.
+     */
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    /**
+     * Gets the hash of the request body.
+     *
+     * @return the request hash.
+     */
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    /**
+     * Sets the hash of the request body.
+     *
+     * @param requestHash the request hash to set.
+     */
+    public void setRequestHash(String requestHash) {
+        this.requestHash = requestHash;
+    }
+
+    /**
+     * Gets the stored JSON response.
+     *
+     * @return the response, or {@code null} while the first request is still running.
+     */
+    public String getResponse() {
+        return response;
+    }
+
+    /**
+     * Sets the stored JSON response.
+     *
+     * @param response the response to set.
+     */
+    public void setResponse(String response) {
+        this.response = response;
+    }
+
+    /**
+     * Gets the time the first request with the key started.
+     *
+     * @return the creation time.
+     */
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Sets the time the first request with the key started.
+     *
+     * @param createdAt the creation time to set.
+     */
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Gets the time after which the key may be reused.
+     *
+     * @return the expiry time.
+     */
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * Sets the time after which the key may be reused.
+     *
+     * @param expiresAt the expiry time to set.
+     */
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -7,6 +7,8 @@ import java.time.LocalDateTime;
  * Entity class representing a reservation made by a user for a specific room.
  * This class maps to the "reservations" table in the database and contains details
  * about the reservation including user ID, room ID, check-in, and check-out times.
+ * Reservations booked by room type carry the hotel ID and room type and only get
+ * a room ID once a specific room is assigned at check-in.
  */
 @Entity
 @Table(name = "reservations")
@@ -19,9 +21,15 @@ public class Reservation {
     @Column(name = "user_id", nullable = false)
     private Long userId;
 
-    @Column(name = "room_id", nullable = false)
+    @Column(name = "room_id")
     private Long roomId;
 
+    @Column(name = "hotel_id")
+    private Long hotelId;
+
+    @Column(name = "room_type")
+    private Integer roomType;
+
     @Column(name = "check_in_time", nullable = false)
     private LocalDateTime checkInTime;
 
@@ -73,7 +81,7 @@ public class Reservation {
     /**
      * Gets the ID of the room reserved.
      *
-     * @return the room ID.
+     * @return the room ID, or {@code null} if no room has been assigned yet.
      */
     public Long getRoomId() {
         return roomId;
@@ -88,6 +96,42 @@ public class Reservation {
         this.roomId = roomId;
     }
 
+    /**
+     * Gets the ID of the hotel where the reservation was made.
+     *
+     * @return the hotel ID.
+     */
+    public Long getHotelId() {
+        return hotelId;
+    }
+
+    /**
+     * Sets the ID of the hotel where the reservation was made.
+     *
+     * @param hotelId the hotel ID to set.
+     */
+    public void setHotelId(Long hotelId) {
+        this.hotelId = hotelId;
+    }
+
+    /**
+     * Gets the room type booked by the reservation.
+     *
+     * @return the room type (see {@link Room#getType()}).
+     */
+    public Integer getRoomType() {
+        return roomType;
+    }
+
+    /**
+     * Sets the room type booked by the reservation.
+     *
+     * @param roomType the room type to set.
+     */
+    public void setRoomType(Integer roomType) {
+        this.roomType = roomType;
+    }
+
     /**
      * Gets the check-in time of the reservation.
      *
@@ -3,14 +3,19 @@ package com.example.hotelreservation.model;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Entity class representing a room in a hotel.
  * This class maps to the "rooms" table in the database and contains details
  * about the room including its number, type, price, availability, and associated hotel.
+ * Rooms are kept in the second-level cache.
  */
 @Entity
 @Table(name = "rooms")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "rooms")
 public class Room {
 
     @Id
@@ -0,0 +1,159 @@
+package com.example.hotelreservation.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * Entity class representing the allotment counter of a room type in a hotel for a single night.
+ * This class maps to the "room_type_inventory" table in the database. Each row tracks how many rooms
+ * of the given type exist in the hotel ({@code capacity}) and how many of them are already sold for
+ * that night ({@code booked}), so that room-type bookings only need to decrement a counter instead of
+ * competing for individual room rows.
+ */
+@Entity
+@Table(name = "room_type_inventory",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"hotel_id", "room_type", "night"}))
+public class RoomTypeInventory {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "hotel_id", nullable = false)
+    private Long hotelId;
+
+    @Column(name = "room_type", nullable = false)
+    private int roomType;
+
+    @Column(nullable = false)
+    private LocalDate night;
+
+    @Column(nullable = false)
+    private int capacity;
+
+    @Column(nullable = false)
+    private int booked;
+
+    // Default constructor
+    public RoomTypeInventory() {
+    }
+
+    // Parameterized constructor
+    public RoomTypeInventory(Long hotelId, int roomType, LocalDate night, int capacity, int booked) {
+        this.hotelId = hotelId;
+        this.roomType = roomType;
+        this.night = night;
+        this.capacity = capacity;
+        this.booked = booked;
+    }
+
+    // Getters and setters
+
+    /**
+     * Gets the unique identifier of the counter.
+     *
+     * @return the ID of the counter.
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Sets the unique identifier of the counter.
+     *
+     * @param id the ID to set.
+     */
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    /**
+     * Gets the ID of the hotel the counter belongs to.
+     *
+     * @return the hotel ID.
+     */
+    public Long getHotelId() {
+        return hotelId;
+    }
+
+    /**
+     * Sets the ID of the hotel the counter belongs to.
+     *
+     * @param hotelId the hotel ID to set.
+     */
+    public void setHotelId(Long hotelId) {
+        this.hotelId = hotelId;
+    }
+
+    /**
+     * Gets the room type tracked by the counter.
+     *
+     * @return the room type (see {@link Room#getType()}).
+     */
+    public int getRoomType() {
+        return roomType;
+    }
+
+    /**
+     * Sets the room type tracked by the counter.
+     *
+     * @param roomType the room type to set.
+     */
+    public void setRoomType(int roomType) {
+        this.roomType = roomType;
+    }
+
+    /**
+     * Gets the night tracked by the counter.
+     *
+     * @return the date on which the night starts.
+     */
+    public LocalDate getNight() {
+        return night;
+    }
+
+    /**
+     * Sets the night tracked by the counter.
+     *
+     * @param night the date on which the night starts.
+     */
+    public void setNight(LocalDate night) {
+        this.night = night;
+    }
+
+    /**
+     * Gets the number of rooms of this type in the hotel.
+     *
+     * @return the capacity.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Sets the number of rooms of this type in the hotel.
+     *
+     * @param capacity the capacity to set.
+     */
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Gets the number of rooms of this type already sold for the night.
+     *
+     * @return the booked count.
+     */
+    public int getBooked() {
+        return booked;
+    }
+
+    /**
+     * Sets the number of rooms of this type already sold for the night.
+     *
+     * @param booked the booked count to set.
+     */
+    public void setBooked(int booked) {
+        this.booked = booked;
+    }
+}
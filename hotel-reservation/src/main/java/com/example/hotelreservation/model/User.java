@@ -1,15 +1,20 @@
 package com.example.hotelreservation.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.Set;
 
 /**
  * Entity class representing a user in the system.
  * This class maps to the "users" table in the database and includes details
  * about the user such as username, password, and roles.
+ * Users and their roles are kept in the second-level cache, since they are loaded on every authenticated request.
  */
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 public class User {
 
     @Id
@@ -25,6 +30,7 @@ public class User {
     @ElementCollection(fetch = FetchType.EAGER)
     @CollectionTable(name = "user_roles", joinColumns = @JoinColumn(name = "user_id"))
     @Column(name = "role")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user-roles")
     private Set<String> roles;
 
     // Default constructor
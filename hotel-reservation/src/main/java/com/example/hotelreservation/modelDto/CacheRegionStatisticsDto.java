@@ -0,0 +1,80 @@
+package com.example.hotelreservation.modelDto;
+
+/**
+ * Data Transfer Object (DTO) that represents the hit-rate statistics of a second-level cache region.
+ */
+public class CacheRegionStatisticsDto {
+
+    // Name of the cache region
+    private String region;
+
+    // Number of lookups answered by the cache
+    private long hitCount;
+
+    // Number of lookups that had to go to the database
+    private long missCount;
+
+    // Number of entries put into the cache
+    private long putCount;
+
+    /**
+     * Constructs a new instance of CacheRegionStatisticsDto with the specified counters.
+     *
+     * @param region the name of the cache region.
+     * @param hitCount the number of cache hits.
+     * @param missCount the number of cache misses.
+     * @param putCount the number of cache puts.
+     */
+    public CacheRegionStatisticsDto(String region, long hitCount, long missCount, long putCount) {
+        this.region = region;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.putCount = putCount;
+    }
+
+    /**
+     * Gets the name of the cache region.
+     *
+     * @return the region name.
+     */
+    public String getRegion() {
+        return region;
+    }
+
+    /**
+     * Gets the number of cache hits.
+     *
+     * @return the hit count.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Gets the number of cache misses.
+     *
+     * @return the miss count.
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Gets the number of cache puts.
+     *
+     * @return the put count.
+     */
+    public long getPutCount() {
+        return putCount;
+    }
+
+    /**
+     * Gets the share of lookups answered by the cache.
+     *
+     * @return the hit ratio between 0 and 1, or 0 if the region was never read.
+     */
+    public double getHitRatio() {
+        long lookups = hitCount + missCount;
+        return lookups == 0 ? 0.0 : (double) hitCount / lookups;
+    }
+}
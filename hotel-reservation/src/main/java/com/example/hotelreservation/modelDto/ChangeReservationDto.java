@@ -3,7 +3,7 @@ package com.example.hotelreservation.modelDto;
 /**
  * Data Transfer Object (DTO) for changing a reservation.
  * This class encapsulates the details required to modify an existing reservation,
- * including the user's ID, the hotel's ID, and the new room's ID.
+ * including the user's ID, the hotel's ID, the reservation's ID, and the new room's ID.
  */
 public class ChangeReservationDto {
 
@@ -13,6 +13,9 @@ public class ChangeReservationDto {
     // Unique identifier of the hotel where the reservation is made
     private Long hotelId;
 
+    // Unique identifier of the reservation to change; without it, the user's next stay at the hotel is changed
+    private Long reservationId;
+
     // Unique identifier of the new room to which the reservation will be changed
     private Long newRoomId;
 
@@ -54,6 +57,24 @@ public class ChangeReservationDto {
         this.hotelId = hotelId;
     }
 
+    /**
+     * Gets the unique identifier of the reservation to change.
+     *
+     * @return the reservation ID, or {@code null} for the user's next stay at the hotel.
+     */
+    public Long getReservationId() {
+        return reservationId;
+    }
+
+    /**
+     * Sets the unique identifier of the reservation to change.
+     *
+     * @param reservationId the reservation ID to set.
+     */
+    public void setReservationId(Long reservationId) {
+        this.reservationId = reservationId;
+    }
+
     /**
      * Gets the unique identifier of the new room to which the reservation will be changed.
      *
@@ -0,0 +1,21 @@
+package com.example.hotelreservation.modelDto;
+
+/**
+ * Projection of the comment of a feedback entry and the hotel it belongs to.
+ */
+public interface FeedbackComment {
+
+    /**
+     * Gets the ID of the hotel.
+     *
+     * @return the hotel ID.
+     */
+    Long getHotelId();
+
+    /**
+     * Gets the comment text of the feedback.
+     *
+     * @return the comment, or {@code null} if the feedback has none.
+     */
+    String getComment();
+}
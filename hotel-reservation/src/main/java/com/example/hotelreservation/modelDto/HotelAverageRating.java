@@ -0,0 +1,21 @@
+package com.example.hotelreservation.modelDto;
+
+/**
+ * Projection of the average feedback rating of a hotel, as computed by the database.
+ */
+public interface HotelAverageRating {
+
+    /**
+     * Gets the ID of the hotel.
+     *
+     * @return the hotel ID.
+     */
+    Long getHotelId();
+
+    /**
+     * Gets the average rating of the hotel's feedback.
+     *
+     * @return the average rating.
+     */
+    Double getAverageRating();
+}
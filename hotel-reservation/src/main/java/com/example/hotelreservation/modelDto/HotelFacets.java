@@ -0,0 +1,185 @@
+package com.example.hotelreservation.modelDto;
+
+import java.util.Map;
+
+/**
+ * Data Transfer Object (DTO) that summarizes the rooms of a hotel for search filters:
+ * its price range, a price histogram and the number of rooms of each type.
+ */
+public class HotelFacets {
+
+    // Total number of rooms of the hotel
+    private int totalRooms;
+
+    // Number of rooms that are currently available
+    private int availableRooms;
+
+    // Lowest room price, 0 if the hotel has no rooms
+    private double minPrice;
+
+    // Highest room price, 0 if the hotel has no rooms
+    private double maxPrice;
+
+    // Width of each price histogram bucket
+    private double priceBucketWidth;
+
+    // Number of rooms per price bucket; bucket i covers [i * width, (i + 1) * width), the last one everything above
+    private int[] priceHistogram;
+
+    // Number of rooms per room type
+    private Map<Integer, Integer> roomsByType;
+
+    /**
+     * Default constructor.
+     */
+    public HotelFacets() {
+    }
+
+    /**
+     * Constructs a new instance of HotelFacets with the specified summary.
+     *
+     * @param totalRooms the total number of rooms.
+     * @param availableRooms the number of available rooms.
+     * @param minPrice the lowest room price.
+     * @param maxPrice the highest room price.
+     * @param priceBucketWidth the width of each price histogram bucket.
+     * @param priceHistogram the number of rooms per price bucket.
+     * @param roomsByType the number of rooms per room type.
+     */
+    public HotelFacets(int totalRooms, int availableRooms, double minPrice, double maxPrice,
+                       double priceBucketWidth, int[] priceHistogram, Map<Integer, Integer> roomsByType) {
+        this.totalRooms = totalRooms;
+        this.availableRooms = availableRooms;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.priceBucketWidth = priceBucketWidth;
+        this.priceHistogram = priceHistogram;
+        this.roomsByType = roomsByType;
+    }
+
+    /**
+     * Gets the total number of rooms of the hotel.
+     *
+     * @return the total number of rooms.
+     */
+    public int getTotalRooms() {
+        return totalRooms;
+    }
+
+    /**
+     * Sets the total number of rooms of the hotel.
+     *
+     * @param totalRooms the total number of rooms to set.
+     */
+    public void setTotalRooms(int totalRooms) {
+        this.totalRooms = totalRooms;
+    }
+
+    /**
+     * Gets the number of rooms that are currently available.
+     *
+     * @return the number of available rooms.
+     */
+    public int getAvailableRooms() {
+        return availableRooms;
+    }
+
+    /**
+     * Sets the number of rooms that are currently available.
+     *
+     * @param availableRooms the number of available rooms to set.
+     */
+    public void setAvailableRooms(int availableRooms) {
+        this.availableRooms = availableRooms;
+    }
+
+    /**
+     * Gets the lowest room price.
+     *
+     * @return the lowest price.
+     */
+    public double getMinPrice() {
+        return minPrice;
+    }
+
+    /**
+     * Sets the lowest room price.
+     *
+     * @param minPrice the lowest price to set.
+     */
+    public void setMinPrice(double minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    /**
+     * Gets the highest room price.
+     *
+     * @return the highest price.
+     */
+    public double getMaxPrice() {
+        return maxPrice;
+    }
+
+    /**
+     * Sets the highest room price.
+     *
+     * @param maxPrice the highest price to set.
+     */
+    public void setMaxPrice(double maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    /**
+     * Gets the width of each price histogram bucket.
+     *
+     * @return the bucket width.
+     */
+    public double getPriceBucketWidth() {
+        return priceBucketWidth;
+    }
+
+    /**
+     * Sets the width of each price histogram bucket.
+     *
+     * @param priceBucketWidth the bucket width to set.
+     */
+    public void setPriceBucketWidth(double priceBucketWidth) {
+        this.priceBucketWidth = priceBucketWidth;
+    }
+
+    /**
+     * Gets the number of rooms per price bucket.
+     *
+     * @return the price histogram.
+     */
+    public int[] getPriceHistogram() {
+        return priceHistogram;
+    }
+
+    /**
+     * Sets the number of rooms per price bucket.
+     *
+     * @param priceHistogram the price histogram to set.
+     */
+    public void setPriceHistogram(int[] priceHistogram) {
+        this.priceHistogram = priceHistogram;
+    }
+
+    /**
+     * Gets the number of rooms per room type.
+     *
+     * @return the room counts by type.
+     */
+    public Map<Integer, Integer> getRoomsByType() {
+        return roomsByType;
+    }
+
+    /**
+     * Sets the number of rooms per room type.
+     *
+     * @param roomsByType the room counts by type to set.
+     */
+    public void setRoomsByType(Map<Integer, Integer> roomsByType) {
+        this.roomsByType = roomsByType;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.hotelreservation.modelDto;
+
+/**
+ * Projection of the sum and number of feedback ratings of a hotel, as computed by the database.
+ */
+public interface HotelRatingTotals {
+
+    /**
+     * Gets the ID of the hotel.
+     *
+     * @return the hotel ID.
+     */
+    Long getHotelId();
+
+    /**
+     * Gets the sum of the ratings of the hotel's feedback.
+     *
+     * @return the rating sum.
+     */
+    Long getRatingSum();
+
+    /**
+     * Gets the number of feedback entries of the hotel.
+     *
+     * @return the rating count.
+     */
+    Long getRatingCount();
+}
@@ -0,0 +1,56 @@
+package com.example.hotelreservation.modelDto;
+
+/**
+ * Projection of a hotel found by the combined search, as computed by the database.
+ */
+public interface HotelSearchResult {
+
+    /**
+     * Gets the ID of the hotel.
+     *
+     * @return the hotel ID.
+     */
+    Long getHotelId();
+
+    /**
+     * Gets the name of the hotel.
+     *
+     * @return the hotel name.
+     */
+    String getName();
+
+    /**
+     * Gets the latitude of the hotel.
+     *
+     * @return the latitude in decimal degrees.
+     */
+    Double getLatitude();
+
+    /**
+     * Gets the longitude of the hotel.
+     *
+     * @return the longitude in decimal degrees.
+     */
+    Double getLongitude();
+
+    /**
+     * Gets the distance between the searched location and the hotel.
+     *
+     * @return the distance in kilometers.
+     */
+    Double getDistance();
+
+    /**
+     * Gets the lowest price among the hotel's rooms that match the search.
+     *
+     * @return the lowest matching price.
+     */
+    Double getMinPrice();
+
+    /**
+     * Gets the number of the hotel's rooms that match the search.
+     *
+     * @return the number of matching rooms.
+     */
+    Long getMatchingRooms();
+}
@@ -0,0 +1,51 @@
+package com.example.hotelreservation.modelDto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Data Transfer Object (DTO) that represents a hotel found by a keyword search along with its relevance score.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class HotelTextMatch {
+
+    // The hotel's basic details
+    private SimpleHotelDto hotel;
+
+    // How well the hotel's name and reviews match the keywords; higher is better
+    private double score;
+
+    /**
+     * Constructs a new instance of HotelTextMatch with the specified hotel and score.
+     */
+    public HotelTextMatch(SimpleHotelDto hotel, double score) {
+        this.hotel = hotel;
+        this.score = score;
+    }
+
+    // Getters and Setters
+
+    /**
+     * Gets the hotel's basic details.
+     */
+    @JsonProperty("hotel")
+    public SimpleHotelDto getHotel() {
+        return hotel;
+    }
+
+    public void setHotel(SimpleHotelDto hotel) {
+        this.hotel = hotel;
+    }
+
+    /**
+     * Gets the relevance score of the hotel.
+     */
+    @JsonProperty("score")
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.hotelreservation.modelDto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Data Transfer Object (DTO) that represents a hotel along with its distance from the user and its average rating.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class HotelWithDistance {
+
+    // The hotel's basic details
+    private SimpleHotelDto hotel;
+
+    // The distance between the user and the hotel, in kilometers
+    private double distance;
+
+    // The average rating of the hotel based on user feedback
+    private double averageRating;
+
+    // Summary of the hotel's rooms for price and type filters
+    private HotelFacets facets;
+
+    /**
+     * Constructs a new instance of HotelWithDistance with the specified hotel, distance and average rating.
+     */
+    public HotelWithDistance(SimpleHotelDto hotel, double distance, double averageRating) {
+        this.hotel = hotel;
+        this.distance = distance;
+        this.averageRating = averageRating;
+    }
+
+    // Getters and Setters
+
+    /**
+     * Gets the hotel's basic details.
+     */
+    @JsonProperty("hotel")
+    public SimpleHotelDto getHotel() {
+        return hotel;
+    }
+
+    public void setHotel(SimpleHotelDto hotel) {
+        this.hotel = hotel;
+    }
+
+    /**
+     * Gets the distance between the user and the hotel, in kilometers.
+     */
+    @JsonProperty("distance")
+    public double getDistance() {
+        return distance;
+    }
+
+    public void setDistance(double distance) {
+        this.distance = distance;
+    }
+
+    /**
+     * Gets the average rating of the hotel.
+     */
+    @JsonProperty("averageRating")
+    public double getAverageRating() {
+        return averageRating;
+    }
+
+    public void setAverageRating(double averageRating) {
+        this.averageRating = averageRating;
+    }
+
+    /**
+     * Gets the summary of the hotel's rooms, i.e. price range, price histogram and rooms per type.
+     */
+    @JsonProperty("facets")
+    public HotelFacets getFacets() {
+        return facets;
+    }
+
+    public void setFacets(HotelFacets facets) {
+        this.facets = facets;
+    }
+}
@@ -16,6 +16,9 @@ public class HotelWithRating {
     // The average rating of the hotel based on user feedback
     private double averageRating;
 
+    // Summary of the hotel's rooms for price and type filters
+    private HotelFacets facets;
+
     /**
      * Constructs a new instance of HotelWithRating with the specified hotel and average rating.
      */
@@ -50,4 +53,16 @@ public class HotelWithRating {
     public void setAverageRating(double averageRating) {
         this.averageRating = averageRating;
     }
+
+    /**
+     * Gets the summary of the hotel's rooms, i.e. price range, price histogram and rooms per type.
+     */
+    @JsonProperty("facets")
+    public HotelFacets getFacets() {
+        return facets;
+    }
+
+    public void setFacets(HotelFacets facets) {
+        this.facets = facets;
+    }
 }
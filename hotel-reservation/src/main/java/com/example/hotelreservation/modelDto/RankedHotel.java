@@ -0,0 +1,83 @@
+package com.example.hotelreservation.modelDto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Data Transfer Object (DTO) that represents a hotel on the top-rated leaderboard along with its ratings.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class RankedHotel {
+
+    // The hotel's basic details
+    private SimpleHotelDto hotel;
+
+    // The rating the hotel is ranked by: its average, pulled towards the overall average while it has few reviews
+    private double score;
+
+    // The plain average rating of the hotel based on user feedback
+    private double averageRating;
+
+    // The number of ratings the hotel has received
+    private long ratingCount;
+
+    /**
+     * Constructs a new instance of RankedHotel with the specified hotel and ratings.
+     */
+    public RankedHotel(SimpleHotelDto hotel, double score, double averageRating, long ratingCount) {
+        this.hotel = hotel;
+        this.score = score;
+        this.averageRating = averageRating;
+        this.ratingCount = ratingCount;
+    }
+
+    // Getters and Setters
+
+    /**
+     * Gets the hotel's basic details.
+     */
+    @JsonProperty("hotel")
+    public SimpleHotelDto getHotel() {
+        return hotel;
+    }
+
+    public void setHotel(SimpleHotelDto hotel) {
+        this.hotel = hotel;
+    }
+
+    /**
+     * Gets the smoothed rating the hotel is ranked by.
+     */
+    @JsonProperty("score")
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+
+    /**
+     * Gets the average rating of the hotel.
+     */
+    @JsonProperty("averageRating")
+    public double getAverageRating() {
+        return averageRating;
+    }
+
+    public void setAverageRating(double averageRating) {
+        this.averageRating = averageRating;
+    }
+
+    /**
+     * Gets the number of ratings of the hotel.
+     */
+    @JsonProperty("ratingCount")
+    public long getRatingCount() {
+        return ratingCount;
+    }
+
+    public void setRatingCount(long ratingCount) {
+        this.ratingCount = ratingCount;
+    }
+}
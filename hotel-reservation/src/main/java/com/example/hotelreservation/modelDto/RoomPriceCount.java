@@ -0,0 +1,42 @@
+package com.example.hotelreservation.modelDto;
+
+/**
+ * Projection of the number of rooms of a hotel that share a type, price and availability, as computed by the database.
+ */
+public interface RoomPriceCount {
+
+    /**
+     * Gets the ID of the hotel.
+     *
+     * @return the hotel ID.
+     */
+    Long getHotelId();
+
+    /**
+     * Gets the type of the rooms.
+     *
+     * @return the room type.
+     */
+    Integer getType();
+
+    /**
+     * Gets the price of the rooms.
+     *
+     * @return the room price.
+     */
+    Double getPrice();
+
+    /**
+     * Gets whether the rooms are available.
+     *
+     * @return {@code true} if the rooms are available; {@code false} otherwise.
+     */
+    Boolean getAvailable();
+
+    /**
+     * Gets the number of rooms.
+     *
+     * @return the room count.
+     */
+    Long getRooms();
+}
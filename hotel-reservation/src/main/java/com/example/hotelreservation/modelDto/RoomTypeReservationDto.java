@@ -0,0 +1,116 @@
+package com.example.hotelreservation.modelDto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object (DTO) that represents the details required to book a room by type.
+ * This class encapsulates the hotel and room type being booked instead of a specific room,
+ * which is only assigned when the guest checks in.
+ */
+public class RoomTypeReservationDto {
+
+    // The ID of the user making the reservation
+    private Long userId;
+
+    // The ID of the hotel where the room is booked
+    private Long hotelId;
+
+    // The type of room being booked (1: Single, 2: Double, 3: Suite, 4: Matrimonial)
+    private int roomType;
+
+    // The check-in date and time for the reservation
+    private LocalDateTime checkIn;
+
+    // The check-out date and time for the reservation
+    private LocalDateTime checkOut;
+
+    /**
+     * Gets the ID of the user making the reservation.
+     *
+     * @return the user ID as a {@link Long}.
+     */
+    public Long getUserId() {
+        return userId;
+    }
+
+    /**
+     * Sets the ID of the user making the reservation.
+     *
+     * @param userId the user ID to set.
+     */
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    /**
+     * Gets the ID of the hotel where the room is booked.
+     *
+     * @return the hotel ID as a {@link Long}.
+     */
+    public Long getHotelId() {
+        return hotelId;
+    }
+
+    /**
+     * Sets the ID of the hotel where the room is booked.
+     *
+     * @param hotelId the hotel ID to set.
+     */
+    public void setHotelId(Long hotelId) {
+        this.hotelId = hotelId;
+    }
+
+    /**
+     * Gets the type of room being booked.
+     *
+     * @return the room type.
+     */
+    public int getRoomType() {
+        return roomType;
+    }
+
+    /**
+     * Sets the type of room being booked.
+     *
+     * @param roomType the room type to set.
+     */
+    public void setRoomType(int roomType) {
+        this.roomType = roomType;
+    }
+
+    /**
+     * Gets the check-in date and time for the reservation.
+     *
+     * @return the check-in {@link LocalDateTime}.
+     */
+    public LocalDateTime getCheckIn() {
+        return checkIn;
+    }
+
+    /**
+     * Sets the check-in date and time for the reservation.
+     *
+     * @param checkIn the check-in {@link LocalDateTime} to set.
+     */
+    public void setCheckIn(LocalDateTime checkIn) {
+        this.checkIn = checkIn;
+    }
+
+    /**
+     * Gets the check-out date and time for the reservation.
+     *
+     * @return the check-out {@link LocalDateTime}.
+     */
+    public LocalDateTime getCheckOut() {
+        return checkOut;
+    }
+
+    /**
+     * Sets the check-out date and time for the reservation.
+     *
+     * @param checkOut the check-out {@link LocalDateTime} to set.
+     */
+    public void setCheckOut(LocalDateTime checkOut) {
+        this.checkOut = checkOut;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.hotelreservation.repository;
+
+import com.example.hotelreservation.model.ArchivedReservation;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+/**
+ * Repository interface for reading {@link ArchivedReservation} entities.
+ * Rows are moved into the archive by {@link com.example.hotelreservation.service.ReservationArchiveService}
+ * with plain SQL; this repository only serves the history of a user.
+ */
+public interface ArchivedReservationRepository extends JpaRepository<ArchivedReservation, Long> {
+
+    /**
+     * Finds the archived reservations of a user, latest stays first.
+     *
+     * The room and its hotel are fetched in the same query, as they are serialized with each reservation.
+     *
+     * @param userId the ID of the user whose past reservations are to be retrieved.
+     * @return a {@link List} of {@link ArchivedReservation} objects of the user.
+     */
+    @EntityGraph(attributePaths = {"room", "room.hotel"})
+    List<ArchivedReservation> findByUserIdOrderByCheckOutTimeDesc(Long userId);
+}
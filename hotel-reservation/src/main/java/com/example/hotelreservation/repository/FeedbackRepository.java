@@ -1,7 +1,14 @@
 package com.example.hotelreservation.repository;
 
 import com.example.hotelreservation.model.Feedback;
+import com.example.hotelreservation.modelDto.FeedbackComment;
+import com.example.hotelreservation.modelDto.HotelAverageRating;
+import com.example.hotelreservation.modelDto.HotelRatingTotals;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -16,4 +23,32 @@ public interface FeedbackRepository extends JpaRepository<Feedback, Long> {
      * @return a list of {@link Feedback} entities associated with the given hotel ID.
      */
     List<Feedback> findByHotelId(Long hotelId);
+
+    /**
+     * Computes the average rating of each of the given hotels in a single grouped query.
+     * Hotels without feedback are not part of the result.
+     *
+     * @param hotelIds the IDs of the hotels.
+     * @return a list of {@link HotelAverageRating} projections, one per hotel with feedback.
+     */
+    @Query("SELECT f.hotel.id AS hotelId, AVG(f.rating) AS averageRating FROM Feedback f " +
+            "WHERE f.hotel.id IN :hotelIds GROUP BY f.hotel.id")
+    List<HotelAverageRating> findAverageRatings(@Param("hotelIds") Collection<Long> hotelIds);
+
+    /**
+     * Computes the sum and number of ratings of every hotel with feedback in a single grouped query.
+     *
+     * @return a list of {@link HotelRatingTotals} projections, one per hotel with feedback.
+     */
+    @Query("SELECT f.hotel.id AS hotelId, SUM(f.rating) AS ratingSum, COUNT(f) AS ratingCount FROM Feedback f " +
+            "GROUP BY f.hotel.id")
+    List<HotelRatingTotals> findRatingTotals();
+
+    /**
+     * Finds the comments of all feedback entries, without loading the feedback entities.
+     *
+     * @return a list of {@link FeedbackComment} projections, one per feedback entry with a comment.
+     */
+    @Query("SELECT f.hotel.id AS hotelId, f.comment AS comment FROM Feedback f WHERE f.comment IS NOT NULL")
+    List<FeedbackComment> findComments();
 }
@@ -1,11 +1,77 @@
 package com.example.hotelreservation.repository;
 
 import com.example.hotelreservation.model.Hotel;
+import com.example.hotelreservation.modelDto.HotelSearchResult;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 /**
  * Repository interface for managing {@link Hotel} entities.
- * This interface extends {@link JpaRepository} to provide standard CRUD operations for the {@link Hotel} entity.
+ * This interface extends {@link JpaRepository} to provide standard CRUD operations for the {@link Hotel} entity,
+ * and {@link HotelVersionRepository} for the versions of the hotels' data.
  */
-public interface HotelRepository extends JpaRepository<Hotel, Long> {
+public interface HotelRepository extends JpaRepository<Hotel, Long>, HotelVersionRepository {
+
+    // Rooms of hotels inside the bounding box and radius that match the price and type and are free for the whole stay.
+    // Latitudes and longitudes are stored in degrees; 0.017453292519943295 converts them to radians.
+    String SEARCH_CONDITIONS = "FROM Room r JOIN r.hotel h " +
+            "WHERE h.latitude BETWEEN :minLat AND :maxLat AND h.longitude BETWEEN :minLon AND :maxLon " +
+            "AND r.price BETWEEN :minPrice AND :maxPrice AND r.type BETWEEN :minType AND :maxType " +
+            "AND sin((h.latitude * 0.017453292519943295 - :latRad) / 2) * sin((h.latitude * 0.017453292519943295 - :latRad) / 2) " +
+            "+ :cosLat * cos(h.latitude * 0.017453292519943295) " +
+            "* sin((h.longitude * 0.017453292519943295 - :lonRad) / 2) * sin((h.longitude * 0.017453292519943295 - :lonRad) / 2) <= :bound " +
+            "AND NOT EXISTS (SELECT 1 FROM Reservation res WHERE res.roomId = r.id " +
+            "AND res.checkInTime < :checkOut AND res.checkOutTime > :checkIn) " +
+            "AND NOT EXISTS (SELECT 1 FROM RoomTypeInventory i WHERE i.hotelId = h.id AND i.roomType = r.type " +
+            "AND i.night >= :firstNight AND i.night < :lastNight AND i.booked >= i.capacity) ";
+
+    /**
+     * Searches hotels by location, stay, price and room type in a single grouped query.
+     *
+     * The bounding box lets the database narrow the candidates with the index on the hotels' coordinates
+     * before the exact haversine term is compared with the bound of the radius. A room matches if no
+     * reservation of it overlaps the stay and its type is not sold out on any night of the stay.
+     * The count query only runs when the requested page is full or not the first one.
+     *
+     * @param minLat the southern edge of the bounding box in decimal degrees.
+     * @param maxLat the northern edge of the bounding box in decimal degrees.
+     * @param minLon the western edge of the bounding box in decimal degrees.
+     * @param maxLon the eastern edge of the bounding box in decimal degrees.
+     * @param latRad the latitude of the searched location in radians.
+     * @param lonRad the longitude of the searched location in radians.
+     * @param cosLat the cosine of the searched latitude.
+     * @param bound the largest haversine term within the radius.
+     * @param minPrice the lowest room price.
+     * @param maxPrice the highest room price.
+     * @param minType the lowest room type.
+     * @param maxType the highest room type.
+     * @param checkIn the start of the stay.
+     * @param checkOut the end of the stay.
+     * @param firstNight the first night of the stay.
+     * @param lastNight the day after the last night of the stay.
+     * @param pageable the page to return; results are ordered by distance and hotel ID.
+     * @return a page of {@link HotelSearchResult} projections, nearest first.
+     */
+    @Query(value = "SELECT h.id AS hotelId, h.name AS name, h.latitude AS latitude, h.longitude AS longitude, " +
+            "2 * 6371 * asin(sqrt(least(1, sin((h.latitude * 0.017453292519943295 - :latRad) / 2) * sin((h.latitude * 0.017453292519943295 - :latRad) / 2) " +
+            "+ :cosLat * cos(h.latitude * 0.017453292519943295) " +
+            "* sin((h.longitude * 0.017453292519943295 - :lonRad) / 2) * sin((h.longitude * 0.017453292519943295 - :lonRad) / 2)))) AS distance, " +
+            "MIN(r.price) AS minPrice, COUNT(r) AS matchingRooms " + SEARCH_CONDITIONS +
+            "GROUP BY h.id, h.name, h.latitude, h.longitude ORDER BY distance, h.id",
+            countQuery = "SELECT COUNT(DISTINCT h.id) " + SEARCH_CONDITIONS)
+    Page<HotelSearchResult> searchHotels(@Param("minLat") double minLat, @Param("maxLat") double maxLat,
+                                         @Param("minLon") double minLon, @Param("maxLon") double maxLon,
+                                         @Param("latRad") double latRad, @Param("lonRad") double lonRad,
+                                         @Param("cosLat") double cosLat, @Param("bound") double bound,
+                                         @Param("minPrice") double minPrice, @Param("maxPrice") double maxPrice,
+                                         @Param("minType") int minType, @Param("maxType") int maxType,
+                                         @Param("checkIn") LocalDateTime checkIn, @Param("checkOut") LocalDateTime checkOut,
+                                         @Param("firstNight") LocalDate firstNight, @Param("lastNight") LocalDate lastNight,
+                                         Pageable pageable);
 }
@@ -0,0 +1,43 @@
+package com.example.hotelreservation.repository;
+
+import com.example.hotelreservation.service.HotelVersionService.ResourceVersion;
+
+/**
+ * Custom methods of {@link HotelRepository} for the versions of each hotel's data and of the hotel
+ * catalogue, which are kept in the database next to the data they describe.
+ */
+public interface HotelVersionRepository {
+
+    /**
+     * Gets the current version of a hotel's data.
+     *
+     * @param hotelId the ID of the hotel.
+     * @return the {@link ResourceVersion} of the hotel, or {@code null} if there is no such hotel.
+     */
+    ResourceVersion findVersion(Long hotelId);
+
+    /**
+     * Gets the current version of the hotel catalogue.
+     *
+     * @return the {@link ResourceVersion} of the catalogue.
+     */
+    ResourceVersion findCatalogueVersion();
+
+    /**
+     * Bumps the version of a hotel's data. Inside a transaction, the new version becomes visible
+     * together with the changed data, and concurrent bumps of the hotel wait for the transaction.
+     *
+     * @param hotelId the ID of the hotel.
+     */
+    void incrementVersion(Long hotelId);
+
+    /**
+     * Bumps the version of the hotel catalogue, like {@link #incrementVersion(Long)}.
+     */
+    void incrementCatalogueVersion();
+
+    /**
+     * Bumps the versions of all hotels and of the catalogue, e.g. after hotels were imported.
+     */
+    void incrementAllVersions();
+}
@@ -0,0 +1,53 @@
+package com.example.hotelreservation.repository;
+
+import com.example.hotelreservation.service.HotelVersionService.ResourceVersion;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.List;
+
+/**
+ * JDBC implementation of {@link HotelVersionRepository}.
+ *
+ * The version columns are not mapped on {@link com.example.hotelreservation.model.Hotel}: plain JDBC
+ * statements bump them without evicting the cached hotel entities, as a native Hibernate update would.
+ * Modification times come from the database clock, so they agree across instances.
+ */
+class HotelVersionRepositoryImpl implements HotelVersionRepository {
+
+    private static final RowMapper<ResourceVersion> VERSION = (resultSet, row) ->
+            new ResourceVersion(resultSet.getLong("version"), resultSet.getTimestamp("modified_at").getTime());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    HotelVersionRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public ResourceVersion findVersion(Long hotelId) {
+        List<ResourceVersion> versions = jdbcTemplate.query("SELECT version, modified_at FROM hotels WHERE id = ?", VERSION, hotelId);
+        return versions.isEmpty() ? null : versions.get(0);
+    }
+
+    @Override
+    public ResourceVersion findCatalogueVersion() {
+        return jdbcTemplate.queryForObject("SELECT version, modified_at FROM catalogue_version WHERE id = 1", VERSION);
+    }
+
+    @Override
+    public void incrementVersion(Long hotelId) {
+        jdbcTemplate.update("UPDATE hotels SET version = version + 1, modified_at = LOCALTIMESTAMP WHERE id = ?", hotelId);
+    }
+
+    @Override
+    public void incrementCatalogueVersion() {
+        jdbcTemplate.update("UPDATE catalogue_version SET version = version + 1, modified_at = LOCALTIMESTAMP WHERE id = 1");
+    }
+
+    @Override
+    public void incrementAllVersions() {
+        jdbcTemplate.update("UPDATE hotels SET version = version + 1, modified_at = LOCALTIMESTAMP");
+        incrementCatalogueVersion();
+    }
+}
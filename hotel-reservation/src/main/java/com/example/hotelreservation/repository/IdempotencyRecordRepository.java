@@ -0,0 +1,76 @@
+package com.example.hotelreservation.repository;
+
+import com.example.hotelreservation.model.IdempotencyRecord;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository interface for managing {@link IdempotencyRecord} entities.
+ * A key is claimed and completed in the transaction of its operation, so the record only ever
+ * becomes visible to other transactions together with the operation's result and response.
+ */
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Claims a key for a request unless it is already claimed.
+     *
+     * The primary key makes this atomic across nodes: of two concurrent requests with the same key
+     * only one gets to insert the record. The other waits until the first one's transaction ends, and
+     * claims the key only if it rolled back.
+     *
+     * @param key the record key.
+     * @param requestHash the hash of the request body.
+     * @param createdAt the current time.
+     * @param expiresAt the time after which the key may be reused.
+     * @return {@code 1} if the key was claimed, {@code 0} if a record already exists.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_records (record_key, request_hash, created_at, expires_at) " +
+            "VALUES (:key, :requestHash, :createdAt, :expiresAt) " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int claim(@Param("key") String key, @Param("requestHash") String requestHash,
+              @Param("createdAt") LocalDateTime createdAt, @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Stores the response of a claimed key.
+     *
+     * @param key the record key.
+     * @param response the JSON response.
+     * @return the number of records updated.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.response = :response WHERE r.key = :key AND r.response IS NULL")
+    int complete(@Param("key") String key, @Param("response") String response);
+
+    /**
+     * Deletes the record of a key if it expired.
+     *
+     * The persistence context is cleared, so a record read before is not returned from it again.
+     *
+     * @param key the record key.
+     * @param now the current time.
+     * @return the number of records deleted.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.key = :key AND r.expiresAt < :now")
+    int deleteIfExpired(@Param("key") String key, @Param("now") LocalDateTime now);
+
+    /**
+     * Deletes all expired records.
+     *
+     * @param now the current time.
+     * @return the number of records deleted.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
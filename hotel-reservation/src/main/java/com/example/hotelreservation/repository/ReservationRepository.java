@@ -1,13 +1,14 @@
 package com.example.hotelreservation.repository;
 
 import com.example.hotelreservation.model.Reservation;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 
 /**
  * Repository interface for managing {@link Reservation} entities.
@@ -18,9 +19,12 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
     /**
      * Finds all reservations associated with a specific user ID.
      *
+     * The room and its hotel are fetched in the same query, as they are serialized with each reservation.
+     *
      * @param userId the ID of the user whose reservations are to be retrieved.
      * @return a {@link List} of {@link Reservation} objects associated with the given user ID.
      */
+    @EntityGraph(attributePaths = {"room", "room.hotel"})
     List<Reservation> findByUserId(Long userId);
 
     /**
@@ -33,52 +37,52 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
     Reservation findByIdAndUserId(Long id, Long userId);
 
     /**
-     * Finds a reservation made by a specific user in a given hotel.
+     * Finds the reservations of a specific user in a given hotel that check out at or after a given time.
      *
-     * This method performs a query to find a reservation that matches the specified user ID and hotel ID.
-     * It joins the reservation with the room to access the hotel's information. If a reservation exists
-     * for the user in the specified hotel, it returns an {@link Optional} containing the reservation.
-     * If no such reservation is found, it returns {@code Optional.empty()}.
+     * A user may hold several stays at the same hotel; they are returned in the order they begin,
+     * so the first one is the user's next (or current) stay.
      *
-     * @param userId the ID of the user who made the reservation. Must not be {@code null}.
-     * @param hotelId the ID of the hotel where the reservation is checked. Must not be {@code null}.
-     * @return an {@link Optional} containing the {@link Reservation} if found, or {@code Optional.empty()} if not found.
+     * @param userId the ID of the user who made the reservations.
+     * @param hotelId the ID of the hotel.
+     * @param since the time from which on reservations count as current.
+     * @return a {@link List} of {@link Reservation} objects, earliest check-in first.
      */
-    @Query("SELECT r FROM Reservation r JOIN r.room ro WHERE r.userId = :userId AND ro.hotel.id = :hotelId")
-    Optional<Reservation> findByUserIdAndHotelId(Long userId, Long hotelId);
+    @Query("SELECT r FROM Reservation r WHERE r.userId = :userId AND r.hotelId = :hotelId " +
+            "AND r.checkOutTime >= :since ORDER BY r.checkInTime, r.id")
+    List<Reservation> findCurrentByUserIdAndHotelId(@Param("userId") Long userId, @Param("hotelId") Long hotelId,
+                                                    @Param("since") LocalDateTime since);
 
     /**
-     * Checks if a reservation exists for a specific user at a given hotel.
-     *
-     * This method uses a custom JPQL (Java Persistence Query Language) query to determine if
-     * there is at least one reservation for the provided user ID at the specified hotel ID.
-     * It returns {@code true} if one or more reservations are found; otherwise, it returns {@code false}.
+     * Checks if a specific user has, or had, a reservation at a given hotel.
      *
-     * The query performs the following:
-     * - Counts the number of reservations matching the given user ID and hotel ID.
-     * - Returns {@code true} if the count is greater than 0, indicating that a reservation exists.
+     * Both the current reservations and the archived past stays are searched, each by the user's
+     * index and the hotel column, stopping at the first match. It is the fallback of
+     * {@code ReservationMembershipService} when its caches cannot answer.
      *
-     * @param userId the ID of the user for whom the reservation status is being checked.
-     * @param hotelId the ID of the hotel where the reservation status is being checked.
-     * @return {@code true} if there is at least one reservation for the specified user at the hotel;
+     * @param userId the ID of the user.
+     * @param hotelId the ID of the hotel.
+     * @return {@code true} if there is at least one current or archived reservation of the user at the hotel;
      *         {@code false} otherwise.
      */
-    @Query("SELECT COUNT(r) > 0 FROM Reservation r WHERE r.userId = :userId AND r.room.hotel.id = :hotelId")
-    boolean existsByUserIdAndRoomHotelId(@Param("userId") Long userId, @Param("hotelId") Long hotelId);
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM reservations WHERE user_id = :userId AND hotel_id = :hotelId LIMIT 1) " +
+            "OR EXISTS (SELECT 1 FROM reservations_archive WHERE user_id = :userId AND hotel_id = :hotelId LIMIT 1)",
+            nativeQuery = true)
+    boolean existsForUserAtHotel(@Param("userId") Long userId, @Param("hotelId") Long hotelId);
 
     /**
      * Finds reservations that conflict with a specified date range in a given hotel.
      *
      * This query retrieves reservations where the room is occupied at any time during the
      * specified start and end dates. It helps to determine if a room is reserved within a given
-     * date range.
+     * date range. Reservations of a room type that have no room assigned yet are included, with a
+     * {@code null} room ID.
      *
      * @param hotelId the ID of the hotel where the reservations are checked.
      * @param startDate the start date of the period to check for conflicting reservations.
      * @param endDate the end date of the period to check for conflicting reservations.
      * @return a {@link List} of {@link Reservation} objects that overlap with the specified date range.
      */
-    @Query("SELECT r FROM Reservation r WHERE r.room.hotel.id = :hotelId " +
+    @Query("SELECT r FROM Reservation r WHERE r.hotelId = :hotelId " +
             "AND (r.checkInTime < :endDate AND r.checkOutTime > :startDate)")
     List<Reservation> findConflictingReservations(
             @Param("hotelId") Long hotelId,
@@ -86,15 +90,93 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
             @Param("endDate") LocalDateTime endDate);
 
     /**
-     * Retrieves all reservations associated with a specific room.
+     * Checks if a specific room is reserved at any time during a given date range.
+     *
+     * Callers lock the room first (see {@link RoomRepository#lockAllByIdIn}), so no other booking of
+     * the room can slip in between the check and the end of their transaction.
+     *
+     * @param roomId the ID of the room.
+     * @param startDate the start of the period.
+     * @param endDate the end of the period.
+     * @return {@code true} if a reservation of the room overlaps the period; {@code false} otherwise.
+     */
+    @Query("SELECT COUNT(r) > 0 FROM Reservation r WHERE r.roomId = :roomId " +
+            "AND r.checkInTime < :endDate AND r.checkOutTime > :startDate")
+    boolean existsConflictForRoom(@Param("roomId") Long roomId,
+                                  @Param("startDate") LocalDateTime startDate,
+                                  @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * Checks if a specific room is reserved during a given date range by any reservation but one.
+     *
+     * @param roomId the ID of the room.
+     * @param reservationId the ID of the reservation to ignore, i.e. the one being moved.
+     * @param startDate the start of the period.
+     * @param endDate the end of the period.
+     * @return {@code true} if another reservation of the room overlaps the period; {@code false} otherwise.
+     */
+    @Query("SELECT COUNT(r) > 0 FROM Reservation r WHERE r.roomId = :roomId AND r.id <> :reservationId " +
+            "AND r.checkInTime < :endDate AND r.checkOutTime > :startDate")
+    boolean existsOtherConflictForRoom(@Param("roomId") Long roomId,
+                                       @Param("reservationId") Long reservationId,
+                                       @Param("startDate") LocalDateTime startDate,
+                                       @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * Moves a reservation to another room, provided it is still in the room it was read in.
      *
-     * This query finds all reservations for the given room ID, regardless of the reservation
-     * dates. It is used to check if there are any existing reservations for a room.
+     * A reservation without a room is expected as {@code -1}. If a concurrent change moved the
+     * reservation first, nothing is updated and the caller has to give up. The persistence context
+     * is flushed before and cleared after the update, so the reservation has to be loaded again.
+     *
+     * @param id the ID of the reservation.
+     * @param expectedRoomId the ID of the room the reservation was read in, or {@code -1} for none.
+     * @param newRoomId the ID of the room to move to.
+     * @param roomType the type of the new room.
+     * @return {@code 1} if the reservation was moved, {@code 0} if it has been changed meanwhile.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Reservation r SET r.roomId = :newRoomId, r.roomType = :roomType " +
+            "WHERE r.id = :id AND COALESCE(r.roomId, -1) = :expectedRoomId")
+    int moveToRoom(@Param("id") Long id, @Param("expectedRoomId") Long expectedRoomId,
+                   @Param("newRoomId") Long newRoomId, @Param("roomType") int roomType);
+
+    /**
+     * Retrieves the reservations of a specific room that check out at or after a given time.
+     *
+     * This query finds the reservations for the given room ID that are still ongoing or lie in the
+     * future. The check-out condition keeps it to the current partitions of the reservations table.
      *
      * @param roomId the ID of the room for which reservations are being retrieved.
+     * @param since the time from which on reservations count as active.
      * @return a {@link List} of {@link Reservation} objects associated with the specified room.
      */
-    @Query("SELECT r FROM Reservation r WHERE r.roomId = :roomId")
-    List<Reservation> findByRoomId(@Param("roomId") Long roomId);
+    @Query("SELECT r FROM Reservation r WHERE r.roomId = :roomId AND r.checkOutTime >= :since")
+    List<Reservation> findActiveByRoomId(@Param("roomId") Long roomId, @Param("since") LocalDateTime since);
+
+    /**
+     * Counts the reservations of a room type in a given hotel that occupy a specific night.
+     *
+     * A reservation occupies the night of day {@code d} when it checks in before the following
+     * midnight and checks out on or after it, or when it checks in and out on day {@code d} itself:
+     * the same nights {@link com.example.hotelreservation.service.RoomAllotmentService#nightsOf} claims
+     * for it. Every reservation records its hotel and room type, whether or not a specific room has
+     * been assigned, so both kinds are counted by those columns. It is used to seed the allotment
+     * counter of a night the first time it is booked.
+     *
+     * @param hotelId the ID of the hotel.
+     * @param roomType the room type.
+     * @param nightStart the midnight at which the counted night starts.
+     * @param nightEnd the midnight at which the counted night ends.
+     * @return the number of reservations occupying that night.
+     */
+    @Query("SELECT COUNT(r) FROM Reservation r " +
+            "WHERE r.hotelId = :hotelId AND r.roomType = :roomType AND r.checkInTime < :nightEnd " +
+            "AND (r.checkOutTime >= :nightEnd OR r.checkInTime >= :nightStart)")
+    long countReservationsForNight(
+            @Param("hotelId") Long hotelId,
+            @Param("roomType") int roomType,
+            @Param("nightStart") LocalDateTime nightStart,
+            @Param("nightEnd") LocalDateTime nightEnd);
 
 }
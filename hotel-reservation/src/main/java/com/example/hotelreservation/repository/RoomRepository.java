@@ -1,14 +1,24 @@
 package com.example.hotelreservation.repository;
 
 import com.example.hotelreservation.model.Room;
+import com.example.hotelreservation.modelDto.RoomPriceCount;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
  * Repository interface for managing {@link Room} entities.
  * This interface extends {@link JpaRepository} to provide standard CRUD operations and custom queries for {@link Room} entities.
+ * The hotel-scoped queries are stored in the "room-queries" query cache region; Hibernate invalidates
+ * them whenever the rooms table changes.
  */
 public interface RoomRepository extends JpaRepository<Room, Long> {
 
@@ -21,5 +31,61 @@ public interface RoomRepository extends JpaRepository<Room, Long> {
      * @return a list of {@link Room} objects that are available in the specified hotel.
      */
     @Query("SELECT r FROM Room r WHERE r.hotel.id = :hotelId")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "room-queries")
+    })
     List<Room> findAvailableRoomsByHotelId(Long hotelId);
+
+    /**
+     * Finds all rooms of a given type in a specified hotel.
+     *
+     * @param hotelId the ID of the hotel.
+     * @param type the room type.
+     * @return a list of {@link Room} objects of the given type in the specified hotel.
+     */
+    // Spelled out, as the derived query joins the hotel and cannot use the (hotel_id, type) index
+    @Query("SELECT r FROM Room r WHERE r.hotel.id = :hotelId AND r.type = :type")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "room-queries")
+    })
+    List<Room> findByHotelIdAndType(Long hotelId, int type);
+
+    /**
+     * Counts the rooms of a given type in a specified hotel.
+     *
+     * @param hotelId the ID of the hotel.
+     * @param type the room type.
+     * @return the number of rooms of the given type in the specified hotel.
+     */
+    @Query("SELECT COUNT(r) FROM Room r WHERE r.hotel.id = :hotelId AND r.type = :type")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "room-queries")
+    })
+    long countByHotelIdAndType(Long hotelId, int type);
+
+    /**
+     * Counts the rooms of every hotel by type, price and availability in a single grouped query,
+     * so room summaries can be built without loading room entities.
+     *
+     * @return a list of {@link RoomPriceCount} projections, one per hotel, type, price and availability.
+     */
+    @Query("SELECT r.hotel.id AS hotelId, r.type AS type, r.price AS price, r.available AS available, COUNT(r) AS rooms " +
+            "FROM Room r GROUP BY r.hotel.id, r.type, r.price, r.available")
+    List<RoomPriceCount> countRoomsByPrice();
+
+    /**
+     * Loads rooms and locks their rows until the end of the current transaction.
+     *
+     * The rows are locked in ascending ID order, so transactions locking overlapping sets of rooms
+     * wait for each other instead of deadlocking.
+     *
+     * @param ids the IDs of the rooms to lock.
+     * @return the {@link Room} objects found, by ascending ID.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Room r WHERE r.id IN :ids ORDER BY r.id")
+    List<Room> lockAllByIdIn(@Param("ids") Collection<Long> ids);
 }
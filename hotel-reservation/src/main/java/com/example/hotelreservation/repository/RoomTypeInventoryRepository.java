@@ -0,0 +1,76 @@
+package com.example.hotelreservation.repository;
+
+import com.example.hotelreservation.model.RoomTypeInventory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+
+/**
+ * Repository interface for managing {@link RoomTypeInventory} entities.
+ * Besides the standard CRUD operations it exposes the conditional updates used to claim and release
+ * a night of a room type atomically, without reading the counter first.
+ */
+public interface RoomTypeInventoryRepository extends JpaRepository<RoomTypeInventory, Long> {
+
+    /**
+     * Checks if a counter already exists for the given hotel, room type and night.
+     *
+     * @param hotelId the ID of the hotel.
+     * @param roomType the room type.
+     * @param night the night.
+     * @return {@code true} if the counter exists; {@code false} otherwise.
+     */
+    boolean existsByHotelIdAndRoomTypeAndNight(Long hotelId, int roomType, LocalDate night);
+
+    /**
+     * Creates the counter of a night unless another transaction already created it.
+     *
+     * A concurrent insert of the same counter is waited for and then skipped instead of failing,
+     * so the caller's transaction stays usable and no second connection is needed.
+     *
+     * @param hotelId the ID of the hotel.
+     * @param roomType the room type.
+     * @param night the night.
+     * @param capacity the number of rooms of that type.
+     * @param booked the number of rooms of that type already occupied during the night.
+     * @return {@code 1} if the counter was created, {@code 0} if it already existed.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO room_type_inventory (hotel_id, room_type, night, capacity, booked) " +
+            "VALUES (:hotelId, :roomType, :night, :capacity, :booked) " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("hotelId") Long hotelId, @Param("roomType") int roomType, @Param("night") LocalDate night,
+                       @Param("capacity") int capacity, @Param("booked") int booked);
+
+    /**
+     * Claims one room of the given type for the given night.
+     *
+     * The update only succeeds while the counter still has spare capacity, so two concurrent
+     * bookings can never both take the last room: the database serializes them on the counter row.
+     *
+     * @param hotelId the ID of the hotel.
+     * @param roomType the room type.
+     * @param night the night to claim.
+     * @return {@code 1} if a room was claimed, {@code 0} if the room type is sold out for that night.
+     */
+    @Modifying
+    @Query("UPDATE RoomTypeInventory i SET i.booked = i.booked + 1 " +
+            "WHERE i.hotelId = :hotelId AND i.roomType = :roomType AND i.night = :night AND i.booked < i.capacity")
+    int claimNight(@Param("hotelId") Long hotelId, @Param("roomType") int roomType, @Param("night") LocalDate night);
+
+    /**
+     * Releases one previously claimed room of the given type for the given night.
+     *
+     * @param hotelId the ID of the hotel.
+     * @param roomType the room type.
+     * @param night the night to release.
+     * @return the number of counters updated ({@code 0} if there was nothing to release).
+     */
+    @Modifying
+    @Query("UPDATE RoomTypeInventory i SET i.booked = i.booked - 1 " +
+            "WHERE i.hotelId = :hotelId AND i.roomType = :roomType AND i.night = :night AND i.booked > 0")
+    int releaseNight(@Param("hotelId") Long hotelId, @Param("roomType") int roomType, @Param("night") LocalDate night);
+}
@@ -1,7 +1,10 @@
 package com.example.hotelreservation.repository;
 
 import com.example.hotelreservation.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 /**
  * Repository interface for managing {@link User} entities.
@@ -13,9 +16,15 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * Finds a {@link User} by their username.
      *
      * This method retrieves a user entity based on the provided username.
+     * The result is stored in the "user-queries" query cache region, so together with the cached
+     * user entity and roles an authenticated request does not need to hit the database.
      *
      * @param username the username of the user to find.
      * @return the {@link User} entity associated with the given username, or {@code null} if no such user exists.
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "user-queries")
+    })
     User findByUsername(String username);
 }
@@ -0,0 +1,108 @@
+package com.example.hotelreservation.security;
+
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filter that rejects clients sending more requests than the configured limits allow.
+ *
+ * It runs ahead of {@link JwtRequestFilter}, so rejected requests never reach the database. Requests
+ * with a valid token are counted per user, all others per client address. Rejected requests are
+ * answered with {@code 429 Too Many Requests} and a {@code Retry-After} header.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    private final RateLimiter rateLimiter;
+    private final JwtUtil jwtUtil;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+
+    /**
+     * Constructor for RateLimitFilter.
+     *
+     * @param jwtUtil the utility used to read the user from the token.
+     * @param meterRegistry the registry rejected requests are counted in.
+     * @param enabled whether requests are limited at all.
+     * @param rules the limits per path, see {@link RateLimiter#RateLimiter(String, long)}.
+     * @param maxBuckets the maximum number of buckets kept in memory.
+     */
+    public RateLimitFilter(JwtUtil jwtUtil, MeterRegistry meterRegistry,
+                           @Value("${rate-limit.enabled:true}") boolean enabled,
+                           @Value("${rate-limit.rules:/auth/login=10/1m,/auth/register=5/1m,/hotels/withinRadius=20/1s,/hotels/search=20/1s,/**=100/1s}") String rules,
+                           @Value("${rate-limit.max-buckets:100000}") long maxBuckets) {
+        this.rateLimiter = new RateLimiter(rules, maxBuckets);
+        this.jwtUtil = jwtUtil;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Lets the request through if its client still has a token for the matching rule.
+     *
+     * @param request  the HTTP request.
+     * @param response the HTTP response.
+     * @param chain    the filter chain.
+     * @throws ServletException if an error occurs during request processing.
+     * @throws IOException      if an I/O error occurs.
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RateLimiter.Rule rule = enabled ? rateLimiter.findRule(urlPathHelper.getPathWithinApplication(request)) : null;
+        if (rule == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        long wait = rateLimiter.tryAcquire(rule, client(request), System.nanoTime());
+        if (wait == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        meterRegistry.counter("rate.limit.rejections", "rule", rule.getPattern()).increment();
+        // Whole seconds, rounded up, as the header requires
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        response.setContentType("text/plain");
+        response.getWriter().write("Too many requests, retry in " + retryAfter + " s");
+    }
+
+    /**
+     * Identifies the client of a request: the user of a valid token, or else the client address.
+     *
+     * Behind a proxy, set {@code server.forward-headers-strategy} so the address is taken from its headers.
+     */
+    private String client(HttpServletRequest request) {
+        String authorizationHeader = request.getHeader("Authorization");
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
+            try {
+                // Parsing checks the signature, so made-up tokens cannot be used to get fresh buckets
+                String username = jwtUtil.extractUsername(authorizationHeader.substring(7));
+                if (username != null) {
+                    return "user:" + username;
+                }
+            } catch (JwtException | IllegalArgumentException e) {
+                // Invalid or expired token: counted by address, and rejected later by the security rules
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.hotelreservation.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.util.AntPathMatcher;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process rate limiter with one token bucket per endpoint rule and client.
+ *
+ * Buckets follow the generic cell rate algorithm: each bucket is a single {@link AtomicLong} holding
+ * the time at which it will be full again, updated with compare-and-set, so no lock is taken. Buckets
+ * live in a size-bounded cache; one left idle for longer than its period is full anyway and is dropped.
+ */
+public class RateLimiter {
+
+    private final List<Rule> rules;
+    private final Cache<String, AtomicLong> buckets;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    /**
+     * Constructor for RateLimiter.
+     *
+     * @param rules the rules as {@code <path pattern>=<requests>/<period>}, separated by commas, e.g.
+     *              {@code /auth/login=10/1m,/**=100/1s}; the first rule matching a path applies.
+     * @param maxBuckets the maximum number of buckets kept in memory.
+     */
+    public RateLimiter(String rules, long maxBuckets) {
+        this.rules = parse(rules);
+        Duration longestPeriod = Duration.ofSeconds(1);
+        for (Rule rule : this.rules) {
+            if (rule.period.compareTo(longestPeriod) > 0) {
+                longestPeriod = rule.period;
+            }
+        }
+        this.buckets = Caffeine.newBuilder().maximumSize(maxBuckets).expireAfterAccess(longestPeriod).build();
+    }
+
+    /**
+     * Finds the rule that applies to a path.
+     *
+     * @param path the request path within the application.
+     * @return the first matching {@link Rule}, or {@code null} if the path is not limited.
+     */
+    public Rule findRule(String path) {
+        for (Rule rule : rules) {
+            if (pathMatcher.match(rule.pattern, path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Takes a token from a client's bucket for a rule.
+     *
+     * @param rule the rule that applies to the request.
+     * @param client the client, e.g. "user:alice" or "ip:10.0.0.1".
+     * @param now the current time in nanoseconds, as returned by {@link System#nanoTime()}.
+     * @return 0 if the request may proceed; otherwise the nanoseconds until the next token is available.
+     */
+    public long tryAcquire(Rule rule, String client, long now) {
+        AtomicLong fullAt = buckets.get(rule.pattern + ' ' + client, key -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long current = fullAt.get();
+            // Taking a token moves the time the bucket is full again one interval further
+            long next = Math.max(current, now) + rule.interval;
+            if (next - now > rule.periodNanos) {
+                return next - rule.periodNanos - now;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private static List<Rule> parse(String rules) {
+        List<Rule> parsed = new ArrayList<>();
+        for (String rule : rules.split(",")) {
+            if (rule.isBlank()) {
+                continue;
+            }
+            int equals = rule.indexOf('=');
+            int slash = rule.indexOf('/', equals);
+            if (equals < 1 || slash < 0) {
+                throw new IllegalArgumentException("Rate limit rule must look like <path>=<requests>/<period>: " + rule);
+            }
+            int requests = Integer.parseInt(rule.substring(equals + 1, slash).trim());
+            Duration period = DurationStyle.detectAndParse(rule.substring(slash + 1).trim());
+            parsed.add(new Rule(rule.substring(0, equals).trim(), requests, period));
+        }
+        return parsed;
+    }
+
+    /**
+     * A limit of a number of requests per period for the paths matching a pattern.
+     *
+     * A full bucket holds {@code requests} tokens and refills evenly over the period, so bursts up to
+     * the whole allowance are accepted.
+     */
+    public static final class Rule {
+
+        private final String pattern;
+        private final int requests;
+        private final Duration period;
+        private final long periodNanos;
+        private final long interval;
+
+        private Rule(String pattern, int requests, Duration period) {
+            if (requests < 1 || period.isNegative() || period.isZero()) {
+                throw new IllegalArgumentException("Rate limit rule for " + pattern + " must allow requests over a positive period");
+            }
+            this.pattern = pattern;
+            this.requests = requests;
+            this.period = period;
+            this.periodNanos = period.toNanos();
+            this.interval = periodNanos / requests;
+        }
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public int getRequests() {
+            return requests;
+        }
+
+        public Duration getPeriod() {
+            return period;
+        }
+    }
+}
@@ -25,14 +25,17 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 public class SecurityConfigurer {
 
     private final JwtRequestFilter jwtRequestFilter;
+    private final RateLimitFilter rateLimitFilter;
 
     /**
      * Constructor for SecurityConfigurer.
      *
      * @param jwtRequestFilter the JWT request filter to be applied to incoming requests.
+     * @param rateLimitFilter the filter rejecting clients that exceed their request limits.
      */
-    public SecurityConfigurer(JwtRequestFilter jwtRequestFilter) {
+    public SecurityConfigurer(JwtRequestFilter jwtRequestFilter, RateLimitFilter rateLimitFilter) {
         this.jwtRequestFilter = jwtRequestFilter;
+        this.rateLimitFilter = rateLimitFilter;
     }
 
     /**
@@ -46,7 +49,10 @@ public class SecurityConfigurer {
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http.csrf(csrf -> csrf.disable()) // Disable CSRF protection for simplicity. Use caution with this setting.
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/auth/login", "/auth/register", "/hotels/withinRadius").permitAll() // Public endpoints
+                        .requestMatchers("/auth/login", "/auth/register", "/hotels/withinRadius", "/hotels/nearest", "/hotels/search",
+                                "/hotels/text-search", "/hotels/autocomplete", "/hotels/top-rated").permitAll() // Public endpoints
+                        .requestMatchers("/livez", "/readyz").permitAll() // Liveness and readiness probes on the public port
+                        .requestMatchers("/actuator/health", "/actuator/health/**", "/actuator/prometheus").permitAll() // Only served on the loopback management port
                         .requestMatchers("/hotels/**", "/user/**").authenticated() // Protected endpoints requiring authentication
                         .anyRequest().authenticated() // Any other request must be authenticated
                 )
@@ -60,6 +66,7 @@ public class SecurityConfigurer {
                 );
 
         http.addFilterBefore(jwtRequestFilter, UsernamePasswordAuthenticationFilter.class); // Add JWT filter before default auth filter
+        http.addFilterBefore(rateLimitFilter, JwtRequestFilter.class); // Reject clients over their limits before any token or database work
 
         return http.build();
     }
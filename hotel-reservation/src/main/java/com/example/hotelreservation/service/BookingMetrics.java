@@ -0,0 +1,70 @@
+package com.example.hotelreservation.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+
+import java.util.function.Supplier;
+
+/**
+ * Service class for counting the outcomes of booking operations.
+ *
+ * Each operation is counted in the "bookings" counter, tagged with the operation and one of the outcomes:
+ * - success: the booking was stored;
+ * - conflict: the room or room type was taken, or a concurrent booking won the race;
+ * - error: anything else, e.g. an unknown room or a database failure.
+ *
+ * Operations are recorded around the transactional service call, so a booking failing at commit
+ * counts as an error rather than a success.
+ */
+@Service
+public class BookingMetrics {
+
+    private static final String[] OPERATIONS = {"room", "room-type", "change"};
+    private static final String[] OUTCOMES = {"success", "conflict", "error"};
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Constructor for BookingMetrics.
+     *
+     * @param meterRegistry the registry the counters are published to.
+     */
+    public BookingMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+
+        // Register every counter up front, so rates of outcomes that did not happen yet read as zero
+        for (String operation : OPERATIONS) {
+            for (String outcome : OUTCOMES) {
+                counter(operation, outcome);
+            }
+        }
+    }
+
+    /**
+     * Runs a booking operation and counts its outcome.
+     *
+     * @param operation the name of the operation, e.g. "room".
+     * @param booking the booking operation.
+     * @param <T> the result type of the operation.
+     * @return the result of the operation.
+     */
+    public <T> T record(String operation, Supplier<T> booking) {
+        try {
+            T result = booking.get();
+            counter(operation, "success").increment();
+            return result;
+        } catch (IllegalStateException | ConcurrencyFailureException e) {
+            counter(operation, "conflict").increment();
+            throw e;
+        } catch (RuntimeException e) {
+            counter(operation, "error").increment();
+            throw e;
+        }
+    }
+
+    private Counter counter(String operation, String outcome) {
+        return meterRegistry.counter("bookings", "operation", operation, "outcome", outcome);
+    }
+}
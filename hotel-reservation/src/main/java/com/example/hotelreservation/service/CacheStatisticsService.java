@@ -0,0 +1,59 @@
+package com.example.hotelreservation.service;
+
+import com.example.hotelreservation.modelDto.CacheRegionStatisticsDto;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Service class for reading the hit-rate statistics of the Hibernate second-level and query caches.
+ */
+@Service
+public class CacheStatisticsService {
+
+    private final Statistics statistics;
+
+    /**
+     * Constructor for CacheStatisticsService.
+     *
+     * @param entityManagerFactory the entity manager factory whose Hibernate statistics are read.
+     */
+    public CacheStatisticsService(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Retrieves the statistics of every second-level cache region, followed by the query cache totals.
+     *
+     * @return a list of {@link CacheRegionStatisticsDto} objects, one per region.
+     */
+    public List<CacheRegionStatisticsDto> getRegionStatistics() {
+        List<CacheRegionStatisticsDto> regions = new ArrayList<>();
+
+        // Entity, collection and query regions, sorted by name for a stable output
+        String[] regionNames = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(regionNames);
+        for (String regionName : regionNames) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region != null) {
+                regions.add(new CacheRegionStatisticsDto(
+                        regionName, region.getHitCount(), region.getMissCount(), region.getPutCount()));
+            }
+        }
+
+        // Query cache totals across all query regions
+        regions.add(new CacheRegionStatisticsDto(
+                "query-cache",
+                statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(),
+                statistics.getQueryCachePutCount()));
+
+        return regions;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.hotelreservation.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Service class for caching the serialized JSON bodies of hotel catalogue responses.
+ *
+ * Catalogue data changes rarely, so instead of running Jackson on every request the encoded body
+ * (and optionally a gzipped copy) is kept per resource together with the hotel version it was built
+ * from. An entry is rebuilt as soon as {@link HotelVersionService} reports a newer version of its hotel.
+ */
+@Service
+public class CatalogueResponseCache {
+
+    private final ObjectMapper objectMapper;
+    private final boolean gzipEnabled;
+    private final Cache<String, CachedResponse> responses;
+
+    /**
+     * Constructor for CatalogueResponseCache.
+     *
+     * @param objectMapper the object mapper used by the MVC layer, so cached bodies match regular responses.
+     * @param maxEntries the maximum number of cached bodies.
+     * @param gzipEnabled whether a gzipped copy of each body is kept as well.
+     * @param meterRegistry the registry the hit and eviction statistics of the cache are published to.
+     */
+    public CatalogueResponseCache(ObjectMapper objectMapper,
+                                  @Value("${catalogue.cache.max-entries:10000}") long maxEntries,
+                                  @Value("${catalogue.cache.gzip:true}") boolean gzipEnabled,
+                                  MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.gzipEnabled = gzipEnabled;
+        this.responses = CaffeineCacheMetrics.monitor(meterRegistry,
+                Caffeine.newBuilder().maximumSize(maxEntries).recordStats().build(), "catalogue-responses");
+    }
+
+    /**
+     * Retrieves the serialized body of a resource, building it if the cached one is missing or outdated.
+     *
+     * The version must be read before the data is loaded: a body is then never stored under a newer
+     * version than the data it contains.
+     *
+     * @param key the name of the resource, e.g. "hotels" or "rooms-12".
+     * @param version the current version of the data the resource is built from.
+     * @param loader loads the object to serialize when the body has to be rebuilt.
+     * @return the {@link CachedResponse} for the resource at the given version.
+     */
+    public CachedResponse get(String key, HotelVersionService.ResourceVersion version, Supplier<?> loader) {
+        CachedResponse cached = responses.getIfPresent(key);
+        if (cached != null && cached.getVersion() == version.getVersion()) {
+            return cached;
+        }
+
+        // Serialize once and keep the encoded bytes for the following requests
+        byte[] json = serialize(loader.get());
+        CachedResponse response = new CachedResponse(version.getVersion(), json, gzipEnabled ? gzip(json) : null);
+        responses.put(key, response);
+        return response;
+    }
+
+    /**
+     * Tells whether the cached bodies come with a gzipped copy.
+     *
+     * @return {@code true} if every {@link CachedResponse} has a gzipped copy of its body.
+     */
+    public boolean isGzipEnabled() {
+        return gzipEnabled;
+    }
+
+    private byte[] serialize(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize catalogue response", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * Serialized body of a catalogue response at a given version.
+     */
+    public static class CachedResponse {
+
+        private final long version;
+        private final byte[] json;
+        private final byte[] gzippedJson;
+
+        CachedResponse(long version, byte[] json, byte[] gzippedJson) {
+            this.version = version;
+            this.json = json;
+            this.gzippedJson = gzippedJson;
+        }
+
+        /**
+         * Gets the version of the data the body was built from.
+         *
+         * @return the version number.
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Gets the JSON encoded body.
+         *
+         * @return the body bytes.
+         */
+        public byte[] getJson() {
+            return json;
+        }
+
+        /**
+         * Gets the gzipped JSON body.
+         *
+         * @return the compressed body bytes, or {@code null} if compression is disabled.
+         */
+        public byte[] getGzippedJson() {
+            return gzippedJson;
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package com.example.hotelreservation.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service class that accepts feedback submissions right away and writes them to the database in batches.
+ *
+ * A submission is checked against the in-memory catalogue, recorded in a {@link FeedbackJournal} and
+ * queued; a single writer thread inserts up to {@code batch-size} queued submissions with one JDBC
+ * batch, at the latest {@code flush-interval} after the first of them arrived. Only the hotel ID is
+ * written, no hotel entity is loaded. After a batch commits, the ratings and comments are added to the
+ * in-memory indexes. When the queue is full, submissions wait briefly and are then rejected, so a burst
+ * slows clients down instead of exhausting memory. Journaled submissions not yet written when the
+ * process stopped are written after the next start. Each row records its journal entry under a unique
+ * key, so entries replayed although they were written are skipped, also by the in-memory indexes.
+ */
+@Service
+public class FeedbackIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedbackIngestionService.class);
+
+    // Skips journal entries whose batch committed before a crash kept them from being marked as written
+    private static final String INSERT_FEEDBACK = "INSERT INTO feedback (hotel_id, user_id, comment, rating, journal_id, journal_sequence) " +
+            "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final HotelVersionService hotelVersionService;
+    private final HotelGeoIndex hotelGeoIndex;
+    private final HotelTextIndex hotelTextIndex;
+    private final HotelLeaderboard hotelLeaderboard;
+    private final FeedbackJournal journal;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Duration offerTimeout;
+
+    private final BlockingQueue<FeedbackJournal.Entry> queue;
+    // Free places in the queue; taken before an entry is journaled, so a journaled entry always fits
+    private final Semaphore capacity;
+
+    private volatile boolean running = true;
+    private Thread writer;
+
+    /**
+     * Constructor for FeedbackIngestionService.
+     *
+     * @param jdbcTemplate the template the batches are inserted with.
+     * @param transactionManager the transaction manager each batch is committed with.
+     * @param hotelVersionService the service used to track changes of each hotel's data.
+     * @param hotelGeoIndex the index used to check hotel IDs and updated with new ratings.
+     * @param hotelTextIndex the index the comments of new feedback are added to.
+     * @param hotelLeaderboard the rankings the ratings of new feedback are added to.
+     * @param meterRegistry the registry the queue length is published to.
+     * @param journalDirectory the directory of the journal files.
+     * @param journalSync whether submissions are forced to disk before they are acknowledged.
+     * @param queueCapacity the maximum number of submissions waiting to be written.
+     * @param batchSize the maximum number of submissions written with one batch.
+     * @param flushInterval the longest time a submission waits for a batch to fill up.
+     * @param offerTimeout how long a submission waits for room in a full queue before it is rejected.
+     */
+    public FeedbackIngestionService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                    HotelVersionService hotelVersionService, HotelGeoIndex hotelGeoIndex,
+                                    HotelTextIndex hotelTextIndex, HotelLeaderboard hotelLeaderboard,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${feedback.ingestion.journal-dir:journal}") Path journalDirectory,
+                                    @Value("${feedback.ingestion.journal-sync:true}") boolean journalSync,
+                                    @Value("${feedback.ingestion.queue-capacity:10000}") int queueCapacity,
+                                    @Value("${feedback.ingestion.batch-size:500}") int batchSize,
+                                    @Value("${feedback.ingestion.flush-interval:200ms}") Duration flushInterval,
+                                    @Value("${feedback.ingestion.offer-timeout:100ms}") Duration offerTimeout) {
+        if (queueCapacity < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Feedback queue capacity and batch size must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.hotelVersionService = hotelVersionService;
+        this.hotelGeoIndex = hotelGeoIndex;
+        this.hotelTextIndex = hotelTextIndex;
+        this.hotelLeaderboard = hotelLeaderboard;
+        this.journal = FeedbackJournal.open(journalDirectory, journalSync);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.offerTimeout = offerTimeout;
+
+        // Recovered submissions come first and take their places in the queue, possibly more than there are
+        List<FeedbackJournal.Entry> recovered = journal.getRecovered();
+        this.queue = new ArrayBlockingQueue<>(Math.max(queueCapacity, recovered.size()));
+        this.queue.addAll(recovered);
+        this.capacity = new Semaphore(queueCapacity - recovered.size());
+        meterRegistry.gauge("feedback.ingestion.queue", queue, BlockingQueue::size);
+        if (!recovered.isEmpty()) {
+            logger.info("Recovered {} feedback submissions from {}", recovered.size(), journalDirectory);
+        }
+    }
+
+    /**
+     * Accepts feedback for a hotel; it is written to the database shortly afterwards.
+     *
+     * @param hotelId the ID of the hotel for which feedback is being left.
+     * @param userId the ID of the user leaving the feedback.
+     * @param comment the comment text of the feedback.
+     * @param rating the rating given in the feedback.
+     * @throws IllegalArgumentException if the hotel does not exist or the user is missing.
+     * @throws RejectedExecutionException if too many submissions are waiting to be written.
+     */
+    public void submit(Long hotelId, Long userId, String comment, int rating) {
+        if (hotelId == null || !hotelGeoIndex.contains(hotelId)) {
+            throw new IllegalArgumentException("Invalid hotel ID: " + hotelId);
+        }
+        if (userId == null) {
+            throw new IllegalArgumentException("User ID is required");
+        }
+        try {
+            if (!capacity.tryAcquire(offerTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new RejectedExecutionException("Too many feedback submissions, retry later");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting to submit feedback", e);
+        }
+        FeedbackJournal.Entry entry;
+        try {
+            entry = journal.append(hotelId, userId, comment, rating);
+        } catch (RuntimeException e) {
+            capacity.release();
+            throw e;
+        }
+        queue.add(entry);
+    }
+
+    /**
+     * Starts writing queued submissions, once the schema exists.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (writer == null && running) {
+            writer = new Thread(this::writeLoop, "feedback-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    /**
+     * Writes the submissions still queued and closes the journal.
+     *
+     * @throws InterruptedException if interrupted while waiting for the writer.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        Thread current;
+        synchronized (this) {
+            running = false;
+            current = writer;
+        }
+        if (current != null) {
+            current.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            logger.warn("Could not close feedback journal", e);
+        }
+    }
+
+    private void writeLoop() {
+        List<FeedbackJournal.Entry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                if (nextBatch(batch)) {
+                    write(batch);
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                // Database unavailable: keep the batch, it is still journaled, and retry after a pause
+                logger.warn("Could not write {} feedback submissions, retrying", batch.size(), e);
+                if (!running) {
+                    return;
+                }
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits for a submission and collects more until the batch is full or the flush interval passed.
+     *
+     * @return {@code true} if the batch holds submissions to write.
+     */
+    private boolean nextBatch(List<FeedbackJournal.Entry> batch) throws InterruptedException {
+        if (!batch.isEmpty()) {
+            return true;
+        }
+        FeedbackJournal.Entry first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return false;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                break;
+            }
+            FeedbackJournal.Entry next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return true;
+    }
+
+    private void write(List<FeedbackJournal.Entry> batch) {
+        List<FeedbackJournal.Entry> inserted;
+        try {
+            inserted = transactionTemplate.execute(status -> {
+                int[][] counts = jdbcTemplate.batchUpdate(INSERT_FEEDBACK, batch, batch.size(),
+                        (statement, entry) -> {
+                            statement.setLong(1, entry.getHotelId());
+                            statement.setLong(2, entry.getUserId());
+                            statement.setString(3, entry.getComment());
+                            statement.setInt(4, entry.getRating());
+                            statement.setString(5, entry.getJournalId());
+                            statement.setLong(6, entry.getSequence());
+                        });
+                List<FeedbackJournal.Entry> rows = inserted(batch, counts[0]);
+                touch(rows);
+                return rows;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // A hotel or user was deleted meanwhile: write the submissions one by one, dropping the invalid ones
+            writeEach(batch);
+            return;
+        }
+        written(batch, inserted);
+        batch.clear();
+    }
+
+    /**
+     * Picks the submissions of a batch whose rows were inserted, leaving out replayed ones that were
+     * already in the database. A driver that does not report the count of a row counts it as inserted.
+     */
+    private static List<FeedbackJournal.Entry> inserted(List<FeedbackJournal.Entry> batch, int[] counts) {
+        List<FeedbackJournal.Entry> inserted = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (counts[i] != 0) {
+                inserted.add(batch.get(i));
+            }
+        }
+        return inserted;
+    }
+
+    /**
+     * Writes submissions one at a time, removing each from the batch once it is written or dropped, so
+     * a retry after a failure does not write any of them twice.
+     */
+    private void writeEach(List<FeedbackJournal.Entry> batch) {
+        for (Iterator<FeedbackJournal.Entry> iterator = batch.iterator(); iterator.hasNext(); ) {
+            FeedbackJournal.Entry entry = iterator.next();
+            List<FeedbackJournal.Entry> written;
+            try {
+                written = transactionTemplate.execute(status -> {
+                    int count = jdbcTemplate.update(INSERT_FEEDBACK, entry.getHotelId(), entry.getUserId(),
+                            entry.getComment(), entry.getRating(), entry.getJournalId(), entry.getSequence());
+                    List<FeedbackJournal.Entry> rows = count != 0 ? List.of(entry) : List.of();
+                    touch(rows);
+                    return rows;
+                });
+            } catch (DataIntegrityViolationException e) {
+                logger.warn("Dropping feedback for hotel {} by user {}: {}", entry.getHotelId(), entry.getUserId(), e.getMessage());
+                written = List.of();
+            }
+            iterator.remove();
+            written(List.of(entry), written);
+        }
+    }
+
+    /**
+     * Completes submissions once they are in the database: frees their places in the queue, marks
+     * them as done in the journal and updates the in-memory indexes.
+     *
+     * Submissions can leave the queue in another order than they were journaled, so the journal is
+     * told exactly which ones are done rather than a sequence number up to which all are.
+     *
+     * @param processed the submissions that left the queue, written or dropped.
+     * @param written the submissions that were written, in order.
+     */
+    private void written(List<FeedbackJournal.Entry> processed, List<FeedbackJournal.Entry> written) {
+        journal.complete(processed);
+        capacity.release(processed.size());
+
+        for (FeedbackJournal.Entry entry : written) {
+            hotelGeoIndex.recordRating(entry.getHotelId(), entry.getRating());
+            hotelTextIndex.recordReview(entry.getHotelId(), entry.getComment());
+            hotelLeaderboard.recordRating(entry.getHotelId(), entry.getRating());
+        }
+    }
+
+    /**
+     * Bumps the versions of the hotels of written submissions, in the transaction that writes them.
+     * The hotels are bumped in ID order, so batches written by several instances cannot deadlock.
+     */
+    private void touch(List<FeedbackJournal.Entry> entries) {
+        Set<Long> hotelIds = new TreeSet<>();
+        for (FeedbackJournal.Entry entry : entries) {
+            hotelIds.add(entry.getHotelId());
+        }
+        hotelIds.forEach(hotelVersionService::touch);
+    }
+}
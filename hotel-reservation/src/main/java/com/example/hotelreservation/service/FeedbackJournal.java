@@ -0,0 +1,313 @@
+package com.example.hotelreservation.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Append-only file in which feedback is recorded before it is acknowledged, so feedback that was
+ * accepted but not yet written to the database survives a crash.
+ *
+ * Each line is either a feedback entry with a sequence number, a checkpoint saying that every entry
+ * up to a sequence number is in the database, or a mark saying that a single later entry is. Entries
+ * may reach the database out of order, so the checkpoint only moves up to the lowest entry that is not
+ * yet written; written entries above it are marked one by one. Entries neither covered by a checkpoint
+ * nor marked are recovered when the journal is opened again. Once all entries are in the database the
+ * file is emptied.
+ *
+ * Sequence numbers start over when a journal is opened again, so every opening journals under a new
+ * random ID. The ID and sequence number of an entry identify it for good; the database uses them to
+ * skip entries replayed after their batch had already committed.
+ *
+ * Every process takes the first journal file of the directory it can lock, so several instances (or
+ * test contexts) on one machine never share a file, and a restarted instance recovers the file of a
+ * crashed one.
+ */
+public class FeedbackJournal implements Closeable {
+
+    private static final int MAX_FILES = 64;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final FileLock lock;
+    private final boolean sync;
+    private final List<Entry> recovered;
+    // Journals the entries appended while this file is open
+    private final String id = UUID.randomUUID().toString();
+
+    // Guarded by this
+    private long lastSequence;
+    private long checkpointed;
+    // Sequence numbers of the entries recorded but not yet in the database
+    private final NavigableSet<Long> pending = new TreeSet<>();
+    private volatile long appendCount;
+
+    // Guarded by syncLock
+    private final Object syncLock = new Object();
+    private long syncedCount;
+
+    private FeedbackJournal(Path path, FileChannel channel, FileLock lock, boolean sync) throws IOException {
+        this.path = path;
+        this.channel = channel;
+        this.lock = lock;
+        this.sync = sync;
+        this.recovered = read(channel);
+
+        // Rewrite the file with just the recovered entries, dropping written ones and a torn last line
+        channel.truncate(0);
+        channel.position(0);
+        for (Entry entry : recovered) {
+            lastSequence = Math.max(lastSequence, entry.sequence);
+            pending.add(entry.sequence);
+            write(entry.toLine());
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Opens the first journal file in a directory that no other process holds.
+     *
+     * @param directory the directory of the journal files; created if missing.
+     * @param sync whether appended entries are forced to disk before they are acknowledged.
+     * @return the {@link FeedbackJournal}, with the entries that were not yet in the database.
+     */
+    public static FeedbackJournal open(Path directory, boolean sync) {
+        try {
+            Files.createDirectories(directory);
+            for (int i = 0; i < MAX_FILES; i++) {
+                Path path = directory.resolve("feedback-" + i + ".journal");
+                FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                FileLock lock = null;
+                try {
+                    lock = channel.tryLock();
+                } catch (OverlappingFileLockException e) {
+                    // Held by another context of this JVM
+                }
+                if (lock != null) {
+                    return new FeedbackJournal(path, channel, lock, sync);
+                }
+                channel.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open feedback journal in " + directory, e);
+        }
+        throw new IllegalStateException("All " + MAX_FILES + " feedback journals in " + directory + " are in use");
+    }
+
+    /**
+     * Gets the entries found in the file when it was opened, i.e. feedback not yet in the database.
+     *
+     * @return the recovered entries in order of their sequence numbers.
+     */
+    public List<Entry> getRecovered() {
+        return recovered;
+    }
+
+    /**
+     * Records a feedback entry and, if enabled, forces it to disk.
+     *
+     * Callers forcing at the same time share one disk flush.
+     *
+     * @param hotelId the ID of the hotel.
+     * @param userId the ID of the user.
+     * @param comment the comment text, may be {@code null}.
+     * @param rating the rating.
+     * @return the recorded {@link Entry}.
+     */
+    public Entry append(Long hotelId, Long userId, String comment, int rating) {
+        Entry entry;
+        long count;
+        synchronized (this) {
+            entry = new Entry(id, ++lastSequence, hotelId, userId, comment, rating);
+            write(entry.toLine());
+            pending.add(entry.sequence);
+            count = ++appendCount;
+        }
+        if (sync) {
+            force(count);
+        }
+        return entry;
+    }
+
+    /**
+     * Records that entries are in the database, and empties the file if no other entry is pending.
+     *
+     * @param entries the entries written to the database, or dropped, in any order.
+     */
+    public synchronized void complete(Collection<Entry> entries) {
+        for (Entry entry : entries) {
+            pending.remove(entry.sequence);
+        }
+        try {
+            if (pending.isEmpty()) {
+                channel.truncate(0);
+                channel.position(0);
+                checkpointed = lastSequence;
+                return;
+            }
+
+            // Everything below the lowest pending entry is in the database; later entries are marked singly
+            StringBuilder lines = new StringBuilder();
+            long through = pending.first() - 1;
+            if (through > checkpointed) {
+                lines.append("C\t").append(through).append('\n');
+                checkpointed = through;
+            }
+            for (Entry entry : entries) {
+                if (entry.sequence > through) {
+                    lines.append("D\t").append(entry.sequence).append('\n');
+                }
+            }
+            write(lines.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write feedback journal " + path, e);
+        }
+    }
+
+    /**
+     * Releases the file; entries after the last checkpoint are recovered when it is opened again.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (sync) {
+            channel.force(false);
+        }
+        lock.release();
+        channel.close();
+    }
+
+    private void write(String line) {
+        ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write feedback journal " + path, e);
+        }
+    }
+
+    private void force(long count) {
+        synchronized (syncLock) {
+            // Another caller's flush already covered this entry
+            if (syncedCount >= count) {
+                return;
+            }
+            long target = appendCount;
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not flush feedback journal " + path, e);
+            }
+            syncedCount = target;
+        }
+    }
+
+    private static List<Entry> read(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+        channel.read(buffer, 0);
+        String[] lines = new String(buffer.array(), StandardCharsets.UTF_8).split("\n");
+
+        List<Entry> entries = new ArrayList<>();
+        // Entries journaled before entries had IDs share one per file
+        String legacyId = UUID.randomUUID().toString();
+        long committed = 0;
+        Set<Long> done = new HashSet<>();
+        for (String line : lines) {
+            String[] fields = line.split("\t", -1);
+            try {
+                if (fields.length == 2 && fields[0].equals("C")) {
+                    committed = Math.max(committed, Long.parseLong(fields[1]));
+                } else if (fields.length == 2 && fields[0].equals("D")) {
+                    done.add(Long.parseLong(fields[1]));
+                } else if (fields.length == 7 && fields[0].equals("F")) {
+                    entries.add(Entry.parse(fields[2], fields[1], Arrays.copyOfRange(fields, 3, 7)));
+                } else if (fields.length == 6 && fields[0].equals("F")) {
+                    entries.add(Entry.parse(legacyId, fields[1], Arrays.copyOfRange(fields, 2, 6)));
+                }
+            } catch (IllegalArgumentException e) {
+                // A line torn by a crash while it was written; it was never acknowledged
+            }
+        }
+        final long lastCommitted = committed;
+        entries.removeIf(entry -> entry.sequence <= lastCommitted || done.contains(entry.sequence));
+        return entries;
+    }
+
+    /**
+     * A feedback submission recorded in the journal.
+     */
+    public static final class Entry {
+
+        private final String journalId;
+        private final long sequence;
+        private final Long hotelId;
+        private final Long userId;
+        private final String comment;
+        private final int rating;
+
+        private Entry(String journalId, long sequence, Long hotelId, Long userId, String comment, int rating) {
+            this.journalId = journalId;
+            this.sequence = sequence;
+            this.hotelId = hotelId;
+            this.userId = userId;
+            this.comment = comment;
+            this.rating = rating;
+        }
+
+        private static Entry parse(String journalId, String sequence, String[] fields) {
+            String comment = fields[2].equals("-") ? null
+                    : new String(Base64.getDecoder().decode(fields[2]), StandardCharsets.UTF_8);
+            return new Entry(journalId, Long.parseLong(sequence), Long.valueOf(fields[0]), Long.valueOf(fields[1]),
+                    comment, Integer.parseInt(fields[3]));
+        }
+
+        private String toLine() {
+            // The comment is encoded, so tabs and line breaks in it cannot break the line format
+            String encoded = comment == null ? "-" : Base64.getEncoder().encodeToString(comment.getBytes(StandardCharsets.UTF_8));
+            return "F\t" + sequence + '\t' + journalId + '\t' + hotelId + '\t' + userId + '\t' + encoded + '\t' + rating + '\n';
+        }
+
+        public String getJournalId() {
+            return journalId;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public Long getHotelId() {
+            return hotelId;
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        public String getComment() {
+            return comment;
+        }
+
+        public int getRating() {
+            return rating;
+        }
+    }
+}
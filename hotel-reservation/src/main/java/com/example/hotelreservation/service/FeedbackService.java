@@ -1,11 +1,8 @@
 package com.example.hotelreservation.service;
 
 import com.example.hotelreservation.model.Feedback;
-import com.example.hotelreservation.model.Hotel;
 import com.example.hotelreservation.modelDto.FeedbackDto;
 import com.example.hotelreservation.repository.FeedbackRepository;
-import com.example.hotelreservation.repository.HotelRepository;
-import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -14,62 +11,22 @@ import java.util.stream.Collectors;
 
 /**
  * Service class for managing feedback operations related to hotels.
- * Provides methods for leaving feedback and retrieving feedback for a specific hotel.
+ * Provides methods for retrieving feedback for a specific hotel; new feedback is accepted by
+ * {@link FeedbackIngestionService}.
  */
 @Service
 public class FeedbackService {
 
     private final FeedbackRepository feedbackRepository;
-    private final HotelRepository hotelRepository;
 
     /**
      * Constructor for FeedbackService.
      *
      * @param feedbackRepository the repository used to manage feedback data.
-     * @param hotelRepository the repository used to manage hotel data.
      */
     @Autowired
-    public FeedbackService(FeedbackRepository feedbackRepository, HotelRepository hotelRepository) {
+    public FeedbackService(FeedbackRepository feedbackRepository) {
         this.feedbackRepository = feedbackRepository;
-        this.hotelRepository = hotelRepository;
-    }
-
-    /**
-     * Allows a user to leave feedback for a specific hotel.
-     *
-     * @param hotelId the ID of the hotel for which feedback is being left.
-     * @param userId the ID of the user leaving the feedback.
-     * @param comment the comment text of the feedback.
-     * @param rating the rating given in the feedback.
-     * @return the boolean answer.
-     * @throws IllegalArgumentException if the hotel ID is invalid (i.e., the hotel does not exist).
-     */
-    @Transactional
-    public boolean leaveFeedback(Long hotelId, Long userId, String comment, int rating) {
-        try {
-            // Fetch the hotel entity using the hotelId
-            Hotel hotel = hotelRepository.findById(hotelId)
-                    .orElseThrow(() -> new IllegalArgumentException("Invalid hotel ID: " + hotelId));
-
-            // Create a new feedback object
-            Feedback feedback = new Feedback();
-            feedback.setHotel(hotel);  // Set the hotel entity
-            feedback.setUserId(userId);
-            feedback.setComment(comment);
-            feedback.setRating(rating);
-
-            // Save the feedback
-            feedbackRepository.save(feedback);
-
-            // If we reach here, it means the save was successful
-            return true;
-        } catch (Exception e) {
-            // Log the exception (optional)
-            // logger.error("Failed to leave feedback", e);
-
-            // Return false if there was an exception
-            return false;
-        }
     }
 
     /**
@@ -84,6 +41,7 @@ public class FeedbackService {
      * @return a list of FeedbackDto objects representing feedback for the specified hotel.
      *         Each FeedbackDto contains the user ID, comment, and rating for the feedback.
      */
+    @ReadOnlyTransactional
     public List<FeedbackDto> getFeedbacks(Long hotelId) {
         // Retrieve all feedback entities associated with the given hotel ID from the repository
         List<Feedback> feedbacks = feedbackRepository.findByHotelId(hotelId);
@@ -0,0 +1,159 @@
+package com.example.hotelreservation.service;
+
+import com.example.hotelreservation.modelDto.HotelFacets;
+import com.example.hotelreservation.modelDto.RoomPriceCount;
+import com.example.hotelreservation.repository.RoomRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service class that keeps a compact summary of the rooms of every hotel in memory: price range,
+ * price histogram, number of rooms per type and number of available rooms.
+ *
+ * Search results carry these facets, so rendering price and type filters never loads room entities.
+ * The summaries are built from one grouped query when the set of hotels is replaced
+ * ({@link HotelVersionService#touchAll()}); room availability is updated in place as rooms are
+ * occupied and freed.
+ */
+@Service
+public class HotelFacetService {
+
+    private final RoomRepository roomRepository;
+    private final HotelVersionService hotelVersionService;
+    private final double priceBucketWidth;
+    private final int priceBuckets;
+
+    private volatile Summaries summaries;
+
+    /**
+     * Constructor for HotelFacetService.
+     *
+     * @param roomRepository the repository the room counts are loaded from.
+     * @param hotelVersionService tells when the set of hotels was replaced.
+     * @param priceBucketWidth the width of each price histogram bucket.
+     * @param priceBuckets the number of price histogram buckets; the last one holds all higher prices.
+     */
+    public HotelFacetService(RoomRepository roomRepository, HotelVersionService hotelVersionService,
+                             @Value("${hotels.facets.price-bucket-width:100}") double priceBucketWidth,
+                             @Value("${hotels.facets.price-buckets:10}") int priceBuckets) {
+        if (!(priceBucketWidth > 0) || priceBuckets < 1) {
+            throw new IllegalArgumentException("Price buckets must have a positive width and count");
+        }
+        this.roomRepository = roomRepository;
+        this.hotelVersionService = hotelVersionService;
+        this.priceBucketWidth = priceBucketWidth;
+        this.priceBuckets = priceBuckets;
+    }
+
+    /**
+     * Gets the room summary of a hotel.
+     *
+     * @param hotelId the ID of the hotel.
+     * @return the {@link HotelFacets} of the hotel; all counts are 0 if the hotel has no rooms.
+     */
+    public HotelFacets getFacets(Long hotelId) {
+        Summary summary = current().byHotel.get(hotelId);
+        if (summary == null) {
+            return new HotelFacets(0, 0, 0, 0, priceBucketWidth, new int[priceBuckets], new TreeMap<>());
+        }
+        return summary.toFacets(priceBucketWidth);
+    }
+
+    /**
+     * Counts a room of a hotel as occupied or freed.
+     *
+     * When called inside a transaction, the change is only counted once the transaction commits.
+     *
+     * @param hotelId the ID of the hotel.
+     * @param available whether the room became available ({@code true}) or occupied ({@code false}).
+     */
+    public void recordAvailability(Long hotelId, boolean available) {
+        HotelVersionService.runAfterCommit(() -> {
+            Summaries current = summaries;
+            Summary summary = current != null ? current.byHotel.get(hotelId) : null;
+            if (summary != null) {
+                summary.availableRooms.addAndGet(available ? 1 : -1);
+            }
+        });
+    }
+
+    private Summaries current() {
+        long generation = hotelVersionService.getCatalogueGeneration();
+        Summaries current = summaries;
+        if (current == null || current.generation != generation) {
+            current = rebuild(generation);
+        }
+        return current;
+    }
+
+    private synchronized Summaries rebuild(long generation) {
+        Summaries current = summaries;
+        if (current != null && current.generation == generation) {
+            return current;
+        }
+        current = new Summaries(generation, roomRepository.countRoomsByPrice());
+        summaries = current;
+        return current;
+    }
+
+    /**
+     * Room summaries of one generation of the catalogue, by hotel ID.
+     */
+    private final class Summaries {
+
+        private final long generation;
+        private final Map<Long, Summary> byHotel = new HashMap<>();
+
+        private Summaries(long generation, List<RoomPriceCount> counts) {
+            this.generation = generation;
+            for (RoomPriceCount count : counts) {
+                byHotel.computeIfAbsent(count.getHotelId(), id -> new Summary(priceBuckets)).add(count, bucket(count.getPrice()));
+            }
+        }
+
+        private int bucket(double price) {
+            return Math.max(0, Math.min((int) Math.floor(price / priceBucketWidth), priceBuckets - 1));
+        }
+    }
+
+    /**
+     * Room summary of a single hotel. Only the available room count changes after it is built.
+     */
+    private static final class Summary {
+
+        private int totalRooms;
+        private double minPrice = Double.POSITIVE_INFINITY;
+        private double maxPrice = Double.NEGATIVE_INFINITY;
+        private final int[] priceHistogram;
+        private final TreeMap<Integer, Integer> roomsByType = new TreeMap<>();
+        private final AtomicInteger availableRooms = new AtomicInteger();
+
+        private Summary(int priceBuckets) {
+            this.priceHistogram = new int[priceBuckets];
+        }
+
+        private void add(RoomPriceCount count, int bucket) {
+            int rooms = count.getRooms().intValue();
+            totalRooms += rooms;
+            minPrice = Math.min(minPrice, count.getPrice());
+            maxPrice = Math.max(maxPrice, count.getPrice());
+            priceHistogram[bucket] += rooms;
+            roomsByType.merge(count.getType(), rooms, Integer::sum);
+            if (Boolean.TRUE.equals(count.getAvailable())) {
+                availableRooms.addAndGet(rooms);
+            }
+        }
+
+        private HotelFacets toFacets(double priceBucketWidth) {
+            // Copies, so callers cannot change the shared summary
+            return new HotelFacets(totalRooms, Math.max(availableRooms.get(), 0), minPrice, maxPrice,
+                    priceBucketWidth, priceHistogram.clone(), new TreeMap<>(roomsByType));
+        }
+    }
+}
@@ -0,0 +1,436 @@
+package com.example.hotelreservation.service;
+
+import com.example.hotelreservation.model.Hotel;
+import com.example.hotelreservation.modelDto.HotelRatingTotals;
+import com.example.hotelreservation.modelDto.HotelWithDistance;
+import com.example.hotelreservation.modelDto.SimpleHotelDto;
+import com.example.hotelreservation.repository.FeedbackRepository;
+import com.example.hotelreservation.repository.HotelRepository;
+import com.example.hotelreservation.utlis.DistanceCalculator;
+import com.example.hotelreservation.utlis.GeoPoints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Service class for finding the hotels nearest to a position without scanning the whole catalogue.
+ *
+ * Hotels are kept in memory in a grid of latitude/longitude cells. A search starts in the user's cell
+ * and visits rings of cells further and further out, keeping the best k hotels in a bounded heap. It
+ * stops as soon as no hotel outside the visited rings can beat the worst of those k, so its cost
+ * depends on k and on the density around the user, not on the size of the catalogue.
+ *
+ * Radius searches check the positions of all hotels in one batch instead, kept with the grid so that
+ * no request loads the catalogue or converts its coordinates.
+ *
+ * The grid is rebuilt when the set of hotels is replaced ({@link HotelVersionService#touchAll()}).
+ * Average ratings are loaded with the grid and updated in place as feedback is submitted. The grid is
+ * also rebuilt every {@code hotels.indexes.refresh-interval}, which brings in the ratings submitted
+ * through other instances.
+ */
+@Service
+public class HotelGeoIndex {
+
+    // The most hotels a single search returns
+    public static final int MAX_RESULTS = 100;
+
+    // The strongest rating weighting; at 1 a top-rated hotel would score 0 wherever it is
+    public static final double MAX_RATING_WEIGHT = 0.9;
+
+    private static final double EARTH_RADIUS = 6371;
+    private static final double KM_PER_DEGREE = EARTH_RADIUS * Math.PI / 180;
+    private static final double MAX_RATING = 5;
+
+    private final HotelRepository hotelRepository;
+    private final FeedbackRepository feedbackRepository;
+    private final HotelVersionService hotelVersionService;
+    private final int rows;
+    private final int columns;
+
+    private volatile Grid grid;
+
+    /**
+     * Constructor for HotelGeoIndex.
+     *
+     * @param hotelRepository the repository the hotels are loaded from.
+     * @param feedbackRepository the repository the ratings are loaded from.
+     * @param hotelVersionService tells when the set of hotels was replaced.
+     * @param cellDegrees the approximate edge length of a grid cell, in degrees.
+     */
+    public HotelGeoIndex(HotelRepository hotelRepository, FeedbackRepository feedbackRepository,
+                         HotelVersionService hotelVersionService,
+                         @Value("${hotels.geo-index.cell-degrees:0.25}") double cellDegrees) {
+        if (!(cellDegrees > 0 && cellDegrees <= 90)) {
+            throw new IllegalArgumentException("Cell size must be between 0 and 90 degrees: " + cellDegrees);
+        }
+        this.hotelRepository = hotelRepository;
+        this.feedbackRepository = feedbackRepository;
+        this.hotelVersionService = hotelVersionService;
+        // Whole numbers of cells, so the columns wrap around exactly at the antimeridian
+        this.rows = (int) Math.round(180 / cellDegrees);
+        this.columns = (int) Math.round(360 / cellDegrees);
+    }
+
+    /**
+     * Finds the hotels nearest to a position.
+     *
+     * Without rating weighting the hotels are ranked by distance. With a weight w, the distance of a
+     * hotel with average rating r is scaled by {@code 1 - w * r / 5}, so well rated hotels rank as if
+     * they were closer.
+     *
+     * @param lat the latitude of the user's location.
+     * @param lon the longitude of the user's location.
+     * @param k the number of hotels to return, at most {@link #MAX_RESULTS}.
+     * @param ratingWeight how strongly ratings pull hotels forward, between 0 and {@link #MAX_RATING_WEIGHT}.
+     * @return up to k {@link HotelWithDistance} objects, best ranked first.
+     */
+    public List<HotelWithDistance> findNearest(double lat, double lon, int k, double ratingWeight) {
+        Grid index = current();
+        int limit = Math.min(Math.min(k, MAX_RESULTS), index.size());
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        double weight = Math.max(0, Math.min(ratingWeight, MAX_RATING_WEIGHT));
+
+        Search search = new Search(index, lat, lon, weight, limit);
+        int row = index.row(lat);
+        int column = index.column(lon);
+        Set<Long> visited = new HashSet<>();
+
+        for (int ring = 0; ; ring++) {
+            // Cells on the border of the (2 ring + 1)² block around the user's cell
+            for (int r = Math.max(row - ring, 0); r <= Math.min(row + ring, rows - 1); r++) {
+                int step = Math.abs(r - row) == ring ? 1 : 2 * ring;
+                for (int c = column - ring; c <= column + ring; c += step) {
+                    long key = (long) r * columns + Math.floorMod(c, columns);
+                    if (visited.add(key)) {
+                        search.scan(index.cells.get(key));
+                    }
+                }
+            }
+
+            // No hotel outside the block can beat the current k-th hotel
+            if (search.isFull() && lowerBound(lat, lon, row, column, ring) * (1 - weight) >= search.worstScore()) {
+                break;
+            }
+            if (row - ring <= 0 && row + ring >= rows - 1 && 2 * ring + 1 >= columns) {
+                break;
+            }
+            // In sparse areas most cells are empty: scanning the remaining hotels directly is cheaper
+            if (visited.size() > index.cells.size()) {
+                for (Map.Entry<Long, Cell> cell : index.cells.entrySet()) {
+                    if (!visited.contains(cell.getKey())) {
+                        search.scan(cell.getValue());
+                    }
+                }
+                break;
+            }
+        }
+        return search.results();
+    }
+
+    /**
+     * Finds the hotels within a radius of a position.
+     *
+     * @param lat the latitude of the user's location.
+     * @param lon the longitude of the user's location.
+     * @param radius the radius in kilometers.
+     * @return a {@link SimpleHotelDto} per hotel within the radius, in the order the catalogue was loaded.
+     */
+    public List<SimpleHotelDto> findWithinRadius(double lat, double lon, double radius) {
+        Grid index = current();
+        // Only the radius comparison is needed, not the distances
+        boolean[] withinRadius = new boolean[index.size()];
+        int matches = DistanceCalculator.withinRadius(lat, lon, radius, index.points, withinRadius);
+
+        List<SimpleHotelDto> hotels = new ArrayList<>(matches);
+        for (int slot = 0; slot < withinRadius.length; slot++) {
+            if (withinRadius[slot]) {
+                hotels.add(new SimpleHotelDto(index.ids[slot], index.names[slot], index.latitudes[slot], index.longitudes[slot]));
+            }
+        }
+        return hotels;
+    }
+
+    /**
+     * Checks whether a hotel exists, without querying the database.
+     *
+     * @param hotelId the ID of the hotel.
+     * @return {@code true} if the hotel is part of the current catalogue; {@code false} otherwise.
+     */
+    public boolean contains(Long hotelId) {
+        return current().slots.containsKey(hotelId);
+    }
+
+    /**
+     * Adds the rating of newly submitted feedback to the average rating of a hotel.
+     *
+     * When called inside a transaction, the rating is only added once the transaction commits.
+     *
+     * @param hotelId the ID of the hotel.
+     * @param rating the rating given in the feedback.
+     */
+    public void recordRating(Long hotelId, int rating) {
+        HotelVersionService.runAfterCommit(() -> {
+            Grid index = grid;
+            if (index != null) {
+                index.addRating(hotelId, rating);
+            }
+        });
+    }
+
+    /**
+     * Computes the shortest distance from the user to any point outside the block of cells searched so far.
+     */
+    private double lowerBound(double lat, double lon, int row, int column, int ring) {
+        double cellHeight = 180.0 / rows;
+        double cellWidth = 360.0 / columns;
+        double bound = Double.POSITIVE_INFINITY;
+
+        // Along the meridian to the first row above and below the block
+        if (row + ring + 1 < rows) {
+            bound = Math.min(bound, ((row + ring + 1) * cellHeight - 90 - lat) * KM_PER_DEGREE);
+        }
+        if (row - ring - 1 >= 0) {
+            bound = Math.min(bound, (lat - ((row - ring) * cellHeight - 90)) * KM_PER_DEGREE);
+        }
+
+        // Across to the nearest meridian left or right of the block
+        if (2 * ring + 1 < columns) {
+            double east = (column + ring + 1) * cellWidth - 180 - lon;
+            double west = lon - ((column - ring) * cellWidth - 180);
+            double degrees = Math.min(Math.min(east, west), 90);
+            bound = Math.min(bound, EARTH_RADIUS * Math.asin(Math.cos(Math.toRadians(lat)) * Math.sin(Math.toRadians(degrees))));
+        }
+        return Math.max(bound, 0);
+    }
+
+    /**
+     * Rebuilds the grid from the database, adding the hotels and ratings submitted through other instances.
+     * Nothing is built before the grid is first read.
+     */
+    @Scheduled(fixedDelayString = "${hotels.indexes.refresh-interval:60000}",
+            initialDelayString = "${hotels.indexes.refresh-interval:60000}")
+    public void refresh() {
+        if (grid != null) {
+            rebuild(hotelVersionService.getCatalogueGeneration(), true);
+        }
+    }
+
+    private Grid current() {
+        long generation = hotelVersionService.getCatalogueGeneration();
+        Grid index = grid;
+        if (index == null || index.generation != generation) {
+            index = rebuild(generation, false);
+        }
+        return index;
+    }
+
+    private synchronized Grid rebuild(long generation, boolean force) {
+        Grid index = grid;
+        if (!force && index != null && index.generation == generation) {
+            return index;
+        }
+        index = new Grid(generation, hotelRepository.findAll(), feedbackRepository.findRatingTotals());
+        grid = index;
+        return index;
+    }
+
+    /**
+     * Hotels of one generation of the catalogue, grouped by grid cell.
+     */
+    private final class Grid {
+
+        private final long generation;
+
+        // Per hotel, indexed by slot
+        private final long[] ids;
+        private final String[] names;
+        private final double[] latitudes;
+        private final double[] longitudes;
+        private final AtomicLongArray ratingSums;
+        private final AtomicLongArray ratingCounts;
+        private final Map<Long, Integer> slots = new HashMap<>();
+        // The positions of all hotels, indexed by slot, for radius searches
+        private final GeoPoints points;
+
+        // Non-empty cells by row * columns + column
+        private final Map<Long, Cell> cells = new HashMap<>();
+        private final int largestCell;
+
+        private Grid(long generation, List<Hotel> hotels, List<HotelRatingTotals> ratings) {
+            this.generation = generation;
+            this.ids = new long[hotels.size()];
+            this.names = new String[hotels.size()];
+            this.latitudes = new double[hotels.size()];
+            this.longitudes = new double[hotels.size()];
+            this.ratingSums = new AtomicLongArray(hotels.size());
+            this.ratingCounts = new AtomicLongArray(hotels.size());
+
+            Map<Long, List<Integer>> slotsByCell = new HashMap<>();
+            for (int slot = 0; slot < hotels.size(); slot++) {
+                Hotel hotel = hotels.get(slot);
+                ids[slot] = hotel.getId();
+                names[slot] = hotel.getName();
+                latitudes[slot] = hotel.getLatitude();
+                longitudes[slot] = hotel.getLongitude();
+                slots.put(hotel.getId(), slot);
+                long key = (long) row(hotel.getLatitude()) * columns + column(hotel.getLongitude());
+                slotsByCell.computeIfAbsent(key, cell -> new ArrayList<>()).add(slot);
+            }
+            this.points = GeoPoints.fromDegrees(latitudes, longitudes);
+
+            int largest = 0;
+            for (Map.Entry<Long, List<Integer>> cell : slotsByCell.entrySet()) {
+                int[] cellSlots = cell.getValue().stream().mapToInt(Integer::intValue).toArray();
+                double[] cellLatitudes = new double[cellSlots.length];
+                double[] cellLongitudes = new double[cellSlots.length];
+                for (int i = 0; i < cellSlots.length; i++) {
+                    cellLatitudes[i] = latitudes[cellSlots[i]];
+                    cellLongitudes[i] = longitudes[cellSlots[i]];
+                }
+                cells.put(cell.getKey(), new Cell(cellSlots, GeoPoints.fromDegrees(cellLatitudes, cellLongitudes)));
+                largest = Math.max(largest, cellSlots.length);
+            }
+            this.largestCell = largest;
+
+            for (HotelRatingTotals rating : ratings) {
+                Integer slot = slots.get(rating.getHotelId());
+                if (slot != null) {
+                    ratingSums.set(slot, rating.getRatingSum());
+                    ratingCounts.set(slot, rating.getRatingCount());
+                }
+            }
+        }
+
+        private int size() {
+            return ids.length;
+        }
+
+        private int row(double lat) {
+            return Math.max(0, Math.min((int) Math.floor((lat + 90) / (180.0 / rows)), rows - 1));
+        }
+
+        private int column(double lon) {
+            return Math.floorMod((int) Math.floor((lon + 180) / (360.0 / columns)), columns);
+        }
+
+        private double averageRating(int slot) {
+            long count = ratingCounts.get(slot);
+            return count == 0 ? 0 : (double) ratingSums.get(slot) / count;
+        }
+
+        private void addRating(Long hotelId, int rating) {
+            Integer slot = slots.get(hotelId);
+            if (slot != null) {
+                ratingSums.addAndGet(slot, rating);
+                ratingCounts.incrementAndGet(slot);
+            }
+        }
+    }
+
+    /**
+     * Hotels of one grid cell: their slots and their positions, ready for batch distance calculation.
+     */
+    private static final class Cell {
+
+        private final int[] slots;
+        private final GeoPoints points;
+
+        private Cell(int[] slots, GeoPoints points) {
+            this.slots = slots;
+            this.points = points;
+        }
+    }
+
+    /**
+     * State of one search: the best hotels found so far, worst on top of the heap.
+     */
+    private static final class Search {
+
+        private final Grid index;
+        private final double lat;
+        private final double lon;
+        private final double weight;
+        private final int limit;
+        private final double[] distances;
+        private final PriorityQueue<Candidate> best;
+
+        private Search(Grid index, double lat, double lon, double weight, int limit) {
+            this.index = index;
+            this.lat = lat;
+            this.lon = lon;
+            this.weight = weight;
+            this.limit = limit;
+            this.distances = new double[index.largestCell];
+            this.best = new PriorityQueue<>(limit + 1, Comparator.comparingDouble((Candidate candidate) -> candidate.score).reversed());
+        }
+
+        private void scan(Cell cell) {
+            if (cell == null) {
+                return;
+            }
+            DistanceCalculator.calculateDistances(lat, lon, cell.points, distances);
+            for (int i = 0; i < cell.slots.length; i++) {
+                int slot = cell.slots[i];
+                double rating = index.averageRating(slot);
+                double score = distances[i] * (1 - weight * Math.min(rating, MAX_RATING) / MAX_RATING);
+                if (best.size() < limit) {
+                    best.add(new Candidate(slot, distances[i], rating, score));
+                } else if (score < best.peek().score) {
+                    best.poll();
+                    best.add(new Candidate(slot, distances[i], rating, score));
+                }
+            }
+        }
+
+        private boolean isFull() {
+            return best.size() == limit;
+        }
+
+        private double worstScore() {
+            return best.peek().score;
+        }
+
+        private List<HotelWithDistance> results() {
+            List<Candidate> ranked = new ArrayList<>(best);
+            ranked.sort(Comparator.comparingDouble(candidate -> candidate.score));
+
+            List<HotelWithDistance> results = new ArrayList<>(ranked.size());
+            for (Candidate candidate : ranked) {
+                int slot = candidate.slot;
+                SimpleHotelDto hotel = new SimpleHotelDto(index.ids[slot], index.names[slot], index.latitudes[slot], index.longitudes[slot]);
+                results.add(new HotelWithDistance(hotel, candidate.distance, candidate.rating));
+            }
+            return results;
+        }
+    }
+
+    /**
+     * A hotel found by a search, with its distance, rating and ranking score.
+     */
+    private static final class Candidate {
+
+        private final int slot;
+        private final double distance;
+        private final double rating;
+        private final double score;
+
+        private Candidate(int slot, double distance, double rating, double score) {
+            this.slot = slot;
+            this.distance = distance;
+            this.rating = rating;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.example.hotelreservation.service;
+
+import com.example.hotelreservation.model.Hotel;
+import com.example.hotelreservation.modelDto.HotelRatingTotals;
+import com.example.hotelreservation.modelDto.RankedHotel;
+import com.example.hotelreservation.modelDto.SimpleHotelDto;
+import com.example.hotelreservation.repository.FeedbackRepository;
+import com.example.hotelreservation.repository.HotelRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Service class that keeps the top-rated hotels, overall and per geographic region, ranked in memory.
+ *
+ * Hotels are ranked by a Bayesian average of their ratings: {@code (C * m + sum) / (C + count)}, where
+ * m is the average of all ratings and C the prior weight. A hotel with few ratings thus starts close
+ * to the overall average, and only moves towards its own average as ratings accumulate, so a single
+ * 5-star review does not top the list. Only hotels with at least one rating are ranked.
+ *
+ * The rankings are balanced trees ordered by score, one for all hotels and one per region, a cell of
+ * {@code region-degrees} latitude and longitude. A new rating moves its hotel in both in O(log n), and
+ * the top N are read from the head in O(N). Moves and reads exclude each other through a read-write
+ * lock, so a reader never misses a hotel that is being moved. The rankings and m are rebuilt when the
+ * set of hotels is replaced ({@link HotelVersionService#touchAll()}); until then m stays fixed, so a
+ * new rating never reorders other hotels. They are also rebuilt every {@code hotels.indexes.refresh-interval},
+ * which brings in the ratings submitted through other instances.
+ */
+@Service
+public class HotelLeaderboard {
+
+    // The most hotels a single request returns
+    public static final int MAX_RESULTS = 100;
+
+    // The prior of a catalogue without any ratings yet: the middle of the 1 to 5 scale
+    private static final double DEFAULT_PRIOR_MEAN = 3;
+
+    private final HotelRepository hotelRepository;
+    private final FeedbackRepository feedbackRepository;
+    private final HotelVersionService hotelVersionService;
+    private final double priorWeight;
+    private final int rows;
+    private final int columns;
+
+    private volatile Board board;
+
+    /**
+     * Constructor for HotelLeaderboard.
+     *
+     * @param hotelRepository the repository the hotels are loaded from.
+     * @param feedbackRepository the repository the ratings are loaded from.
+     * @param hotelVersionService tells when the set of hotels was replaced.
+     * @param regionDegrees the edge length of a region, in degrees.
+     * @param priorWeight the number of average ratings every hotel is assumed to have on top of its own.
+     */
+    public HotelLeaderboard(HotelRepository hotelRepository, FeedbackRepository feedbackRepository,
+                            HotelVersionService hotelVersionService,
+                            @Value("${hotels.leaderboard.region-degrees:10}") double regionDegrees,
+                            @Value("${hotels.leaderboard.prior-weight:10}") double priorWeight) {
+        if (!(regionDegrees > 0 && regionDegrees <= 180)) {
+            throw new IllegalArgumentException("Region size must be between 0 and 180 degrees: " + regionDegrees);
+        }
+        if (!(priorWeight >= 0)) {
+            throw new IllegalArgumentException("Prior weight must not be negative: " + priorWeight);
+        }
+        this.hotelRepository = hotelRepository;
+        this.feedbackRepository = feedbackRepository;
+        this.hotelVersionService = hotelVersionService;
+        this.priorWeight = priorWeight;
+        // Whole numbers of regions, so the columns wrap around exactly at the antimeridian
+        this.rows = Math.max(1, (int) Math.round(180 / regionDegrees));
+        this.columns = Math.max(1, (int) Math.round(360 / regionDegrees));
+    }
+
+    /**
+     * Gets the top-rated hotels of the whole catalogue.
+     *
+     * @param limit the number of hotels to return, at most {@link #MAX_RESULTS}.
+     * @return up to limit {@link RankedHotel} objects, best rated first.
+     */
+    public List<RankedHotel> top(int limit) {
+        Board current = current();
+        return current.top(current.ranking, limit);
+    }
+
+    /**
+     * Gets the top-rated hotels of the region a position lies in.
+     *
+     * @param lat the latitude of the position.
+     * @param lon the longitude of the position.
+     * @param limit the number of hotels to return, at most {@link #MAX_RESULTS}.
+     * @return up to limit {@link RankedHotel} objects, best rated first; empty if the region has no rated hotel.
+     */
+    public List<RankedHotel> topInRegion(double lat, double lon, int limit) {
+        Board current = current();
+        return current.top(current.regions.get(region(lat, lon)), limit);
+    }
+
+    /**
+     * Adds the rating of newly submitted feedback to the ranking of a hotel.
+     *
+     * When called inside a transaction, the rating is only added once the transaction commits. Before
+     * the rankings are first read, there is nothing to update: they load the rating with all others.
+     *
+     * @param hotelId the ID of the hotel.
+     * @param rating the rating given in the feedback.
+     */
+    public void recordRating(Long hotelId, int rating) {
+        HotelVersionService.runAfterCommit(() -> {
+            Board current = board;
+            if (current != null) {
+                current.addRating(hotelId, rating);
+            }
+        });
+    }
+
+    private long region(double lat, double lon) {
+        int row = Math.max(0, Math.min((int) Math.floor((lat + 90) / (180.0 / rows)), rows - 1));
+        int column = Math.floorMod((int) Math.floor((lon + 180) / (360.0 / columns)), columns);
+        return (long) row * columns + column;
+    }
+
+    /**
+     * Rebuilds the rankings from the database, adding the ratings submitted through other instances.
+     * Nothing is built before the rankings are first read.
+     */
+    @Scheduled(fixedDelayString = "${hotels.indexes.refresh-interval:60000}",
+            initialDelayString = "${hotels.indexes.refresh-interval:60000}")
+    public void refresh() {
+        if (board != null) {
+            rebuild(hotelVersionService.getCatalogueGeneration(), true);
+        }
+    }
+
+    private Board current() {
+        long generation = hotelVersionService.getCatalogueGeneration();
+        Board current = board;
+        if (current == null || current.generation != generation) {
+            current = rebuild(generation, false);
+        }
+        return current;
+    }
+
+    private synchronized Board rebuild(long generation, boolean force) {
+        Board current = board;
+        if (!force && current != null && current.generation == generation) {
+            return current;
+        }
+        current = new Board(generation, hotelRepository.findAll(), feedbackRepository.findRatingTotals());
+        board = current;
+        return current;
+    }
+
+    /**
+     * Rankings of one generation of the catalogue.
+     */
+    private final class Board {
+
+        private final long generation;
+        private final double priorMean;
+        private final Map<Long, Entry> entries = new HashMap<>();
+        private final NavigableSet<Rank> ranking = new TreeSet<>();
+        // Regions by row * columns + column; every region with a hotel has a ranking, possibly empty
+        private final Map<Long, NavigableSet<Rank>> regions = new HashMap<>();
+        // Guards the rankings and the ranks of the entries
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private Board(long generation, List<Hotel> hotels, List<HotelRatingTotals> ratings) {
+            this.generation = generation;
+            for (Hotel hotel : hotels) {
+                long region = region(hotel.getLatitude(), hotel.getLongitude());
+                NavigableSet<Rank> regionRanking = regions.computeIfAbsent(region, key -> new TreeSet<>());
+                SimpleHotelDto dto = new SimpleHotelDto(hotel.getId(), hotel.getName(), hotel.getLatitude(), hotel.getLongitude());
+                entries.put(hotel.getId(), new Entry(dto, regionRanking));
+            }
+
+            long sum = 0;
+            long count = 0;
+            for (HotelRatingTotals rating : ratings) {
+                sum += rating.getRatingSum();
+                count += rating.getRatingCount();
+            }
+            this.priorMean = count == 0 ? DEFAULT_PRIOR_MEAN : (double) sum / count;
+
+            for (HotelRatingTotals rating : ratings) {
+                Entry entry = entries.get(rating.getHotelId());
+                if (entry != null && rating.getRatingCount() > 0) {
+                    move(entry, new Rank(rating.getHotelId(), rating.getRatingSum(), rating.getRatingCount(),
+                            score(rating.getRatingSum(), rating.getRatingCount())));
+                }
+            }
+        }
+
+        private double score(long sum, long count) {
+            return (priorWeight * priorMean + sum) / (priorWeight + count);
+        }
+
+        private void addRating(Long hotelId, int rating) {
+            Entry entry = entries.get(hotelId);
+            if (entry == null) {
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                Rank old = entry.rank;
+                long sum = (old != null ? old.sum : 0) + rating;
+                long count = (old != null ? old.count : 0) + 1;
+                move(entry, new Rank(hotelId, sum, count, score(sum, count)));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Replaces the rank of a hotel in both its rankings.
+         */
+        private void move(Entry entry, Rank next) {
+            Rank old = entry.rank;
+            if (old != null) {
+                ranking.remove(old);
+                entry.region.remove(old);
+            }
+            ranking.add(next);
+            entry.region.add(next);
+            entry.rank = next;
+        }
+
+        private List<RankedHotel> top(NavigableSet<Rank> ranks, int limit) {
+            int max = Math.min(limit, MAX_RESULTS);
+            List<RankedHotel> results = new ArrayList<>();
+            if (ranks == null || max <= 0) {
+                return results;
+            }
+            lock.readLock().lock();
+            try {
+                for (Rank rank : ranks) {
+                    SimpleHotelDto entry = entries.get(rank.hotelId).hotel;
+                    // A copy per response, as callers may change what they get
+                    SimpleHotelDto hotel = new SimpleHotelDto(entry.getId(), entry.getName(), entry.getLatitude(), entry.getLongitude());
+                    results.add(new RankedHotel(hotel, rank.score, (double) rank.sum / rank.count, rank.count));
+                    if (results.size() == max) {
+                        break;
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            return results;
+        }
+    }
+
+    /**
+     * A hotel of the catalogue, with its region's ranking and its current rank, if it has been rated.
+     */
+    private static final class Entry {
+
+        private final SimpleHotelDto hotel;
+        private final NavigableSet<Rank> region;
+        private Rank rank;
+
+        private Entry(SimpleHotelDto hotel, NavigableSet<Rank> region) {
+            this.hotel = hotel;
+            this.region = region;
+        }
+    }
+
+    /**
+     * The ratings of a hotel at one point in time. Ranks order best score first, then more ratings
+     * first, then lower hotel ID first, so no two ranks of different hotels compare as equal.
+     */
+    private static final class Rank implements Comparable<Rank> {
+
+        private static final Comparator<Rank> ORDER = Comparator.comparingDouble((Rank rank) -> rank.score).reversed()
+                .thenComparing(Comparator.comparingLong((Rank rank) -> rank.count).reversed())
+                .thenComparingLong(rank -> rank.hotelId);
+
+        private final long hotelId;
+        private final long sum;
+        private final long count;
+        private final double score;
+
+        private Rank(long hotelId, long sum, long count, double score) {
+            this.hotelId = hotelId;
+            this.sum = sum;
+            this.count = count;
+            this.score = score;
+        }
+
+        @Override
+        public int compareTo(Rank other) {
+            return ORDER.compare(this, other);
+        }
+    }
+}
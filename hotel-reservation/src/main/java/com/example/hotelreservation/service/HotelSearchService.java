@@ -0,0 +1,95 @@
+package com.example.hotelreservation.service;
+
+import com.example.hotelreservation.modelDto.HotelSearchResult;
+import com.example.hotelreservation.repository.HotelRepository;
+import com.example.hotelreservation.utlis.DistanceCalculator;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+
+/**
+ * Service class for the combined hotel search, which filters by location, stay, price and room type at once.
+ *
+ * All filters are evaluated by the database in one grouped query (plus a count query for pages after the
+ * first full one), so the number of statements does not grow with the number of matching hotels.
+ */
+@Service
+public class HotelSearchService {
+
+    // Largest number of hotels returned per page
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // Mean radius of the Earth in kilometers
+    private static final double EARTH_RADIUS = 6371;
+
+    private final HotelRepository hotelRepository;
+
+    /**
+     * Constructor for HotelSearchService.
+     *
+     * @param hotelRepository the repository used to run the search query.
+     */
+    public HotelSearchService(HotelRepository hotelRepository) {
+        this.hotelRepository = hotelRepository;
+    }
+
+    /**
+     * Searches the hotels within a radius that have at least one room matching the stay, price and type.
+     *
+     * A room matches if none of its reservations overlaps the stay and its type still has a free room on
+     * every night of the stay.
+     *
+     * @param userLat the latitude of the user's location.
+     * @param userLon the longitude of the user's location.
+     * @param radius the radius within which to search for hotels, in kilometers.
+     * @param checkIn the first day of the stay; defaults to today.
+     * @param checkOut the day the stay ends; defaults to the day after check-in.
+     * @param minPrice the lowest room price, or {@code null} for no lower limit.
+     * @param maxPrice the highest room price, or {@code null} for no upper limit.
+     * @param roomType the room type, or {@code null} for any type.
+     * @param page the zero-based page number.
+     * @param size the number of hotels per page, at most {@link #MAX_PAGE_SIZE}.
+     * @return a page of {@link HotelSearchResult} objects, nearest first.
+     * @throws IllegalArgumentException if the stay ends before it starts or the page is invalid.
+     */
+    @ReadOnlyTransactional
+    public Page<HotelSearchResult> search(double userLat, double userLon, double radius,
+                                          LocalDate checkIn, LocalDate checkOut,
+                                          Double minPrice, Double maxPrice, Integer roomType,
+                                          int page, int size) {
+        LocalDate firstNight = checkIn != null ? checkIn : LocalDate.now();
+        LocalDate lastNight = checkOut != null ? checkOut : firstNight.plusDays(1);
+        if (!lastNight.isAfter(firstNight)) {
+            throw new IllegalArgumentException("Check-out must be after check-in");
+        }
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page must not be negative and size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        // Bounding box of the radius, so the index on the coordinates can narrow the candidates
+        double latDelta = Math.toDegrees(Math.max(radius, 0) / EARTH_RADIUS);
+        double minLat = userLat - latDelta;
+        double maxLat = userLat + latDelta;
+        double minLon = -180;
+        double maxLon = 180;
+        // Near the poles or across the antimeridian the box would wrap, so every longitude is searched
+        double sinLonDelta = Math.sin(Math.toRadians(latDelta)) / Math.cos(Math.toRadians(userLat));
+        if (minLat > -90 && maxLat < 90 && sinLonDelta < 1) {
+            double lonDelta = Math.toDegrees(Math.asin(sinLonDelta));
+            if (userLon - lonDelta >= -180 && userLon + lonDelta <= 180) {
+                minLon = userLon - lonDelta;
+                maxLon = userLon + lonDelta;
+            }
+        }
+
+        double latRadians = Math.toRadians(userLat);
+        return hotelRepository.searchHotels(minLat, maxLat, minLon, maxLon,
+                latRadians, Math.toRadians(userLon), Math.cos(latRadians), DistanceCalculator.haversineBound(radius),
+                minPrice != null ? minPrice : 0, maxPrice != null ? maxPrice : Double.MAX_VALUE,
+                roomType != null ? roomType : 0, roomType != null ? roomType : Integer.MAX_VALUE,
+                firstNight.atStartOfDay(), lastNight.atStartOfDay(), firstNight, lastNight,
+                PageRequest.of(page, size));
+    }
+}
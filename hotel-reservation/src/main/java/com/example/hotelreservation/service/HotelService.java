@@ -1,18 +1,22 @@
 package com.example.hotelreservation.service;
 
-import com.example.hotelreservation.model.Feedback;
 import com.example.hotelreservation.model.Hotel;
 import com.example.hotelreservation.model.Room;
+import com.example.hotelreservation.modelDto.HotelAverageRating;
+import com.example.hotelreservation.modelDto.HotelTextMatch;
+import com.example.hotelreservation.modelDto.HotelWithDistance;
 import com.example.hotelreservation.modelDto.HotelWithRating;
+import com.example.hotelreservation.modelDto.RankedHotel;
 import com.example.hotelreservation.modelDto.SimpleHotelDto;
+import com.example.hotelreservation.repository.FeedbackRepository;
 import com.example.hotelreservation.repository.HotelRepository;
 import com.example.hotelreservation.repository.RoomRepository;
-import com.example.hotelreservation.utlis.DistanceCalculator;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 /**
  * Service class for managing hotel-related operations, including retrieving hotels, rooms, and calculating ratings.
@@ -22,16 +26,34 @@ public class HotelService {
 
     private final HotelRepository hotelRepository;
     private final RoomRepository roomRepository;
+    private final FeedbackRepository feedbackRepository;
+    private final HotelGeoIndex hotelGeoIndex;
+    private final HotelFacetService hotelFacetService;
+    private final HotelTextIndex hotelTextIndex;
+    private final HotelLeaderboard hotelLeaderboard;
 
     /**
      * Constructor for HotelService.
      *
      * @param hotelRepository the repository used to manage hotel data.
      * @param roomRepository the repository used to manage room data.
+     * @param feedbackRepository the repository used to compute hotel ratings.
+     * @param hotelGeoIndex the in-memory index used to find the nearest hotels.
+     * @param hotelFacetService the in-memory room summaries returned with each hotel.
+     * @param hotelTextIndex the in-memory index used for keyword search.
+     * @param hotelLeaderboard the in-memory rankings of the top-rated hotels.
      */
-    public HotelService(HotelRepository hotelRepository, RoomRepository roomRepository) {
+    public HotelService(HotelRepository hotelRepository, RoomRepository roomRepository,
+                        FeedbackRepository feedbackRepository, HotelGeoIndex hotelGeoIndex,
+                        HotelFacetService hotelFacetService, HotelTextIndex hotelTextIndex,
+                        HotelLeaderboard hotelLeaderboard) {
         this.hotelRepository = hotelRepository;
         this.roomRepository = roomRepository;
+        this.feedbackRepository = feedbackRepository;
+        this.hotelGeoIndex = hotelGeoIndex;
+        this.hotelFacetService = hotelFacetService;
+        this.hotelTextIndex = hotelTextIndex;
+        this.hotelLeaderboard = hotelLeaderboard;
     }
 
     /**
@@ -39,6 +61,7 @@ public class HotelService {
      *
      * @return a list of {@link Hotel} objects.
      */
+    @ReadOnlyTransactional
     public List<Hotel> getAllHotels() {
         return hotelRepository.findAll();
     }
@@ -49,6 +72,7 @@ public class HotelService {
      * @param hotelId the ID of the hotel.
      * @return a list of {@link Room} objects with rooms.
      */
+    @ReadOnlyTransactional
     public List<Room> getRooms(Long hotelId) {
         List<Room> rooms = roomRepository.findAvailableRoomsByHotelId(hotelId);
         return rooms;
@@ -57,40 +81,108 @@ public class HotelService {
     /**
      * Retrieves a list of hotels within a specified radius from a given location, including their average ratings.
      *
+     * The hotels are found by {@link HotelGeoIndex}, which keeps their positions in memory, so only the
+     * ratings of the matching hotels are read from the database.
+     *
      * @param userLat the latitude of the user's location.
      * @param userLon the longitude of the user's location.
      * @param radius the radius within which to search for hotels, in kilometers.
-     * @return a list of {@link HotelWithRating} objects representing hotels within the radius and their average ratings.
+     * @return a list of {@link HotelWithRating} objects representing hotels within the radius, their average ratings
+     *         and room facets.
      */
+    @ReadOnlyTransactional
     public List<HotelWithRating> getHotelsWithinRadius(double userLat, double userLon, double radius) {
-        List<Hotel> allHotels = hotelRepository.findAll();
-        List<HotelWithRating> nearbyHotelsWithRatings = new ArrayList<>();
-
-        for (Hotel hotel : allHotels) {
-            double distance = DistanceCalculator.calculateDistance(userLat, userLon, hotel.getLatitude(), hotel.getLongitude());
-            if (distance <= radius) {
-                double averageRating = calculateAverageRating(hotel.getFeedbacks());
-                SimpleHotelDto hotelDto = new SimpleHotelDto(hotel.getId(), hotel.getName(), hotel.getLatitude(), hotel.getLongitude());
-                nearbyHotelsWithRatings.add(new HotelWithRating(hotelDto, averageRating));
-            }
+        List<SimpleHotelDto> nearbyHotels = hotelGeoIndex.findWithinRadius(userLat, userLon, radius);
+
+        // Average the ratings of all nearby hotels in one grouped query instead of loading each hotel's feedback
+        List<Long> hotelIds = new ArrayList<>(nearbyHotels.size());
+        for (SimpleHotelDto hotel : nearbyHotels) {
+            hotelIds.add(hotel.getId());
+        }
+        Map<Long, Double> averageRatings = getAverageRatings(hotelIds);
+
+        List<HotelWithRating> nearbyHotelsWithRatings = new ArrayList<>(nearbyHotels.size());
+        for (SimpleHotelDto hotelDto : nearbyHotels) {
+            HotelWithRating hotelWithRating = new HotelWithRating(hotelDto, averageRatings.getOrDefault(hotelDto.getId(), 0.0));
+            hotelWithRating.setFacets(hotelFacetService.getFacets(hotelDto.getId()));
+            nearbyHotelsWithRatings.add(hotelWithRating);
         }
         return nearbyHotelsWithRatings;
     }
 
     /**
-     * Calculates the average rating from a list of feedbacks.
+     * Retrieves the hotels nearest to a given location, so clients do not have to guess a radius.
+     *
+     * @param userLat the latitude of the user's location.
+     * @param userLon the longitude of the user's location.
+     * @param k the number of hotels to return, at most {@link HotelGeoIndex#MAX_RESULTS}.
+     * @param ratingWeight how strongly good ratings move hotels forward; 0 ranks by distance only.
+     * @return up to k {@link HotelWithDistance} objects with their room facets, nearest (or best ranked) first.
+     */
+    public List<HotelWithDistance> getNearestHotels(double userLat, double userLon, int k, double ratingWeight) {
+        List<HotelWithDistance> nearestHotels = hotelGeoIndex.findNearest(userLat, userLon, k, ratingWeight);
+        for (HotelWithDistance hotel : nearestHotels) {
+            hotel.setFacets(hotelFacetService.getFacets(hotel.getHotel().getId()));
+        }
+        return nearestHotels;
+    }
+
+    /**
+     * Searches hotels by keywords in their names and review comments.
+     *
+     * @param query the keywords.
+     * @param limit the number of hotels to return, at most {@link HotelTextIndex#MAX_RESULTS}.
+     * @return up to limit {@link HotelTextMatch} objects, best match first.
+     */
+    public List<HotelTextMatch> searchByText(String query, int limit) {
+        return hotelTextIndex.search(query, limit);
+    }
+
+    /**
+     * Suggests hotels whose names start with what the user has typed so far.
+     *
+     * @param prefix the text typed so far.
+     * @param limit the number of hotels to return, at most {@link HotelTextIndex#MAX_RESULTS}.
+     * @return up to limit {@link SimpleHotelDto} objects, best match first.
+     */
+    public List<SimpleHotelDto> autocomplete(String prefix, int limit) {
+        return hotelTextIndex.autocomplete(prefix, limit);
+    }
+
+    /**
+     * Retrieves the top-rated hotels, overall or in the region of a given location.
      *
-     * @param feedbacks the list of {@link Feedback} objects.
-     * @return the average rating as a {@code double}. Returns 0.0 if no feedback is available.
+     * @param lat the latitude of a position in the region, or {@code null} for all hotels.
+     * @param lon the longitude of a position in the region, or {@code null} for all hotels.
+     * @param limit the number of hotels to return, at most {@link HotelLeaderboard#MAX_RESULTS}.
+     * @return up to limit {@link RankedHotel} objects, best rated first.
+     * @throws IllegalArgumentException if only one of the coordinates is given.
      */
-    private double calculateAverageRating(List<Feedback> feedbacks) {
-        if (feedbacks == null || feedbacks.isEmpty()) {
-            return 0.0;
+    public List<RankedHotel> getTopRatedHotels(Double lat, Double lon, int limit) {
+        if (lat == null && lon == null) {
+            return hotelLeaderboard.top(limit);
+        }
+        if (lat == null || lon == null) {
+            throw new IllegalArgumentException("Both latitude and longitude are required for a region");
         }
-        double sum = 0.0;
-        for (Feedback feedback : feedbacks) {
-            sum += feedback.getRating();
+        return hotelLeaderboard.topInRegion(lat, lon, limit);
+    }
+
+    /**
+     * Retrieves the average ratings of a list of hotels.
+     *
+     * @param hotelIds the IDs of the hotels.
+     * @return the average rating of each hotel by hotel ID. Hotels without feedback are missing from the map.
+     */
+    private Map<Long, Double> getAverageRatings(List<Long> hotelIds) {
+        Map<Long, Double> averageRatings = new HashMap<>();
+        if (hotelIds.isEmpty()) {
+            return averageRatings;
+        }
+
+        for (HotelAverageRating rating : feedbackRepository.findAverageRatings(hotelIds)) {
+            averageRatings.put(rating.getHotelId(), rating.getAverageRating());
         }
-        return sum / feedbacks.size();
+        return averageRatings;
     }
 }
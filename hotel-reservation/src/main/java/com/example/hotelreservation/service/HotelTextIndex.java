@@ -0,0 +1,452 @@
+package com.example.hotelreservation.service;
+
+import com.example.hotelreservation.model.Hotel;
+import com.example.hotelreservation.modelDto.FeedbackComment;
+import com.example.hotelreservation.modelDto.HotelTextMatch;
+import com.example.hotelreservation.modelDto.SimpleHotelDto;
+import com.example.hotelreservation.repository.FeedbackRepository;
+import com.example.hotelreservation.repository.HotelRepository;
+import com.example.hotelreservation.utlis.TextTokenizer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Service class for keyword search over hotel names and review comments, answered from memory.
+ *
+ * An inverted index maps every term to the hotels whose name or reviews contain it, with the number
+ * of occurrences in each field. Searches rank hotels with BM25, weighting name matches above review
+ * matches. The terms are kept in a sorted dictionary, so the terms starting with a prefix form one
+ * contiguous range; autocompletion expands the last typed word over that range.
+ *
+ * The index is built at startup and rebuilt when the set of hotels is replaced
+ * ({@link HotelVersionService#touchAll()}); review comments are added as feedback is submitted. It is
+ * also rebuilt every {@code hotels.indexes.refresh-interval}, which brings in the reviews submitted
+ * through other instances.
+ */
+@Service
+public class HotelTextIndex {
+
+    // The most hotels a single search returns
+    public static final int MAX_RESULTS = 100;
+
+    // The most dictionary terms a prefix expands to; the ones found in the most hotels are kept
+    private static final int MAX_EXPANSIONS = 64;
+
+    // BM25 term frequency saturation and length normalization
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // A name match counts as much as this many review matches
+    private static final double NAME_WEIGHT = 3;
+
+    private final HotelRepository hotelRepository;
+    private final FeedbackRepository feedbackRepository;
+    private final HotelVersionService hotelVersionService;
+
+    private volatile Index index;
+
+    /**
+     * Constructor for HotelTextIndex.
+     *
+     * @param hotelRepository the repository the hotels are loaded from.
+     * @param feedbackRepository the repository the review comments are loaded from.
+     * @param hotelVersionService tells when the set of hotels was replaced.
+     */
+    public HotelTextIndex(HotelRepository hotelRepository, FeedbackRepository feedbackRepository,
+                          HotelVersionService hotelVersionService) {
+        this.hotelRepository = hotelRepository;
+        this.feedbackRepository = feedbackRepository;
+        this.hotelVersionService = hotelVersionService;
+    }
+
+    /**
+     * Builds the index once the application has started, so the first search does not pay for it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        current();
+    }
+
+    /**
+     * Finds the hotels whose name or reviews best match some keywords.
+     *
+     * A hotel matches if it contains any of the keywords; hotels containing rarer keywords, more
+     * often and in their name rank higher.
+     *
+     * @param query the keywords.
+     * @param limit the number of hotels to return, at most {@link #MAX_RESULTS}.
+     * @return up to limit {@link HotelTextMatch} objects, best match first.
+     */
+    public List<HotelTextMatch> search(String query, int limit) {
+        Index current = current();
+        current.lock.readLock().lock();
+        try {
+            Scores scores = new Scores(current.ids.length);
+            for (String term : new LinkedHashSet<>(TextTokenizer.tokenize(query))) {
+                Postings postings = current.terms.get(term);
+                if (postings != null) {
+                    current.accumulate(postings, NAME_WEIGHT, 1, scores);
+                }
+            }
+
+            List<HotelTextMatch> matches = new ArrayList<>();
+            for (int slot : scores.top(limit)) {
+                matches.add(new HotelTextMatch(current.hotel(slot), scores.values[slot]));
+            }
+            return matches;
+        } finally {
+            current.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Suggests hotels whose name matches what the user has typed so far.
+     *
+     * Every complete word must appear in the hotel's name. Unless the text ends with a separator,
+     * its last word is incomplete and matches any name word starting with it.
+     *
+     * @param prefix the text typed so far.
+     * @param limit the number of hotels to return, at most {@link #MAX_RESULTS}.
+     * @return up to limit {@link SimpleHotelDto} objects, best match first.
+     */
+    public List<SimpleHotelDto> autocomplete(String prefix, int limit) {
+        List<String> words = TextTokenizer.tokenize(prefix);
+        if (words.isEmpty()) {
+            return new ArrayList<>();
+        }
+        boolean lastWordComplete = !Character.isLetterOrDigit(prefix.charAt(prefix.length() - 1));
+
+        Index current = current();
+        current.lock.readLock().lock();
+        try {
+            // Each word contributes the hotels it matches; only hotels matched by every word are kept
+            Scores scores = null;
+            for (int i = 0; i < words.size(); i++) {
+                List<Postings> postings = i < words.size() - 1 || lastWordComplete
+                        ? current.exact(words.get(i))
+                        : current.expand(words.get(i));
+                Scores wordScores = new Scores(current.ids.length);
+                for (Postings candidate : postings) {
+                    current.accumulate(candidate, 1, 0, wordScores);
+                }
+
+                scores = scores == null ? wordScores : scores.intersect(wordScores);
+                if (scores.count == 0) {
+                    break;
+                }
+            }
+
+            List<SimpleHotelDto> suggestions = new ArrayList<>();
+            for (int slot : scores.top(limit)) {
+                suggestions.add(current.hotel(slot));
+            }
+            return suggestions;
+        } finally {
+            current.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the comment of newly submitted feedback to the index.
+     *
+     * When called inside a transaction, the comment is only added once the transaction commits.
+     *
+     * @param hotelId the ID of the hotel.
+     * @param comment the comment of the feedback; may be {@code null}.
+     */
+    public void recordReview(Long hotelId, String comment) {
+        HotelVersionService.runAfterCommit(() -> {
+            Index current = index;
+            if (current != null && comment != null) {
+                current.addReview(hotelId, comment);
+            }
+        });
+    }
+
+    /**
+     * Rebuilds the index from the database, adding the reviews submitted through other instances.
+     * Nothing is built before the index is first read.
+     */
+    @Scheduled(fixedDelayString = "${hotels.indexes.refresh-interval:60000}",
+            initialDelayString = "${hotels.indexes.refresh-interval:60000}")
+    public void refresh() {
+        if (index != null) {
+            rebuild(hotelVersionService.getCatalogueGeneration(), true);
+        }
+    }
+
+    private Index current() {
+        long generation = hotelVersionService.getCatalogueGeneration();
+        Index current = index;
+        if (current == null || current.generation != generation) {
+            current = rebuild(generation, false);
+        }
+        return current;
+    }
+
+    private synchronized Index rebuild(long generation, boolean force) {
+        Index current = index;
+        if (!force && current != null && current.generation == generation) {
+            return current;
+        }
+        current = new Index(generation, hotelRepository.findAll(), feedbackRepository.findComments());
+        index = current;
+        return current;
+    }
+
+    /**
+     * Hotels of one generation of the catalogue and the inverted index over their names and reviews.
+     */
+    private static final class Index {
+
+        private final long generation;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        // Per hotel, indexed by slot
+        private final long[] ids;
+        private final String[] names;
+        private final double[] latitudes;
+        private final double[] longitudes;
+        private final int[] nameLengths;
+        private final int[] reviewLengths;
+        private final Map<Long, Integer> slots = new HashMap<>();
+
+        private final TreeMap<String, Postings> terms = new TreeMap<>();
+        private long totalNameLength;
+        private long totalReviewLength;
+
+        private Index(long generation, List<Hotel> hotels, List<FeedbackComment> comments) {
+            this.generation = generation;
+            this.ids = new long[hotels.size()];
+            this.names = new String[hotels.size()];
+            this.latitudes = new double[hotels.size()];
+            this.longitudes = new double[hotels.size()];
+            this.nameLengths = new int[hotels.size()];
+            this.reviewLengths = new int[hotels.size()];
+            for (int slot = 0; slot < hotels.size(); slot++) {
+                Hotel hotel = hotels.get(slot);
+                ids[slot] = hotel.getId();
+                names[slot] = hotel.getName();
+                latitudes[slot] = hotel.getLatitude();
+                longitudes[slot] = hotel.getLongitude();
+                slots.put(hotel.getId(), slot);
+            }
+
+            Map<Integer, List<String>> commentsBySlot = new HashMap<>();
+            for (FeedbackComment comment : comments) {
+                Integer slot = slots.get(comment.getHotelId());
+                if (slot != null) {
+                    commentsBySlot.computeIfAbsent(slot, s -> new ArrayList<>()).add(comment.getComment());
+                }
+            }
+
+            // Hotels are indexed in slot order, so every posting list is appended to in order
+            for (int slot = 0; slot < hotels.size(); slot++) {
+                Map<String, int[]> frequencies = new HashMap<>();
+                List<String> nameTerms = TextTokenizer.tokenize(names[slot]);
+                for (String term : nameTerms) {
+                    frequencies.computeIfAbsent(term, t -> new int[2])[0]++;
+                }
+                nameLengths[slot] = nameTerms.size();
+                totalNameLength += nameTerms.size();
+
+                for (String comment : commentsBySlot.getOrDefault(slot, List.of())) {
+                    List<String> reviewTerms = TextTokenizer.tokenize(comment);
+                    for (String term : reviewTerms) {
+                        frequencies.computeIfAbsent(term, t -> new int[2])[1]++;
+                    }
+                    reviewLengths[slot] += reviewTerms.size();
+                    totalReviewLength += reviewTerms.size();
+                }
+
+                for (Map.Entry<String, int[]> frequency : frequencies.entrySet()) {
+                    terms.computeIfAbsent(frequency.getKey(), t -> new Postings())
+                            .add(slot, frequency.getValue()[0], frequency.getValue()[1]);
+                }
+            }
+        }
+
+        private SimpleHotelDto hotel(int slot) {
+            return new SimpleHotelDto(ids[slot], names[slot], latitudes[slot], longitudes[slot]);
+        }
+
+        private List<Postings> exact(String term) {
+            Postings postings = terms.get(term);
+            return postings != null ? List.of(postings) : List.of();
+        }
+
+        /**
+         * Finds the postings of the terms starting with a prefix, keeping those found in the most hotels.
+         */
+        private List<Postings> expand(String prefix) {
+            List<Postings> expansions = new ArrayList<>(terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values());
+            if (expansions.size() > MAX_EXPANSIONS) {
+                expansions.sort(Comparator.comparingInt((Postings postings) -> postings.size).reversed());
+                return expansions.subList(0, MAX_EXPANSIONS);
+            }
+            return expansions;
+        }
+
+        /**
+         * Adds the BM25 score of one term to the score of every hotel containing it.
+         *
+         * The name and review frequencies are length-normalized, weighted and summed before saturation,
+         * so a term repeated across both fields does not count twice as much.
+         */
+        private void accumulate(Postings postings, double nameWeight, double reviewWeight, Scores scores) {
+            int hotels = ids.length;
+            double idf = Math.log(1 + (hotels - postings.size + 0.5) / (postings.size + 0.5));
+            double averageNameLength = Math.max(1, (double) totalNameLength / Math.max(hotels, 1));
+            double averageReviewLength = Math.max(1, (double) totalReviewLength / Math.max(hotels, 1));
+
+            for (int i = 0; i < postings.size; i++) {
+                int slot = postings.slots[i];
+                double frequency = nameWeight * postings.nameFrequencies[i] / (1 - B + B * nameLengths[slot] / averageNameLength)
+                        + reviewWeight * postings.reviewFrequencies[i] / (1 - B + B * reviewLengths[slot] / averageReviewLength);
+                if (frequency > 0) {
+                    scores.add(slot, idf * frequency * (K1 + 1) / (frequency + K1));
+                }
+            }
+        }
+
+        private void addReview(Long hotelId, String comment) {
+            Integer slot = slots.get(hotelId);
+            if (slot == null) {
+                return;
+            }
+            List<String> reviewTerms = TextTokenizer.tokenize(comment);
+            Map<String, Integer> frequencies = new HashMap<>();
+            for (String term : reviewTerms) {
+                frequencies.merge(term, 1, Integer::sum);
+            }
+
+            lock.writeLock().lock();
+            try {
+                for (Map.Entry<String, Integer> frequency : frequencies.entrySet()) {
+                    terms.computeIfAbsent(frequency.getKey(), t -> new Postings()).add(slot, 0, frequency.getValue());
+                }
+                reviewLengths[slot] += reviewTerms.size();
+                totalReviewLength += reviewTerms.size();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * The hotels containing one term, ordered by slot, with the term's frequency in their name and reviews.
+     */
+    private static final class Postings {
+
+        private int size;
+        private int[] slots = new int[2];
+        private int[] nameFrequencies = new int[2];
+        private int[] reviewFrequencies = new int[2];
+
+        private void add(int slot, int nameFrequency, int reviewFrequency) {
+            int i = Arrays.binarySearch(slots, 0, size, slot);
+            if (i >= 0) {
+                nameFrequencies[i] += nameFrequency;
+                reviewFrequencies[i] += reviewFrequency;
+                return;
+            }
+
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                nameFrequencies = Arrays.copyOf(nameFrequencies, size * 2);
+                reviewFrequencies = Arrays.copyOf(reviewFrequencies, size * 2);
+            }
+            // Insert in slot order; building appends, so this only shifts for reviews of earlier hotels
+            int insertion = -i - 1;
+            System.arraycopy(slots, insertion, slots, insertion + 1, size - insertion);
+            System.arraycopy(nameFrequencies, insertion, nameFrequencies, insertion + 1, size - insertion);
+            System.arraycopy(reviewFrequencies, insertion, reviewFrequencies, insertion + 1, size - insertion);
+            slots[insertion] = slot;
+            nameFrequencies[insertion] = nameFrequency;
+            reviewFrequencies[insertion] = reviewFrequency;
+            size++;
+        }
+    }
+
+    /**
+     * Scores of the hotels matched by a search, by slot. Dense arrays avoid boxing a score per
+     * hotel when a common term matches most of the catalogue.
+     */
+    private static final class Scores {
+
+        private final double[] values;
+        private final int[] matched;
+        private int count;
+
+        private Scores(int hotels) {
+            this.values = new double[hotels];
+            this.matched = new int[hotels];
+        }
+
+        private void add(int slot, double score) {
+            // Scores are positive, so 0 means not matched yet
+            if (values[slot] == 0) {
+                matched[count++] = slot;
+            }
+            values[slot] += score;
+        }
+
+        /**
+         * Keeps the hotels matched by both searches, with the sum of their scores.
+         */
+        private Scores intersect(Scores other) {
+            Scores both = new Scores(values.length);
+            for (int i = 0; i < count; i++) {
+                int slot = matched[i];
+                if (other.values[slot] > 0) {
+                    both.add(slot, values[slot] + other.values[slot]);
+                }
+            }
+            return both;
+        }
+
+        /**
+         * Keeps the best scored hotels, best first and by slot among equal scores.
+         */
+        private List<Integer> top(int limit) {
+            int size = Math.min(Math.max(limit, 0), MAX_RESULTS);
+            Comparator<Integer> ranking = Comparator.comparingDouble((Integer slot) -> values[slot]).reversed()
+                    .thenComparingInt(slot -> slot);
+            if (size == 0) {
+                return new ArrayList<>();
+            }
+
+            // Worst kept hotel on top of the heap; most hotels are rejected without boxing
+            PriorityQueue<Integer> best = new PriorityQueue<>(size + 1, ranking.reversed());
+            for (int i = 0; i < count; i++) {
+                int slot = matched[i];
+                if (best.size() < size || beats(slot, best.peek())) {
+                    best.add(slot);
+                    if (best.size() > size) {
+                        best.poll();
+                    }
+                }
+            }
+            List<Integer> ranked = new ArrayList<>(best);
+            ranked.sort(ranking);
+            return ranked;
+        }
+
+        private boolean beats(int slot, int other) {
+            return values[slot] > values[other] || values[slot] == values[other] && slot < other;
+        }
+    }
+}
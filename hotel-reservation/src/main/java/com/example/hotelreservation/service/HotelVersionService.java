@@ -0,0 +1,240 @@
+package com.example.hotelreservation.service;
+
+import com.example.hotelreservation.repository.HotelRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service class for tracking which version of each hotel's data, and of the hotel catalogue, is current.
+ *
+ * Versions are kept in the database and bumped in the transaction that changes the data, so all
+ * instances agree on them. A change of a hotel's rooms, reservations or feedback bumps the version of
+ * that hotel; the catalogue, which lists the hotels with their rooms and feedback, is only bumped when
+ * rooms or feedback change, not by bookings. Controllers derive ETags and Last-Modified dates from
+ * these versions, and cached response bodies are rebuilt when they change.
+ *
+ * Versions read from the database are kept for up to {@code hotels.versions.max-age}, so conditional
+ * requests cost at most one primary key lookup per hotel and period. Changes made through this
+ * instance are seen right away; changes made through others within that period.
+ */
+@Service
+public class HotelVersionService {
+
+    // Version of hotels that do not exist
+    private static final ResourceVersion MISSING = new ResourceVersion(0, 0);
+
+    private final HotelRepository hotelRepository;
+    private final long maxAgeNanos;
+
+    // Versions of hotels read recently
+    private final LoadingCache<Long, ResourceVersion> hotelVersions;
+
+    // Version of the catalogue read most recently, or null
+    private volatile ReadVersion catalogueVersion;
+
+    // Number of times the set of hotels was replaced, e.g. by an import
+    private final AtomicLong catalogueGeneration = new AtomicLong();
+
+    /**
+     * Constructor for HotelVersionService.
+     *
+     * @param hotelRepository the repository the versions are kept in.
+     * @param maxAge how long a version read from the database is used before it is read again.
+     * @param cacheSize the maximum number of hotel versions kept.
+     */
+    public HotelVersionService(HotelRepository hotelRepository,
+                               @Value("${hotels.versions.max-age:1s}") Duration maxAge,
+                               @Value("${hotels.versions.cache-size:100000}") long cacheSize) {
+        if (maxAge.isNegative() || cacheSize < 0) {
+            throw new IllegalArgumentException("Invalid hotel version settings");
+        }
+        this.hotelRepository = hotelRepository;
+        this.maxAgeNanos = maxAge.toNanos();
+        this.hotelVersions = Caffeine.newBuilder()
+                .expireAfterWrite(maxAge)
+                .maximumSize(cacheSize)
+                .build(hotelRepository::findVersion);
+    }
+
+    /**
+     * Marks the rooms or feedback of a hotel as changed, which changes the hotel and the catalogue.
+     *
+     * Inside a transaction the versions are bumped as part of it, so they never describe data that
+     * readers cannot see yet, and are read again once the transaction commits.
+     *
+     * @param hotelId the ID of the hotel whose rooms or feedback changed.
+     */
+    public void touch(Long hotelId) {
+        if (hotelId != null) {
+            hotelRepository.incrementVersion(hotelId);
+        }
+        hotelRepository.incrementCatalogueVersion();
+        runAfterCommit(() -> {
+            if (hotelId != null) {
+                hotelVersions.invalidate(hotelId);
+            }
+            catalogueVersion = null;
+        });
+    }
+
+    /**
+     * Marks the reservations of a hotel as changed, like {@link #touch(Long)}. The catalogue does not
+     * list reservations, so it keeps its version.
+     *
+     * @param hotelId the ID of the hotel whose reservations changed.
+     */
+    public void touchReservations(Long hotelId) {
+        hotelRepository.incrementVersion(hotelId);
+        runAfterCommit(() -> hotelVersions.invalidate(hotelId));
+    }
+
+    /**
+     * Marks the whole hotel catalogue as changed, e.g. after hotels were imported.
+     */
+    public void touchAll() {
+        hotelRepository.incrementAllVersions();
+        runAfterCommit(() -> {
+            hotelVersions.invalidateAll();
+            catalogueVersion = null;
+            catalogueGeneration.incrementAndGet();
+        });
+    }
+
+    /**
+     * Gets the current version of a hotel.
+     *
+     * @param hotelId the ID of the hotel.
+     * @return the current {@link ResourceVersion} of the hotel.
+     */
+    public ResourceVersion getHotelVersion(Long hotelId) {
+        ResourceVersion version = hotelVersions.get(hotelId);
+        return version != null ? version : MISSING;
+    }
+
+    /**
+     * Gets the current version of the hotel catalogue.
+     *
+     * @return the current {@link ResourceVersion} of the catalogue.
+     */
+    public ResourceVersion getCatalogueVersion() {
+        ReadVersion read = catalogueVersion;
+        long now = System.nanoTime();
+        if (read == null || now - read.readAt > maxAgeNanos) {
+            read = new ReadVersion(hotelRepository.findCatalogueVersion(), now);
+            catalogueVersion = read;
+        }
+        return read.version;
+    }
+
+    /**
+     * Gets the generation of the hotel catalogue, which only changes when the set of hotels is replaced
+     * ({@link #touchAll()}), not when rooms, reservations or feedback of a hotel change.
+     *
+     * @return the catalogue generation.
+     */
+    public long getCatalogueGeneration() {
+        return catalogueGeneration.get();
+    }
+
+    /**
+     * Builds a strong ETag for a resource at a given version.
+     *
+     * @param resource the name of the resource, e.g. "hotels" or "rooms-12".
+     * @param version the version of the data the resource is built from.
+     * @return the quoted ETag value.
+     */
+    public String eTag(String resource, ResourceVersion version) {
+        return eTag(resource, version, null);
+    }
+
+    /**
+     * Builds a strong ETag for one content encoding of a resource at a given version.
+     *
+     * @param resource the name of the resource, e.g. "hotels" or "rooms-12".
+     * @param version the version of the data the resource is built from.
+     * @param contentEncoding the encoding of the body, e.g. "gzip", or {@code null} for the identity encoding.
+     * @return the quoted ETag value; the one of the identity encoding equals {@link #eTag(String, ResourceVersion)}.
+     */
+    public String eTag(String resource, ResourceVersion version, String contentEncoding) {
+        // The modification time tells apart equal version numbers of a database that was recreated
+        return "\"" + Long.toString(version.getLastModified(), 36) + "-" + resource + "-" + version.getVersion() +
+                (contentEncoding != null ? "-" + contentEncoding : "") + "\"";
+    }
+
+    /**
+     * Runs an action once the current transaction commits, or right away outside of a transaction.
+     *
+     * @param action the action to run.
+     */
+    static void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * A version read at a given time.
+     */
+    private static final class ReadVersion {
+
+        private final ResourceVersion version;
+        private final long readAt;
+
+        private ReadVersion(ResourceVersion version, long readAt) {
+            this.version = version;
+            this.readAt = readAt;
+        }
+    }
+
+    /**
+     * Version of a tracked resource: a number that changes on every mutation and the time of that mutation.
+     */
+    public static class ResourceVersion {
+
+        private final long version;
+        private final long lastModified;
+
+        /**
+         * Constructs a new instance of ResourceVersion.
+         *
+         * @param version the version number.
+         * @param lastModified the time of the last modification, in milliseconds since the epoch.
+         */
+        public ResourceVersion(long version, long lastModified) {
+            this.version = version;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * Gets the version number.
+         *
+         * @return the version number.
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Gets the time of the last modification.
+         *
+         * @return the time of the last modification, in milliseconds since the epoch.
+         */
+        public long getLastModified() {
+            return lastModified;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.hotelreservation.service;
+
+import com.example.hotelreservation.model.IdempotencyRecord;
+import com.example.hotelreservation.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * Service class that runs requests carrying an {@code Idempotency-Key} at most once.
+ *
+ * The first request with a key claims it in the database, runs the operation and stores its JSON
+ * response, all in one transaction: a committed operation always has its stored response, and an
+ * operation that failed or whose node died leaves no trace of the key, so the client can retry it. A
+ * retry with the same key and body gets the stored response without the operation running again, on
+ * any node; a retry arriving while the first request runs waits for its claim to commit or roll back.
+ * Responses are also kept in a local cache, so a retry reaching the same node needs no query at all.
+ * Keys expire after a configurable time and are purged periodically.
+ */
+@Service
+public class IdempotencyService {
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final Cache<String, StoredResponse> responses;
+
+    /**
+     * Constructor for IdempotencyService.
+     *
+     * @param idempotencyRecordRepository the repository keys and responses are stored in.
+     * @param objectMapper the object mapper used by the MVC layer, so stored responses match regular ones.
+     * @param transactionManager the transaction manager the claim, the operation and its response commit with.
+     * @param ttl how long a key and its response are kept.
+     * @param maxCachedResponses the maximum number of responses kept in the local cache.
+     */
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository, ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${idempotency.ttl:24h}") Duration ttl,
+                              @Value("${idempotency.cache-size:10000}") long maxCachedResponses) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+        this.responses = Caffeine.newBuilder().maximumSize(maxCachedResponses).expireAfterWrite(ttl).build();
+    }
+
+    /**
+     * Runs an operation once per key, or returns the response of the run that already happened.
+     *
+     * @param operation the name of the operation, e.g. "book"; keys of different operations never clash.
+     * @param user the user sending the request; keys of different users never clash.
+     * @param key the client's idempotency key.
+     * @param request the request body, compared with the body of the first request with the key.
+     * @param action the operation; it joins the transaction its key is claimed in, and its result is returned as JSON.
+     * @return the {@link StoredResponse} of the operation, marked as replayed if it was not run now.
+     * @throws IllegalStateException if the key is used for a different request, or its first request is still running.
+     */
+    public StoredResponse execute(String operation, String user, String key, Object request, Supplier<?> action) {
+        String recordKey = sha256(operation + '\n' + user + '\n' + key);
+        String requestHash = sha256(toJson(request));
+
+        StoredResponse cached = responses.getIfPresent(recordKey);
+        if (cached != null) {
+            return replay(cached, requestHash);
+        }
+
+        // A second attempt is only needed when an expired record was just removed
+        for (int attempt = 0; attempt < 2; attempt++) {
+            LocalDateTime now = LocalDateTime.now();
+            StoredResponse response = transactionTemplate.execute(status -> run(recordKey, requestHash, action, now));
+            if (response != null) {
+                responses.put(recordKey, response);
+                return response;
+            }
+            IdempotencyRecord existing = idempotencyRecordRepository.findById(recordKey).orElse(null);
+            if (existing != null && existing.getResponse() != null && existing.getExpiresAt().isAfter(now)) {
+                StoredResponse stored = new StoredResponse(existing.getRequestHash(), existing.getResponse(), false);
+                responses.put(recordKey, stored);
+                return replay(stored, requestHash);
+            }
+            // Only a claim of the caller's own transaction has no response yet
+            if (existing != null && idempotencyRecordRepository.deleteIfExpired(recordKey, now) == 0) {
+                break;
+            }
+        }
+        throw new IllegalStateException("A request with this Idempotency-Key is still being processed");
+    }
+
+    /**
+     * Deletes expired keys and their responses.
+     */
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval:600000}")
+    public void purgeExpired() {
+        idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+    }
+
+    /**
+     * Claims a key, runs its operation and stores its response, inside the caller's transaction. If the
+     * operation fails, the transaction rolls back and takes the claim with it.
+     *
+     * While another transaction holds an uncommitted claim of the key, the claim waits for it to end.
+     *
+     * @return the response, or {@code null} if the key was already claimed.
+     */
+    private StoredResponse run(String recordKey, String requestHash, Supplier<?> action, LocalDateTime now) {
+        if (idempotencyRecordRepository.claim(recordKey, requestHash, now, now.plus(ttl)) == 0) {
+            return null;
+        }
+        StoredResponse response = new StoredResponse(requestHash, toJson(action.get()), false);
+        idempotencyRecordRepository.complete(recordKey, response.getJson());
+        return response;
+    }
+
+    private static StoredResponse replay(StoredResponse stored, String requestHash) {
+        if (!stored.requestHash.equals(requestHash)) {
+            throw new IllegalStateException("This Idempotency-Key was already used for a different request");
+        }
+        return new StoredResponse(stored.requestHash, stored.json, true);
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize idempotent request or response", e);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The JSON response of an idempotent request.
+     */
+    public static final class StoredResponse {
+
+        private final String requestHash;
+        private final String json;
+        private final boolean replayed;
+
+        private StoredResponse(String requestHash, String json, boolean replayed) {
+            this.requestHash = requestHash;
+            this.json = json;
+            this.replayed = replayed;
+        }
+
+        /**
+         * Gets the JSON response.
+         *
+         * @return the response body.
+         */
+        public String getJson() {
+            return json;
+        }
+
+        /**
+         * Checks whether the response was stored by an earlier request instead of produced now.
+         *
+         * @return {@code true} if the operation did not run for this request.
+         */
+        public boolean isReplayed() {
+            return replayed;
+        }
+    }
+}
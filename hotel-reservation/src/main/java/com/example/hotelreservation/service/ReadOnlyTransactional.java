@@ -0,0 +1,23 @@
+package com.example.hotelreservation.service;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a service method that only reads data, so it runs in a read-only transaction.
+ *
+ * When a read replica is configured, read-only transactions are served by the replica
+ * (see {@code ReplicaRoutingDataSource}); otherwise they still skip Hibernate's dirty checking.
+ * Write methods keep using {@code jakarta.transaction.Transactional}.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Transactional(readOnly = true)
+public @interface ReadOnlyTransactional {
+}
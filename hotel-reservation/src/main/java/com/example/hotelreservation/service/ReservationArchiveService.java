@@ -0,0 +1,346 @@
+package com.example.hotelreservation.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Service class that keeps the reservations table down to current and future stays.
+ *
+ * Stays that checked out longer ago than the retention period are moved to the reservations archive
+ * in batches, each batch in its own short transaction. On PostgreSQL the reservations table is range
+ * partitioned by check-out month (see {@code db/migration/postgresql}); this
+ * service creates the partitions of the coming months ahead of time and drops the partitions of
+ * months that were archived completely.
+ *
+ * Stays before the first monthly partition and after the last one go to two bounded catch-all
+ * partitions rather than a default partition, since PostgreSQL (14 or later) only detaches partitions
+ * concurrently when there is no default partition. Partitions are therefore added and removed without
+ * an exclusive lock on the reservations table: new ones are attached, old ones are detached
+ * concurrently and then dropped.
+ */
+@Service
+public class ReservationArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationArchiveService.class);
+
+    private static final String BEFORE_PARTITION = "reservations_before";
+    private static final String BEYOND_PARTITION = "reservations_beyond";
+    private static final String PARTITION_PREFIX = "reservations_p";
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final String COLUMNS = "id, user_id, room_id, hotel_id, room_type, check_in_time, check_out_time";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter archived;
+    private final Duration retention;
+    private final int batchSize;
+    private final int monthsAhead;
+
+    private boolean postgres;
+
+    /**
+     * Constructor for ReservationArchiveService.
+     *
+     * @param jdbcTemplate the template the reservations are moved with.
+     * @param transactionManager the transaction manager each batch is committed with.
+     * @param meterRegistry the registry the number of archived reservations is counted in.
+     * @param retention how long after check-out a stay stays in the reservations table.
+     * @param batchSize the maximum number of reservations moved in one transaction.
+     * @param monthsAhead the number of months after the current one that get a partition ahead of time.
+     */
+    public ReservationArchiveService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${reservations.archive.retention:7d}") Duration retention,
+                                     @Value("${reservations.archive.batch-size:1000}") int batchSize,
+                                     @Value("${reservations.partitions.months-ahead:12}") int monthsAhead) {
+        if (retention.isNegative() || batchSize < 1 || monthsAhead < 0) {
+            throw new IllegalArgumentException("Invalid reservation archive settings");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archived = meterRegistry.counter("reservations.archived");
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.monthsAhead = monthsAhead;
+    }
+
+    /**
+     * Creates the partitions of the coming months, so reservations can be stored from the start.
+     */
+    @PostConstruct
+    public void start() {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(), DatabaseMetaData::getDatabaseProductName);
+            postgres = "PostgreSQL".equals(product);
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("Cannot determine the database product", e);
+        }
+        createPartitions(cutoff());
+    }
+
+    /**
+     * Archives the stays that checked out before the retention period and maintains the partitions.
+     */
+    @Scheduled(fixedDelayString = "${reservations.archive.interval:3600000}", initialDelayString = "${reservations.archive.interval:3600000}")
+    public void archiveCompletedStays() {
+        LocalDateTime cutoff = cutoff();
+        createPartitions(cutoff);
+        int moved = archiveStaysBefore(cutoff);
+        if (moved > 0) {
+            logger.info("Archived {} reservations that checked out before {}", moved, cutoff);
+        }
+        dropArchivedPartitions(cutoff);
+    }
+
+    /**
+     * Moves every reservation that checked out before a given time to the archive.
+     *
+     * @param cutoff the time before which stays are archived.
+     * @return the number of reservations moved.
+     */
+    public int archiveStaysBefore(LocalDateTime cutoff) {
+        int total = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> moveBatch(cutoff));
+            total += moved;
+        } while (moved == batchSize);
+        return total;
+    }
+
+    /**
+     * Moves one batch of past stays, oldest first. The rows are locked, so concurrent changes wait
+     * for the batch and other nodes archiving at the same time pick different rows.
+     */
+    private int moveBatch(LocalDateTime cutoff) {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM reservations WHERE check_out_time < ? " +
+                "ORDER BY check_out_time LIMIT ? FOR UPDATE" + (postgres ? " SKIP LOCKED" : ""), Long.class, cutoff, batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        // The check-out condition lets PostgreSQL look at the archived partitions only
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("cutoff", cutoff)
+                .addValue("now", LocalDateTime.now());
+        namedJdbcTemplate.update("INSERT INTO reservations_archive (" + COLUMNS + ", archived_at) " +
+                "SELECT " + COLUMNS + ", :now FROM reservations WHERE id IN (:ids) AND check_out_time < :cutoff", parameters);
+        namedJdbcTemplate.update("DELETE FROM reservations WHERE id IN (:ids) AND check_out_time < :cutoff", parameters);
+        archived.increment(ids.size());
+        return ids.size();
+    }
+
+    /**
+     * Creates a partition for every month from the cutoff to the last month kept ahead, and the
+     * catch-all partitions before and beyond them, if the reservations table is partitioned.
+     *
+     * New partitions are split off the catch-all of later stays: it is detached concurrently, its rows
+     * of the new partitions are moved into them, and it is attached again with the new lower bound,
+     * all but the detach in one transaction. Until it is attached again, stays checking out beyond the
+     * last monthly partition cannot be booked; this happens about once a month. The migration puts
+     * every stay into that catch-all, so the first run also splits off the partition of earlier stays.
+     */
+    private void createPartitions(LocalDateTime cutoff) {
+        if (!isPartitioned()) {
+            return;
+        }
+        finalizeDetachedPartitions();
+
+        NavigableMap<YearMonth, String> existing = monthlyPartitions();
+        YearMonth first = YearMonth.from(cutoff);
+        if (!existing.isEmpty() && existing.firstKey().isBefore(first)) {
+            // Months not dropped yet still hold stays, so earlier ones go before them
+            first = existing.firstKey();
+        }
+        YearMonth last = YearMonth.now().plusMonths(monthsAhead);
+        List<YearMonth> missing = new ArrayList<>();
+        for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+            if (!existing.containsKey(month)) {
+                missing.add(month);
+            }
+        }
+        // Months added earlier with a longer look-ahead stay where they are
+        YearMonth lastMonthly = existing.isEmpty() || existing.lastKey().isBefore(last) ? last : existing.lastKey();
+
+        boolean hasBefore = exists(BEFORE_PARTITION);
+        boolean beyondAttached = isAttached(BEYOND_PARTITION);
+        if (missing.isEmpty() && hasBefore && beyondAttached) {
+            return;
+        }
+
+        String before = first.atDay(1).toString();
+        String beyond = lastMonthly.plusMonths(1).atDay(1).toString();
+        try {
+            if (beyondAttached) {
+                jdbcTemplate.execute("ALTER TABLE reservations DETACH PARTITION " + BEYOND_PARTITION + " CONCURRENTLY");
+            }
+            boolean beyondDetached = exists(BEYOND_PARTITION);
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!hasBefore) {
+                    split(BEFORE_PARTITION, null, before, beyondDetached);
+                }
+                for (YearMonth month : missing) {
+                    split(PARTITION_PREFIX + month.format(PARTITION_MONTH),
+                            month.atDay(1).toString(), month.plusMonths(1).atDay(1).toString(), beyondDetached);
+                }
+                if (!beyondDetached) {
+                    jdbcTemplate.execute("CREATE TABLE " + BEYOND_PARTITION + " (LIKE reservations INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+                }
+                jdbcTemplate.execute("ALTER TABLE reservations ATTACH PARTITION " + BEYOND_PARTITION +
+                        " FOR VALUES FROM ('" + beyond + "') TO (MAXVALUE)");
+            });
+        } catch (DataAccessException e) {
+            // Retried on the next run; a detached catch-all is split and attached again then
+            logger.warn("Cannot create reservation partitions up to {}", last, e);
+        }
+    }
+
+    /**
+     * Drops the partitions of months that ended before the cutoff once they are empty.
+     *
+     * A partition is detached concurrently, so bookings and reads of other months go on meanwhile.
+     * Stays of its month stored between the check and the detach are moved to the archive, where they
+     * belong by now, before the table is dropped.
+     */
+    private void dropArchivedPartitions(LocalDateTime cutoff) {
+        if (!isPartitioned()) {
+            return;
+        }
+        finalizeDetachedPartitions();
+
+        // Detached tables whose drop failed on an earlier run are included
+        List<Map<String, Object>> partitions = jdbcTemplate.queryForList("SELECT c.relname AS name, i.inhrelid IS NOT NULL AS attached " +
+                "FROM pg_class c LEFT JOIN pg_inherits i ON i.inhrelid = c.oid " +
+                "WHERE c.relkind = 'r' AND c.relname LIKE 'reservations\\_p%'");
+        for (Map<String, Object> row : partitions) {
+            String partition = (String) row.get("name");
+            YearMonth month = month(partition);
+            if (month == null || month.plusMonths(1).atDay(1).atStartOfDay().isAfter(cutoff)) {
+                continue;
+            }
+            try {
+                if (Boolean.TRUE.equals(row.get("attached"))) {
+                    Boolean empty = jdbcTemplate.queryForObject("SELECT NOT EXISTS (SELECT 1 FROM " + partition + ")", Boolean.class);
+                    if (!Boolean.TRUE.equals(empty)) {
+                        continue;
+                    }
+                    jdbcTemplate.execute("ALTER TABLE reservations DETACH PARTITION " + partition + " CONCURRENTLY");
+                }
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.update("INSERT INTO reservations_archive (" + COLUMNS + ", archived_at) " +
+                            "SELECT " + COLUMNS + ", ? FROM " + partition, LocalDateTime.now());
+                    jdbcTemplate.execute("DROP TABLE " + partition);
+                });
+                logger.info("Dropped archived reservation partition {}", partition);
+            } catch (DataAccessException e) {
+                logger.warn("Cannot drop reservation partition {}", partition, e);
+            }
+        }
+    }
+
+    /**
+     * Completes detaches that were interrupted, e.g. by a crash, which would otherwise leave the
+     * partition in the pending state and block further detaches.
+     */
+    private void finalizeDetachedPartitions() {
+        List<String> pending = jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent " +
+                "WHERE p.relname = 'reservations' AND i.inhdetachpending", String.class);
+        for (String partition : pending) {
+            jdbcTemplate.execute("ALTER TABLE reservations DETACH PARTITION " + partition + " FINALIZE");
+        }
+    }
+
+    /**
+     * Gets the attached monthly partitions.
+     *
+     * @return the partition names by month, in month order.
+     */
+    private NavigableMap<YearMonth, String> monthlyPartitions() {
+        List<String> names = jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent " +
+                "WHERE p.relname = 'reservations' AND c.relname LIKE 'reservations\\_p%'", String.class);
+        NavigableMap<YearMonth, String> partitions = new TreeMap<>();
+        for (String name : names) {
+            YearMonth month = month(name);
+            if (month != null) {
+                partitions.put(month, name);
+            }
+        }
+        return partitions;
+    }
+
+    /**
+     * Creates a partition, moves its stays over from the detached catch-all of later stays, if there
+     * is one, and attaches it; attaching only takes a lock that lets reads and writes of the
+     * reservations table go on.
+     *
+     * @param from the first check-out day of the partition, or {@code null} for all earlier ones.
+     */
+    private void split(String partition, String from, String to, boolean fromBeyond) {
+        jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE reservations INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        if (fromBeyond) {
+            String range = (from != null ? " WHERE check_out_time >= '" + from + "'::timestamp AND" : " WHERE") +
+                    " check_out_time < '" + to + "'::timestamp";
+            jdbcTemplate.update("INSERT INTO " + partition + " SELECT * FROM " + BEYOND_PARTITION + range);
+            jdbcTemplate.update("DELETE FROM " + BEYOND_PARTITION + range);
+        }
+        jdbcTemplate.execute("ALTER TABLE reservations ATTACH PARTITION " + partition +
+                " FOR VALUES FROM (" + (from != null ? "'" + from + "'" : "MINVALUE") + ") TO ('" + to + "')");
+    }
+
+    private static YearMonth month(String partition) {
+        try {
+            return YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_MONTH);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private boolean isAttached(String partition) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid WHERE c.relname = ?)", Boolean.class, partition));
+    }
+
+    private boolean isPartitioned() {
+        return postgres && Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM pg_partitioned_table t " +
+                "JOIN pg_class c ON c.oid = t.partrelid WHERE c.relname = 'reservations')", Boolean.class));
+    }
+
+    private boolean exists(String table) {
+        return jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, table);
+    }
+
+    private LocalDateTime cutoff() {
+        return LocalDateTime.now().minus(retention);
+    }
+}
@@ -0,0 +1,376 @@
+package com.example.hotelreservation.service;
+
+import com.example.hotelreservation.repository.ReservationRepository;
+import com.example.hotelreservation.utlis.BloomFilter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Service class that answers whether a user has, or had, a reservation at a hotel, mostly without
+ * querying the database.
+ *
+ * A Bloom filter over the (user, hotel) pairs of all current and archived reservations rules out most
+ * pairs without a reservation. The pairs it lets through are looked up in a bounded cache holding,
+ * per user, the hotels already known to have or not have a reservation of the user. Only if that
+ * cache cannot answer either does a single {@code EXISTS} query run, and its answer is cached.
+ *
+ * Bookings add their pair to the filter and the cache; cancellations and check-outs make the cache
+ * forget the pair. Bookings made through other instances are picked up every few seconds by reading
+ * the reservations above the highest ID seen so far. The filter cannot forget pairs, so it is rebuilt
+ * from the database periodically and whenever the hotel catalogue is replaced. The rebuild runs in the
+ * background; until the first filter is ready, lookups go to the cache and the database. Cancellations
+ * made through other instances expire from the cache after the cache time-to-live.
+ */
+@Service
+public class ReservationMembershipService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservationMembershipService.class);
+
+    // Rows streamed per round trip while the filter is built
+    private static final int FETCH_SIZE = 10_000;
+
+    private final ReservationRepository reservationRepository;
+    private final HotelVersionService hotelVersionService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<Long, UserHotels> users;
+    private final double falsePositiveRate;
+    private final Counter filteredOut;
+    private final Counter cacheHits;
+    private final Counter queries;
+
+    // Guards the switch to a rebuilt filter, so pairs added meanwhile are carried over
+    private final Object filterLock = new Object();
+    private final Object rebuildLock = new Object();
+
+    private volatile Filter filter;
+    private List<long[]> addedDuringRebuild;
+
+    // Whether a filter is being built in the background
+    private final AtomicBoolean building = new AtomicBoolean();
+
+    // Guards the watermarks of the catch-up with other instances' bookings
+    private final Object catchUpLock = new Object();
+
+    // Highest reservation ID seen, and the one seen by the catch-up before; -1 until known
+    private long watermark = -1;
+    private long previousWatermark = -1;
+
+    /**
+     * Constructor for ReservationMembershipService.
+     *
+     * @param reservationRepository the repository the remaining lookups are queried with.
+     * @param hotelVersionService tells when the set of hotels was replaced.
+     * @param jdbcTemplate the template the reservations are streamed with to build the filter.
+     * @param transactionManager the transaction manager the filter is built in.
+     * @param meterRegistry the registry the outcome of the lookups and the cache statistics are published to.
+     * @param maxUsers the maximum number of users whose hotels are cached.
+     * @param ttl how long the cached hotels of a user are kept after they were loaded or changed.
+     * @param falsePositiveRate the share of pairs without a reservation the filter lets through.
+     */
+    public ReservationMembershipService(ReservationRepository reservationRepository,
+                                        HotelVersionService hotelVersionService, JdbcTemplate jdbcTemplate,
+                                        PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                        @Value("${reservations.membership.max-users:100000}") long maxUsers,
+                                        @Value("${reservations.membership.ttl:10m}") Duration ttl,
+                                        @Value("${reservations.membership.false-positive-rate:0.01}") double falsePositiveRate) {
+        if (maxUsers < 0 || ttl.isNegative() || !(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("Invalid reservation membership settings");
+        }
+        this.reservationRepository = reservationRepository;
+        this.hotelVersionService = hotelVersionService;
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        // PostgreSQL only streams the rows with a cursor inside a transaction. It is not read-only, so the
+        // rows come from the primary: a lagging replica could miss bookings committed just before.
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.users = CaffeineCacheMetrics.monitor(meterRegistry,
+                Caffeine.newBuilder().maximumSize(maxUsers).expireAfterWrite(ttl).recordStats().build(),
+                "reservation-membership");
+        this.falsePositiveRate = falsePositiveRate;
+        this.filteredOut = meterRegistry.counter("reservations.membership.lookups", "outcome", "filtered");
+        this.cacheHits = meterRegistry.counter("reservations.membership.lookups", "outcome", "cached");
+        this.queries = meterRegistry.counter("reservations.membership.lookups", "outcome", "queried");
+    }
+
+    /**
+     * Checks if a user has a current reservation or an archived past stay at a hotel.
+     *
+     * @param userId the ID of the user.
+     * @param hotelId the ID of the hotel.
+     * @return {@code true} if the user has or had a reservation at the hotel; {@code false} otherwise.
+     */
+    public boolean hasReservation(Long userId, Long hotelId) {
+        if (userId == null || hotelId == null) {
+            return false;
+        }
+        // Without a filter for the current catalogue yet, the cache and the database answer
+        Filter current = current();
+        if (current != null && !current.bloom.mightContain(userId, hotelId)) {
+            filteredOut.increment();
+            return false;
+        }
+
+        UserHotels hotels = users.get(userId, id -> new UserHotels());
+        Boolean known = hotels.lookup(hotelId);
+        if (known != null) {
+            cacheHits.increment();
+            return known;
+        }
+
+        // Read the version first: an answer that a concurrent booking or cancellation overtook is not kept
+        long version = hotels.version();
+        boolean exists = reservationRepository.existsForUserAtHotel(userId, hotelId);
+        hotels.store(hotelId, exists, version);
+        queries.increment();
+        return exists;
+    }
+
+    /**
+     * Records that a user booked a stay at a hotel.
+     *
+     * The pair is added to the filter right away, and again once the booking commits together with the
+     * cache, so a filter rebuilt in the meantime does not miss it. A booking that rolls back leaves
+     * only a false positive behind.
+     *
+     * @param userId the ID of the user.
+     * @param hotelId the ID of the hotel.
+     */
+    public void recordBooking(Long userId, Long hotelId) {
+        if (userId == null || hotelId == null) {
+            return;
+        }
+        add(userId, hotelId);
+        HotelVersionService.runAfterCommit(() -> {
+            add(userId, hotelId);
+            users.get(userId, id -> new UserHotels()).markPresent(hotelId);
+        });
+    }
+
+    /**
+     * Records that one of a user's reservations at a hotel was canceled or checked out.
+     *
+     * Other reservations of the user at the hotel may remain, so the cached answer is dropped rather
+     * than turned around; the next lookup asks the database.
+     *
+     * @param userId the ID of the user.
+     * @param hotelId the ID of the hotel.
+     */
+    public void recordRemoval(Long userId, Long hotelId) {
+        if (userId == null || hotelId == null) {
+            return;
+        }
+        HotelVersionService.runAfterCommit(() -> {
+            UserHotels hotels = users.getIfPresent(userId);
+            if (hotels != null) {
+                hotels.forget(hotelId);
+            }
+        });
+    }
+
+    /**
+     * Rebuilds the filter from the database, dropping the pairs of removed reservations and adding
+     * those booked through other instances.
+     */
+    @Scheduled(fixedDelayString = "${reservations.membership.rebuild-interval:900000}",
+            initialDelayString = "${reservations.membership.rebuild-interval:900000}")
+    public void rebuild() {
+        rebuild(hotelVersionService.getCatalogueGeneration(), true);
+    }
+
+    /**
+     * Adds the bookings made through other instances since the last call to the filter and the cache.
+     *
+     * Reservation IDs are handed out before the bookings commit, so a booking can commit after one with a
+     * higher ID was already read. Each call therefore reads again from the highest ID seen by the call
+     * before, which catches bookings that took up to the catch-up interval to commit.
+     */
+    @Scheduled(fixedDelayString = "${reservations.membership.catch-up-interval:5000}")
+    public void catchUp() {
+        synchronized (catchUpLock) {
+            if (watermark < 0) {
+                // Nothing was read yet: the bookings from now on are the ones to follow
+                Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM reservations", Long.class);
+                watermark = max != null ? max : 0;
+                previousWatermark = watermark;
+                return;
+            }
+
+            long from = previousWatermark;
+            long[] highest = {watermark};
+            jdbcTemplate.query("SELECT id, user_id, hotel_id FROM reservations WHERE id > ? AND hotel_id IS NOT NULL",
+                    resultSet -> {
+                        highest[0] = Math.max(highest[0], resultSet.getLong(1));
+                        long userId = resultSet.getLong(2);
+                        long hotelId = resultSet.getLong(3);
+                        add(userId, hotelId);
+                        UserHotels hotels = users.getIfPresent(userId);
+                        if (hotels != null) {
+                            hotels.markPresent(hotelId);
+                        }
+                    }, from);
+            previousWatermark = watermark;
+            watermark = highest[0];
+        }
+    }
+
+    /**
+     * Returns the filter of the current catalogue, or {@code null} while it is built in the background.
+     */
+    private Filter current() {
+        long generation = hotelVersionService.getCatalogueGeneration();
+        Filter current = filter;
+        if (current != null && current.generation == generation) {
+            return current;
+        }
+        if (building.compareAndSet(false, true)) {
+            Thread builder = new Thread(() -> {
+                try {
+                    rebuild(generation, false);
+                } catch (RuntimeException e) {
+                    logger.warn("Could not build the reservation membership filter", e);
+                } finally {
+                    building.set(false);
+                }
+            }, "membership-filter");
+            builder.setDaemon(true);
+            builder.start();
+        }
+        return null;
+    }
+
+    private Filter rebuild(long generation, boolean force) {
+        synchronized (rebuildLock) {
+            Filter current = filter;
+            if (!force && current != null && current.generation == generation) {
+                return current;
+            }
+            synchronized (filterLock) {
+                addedDuringRebuild = new ArrayList<>();
+            }
+
+            long start = System.nanoTime();
+            long[] highest = new long[1];
+            BloomFilter bloom = transactionTemplate.execute(status -> load(highest));
+
+            synchronized (filterLock) {
+                for (long[] pair : addedDuringRebuild) {
+                    bloom.put(pair[0], pair[1]);
+                }
+                addedDuringRebuild = null;
+                current = new Filter(generation, bloom);
+                filter = current;
+            }
+            // The data the cached answers came from may have been replaced as well
+            users.invalidateAll();
+            synchronized (catchUpLock) {
+                if (watermark < 0) {
+                    watermark = highest[0];
+                    previousWatermark = highest[0];
+                }
+            }
+            logger.info("Built reservation membership filter of {} KiB in {} ms", bloom.bitSize() / 8 / 1024,
+                    Duration.ofNanos(System.nanoTime() - start).toMillis());
+            return current;
+        }
+    }
+
+    /**
+     * Loads the (user, hotel) pairs of all current and archived reservations into a new filter.
+     *
+     * @param highest receives the highest reservation ID read.
+     */
+    private BloomFilter load(long[] highest) {
+        Long rows = jdbcTemplate.queryForObject("SELECT (SELECT COUNT(*) FROM reservations) + " +
+                "(SELECT COUNT(*) FROM reservations_archive)", Long.class);
+        // Room for as many new pairs again before the next rebuild
+        BloomFilter bloom = new BloomFilter(2 * (rows != null ? rows : 0), falsePositiveRate);
+        jdbcTemplate.query("SELECT id, user_id, hotel_id FROM reservations WHERE hotel_id IS NOT NULL " +
+                "UNION ALL SELECT id, user_id, hotel_id FROM reservations_archive WHERE hotel_id IS NOT NULL",
+                resultSet -> {
+                    highest[0] = Math.max(highest[0], resultSet.getLong(1));
+                    bloom.put(resultSet.getLong(2), resultSet.getLong(3));
+                });
+        return bloom;
+    }
+
+    private void add(long userId, long hotelId) {
+        synchronized (filterLock) {
+            Filter current = filter;
+            if (current != null) {
+                current.bloom.put(userId, hotelId);
+            }
+            if (addedDuringRebuild != null) {
+                addedDuringRebuild.add(new long[]{userId, hotelId});
+            }
+        }
+    }
+
+    /**
+     * The filter built for one generation of the catalogue.
+     */
+    private static final class Filter {
+
+        private final long generation;
+        private final BloomFilter bloom;
+
+        private Filter(long generation, BloomFilter bloom) {
+            this.generation = generation;
+            this.bloom = bloom;
+        }
+    }
+
+    /**
+     * The hotels of one user known to have, or not to have, a reservation of the user.
+     *
+     * The version changes with every booking and cancellation of the user, so an answer loaded from
+     * the database before such a change is not stored after it.
+     */
+    private static final class UserHotels {
+
+        private final Map<Long, Boolean> hotels = new HashMap<>(4);
+        private long version;
+
+        synchronized Boolean lookup(Long hotelId) {
+            return hotels.get(hotelId);
+        }
+
+        synchronized long version() {
+            return version;
+        }
+
+        synchronized void store(Long hotelId, boolean exists, long seenVersion) {
+            if (version == seenVersion) {
+                hotels.put(hotelId, exists);
+            }
+        }
+
+        synchronized void markPresent(Long hotelId) {
+            version++;
+            hotels.put(hotelId, true);
+        }
+
+        synchronized void forget(Long hotelId) {
+            version++;
+            hotels.remove(hotelId);
+        }
+    }
+}
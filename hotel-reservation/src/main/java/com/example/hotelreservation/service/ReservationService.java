@@ -1,16 +1,25 @@
 package com.example.hotelreservation.service;
 
+import com.example.hotelreservation.model.ArchivedReservation;
 import com.example.hotelreservation.model.Reservation;
 import com.example.hotelreservation.model.Room;
+import com.example.hotelreservation.repository.ArchivedReservationRepository;
 import com.example.hotelreservation.repository.ReservationRepository;
 import com.example.hotelreservation.repository.RoomRepository;
+import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -19,19 +28,41 @@ import java.util.stream.Collectors;
 @Service
 public class ReservationService {
 
+    // Stands for a reservation without an assigned room in conditional updates
+    private static final long NO_ROOM = -1L;
+
     private final ReservationRepository reservationRepository;
+    private final ArchivedReservationRepository archivedReservationRepository;
     private final RoomRepository roomRepository;
+    private final RoomAllotmentService roomAllotmentService;
+    private final HotelVersionService hotelVersionService;
+    private final HotelFacetService hotelFacetService;
+    private final ReservationMembershipService reservationMembershipService;
 
     /**
      * Constructor for ReservationService.
      *
      * @param reservationRepository the repository used to manage reservation data.
+     * @param archivedReservationRepository the repository used to read archived past stays.
      * @param roomRepository the repository used to manage room data.
+     * @param roomAllotmentService the service used to claim and release room-type allotments.
+     * @param hotelVersionService the service used to track changes of each hotel's data.
+     * @param hotelFacetService the service that counts the available rooms of each hotel.
+     * @param reservationMembershipService the service that tells which users have reservations at which hotels.
      */
     @Autowired
-    public ReservationService(ReservationRepository reservationRepository, RoomRepository roomRepository) {
+    public ReservationService(ReservationRepository reservationRepository,
+                              ArchivedReservationRepository archivedReservationRepository, RoomRepository roomRepository,
+                              RoomAllotmentService roomAllotmentService, HotelVersionService hotelVersionService,
+                              HotelFacetService hotelFacetService,
+                              ReservationMembershipService reservationMembershipService) {
         this.reservationRepository = reservationRepository;
+        this.archivedReservationRepository = archivedReservationRepository;
         this.roomRepository = roomRepository;
+        this.roomAllotmentService = roomAllotmentService;
+        this.hotelVersionService = hotelVersionService;
+        this.hotelFacetService = hotelFacetService;
+        this.reservationMembershipService = reservationMembershipService;
     }
 
     /**
@@ -42,31 +73,130 @@ public class ReservationService {
      * @param checkIn the check-in date and time.
      * @param checkOut the check-out date and time.
      * @return the created {@link Reservation} object.
+     * @throws IllegalArgumentException if the room is not found.
      * @throws IllegalStateException if the room is not available.
      */
+    @Transactional
     public Reservation bookRoom(Long userId, Long roomId, LocalDateTime checkIn, LocalDateTime checkOut) {
+        // Lock the room first, so concurrent bookings and changes of it check for conflicts one after the other
+        Room room = roomRepository.lockAllByIdIn(List.of(roomId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Room not found"));
+
         // Validate that the room is not booked during the specified period
-        List<Reservation> conflictingReservations = reservationRepository.findConflictingReservations(roomId, checkIn, checkOut);
+        if (reservationRepository.existsConflictForRoom(roomId, checkIn, checkOut)) {
+            throw new IllegalStateException("Room is not available during the selected dates");
+        }
 
-        if (conflictingReservations.isEmpty()) {
-            Reservation reservation = new Reservation();
-            reservation.setUserId(userId);
-            reservation.setRoomId(roomId);
-            reservation.setCheckInTime(checkIn);
-            reservation.setCheckOutTime(checkOut);
+        // A specific room also consumes one unit of its type, so room-type bookings cannot oversell it
+        roomAllotmentService.claim(room.getHotel().getId(), room.getType(), checkIn, checkOut);
 
-            return reservationRepository.save(reservation);
-        } else {
-            throw new IllegalStateException("Room is not available during the selected dates");
+        Reservation reservation = new Reservation();
+        reservation.setUserId(userId);
+        reservation.setRoomId(roomId);
+        reservation.setHotelId(room.getHotel().getId());
+        reservation.setRoomType(room.getType());
+        reservation.setCheckInTime(checkIn);
+        reservation.setCheckOutTime(checkOut);
+
+        hotelVersionService.touchReservations(room.getHotel().getId());
+        reservationMembershipService.recordBooking(userId, room.getHotel().getId());
+        return reservationRepository.save(reservation);
+    }
+
+    /**
+     * Books a room of a given type in a hotel for a user for a specified time period.
+     *
+     * Instead of racing for a specific room, the booking decrements the allotment counter of the
+     * room type for every night of the stay. The specific room is only assigned at check-in.
+     *
+     * @param userId the ID of the user making the reservation.
+     * @param hotelId the ID of the hotel.
+     * @param roomType the type of room to be booked.
+     * @param checkIn the check-in date and time.
+     * @param checkOut the check-out date and time.
+     * @return the created {@link Reservation} object, without an assigned room.
+     * @throws IllegalStateException if the room type is sold out during the selected dates.
+     */
+    @Transactional
+    public Reservation bookRoomType(Long userId, Long hotelId, int roomType, LocalDateTime checkIn, LocalDateTime checkOut) {
+        // Claim the nights first; a sold out night rolls back the whole booking
+        roomAllotmentService.claim(hotelId, roomType, checkIn, checkOut);
+
+        Reservation reservation = new Reservation();
+        reservation.setUserId(userId);
+        reservation.setHotelId(hotelId);
+        reservation.setRoomType(roomType);
+        reservation.setCheckInTime(checkIn);
+        reservation.setCheckOutTime(checkOut);
+
+        hotelVersionService.touchReservations(hotelId);
+        reservationMembershipService.recordBooking(userId, hotelId);
+        return reservationRepository.save(reservation);
+    }
+
+    /**
+     * Assigns a specific room to a room-type reservation when the guest checks in.
+     *
+     * The rooms of the booked type are locked in ID order first, so concurrent check-ins and bookings
+     * of these rooms wait for each other. The first locked room that has no conflicting reservation
+     * during the stay is then assigned to the reservation and marked as unavailable.
+     *
+     * @param reservationId the ID of the reservation being checked in.
+     * @return the updated {@link Reservation} object with its assigned room.
+     * @throws IllegalArgumentException if the reservation is not found.
+     * @throws IllegalStateException if no room of the booked type is free for the stay,
+     *                               or the reservation was changed concurrently.
+     */
+    @Transactional
+    public Reservation checkIn(Long reservationId) {
+        Reservation reservation = reservationRepository.findById(reservationId)
+                .orElseThrow(() -> new IllegalArgumentException("Reservation not found"));
+
+        // Reservations of a specific room already know where the guest sleeps
+        if (reservation.getRoomId() != null) {
+            return reservation;
         }
+
+        // Lock every room of the booked type before looking at their reservations
+        List<Long> candidateIds = roomRepository.findByHotelIdAndType(reservation.getHotelId(), reservation.getRoomType()).stream()
+                .map(Room::getId)
+                .collect(Collectors.toList());
+        List<Room> candidates = candidateIds.isEmpty() ? List.of() : roomRepository.lockAllByIdIn(candidateIds);
+
+        // Rooms occupied at some point during the stay, read once the locks are held
+        Set<Long> reservedRoomIds = reservationRepository.findConflictingReservations(
+                        reservation.getHotelId(), reservation.getCheckInTime(), reservation.getCheckOutTime()).stream()
+                .map(Reservation::getRoomId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        // The lock keeps new bookings of the chosen room out until commit; re-check it under the lock
+        Room room = candidates.stream()
+                .filter(candidate -> !reservedRoomIds.contains(candidate.getId()))
+                .filter(candidate -> !reservationRepository.existsConflictForRoom(candidate.getId(),
+                        reservation.getCheckInTime(), reservation.getCheckOutTime()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("No room of the booked type is free for this stay"));
+
+        // Mark the assigned room as unavailable
+        setAvailable(room, false);
+
+        // Fails if a concurrent check-in assigned a room after the reservation was read
+        if (reservationRepository.moveToRoom(reservation.getId(), NO_ROOM, room.getId(), room.getType()) == 0) {
+            throw new IllegalStateException("The reservation was changed concurrently, please try again");
+        }
+
+        hotelVersionService.touch(reservation.getHotelId());
+        return reservationRepository.findById(reservation.getId())
+                .orElseThrow(() -> new IllegalStateException("The reservation was canceled concurrently"));
     }
 
     /**
      * Checks if a specific user has any reservations at a given hotel.
      *
-     * This method queries the reservation repository to determine if there are any reservations
-     * associated with the provided user ID and hotel ID. It returns a boolean indicating
-     * whether the user has an existing reservation at the specified hotel.
+     * Stays that were moved to the archive count as well. Most checks are answered from memory by the
+     * {@link ReservationMembershipService}, without a connection; only the rest query the database.
      *
      * @param userId the ID of the user whose reservation status is being checked.
      * @param hotelId the ID of the hotel to check for the user's reservations.
@@ -74,63 +204,92 @@ public class ReservationService {
      *         {@code false} otherwise.
      */
     public boolean userHasReservation(Long userId, Long hotelId) {
-        return reservationRepository.existsByUserIdAndRoomHotelId(userId, hotelId);
+        return reservationMembershipService.hasReservation(userId, hotelId);
     }
 
     /**
-     * Changes the reservation from an old room to a new room for a given user.
+     * Moves a reservation of a given user to another room of the same hotel, for the same dates.
+     *
+     * The change runs in one transaction. Both rooms are locked in ID order, so concurrent bookings and
+     * changes of either room wait for it and two swaps in opposite directions cannot deadlock. The new
+     * room must be free during the stay, regardless of its availability flag. The reservation is then
+     * moved with a conditional update, which fails if a concurrent change moved it first. A guest who
+     * is staying at the hotel takes the occupancy flag along to the new room.
      *
      * @param userId the ID of the user whose reservation is being changed.
-     * @param hotelId the ID of the hotelId.
+     * @param hotelId the ID of the hotel.
+     * @param reservationId the ID of the reservation to change, or {@code null} for the user's next stay at the hotel.
      * @param newRoomId the ID of the new room to assign.
      * @return the updated {@link Reservation} object.
-     * @throws IllegalArgumentException if no reservation is found or the new room is not found.
-     * @throws IllegalStateException if the new room is not available.
+     * @throws IllegalArgumentException if no reservation is found or the new room is not found in the hotel.
+     * @throws IllegalStateException if the new room is taken during the stay, its room type is sold out,
+     *                               or the reservation was changed concurrently.
      */
-    public Reservation changeReservation(Long userId, Long hotelId, Long newRoomId) {
-        Optional<Reservation> reservationOpt = reservationRepository.findByUserIdAndHotelId(userId, hotelId);
-        Optional<Room> newRoomOpt = roomRepository.findById(newRoomId);
-
-        if (reservationOpt.isEmpty()) {
-            throw new IllegalArgumentException("No reservation found for the user in the specified hotel");
+    @Transactional
+    public Reservation changeReservation(Long userId, Long hotelId, Long reservationId, Long newRoomId) {
+        Reservation reservation = findReservationToChange(userId, hotelId, reservationId);
+        Long oldRoomId = reservation.getRoomId();
+        if (newRoomId.equals(oldRoomId)) {
+            return reservation;
         }
 
-        if (newRoomOpt.isEmpty()) {
+        // Lock both rooms in ID order before looking at their reservations
+        Map<Long, Room> rooms = roomRepository.lockAllByIdIn(oldRoomId != null ? List.of(oldRoomId, newRoomId) : List.of(newRoomId))
+                .stream()
+                .collect(Collectors.toMap(Room::getId, Function.identity()));
+        Room newRoom = rooms.get(newRoomId);
+        if (newRoom == null || !newRoom.getHotel().getId().equals(hotelId)) {
             throw new IllegalArgumentException("New room not found");
         }
+        Room oldRoom = oldRoomId != null ? rooms.get(oldRoomId) : null;
 
-        Room newRoom = newRoomOpt.get();
-        if (!newRoom.isAvailable()) {
-            throw new IllegalStateException("New room is not available");
+        // The new room has to be free for the whole stay; the lock keeps new bookings of it out until commit
+        if (reservationRepository.existsOtherConflictForRoom(newRoomId, reservation.getId(),
+                reservation.getCheckInTime(), reservation.getCheckOutTime())) {
+            throw new IllegalStateException("New room is not available during the selected dates");
         }
 
-        Reservation reservation = reservationOpt.get();
-        Room oldRoom = reservation.getRoom();
-
-        // Mark old room as available
-        oldRoom.setAvailable(true);
-        roomRepository.save(oldRoom);
+        // Moving to another room type swaps the claimed allotment as well
+        Integer oldType = oldRoom != null ? Integer.valueOf(oldRoom.getType()) : reservation.getRoomType();
+        if (oldType == null || oldType != newRoom.getType()) {
+            swapAllotment(reservation, oldType, newRoom);
+        }
 
-        // Update reservation with new room
-        reservation.setRoomId(newRoomId);
-        reservation.setRoom(newRoom);
+        // A guest in the middle of the stay moves over; the flags of future stays are left alone
+        LocalDateTime now = LocalDateTime.now();
+        if (oldRoom != null && !oldRoom.isAvailable()
+                && !reservation.getCheckInTime().isAfter(now) && reservation.getCheckOutTime().isAfter(now)) {
+            setAvailable(oldRoom, true);
+            setAvailable(newRoom, false);
+        }
 
-        // Mark new room as unavailable
-        newRoom.setAvailable(false);
-        roomRepository.save(newRoom);
+        // Fails if a concurrent change moved the reservation after it was read
+        if (reservationRepository.moveToRoom(reservation.getId(), oldRoomId != null ? oldRoomId : NO_ROOM,
+                newRoomId, newRoom.getType()) == 0) {
+            throw new IllegalStateException("The reservation was changed concurrently, please try again");
+        }
 
-        // Save and return the updated reservation
-        return reservationRepository.save(reservation);
+        hotelVersionService.touch(hotelId);
+        return reservationRepository.findById(reservation.getId())
+                .orElseThrow(() -> new IllegalStateException("The reservation was canceled concurrently"));
     }
 
     /**
      * Retrieves a list of reservations for a given user.
      *
+     * The user's current and future reservations come first, followed by the archived past stays,
+     * latest first. Archived stays are returned as detached {@link Reservation} objects.
+     *
      * @param userId the ID of the user.
      * @return a list of {@link Reservation} objects.
      */
+    @ReadOnlyTransactional
     public List<Reservation> getReservationsByUserId(Long userId) {
-        return reservationRepository.findByUserId(userId);
+        List<Reservation> reservations = new ArrayList<>(reservationRepository.findByUserId(userId));
+        for (ArchivedReservation archived : archivedReservationRepository.findByUserIdOrderByCheckOutTimeDesc(userId)) {
+            reservations.add(toReservation(archived));
+        }
+        return reservations;
     }
 
     /**
@@ -145,30 +304,42 @@ public class ReservationService {
     }
 
     /**
-     * Cancels a reservation and marks the associated room as available.
+     * Cancels a reservation, releases its room-type allotment and marks the associated room as available.
      *
      * @param reservation the {@link Reservation} object to be canceled.
      */
+    @Transactional
     public void cancelReservation(Reservation reservation) {
+        roomAllotmentService.release(reservation);
+
         Room room = reservation.getRoom();
         if (room != null) {
-            room.setAvailable(true);
-            roomRepository.save(room);
+            setAvailable(room, true);
         }
         reservationRepository.delete(reservation);
+        reservationMembershipService.recordRemoval(reservation.getUserId(), reservation.getHotelId());
+
+        // The catalogue lists the availability of rooms, so it changes only with the reservation's room
+        if (room != null) {
+            hotelVersionService.touch(room.getHotel().getId());
+        } else {
+            hotelVersionService.touchReservations(reservation.getHotelId());
+        }
     }
 
     /**
      * Retrieves a list of available rooms in a specified hotel for a given date range.
      *
      * This method filters rooms to return only those that are available during the specified time period,
-     * excluding rooms that are reserved within the same date range.
+     * excluding rooms that are reserved within the same date range. Every room-type reservation without
+     * an assigned room claims one of the otherwise free rooms of its type as well.
      *
      * @param hotelId the ID of the hotel to check for available rooms.
      * @param startDate the start date of the period for which room availability is being checked.
      * @param endDate the end date of the period for which room availability is being checked.
      * @return a {@link List} of {@link Room} objects that are available during the specified period.
      */
+    @ReadOnlyTransactional
     public List<Room> getAvailableRooms(Long hotelId, LocalDateTime startDate, LocalDateTime endDate) {
         // Retrieve all rooms in the specified hotel
         List<Room> allRooms = roomRepository.findAvailableRoomsByHotelId(hotelId);
@@ -176,38 +347,136 @@ public class ReservationService {
         // Fetch reservations that conflict with the specified date range
         List<Reservation> conflictingReservations = reservationRepository.findConflictingReservations(hotelId, startDate, endDate);
 
-        // Extract the IDs of rooms that are reserved during the specified period
-        Set<Long> reservedRoomIds = conflictingReservations.stream()
-                .map(Reservation::getRoomId)
-                .collect(Collectors.toSet());
+        // Extract the IDs of rooms that are reserved during the specified period, and count the
+        // reservations per room type that are still waiting for a room
+        Set<Long> reservedRoomIds = new HashSet<>();
+        Map<Integer, Integer> unassignedByType = new HashMap<>();
+        for (Reservation reservation : conflictingReservations) {
+            if (reservation.getRoomId() != null) {
+                reservedRoomIds.add(reservation.getRoomId());
+            } else if (reservation.getRoomType() != null) {
+                unassignedByType.merge(reservation.getRoomType(), 1, Integer::sum);
+            }
+        }
 
-        // Filter out rooms that are reserved during the specified period
-        return allRooms.stream()
-                .filter(room -> !reservedRoomIds.contains(room.getId()))
-                .collect(Collectors.toList());
+        // Filter out rooms that are reserved during the specified period, and as many free rooms of
+        // each type as there are reservations of that type without a room
+        List<Room> availableRooms = new ArrayList<>();
+        for (Room room : allRooms) {
+            if (reservedRoomIds.contains(room.getId())) {
+                continue;
+            }
+            Integer unassigned = unassignedByType.get(room.getType());
+            if (unassigned != null && unassigned > 0) {
+                unassignedByType.put(room.getType(), unassigned - 1);
+                continue;
+            }
+            availableRooms.add(room);
+        }
+        return availableRooms;
     }
 
     /**
      * Processes the check-out of a room by updating its availability and removing reservations.
      *
      * This method updates the availability status of the specified room to available and deletes
-     * all active reservations associated with the room.
+     * all active reservations associated with the room. Stays that checked out before today are left
+     * to the archival job.
      *
      * @param roomId the ID of the room that is being checked out.
      * @throws RuntimeException if the room is not found in the database.
      */
+    @Transactional
     public void checkOut(Long roomId) {
         // Retrieve the room from the database. If not found, throw an exception.
         Room room = roomRepository.findById(roomId)
                 .orElseThrow(() -> new RuntimeException("Room not found"));
 
-        // Find and delete all reservations associated with the specified room
-        List<Reservation> reservations = reservationRepository.findByRoomId(roomId);
+        // Find and delete all reservations associated with the specified room, releasing their allotments
+        List<Reservation> reservations = reservationRepository.findActiveByRoomId(roomId, LocalDate.now().atStartOfDay());
+        reservations.forEach(roomAllotmentService::release);
         reservations.forEach(reservationRepository::delete);
+        reservations.forEach(reservation -> reservationMembershipService.recordRemoval(reservation.getUserId(), reservation.getHotelId()));
+
+        // Update the room's availability status to true and save it
+        setAvailable(room, true);
+
+        hotelVersionService.touch(room.getHotel().getId());
+    }
 
-        // Update the room's availability status to true
-        room.setAvailable(true);
-        // Save the updated room information to the database
+    /**
+     * Finds the reservation a room change applies to.
+     *
+     * @param userId the ID of the user.
+     * @param hotelId the ID of the hotel.
+     * @param reservationId the ID of the reservation, or {@code null} for the user's next stay at the hotel.
+     * @return the {@link Reservation} to change.
+     * @throws IllegalArgumentException if the user has no such reservation at the hotel.
+     */
+    private Reservation findReservationToChange(Long userId, Long hotelId, Long reservationId) {
+        if (reservationId != null) {
+            Reservation reservation = reservationRepository.findByIdAndUserId(reservationId, userId);
+            if (reservation == null || !hotelId.equals(reservation.getHotelId())) {
+                throw new IllegalArgumentException("No reservation found for the user in the specified hotel");
+            }
+            return reservation;
+        }
+        return reservationRepository.findCurrentByUserIdAndHotelId(userId, hotelId, LocalDate.now().atStartOfDay()).stream()
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("No reservation found for the user in the specified hotel"));
+    }
+
+    /**
+     * Moves the nights claimed by a reservation from its room type to the type of its new room.
+     *
+     * The counters of the lower room type are updated first, so two changes between the same two
+     * types in opposite directions take the counter rows in the same order.
+     *
+     * @param reservation the reservation, still in its old room.
+     * @param oldType the room type the nights are currently claimed for, or {@code null} if none.
+     * @param newRoom the room the reservation moves to.
+     */
+    private void swapAllotment(Reservation reservation, Integer oldType, Room newRoom) {
+        Long hotelId = newRoom.getHotel().getId();
+        if (oldType != null && oldType < newRoom.getType()) {
+            roomAllotmentService.release(reservation);
+            roomAllotmentService.claim(hotelId, newRoom.getType(), reservation.getCheckInTime(), reservation.getCheckOutTime());
+        } else {
+            roomAllotmentService.claim(hotelId, newRoom.getType(), reservation.getCheckInTime(), reservation.getCheckOutTime());
+            roomAllotmentService.release(reservation);
+        }
+    }
+
+    /**
+     * Saves the availability of a room and keeps the hotel's room facets in step.
+     *
+     * @param room the room to update.
+     * @param available whether the room is available.
+     */
+    private void setAvailable(Room room, boolean available) {
+        if (room.isAvailable() != available) {
+            hotelFacetService.recordAvailability(room.getHotel().getId(), available);
+        }
+        room.setAvailable(available);
         roomRepository.save(room);
     }
+
+    /**
+     * Copies an archived stay into a reservation object for the reservation history.
+     *
+     * @param archived the archived stay.
+     * @return a new, unsaved {@link Reservation} with the ID and details of the stay.
+     */
+    private static Reservation toReservation(ArchivedReservation archived) {
+        Reservation reservation = new Reservation();
+        reservation.setId(archived.getId());
+        reservation.setUserId(archived.getUserId());
+        reservation.setRoomId(archived.getRoomId());
+        reservation.setHotelId(archived.getHotelId());
+        reservation.setRoomType(archived.getRoomType());
+        reservation.setCheckInTime(archived.getCheckInTime());
+        reservation.setCheckOutTime(archived.getCheckOutTime());
+        reservation.setRoom(archived.getRoom());
+        return reservation;
+    }
 }
@@ -0,0 +1,139 @@
+package com.example.hotelreservation.service;
+
+import com.example.hotelreservation.model.Reservation;
+import com.example.hotelreservation.model.Room;
+import com.example.hotelreservation.repository.ReservationRepository;
+import com.example.hotelreservation.repository.RoomRepository;
+import com.example.hotelreservation.repository.RoomTypeInventoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service class for managing the per (hotel, room type, night) allotment counters.
+ *
+ * Every booking claims one unit of its room type for each night of the stay with a conditional
+ * update on the counter row, so concurrent guests contend on a handful of counters instead of on
+ * individual room rows. Nights are always claimed in ascending order, which keeps two multi-night
+ * bookings from deadlocking on each other's counters.
+ */
+@Service
+public class RoomAllotmentService {
+
+    private final RoomTypeInventoryRepository inventoryRepository;
+    private final RoomRepository roomRepository;
+    private final ReservationRepository reservationRepository;
+
+    /**
+     * Constructor for RoomAllotmentService.
+     *
+     * @param inventoryRepository the repository used to manage the allotment counters.
+     * @param roomRepository the repository used to manage room data.
+     * @param reservationRepository the repository used to manage reservation data.
+     */
+    @Autowired
+    public RoomAllotmentService(RoomTypeInventoryRepository inventoryRepository,
+                                RoomRepository roomRepository,
+                                ReservationRepository reservationRepository) {
+        this.inventoryRepository = inventoryRepository;
+        this.roomRepository = roomRepository;
+        this.reservationRepository = reservationRepository;
+    }
+
+    /**
+     * Claims one room of the given type for every night between check-in and check-out.
+     *
+     * Must be called inside the transaction that stores the reservation: if any night is sold out
+     * the exception rolls back the nights already claimed together with the reservation.
+     *
+     * @param hotelId the ID of the hotel.
+     * @param roomType the room type to claim.
+     * @param checkIn the check-in date and time.
+     * @param checkOut the check-out date and time.
+     * @throws IllegalStateException if the room type is sold out for any of the nights.
+     */
+    public void claim(Long hotelId, int roomType, LocalDateTime checkIn, LocalDateTime checkOut) {
+        for (LocalDate night : nightsOf(checkIn, checkOut)) {
+            // Make sure the counter exists before trying to decrement it
+            ensureCounter(hotelId, roomType, night);
+
+            if (inventoryRepository.claimNight(hotelId, roomType, night) == 0) {
+                throw new IllegalStateException("No rooms of the selected type are available during the selected dates");
+            }
+        }
+    }
+
+    /**
+     * Releases the nights claimed by a reservation, e.g. when it is canceled or checked out.
+     *
+     * @param reservation the {@link Reservation} whose nights are released.
+     */
+    public void release(Reservation reservation) {
+        Long hotelId = reservation.getHotelId();
+        Integer roomType = reservation.getRoomType();
+
+        // Reservations made before the counters existed only know their room
+        Room room = reservation.getRoom();
+        if (room != null) {
+            hotelId = room.getHotel().getId();
+            roomType = room.getType();
+        }
+
+        if (hotelId == null || roomType == null) {
+            return;
+        }
+
+        for (LocalDate night : nightsOf(reservation.getCheckInTime(), reservation.getCheckOutTime())) {
+            inventoryRepository.releaseNight(hotelId, roomType, night);
+        }
+    }
+
+    /**
+     * Returns the nights covered by a stay: every date from the check-in date up to, but excluding,
+     * the check-out date. A stay that checks out on the day it checks in still occupies one night.
+     * {@link ReservationRepository#countReservationsForNight} counts reservations by the same rule.
+     *
+     * @param checkIn the check-in date and time.
+     * @param checkOut the check-out date and time.
+     * @return the nights of the stay in ascending order.
+     */
+    public static List<LocalDate> nightsOf(LocalDateTime checkIn, LocalDateTime checkOut) {
+        List<LocalDate> nights = new ArrayList<>();
+        LocalDate last = checkOut.toLocalDate();
+        for (LocalDate night = checkIn.toLocalDate(); night.isBefore(last); night = night.plusDays(1)) {
+            nights.add(night);
+        }
+        if (nights.isEmpty()) {
+            nights.add(checkIn.toLocalDate());
+        }
+        return nights;
+    }
+
+    /**
+     * Creates the counter of a night the first time it is booked.
+     *
+     * The counter is seeded from the number of rooms of that type and the reservations already
+     * occupying the night. It is inserted in the caller's transaction: creating it in a separate one
+     * needs a second pooled connection per booking, which deadlocks the pool once every connection is
+     * held by a booking waiting for another one. Losing the race against another booking creating the
+     * same counter simply skips the insert.
+     *
+     * @param hotelId the ID of the hotel.
+     * @param roomType the room type.
+     * @param night the night.
+     */
+    private void ensureCounter(Long hotelId, int roomType, LocalDate night) {
+        if (inventoryRepository.existsByHotelIdAndRoomTypeAndNight(hotelId, roomType, night)) {
+            return;
+        }
+
+        int capacity = (int) roomRepository.countByHotelIdAndType(hotelId, roomType);
+        int booked = (int) reservationRepository.countReservationsForNight(
+                hotelId, roomType, night.atStartOfDay(), night.plusDays(1).atStartOfDay());
+        inventoryRepository.insertIfAbsent(hotelId, roomType, night, capacity, booked);
+    }
+}
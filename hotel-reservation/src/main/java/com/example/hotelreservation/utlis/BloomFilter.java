@@ -0,0 +1,114 @@
+package com.example.hotelreservation.utlis;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A Bloom filter over pairs of IDs, e.g. (user, hotel).
+ *
+ * It answers whether a pair may have been added: "no" is always right, "yes" is wrong for roughly
+ * the false positive rate it was sized for, as long as no more pairs than expected were added.
+ * Pairs cannot be removed; a filter that has seen many removals is replaced by a new one instead.
+ * Adding and checking are safe from several threads at once.
+ */
+public class BloomFilter {
+
+    // Filters are never made smaller than this, so a few additions do not saturate an empty one
+    private static final long MIN_BITS = 1024;
+    private static final long MAX_BITS = (long) Integer.MAX_VALUE * Long.SIZE;
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+
+    /**
+     * Constructor for BloomFilter.
+     *
+     * @param expectedPairs the number of distinct pairs the filter is sized for.
+     * @param falsePositiveRate the wanted share of absent pairs reported as present, between 0 and 1.
+     */
+    public BloomFilter(long expectedPairs, double falsePositiveRate) {
+        if (expectedPairs < 0 || !(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("Invalid Bloom filter size: " + expectedPairs + " pairs at rate " + falsePositiveRate);
+        }
+        // m = -n ln p / (ln 2)², k = m / n ln 2
+        double optimalBits = -Math.max(expectedPairs, 1) * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        long wordCount = (Math.min(Math.max((long) Math.ceil(optimalBits), MIN_BITS), MAX_BITS) + Long.SIZE - 1) / Long.SIZE;
+        this.words = new AtomicLongArray((int) wordCount);
+        this.bits = wordCount * Long.SIZE;
+        this.hashes = (int) Math.max(1, Math.min(16, Math.round(bits / (double) Math.max(expectedPairs, 1) * Math.log(2))));
+    }
+
+    /**
+     * Adds a pair.
+     *
+     * @param first the first ID.
+     * @param second the second ID.
+     */
+    public void put(long first, long second) {
+        long hash = hash(first, second);
+        long step = step(hash);
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(hash + i * step, bits);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            // Set the bit unless it is set already, without losing bits set concurrently
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a pair may have been added.
+     *
+     * @param first the first ID.
+     * @param second the second ID.
+     * @return {@code false} if the pair was certainly never added; {@code true} if it probably was.
+     */
+    public boolean mightContain(long first, long second) {
+        long hash = hash(first, second);
+        long step = step(hash);
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(hash + i * step, bits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the size of the filter.
+     *
+     * @return the number of bits.
+     */
+    public long bitSize() {
+        return bits;
+    }
+
+    /**
+     * Gets the number of bits set per pair.
+     *
+     * @return the number of hash functions.
+     */
+    public int hashCount() {
+        return hashes;
+    }
+
+    private static long hash(long first, long second) {
+        return mix(first * 0x9E3779B97F4A7C15L + mix(second));
+    }
+
+    // Odd, so the probes of a pair do not all land on the same bit
+    private static long step(long hash) {
+        return mix(hash ^ 0xC2B2AE3D27D4EB4FL) | 1;
+    }
+
+    // Finalizer of SplitMix64: spreads every input bit over all output bits
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -2,9 +2,18 @@ package com.example.hotelreservation.utlis;
 
 /**
  * Utility class for calculating the distance between two geographical points.
+ *
+ * Besides the single-pair {@link #calculateDistance}, batch methods compare one reference point with
+ * many {@link GeoPoints}. They use the Vector API when the JVM is started with
+ * {@code --add-modules jdk.incubator.vector}, and a scalar loop otherwise.
  */
 public class DistanceCalculator {
 
+    // Mean radius of the Earth in kilometers
+    private static final double EARTH_RADIUS = 6371;
+
+    private static final DistanceKernel KERNEL = loadKernel();
+
     /**
      * Calculates the distance between two points specified by their latitude and longitude.
      *
@@ -36,4 +45,87 @@ public class DistanceCalculator {
 
         return distance;
     }
+
+    /**
+     * Calculates the distances between a reference point and many points.
+     *
+     * @param lat the latitude of the reference point in decimal degrees.
+     * @param lon the longitude of the reference point in decimal degrees.
+     * @param points the points to measure the distance to.
+     * @param distances receives the distance to the i-th point, in kilometers, at index i.
+     * @throws IllegalArgumentException if the distances array is shorter than the number of points.
+     */
+    public static void calculateDistances(double lat, double lon, GeoPoints points, double[] distances) {
+        checkLength(points, distances.length);
+        double latRadians = Math.toRadians(lat);
+        KERNEL.haversine(latRadians, Math.toRadians(lon), Math.cos(latRadians), points, distances);
+
+        // Turn the haversine terms into distances in place
+        for (int i = 0; i < points.size(); i++) {
+            distances[i] = 2 * EARTH_RADIUS * Math.asin(Math.sqrt(Math.min(distances[i], 1)));
+        }
+    }
+
+    /**
+     * Marks the points within a radius of a reference point.
+     *
+     * Only the haversine term is compared with the term of the radius, so no square root or inverse
+     * trigonometric function is evaluated per point.
+     *
+     * @param lat the latitude of the reference point in decimal degrees.
+     * @param lon the longitude of the reference point in decimal degrees.
+     * @param radius the radius in kilometers.
+     * @param points the points to check.
+     * @param matches receives at index i whether the i-th point is within the radius.
+     * @return the number of points within the radius.
+     * @throws IllegalArgumentException if the matches array is shorter than the number of points.
+     */
+    public static int withinRadius(double lat, double lon, double radius, GeoPoints points, boolean[] matches) {
+        checkLength(points, matches.length);
+        double latRadians = Math.toRadians(lat);
+        return KERNEL.withinBound(latRadians, Math.toRadians(lon), Math.cos(latRadians), points, haversineBound(radius), matches);
+    }
+
+    /**
+     * Checks whether the batch methods use the Vector API.
+     *
+     * @return {@code true} if the points are processed with vector instructions; {@code false} if a scalar loop is used.
+     */
+    public static boolean isVectorized() {
+        return KERNEL instanceof VectorDistanceKernel;
+    }
+
+    /**
+     * Computes the largest haversine term of a point within a radius.
+     *
+     * @param radius the radius in kilometers.
+     * @return {@code sin²(radius / 2R)}, or a value no term reaches if the radius is negative.
+     */
+    public static double haversineBound(double radius) {
+        if (radius < 0) {
+            return -1;
+        }
+        // Half the Earth's circumference already covers every point
+        double halfAngle = Math.min(radius / EARTH_RADIUS, Math.PI) / 2;
+        return Math.sin(halfAngle) * Math.sin(halfAngle);
+    }
+
+    private static void checkLength(GeoPoints points, int length) {
+        if (length < points.size()) {
+            throw new IllegalArgumentException("Result array holds " + length + " values but there are " + points.size() + " points");
+        }
+    }
+
+    private static DistanceKernel loadKernel() {
+        // The kernel class links against the incubator module, so it must not be touched without it
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (DistanceKernel) Class.forName("com.example.hotelreservation.utlis.VectorDistanceKernel")
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Fall back to the scalar loop
+            }
+        }
+        return new ScalarDistanceKernel();
+    }
 }
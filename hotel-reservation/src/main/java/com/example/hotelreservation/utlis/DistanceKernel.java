@@ -0,0 +1,35 @@
+package com.example.hotelreservation.utlis;
+
+/**
+ * Evaluates the haversine term {@code a = sin²(Δφ/2) + cos φ1 · cos φ2 · sin²(Δλ/2)} between one
+ * reference point and many {@link GeoPoints}.
+ *
+ * The great-circle distance is {@code 2R · asin(√a)}; since it grows with {@code a}, radius checks can
+ * compare {@code a} itself and skip the square root and inverse sine.
+ */
+interface DistanceKernel {
+
+    /**
+     * Computes the haversine term of every point.
+     *
+     * @param latitude the latitude of the reference point in radians.
+     * @param longitude the longitude of the reference point in radians.
+     * @param cosLatitude the cosine of the reference latitude.
+     * @param points the points to compare with.
+     * @param terms receives the haversine term of the i-th point at index i.
+     */
+    void haversine(double latitude, double longitude, double cosLatitude, GeoPoints points, double[] terms);
+
+    /**
+     * Marks the points whose haversine term is at most a bound.
+     *
+     * @param latitude the latitude of the reference point in radians.
+     * @param longitude the longitude of the reference point in radians.
+     * @param cosLatitude the cosine of the reference latitude.
+     * @param points the points to compare with.
+     * @param bound the largest haversine term that matches.
+     * @param matches receives for the i-th point at index i whether it matches.
+     * @return the number of matching points.
+     */
+    int withinBound(double latitude, double longitude, double cosLatitude, GeoPoints points, double bound, boolean[] matches);
+}
@@ -0,0 +1,54 @@
+package com.example.hotelreservation.utlis;
+
+/**
+ * Geographical points stored as parallel arrays, ready for the batch methods of {@link DistanceCalculator}.
+ *
+ * Latitudes and longitudes are converted to radians once, and the cosine of each latitude is cached,
+ * so a distance computation only has to evaluate the terms that depend on the reference point.
+ */
+public final class GeoPoints {
+
+    // Latitudes and longitudes in radians, and the cosine of each latitude, indexed alike
+    final double[] latitudes;
+    final double[] longitudes;
+    final double[] cosLatitudes;
+
+    private GeoPoints(double[] latitudes, double[] longitudes, double[] cosLatitudes) {
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.cosLatitudes = cosLatitudes;
+    }
+
+    /**
+     * Creates the points from latitudes and longitudes in decimal degrees.
+     *
+     * @param latitudes the latitudes in decimal degrees.
+     * @param longitudes the longitudes in decimal degrees, in the same order as the latitudes.
+     * @return the {@link GeoPoints}, with the i-th point at index i.
+     * @throws IllegalArgumentException if the arrays have different lengths.
+     */
+    public static GeoPoints fromDegrees(double[] latitudes, double[] longitudes) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("Got " + latitudes.length + " latitudes but " + longitudes.length + " longitudes");
+        }
+
+        double[] latitudeRadians = new double[latitudes.length];
+        double[] longitudeRadians = new double[longitudes.length];
+        double[] cosLatitudes = new double[latitudes.length];
+        for (int i = 0; i < latitudes.length; i++) {
+            latitudeRadians[i] = Math.toRadians(latitudes[i]);
+            longitudeRadians[i] = Math.toRadians(longitudes[i]);
+            cosLatitudes[i] = Math.cos(latitudeRadians[i]);
+        }
+        return new GeoPoints(latitudeRadians, longitudeRadians, cosLatitudes);
+    }
+
+    /**
+     * Gets the number of points.
+     *
+     * @return the number of points.
+     */
+    public int size() {
+        return latitudes.length;
+    }
+}
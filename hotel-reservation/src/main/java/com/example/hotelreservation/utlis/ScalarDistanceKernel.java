@@ -0,0 +1,35 @@
+package com.example.hotelreservation.utlis;
+
+/**
+ * {@link DistanceKernel} that handles one point at a time. Used when the Vector API is not available.
+ */
+final class ScalarDistanceKernel implements DistanceKernel {
+
+    @Override
+    public void haversine(double latitude, double longitude, double cosLatitude, GeoPoints points, double[] terms) {
+        for (int i = 0; i < points.size(); i++) {
+            terms[i] = haversine(latitude, longitude, cosLatitude, points, i);
+        }
+    }
+
+    @Override
+    public int withinBound(double latitude, double longitude, double cosLatitude, GeoPoints points, double bound, boolean[] matches) {
+        int count = 0;
+        for (int i = 0; i < points.size(); i++) {
+            matches[i] = haversine(latitude, longitude, cosLatitude, points, i) <= bound;
+            if (matches[i]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Computes the haversine term of a single point, e.g. for the tail of a vectorized loop.
+     */
+    static double haversine(double latitude, double longitude, double cosLatitude, GeoPoints points, int i) {
+        double sinLatitude = Math.sin((points.latitudes[i] - latitude) * 0.5);
+        double sinLongitude = Math.sin((points.longitudes[i] - longitude) * 0.5);
+        return sinLatitude * sinLatitude + cosLatitude * points.cosLatitudes[i] * sinLongitude * sinLongitude;
+    }
+}
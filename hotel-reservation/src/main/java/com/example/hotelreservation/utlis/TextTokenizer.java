@@ -0,0 +1,48 @@
+package com.example.hotelreservation.utlis;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Utility class for splitting text into search terms.
+ *
+ * Terms are runs of letters and digits, lower-cased and stripped of diacritics, so "Hôtel" and
+ * "hotel" match each other.
+ */
+public class TextTokenizer {
+
+    private TextTokenizer() {
+    }
+
+    /**
+     * Splits a text into terms.
+     *
+     * @param text the text to split; may be {@code null}.
+     * @return the terms in the order they appear in the text, including repeated ones.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+
+        // Decompose accented letters so the accents can be dropped as separate marks
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD).toLowerCase(Locale.ROOT);
+        StringBuilder term = new StringBuilder();
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                term.append(c);
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK && term.length() > 0) {
+                terms.add(term.toString());
+                term.setLength(0);
+            }
+        }
+        if (term.length() > 0) {
+            terms.add(term.toString());
+        }
+        return terms;
+    }
+}
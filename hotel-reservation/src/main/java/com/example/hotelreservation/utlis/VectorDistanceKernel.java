@@ -0,0 +1,62 @@
+package com.example.hotelreservation.utlis;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link DistanceKernel} that handles as many points per instruction as the CPU's widest vector
+ * registers hold, using the incubating Vector API.
+ *
+ * Only loaded when the JVM was started with {@code --add-modules jdk.incubator.vector}; see
+ * {@link DistanceCalculator}.
+ */
+final class VectorDistanceKernel implements DistanceKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void haversine(double latitude, double longitude, double cosLatitude, GeoPoints points, double[] terms) {
+        int upperBound = SPECIES.loopBound(points.size());
+        int i = 0;
+        for (; i < upperBound; i += SPECIES.length()) {
+            haversine(latitude, longitude, cosLatitude, points, i).intoArray(terms, i);
+        }
+
+        // Points left over after the last full vector
+        for (; i < points.size(); i++) {
+            terms[i] = ScalarDistanceKernel.haversine(latitude, longitude, cosLatitude, points, i);
+        }
+    }
+
+    @Override
+    public int withinBound(double latitude, double longitude, double cosLatitude, GeoPoints points, double bound, boolean[] matches) {
+        int upperBound = SPECIES.loopBound(points.size());
+        int count = 0;
+        int i = 0;
+        for (; i < upperBound; i += SPECIES.length()) {
+            VectorMask<Double> mask = haversine(latitude, longitude, cosLatitude, points, i).compare(VectorOperators.LE, bound);
+            mask.intoArray(matches, i);
+            count += mask.trueCount();
+        }
+
+        // Points left over after the last full vector
+        for (; i < points.size(); i++) {
+            matches[i] = ScalarDistanceKernel.haversine(latitude, longitude, cosLatitude, points, i) <= bound;
+            if (matches[i]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static DoubleVector haversine(double latitude, double longitude, double cosLatitude, GeoPoints points, int i) {
+        DoubleVector sinLatitude = DoubleVector.fromArray(SPECIES, points.latitudes, i)
+                .sub(latitude).mul(0.5).lanewise(VectorOperators.SIN);
+        DoubleVector sinLongitude = DoubleVector.fromArray(SPECIES, points.longitudes, i)
+                .sub(longitude).mul(0.5).lanewise(VectorOperators.SIN);
+        DoubleVector cosLatitudes = DoubleVector.fromArray(SPECIES, points.cosLatitudes, i).mul(cosLatitude);
+        return sinLongitude.mul(sinLongitude).mul(cosLatitudes).add(sinLatitude.mul(sinLatitude));
+    }
+}
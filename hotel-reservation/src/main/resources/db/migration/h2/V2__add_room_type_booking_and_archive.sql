@@ -0,0 +1,41 @@
+-- Room-type bookings: a reservation records its hotel and room type, and has no room until check-in
+ALTER TABLE reservations ADD COLUMN hotel_id BIGINT;
+ALTER TABLE reservations ADD COLUMN room_type INTEGER;
+ALTER TABLE reservations ALTER COLUMN room_id DROP NOT NULL;
+
+-- Completed stays moved out of the reservations table; H2 has no table partitioning, so
+-- reservations stays a plain table and only the archival of past stays applies
+CREATE TABLE reservations_archive (
+    id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    room_id BIGINT,
+    hotel_id BIGINT,
+    room_type INTEGER,
+    check_in_time TIMESTAMP(6) NOT NULL,
+    check_out_time TIMESTAMP(6) NOT NULL,
+    archived_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_reservations_archive_room FOREIGN KEY (room_id) REFERENCES rooms
+);
+
+-- Nights booked per hotel and room type
+CREATE TABLE room_type_inventory (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    hotel_id BIGINT NOT NULL,
+    room_type INTEGER NOT NULL,
+    night DATE NOT NULL,
+    capacity INTEGER NOT NULL,
+    booked INTEGER NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE (hotel_id, room_type, night)
+);
+
+-- Stored responses of requests with an Idempotency-Key
+CREATE TABLE idempotency_records (
+    record_key VARCHAR(64) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    response VARCHAR(8000),
+    created_at TIMESTAMP(6) NOT NULL,
+    expires_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (record_key)
+);
@@ -0,0 +1,6 @@
+-- Reservations made before room-type booking only carry a room. Every reservation now records its
+-- hotel and room type, so allotment counts can be answered from the reservations table alone.
+UPDATE reservations
+SET hotel_id = (SELECT rooms.hotel_id FROM rooms WHERE rooms.id = reservations.room_id),
+    room_type = (SELECT rooms.type FROM rooms WHERE rooms.id = reservations.room_id)
+WHERE room_id IS NOT NULL AND (hotel_id IS NULL OR room_type IS NULL);
@@ -0,0 +1,24 @@
+-- Indexes of the hot access paths. Hibernate only created the primary and unique keys, so none of
+-- them exist yet.
+
+-- Conflict checks and check-out by room and stay
+CREATE INDEX idx_reservations_room_stay ON reservations (room_id, check_in_time, check_out_time);
+-- Reservation history and feedback eligibility by user
+CREATE INDEX idx_reservations_user ON reservations (user_id);
+-- Allotment counts by hotel, room type and night
+CREATE INDEX idx_reservations_hotel_type_stay ON reservations (hotel_id, room_type, check_out_time);
+
+-- Archived history by user and archival order
+CREATE INDEX idx_reservations_archive_user ON reservations_archive (user_id);
+CREATE INDEX idx_reservations_archive_check_out ON reservations_archive (check_out_time);
+
+-- Rooms of a hotel, optionally of one type, in price order
+CREATE INDEX idx_rooms_hotel_type_price ON rooms (hotel_id, type, price);
+-- Feedback of a hotel
+CREATE INDEX idx_feedback_hotel ON feedback (hotel_id);
+-- Bounding box prefilter of radius searches
+CREATE INDEX idx_hotels_location ON hotels (latitude, longitude);
+-- Roles loaded with each user
+CREATE INDEX idx_user_roles_user ON user_roles (user_id);
+-- Purge of expired idempotency keys
+CREATE INDEX idx_idempotency_records_expires ON idempotency_records (expires_at);
@@ -0,0 +1,13 @@
+-- Versions of each hotel's data and of the hotel catalogue. They are bumped in the transactions that
+-- change the data, so every instance derives the same ETags and notices changes made through others.
+ALTER TABLE hotels ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE hotels ADD COLUMN modified_at TIMESTAMP(6) NOT NULL DEFAULT LOCALTIMESTAMP;
+
+-- A single row: the version of the catalogue of all hotels with their rooms and feedback
+CREATE TABLE catalogue_version (
+    id INTEGER NOT NULL,
+    version BIGINT NOT NULL,
+    modified_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+INSERT INTO catalogue_version (id, version, modified_at) VALUES (1, 0, LOCALTIMESTAMP);
@@ -0,0 +1,54 @@
+-- Schema as created by Hibernate (ddl-auto=update) before the migrations existed. Databases created
+-- that way already have it; Flyway baselines them at this version and runs only the later scripts.
+
+CREATE TABLE hotels (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    name VARCHAR(255) NOT NULL,
+    latitude FLOAT(53) NOT NULL,
+    longitude FLOAT(53) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE rooms (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    hotel_id BIGINT NOT NULL,
+    room_number INTEGER NOT NULL,
+    type INTEGER NOT NULL,
+    price FLOAT(53) NOT NULL,
+    available BOOLEAN NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_rooms_hotel FOREIGN KEY (hotel_id) REFERENCES hotels
+);
+
+CREATE TABLE users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    username VARCHAR(255) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE user_roles (
+    user_id BIGINT NOT NULL,
+    role VARCHAR(255),
+    CONSTRAINT fk_user_roles_user FOREIGN KEY (user_id) REFERENCES users
+);
+
+CREATE TABLE reservations (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    user_id BIGINT NOT NULL,
+    room_id BIGINT NOT NULL,
+    check_in_time TIMESTAMP(6) NOT NULL,
+    check_out_time TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_reservations_room FOREIGN KEY (room_id) REFERENCES rooms
+);
+
+CREATE TABLE feedback (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    hotel_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    comment VARCHAR(1000),
+    rating INTEGER NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_feedback_hotel FOREIGN KEY (hotel_id) REFERENCES hotels
+);
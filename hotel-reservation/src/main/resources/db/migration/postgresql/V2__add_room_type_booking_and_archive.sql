@@ -0,0 +1,69 @@
+-- Room-type bookings: a reservation records its hotel and room type, and has no room until check-in
+ALTER TABLE reservations ADD COLUMN hotel_id BIGINT;
+ALTER TABLE reservations ADD COLUMN room_type INTEGER;
+ALTER TABLE reservations ALTER COLUMN room_id DROP NOT NULL;
+
+-- Reservations are range partitioned by check-out month. Availability queries only look at stays
+-- that check out after a given date, so PostgreSQL prunes every partition of earlier months.
+-- A partitioned table cannot be created from an existing one: the rows are copied into a new table,
+-- and the id sequence continues after the copied ids. The primary key has to include the partition
+-- key; ids stay unique as they come from one sequence.
+ALTER TABLE reservations RENAME TO reservations_unpartitioned;
+ALTER TABLE reservations_unpartitioned RENAME CONSTRAINT fk_reservations_room TO fk_reservations_unpartitioned_room;
+
+CREATE TABLE reservations (
+    id BIGSERIAL NOT NULL,
+    user_id BIGINT NOT NULL,
+    room_id BIGINT,
+    hotel_id BIGINT,
+    room_type INTEGER,
+    check_in_time TIMESTAMP(6) NOT NULL,
+    check_out_time TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id, check_out_time),
+    CONSTRAINT fk_reservations_room FOREIGN KEY (room_id) REFERENCES rooms
+) PARTITION BY RANGE (check_out_time);
+
+-- Every stay goes here until ReservationArchiveService splits off the monthly partitions and the
+-- partition of earlier stays on its first run
+CREATE TABLE reservations_beyond PARTITION OF reservations FOR VALUES FROM (MINVALUE) TO (MAXVALUE);
+
+INSERT INTO reservations (id, user_id, room_id, hotel_id, room_type, check_in_time, check_out_time)
+SELECT id, user_id, room_id, hotel_id, room_type, check_in_time, check_out_time FROM reservations_unpartitioned;
+DROP TABLE reservations_unpartitioned;
+SELECT setval(pg_get_serial_sequence('reservations', 'id'), COALESCE(MAX(id), 0) + 1, false) FROM reservations;
+
+-- Completed stays moved out of the partitioned table
+CREATE TABLE reservations_archive (
+    id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    room_id BIGINT,
+    hotel_id BIGINT,
+    room_type INTEGER,
+    check_in_time TIMESTAMP(6) NOT NULL,
+    check_out_time TIMESTAMP(6) NOT NULL,
+    archived_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_reservations_archive_room FOREIGN KEY (room_id) REFERENCES rooms
+);
+
+-- Nights booked per hotel and room type
+CREATE TABLE room_type_inventory (
+    id BIGSERIAL NOT NULL,
+    hotel_id BIGINT NOT NULL,
+    room_type INTEGER NOT NULL,
+    night DATE NOT NULL,
+    capacity INTEGER NOT NULL,
+    booked INTEGER NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE (hotel_id, room_type, night)
+);
+
+-- Stored responses of requests with an Idempotency-Key
+CREATE TABLE idempotency_records (
+    record_key VARCHAR(64) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    response VARCHAR(8000),
+    created_at TIMESTAMP(6) NOT NULL,
+    expires_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (record_key)
+);
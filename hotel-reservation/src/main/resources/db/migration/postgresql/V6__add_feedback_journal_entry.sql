@@ -0,0 +1,6 @@
+-- The journal entry each feedback row was written from. A journal replayed after a crash can hold
+-- entries whose batch had already committed; the unique key lets their insert be skipped. Feedback not
+-- written from the journal leaves both columns empty.
+ALTER TABLE feedback ADD COLUMN journal_id VARCHAR(36);
+ALTER TABLE feedback ADD COLUMN journal_sequence BIGINT;
+ALTER TABLE feedback ADD CONSTRAINT uq_feedback_journal_entry UNIQUE (journal_id, journal_sequence);
@@ -0,0 +1,38 @@
+package com.example.hotelreservation.config;
+
+import com.example.hotelreservation.model.Reservation;
+import com.example.hotelreservation.modelDto.HotelFacets;
+import com.example.hotelreservation.modelDto.RoomPriceCount;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that {@link NativeHints} covers the types and resources only reached by name at runtime.
+ */
+class NativeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    NativeHintsTest() {
+        new NativeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void registersEntitiesDtosAndJjwt() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(Reservation.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(HotelFacets.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(RoomPriceCount.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(io.jsonwebtoken.impl.DefaultJwtBuilder.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onType(io.jsonwebtoken.jackson.io.JacksonDeserializer.class).test(hints));
+    }
+
+    @Test
+    void registersResourcesOpenedByName() {
+        assertTrue(RuntimeHintsPredicates.resource().forResource("hotels.json").test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("db/migration/postgresql/V1__create_schema.sql").test(hints));
+        assertTrue(RuntimeHintsPredicates.resource().forResource("META-INF/services/io.jsonwebtoken.io.Serializer").test(hints));
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.hotelreservation.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that {@link ReplicaRoutingDataSource} sends each transaction to the right one of two H2 databases.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = database("primary");
+    private final DataSource replica = database("replica");
+
+    @AfterEach
+    void unpin() {
+        ReplicaRoutingDataSource.unpin();
+    }
+
+    @Test
+    void readsFromTheReplicaAndWritesToThePrimary() {
+        Routing routing = new Routing("", Duration.ofSeconds(5));
+
+        assertEquals("replica", routing.query(true));
+        assertEquals("primary", routing.query(false));
+    }
+
+    @Test
+    void readsFromThePrimaryWhileTheReplicaLags() {
+        assertEquals("primary", new Routing("SELECT 10", Duration.ofSeconds(5)).query(true));
+        assertEquals("replica", new Routing("SELECT 2.5", Duration.ofSeconds(5)).query(true));
+        // A replica whose lag cannot be measured is not trusted either
+        assertEquals("primary", new Routing("SELECT lag FROM missing", Duration.ofSeconds(5)).query(true));
+    }
+
+    @Test
+    void letsUsersReadTheirOwnWrites() {
+        Routing routing = new Routing("", Duration.ofSeconds(5));
+        ReadYourWritesInterceptor interceptor = new ReadYourWritesInterceptor(Duration.ofMinutes(1));
+
+        assertEquals("replica", routing.handle(interceptor, "GET", "alice"));
+        assertEquals("primary", routing.handle(interceptor, "POST", "alice"));
+        assertEquals("primary", routing.handle(interceptor, "GET", "alice"));
+        assertEquals("replica", routing.handle(interceptor, "GET", "bob"));
+        assertEquals("replica", routing.handle(interceptor, "GET", null));
+    }
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS marker (name VARCHAR(16))");
+        jdbcTemplate.execute("DELETE FROM marker");
+        jdbcTemplate.update("INSERT INTO marker VALUES (?)", name);
+        return dataSource;
+    }
+
+    /**
+     * A routing data source over the two databases, used the way JPA uses it: through a lazy proxy.
+     */
+    private final class Routing {
+
+        private final JdbcTemplate jdbcTemplate;
+        private final TransactionTemplate transactionTemplate;
+
+        private Routing(String lagQuery, Duration maxLag) {
+            ReplicaLagMonitor lagMonitor = new ReplicaLagMonitor(replica, lagQuery, maxLag);
+            lagMonitor.check();
+            DataSource dataSource = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica, lagMonitor));
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+            this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        }
+
+        private String query(boolean readOnly) {
+            transactionTemplate.setReadOnly(readOnly);
+            return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM marker", String.class));
+        }
+
+        private String handle(ReadYourWritesInterceptor interceptor, String method, String user) {
+            MockHttpServletRequest request = new MockHttpServletRequest(method, "/hotels");
+            if (user != null) {
+                request.setUserPrincipal(() -> user);
+            }
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            interceptor.preHandle(request, response, null);
+            try {
+                return query(true);
+            } finally {
+                interceptor.afterCompletion(request, response, null, null);
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.hotelreservation.config;
+
+import com.example.hotelreservation.repository.HotelRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that {@link StartupWarmUp} holds back the readiness of the application until it is done.
+ */
+// An own database, and no second-level cache, so entities cached by other test contexts in this JVM are neither seen nor shadowed
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:warm-up;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+        "warmup.iterations=20"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class StartupWarmUpTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationAvailability applicationAvailability;
+
+    @Autowired
+    private StartupWarmUp startupWarmUp;
+
+    @Autowired
+    private ReadinessRecorder readinessRecorder;
+
+    @Test
+    void acceptsTrafficOnlyAfterTheWarmUp() throws Exception {
+        List<ReadinessState> states = readinessRecorder.states;
+        int refusing = states.indexOf(ReadinessState.REFUSING_TRAFFIC);
+        assertTrue(refusing >= 0, "Warm-up did not refuse traffic: " + states);
+        assertTrue(states.subList(refusing, states.size()).contains(ReadinessState.ACCEPTING_TRAFFIC));
+        assertEquals(ReadinessState.ACCEPTING_TRAFFIC, applicationAvailability.getReadinessState());
+        // Every round ran, none of the synthetic requests failed
+        assertEquals(20, startupWarmUp.getCompletedRounds());
+
+        // The probe is open to the load balancer on the public port, without a token
+        mockMvc.perform(get("/readyz"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"));
+    }
+
+    @Test
+    void acceptsTrafficEvenIfTheWarmUpFails() {
+        List<ReadinessState> states = new ArrayList<>();
+        ApplicationEventPublisher publisher = event -> states.add((ReadinessState) ((AvailabilityChangeEvent<?>) event).getState());
+        HotelRepository hotelRepository = mock(HotelRepository.class);
+        when(hotelRepository.findAll(any(Pageable.class))).thenThrow(new IllegalStateException("Database down"));
+        @SuppressWarnings("unchecked")
+        ObjectProvider<HikariDataSource> pools = mock(ObjectProvider.class);
+        when(pools.orderedStream()).thenReturn(Stream.empty());
+
+        new StartupWarmUp(publisher, hotelRepository, null, null, null, null, null, null, null, null, pools,
+                mock(PlatformTransactionManager.class), true, 10, 5, Duration.ofSeconds(10)).warmUp();
+
+        assertEquals(List.of(ReadinessState.REFUSING_TRAFFIC, ReadinessState.ACCEPTING_TRAFFIC), states);
+    }
+
+    /**
+     * Records every change of the readiness state, from the start of the context on.
+     */
+    static class ReadinessRecorder {
+
+        private final List<ReadinessState> states = new ArrayList<>();
+
+        @EventListener
+        public void onChange(AvailabilityChangeEvent<ReadinessState> event) {
+            states.add(event.getState());
+        }
+    }
+
+    @TestConfiguration
+    static class Recording {
+
+        @Bean
+        ReadinessRecorder readinessRecorder() {
+            return new ReadinessRecorder();
+        }
+    }
+}
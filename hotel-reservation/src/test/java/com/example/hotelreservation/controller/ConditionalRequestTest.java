@@ -0,0 +1,118 @@
+package com.example.hotelreservation.controller;
+
+import com.example.hotelreservation.model.User;
+import com.example.hotelreservation.repository.UserRepository;
+import com.example.hotelreservation.security.JwtUtil;
+import com.example.hotelreservation.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Checks that the gzipped and identity encodings of the catalogue listings are validated separately, and
+ * that their ETags follow the versions kept in the database.
+ */
+// An own database, and no second-level cache, so entities cached by other test contexts in this JVM are neither seen nor shadowed
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:conditional-requests;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+        "hotels.versions.max-age=100ms"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class ConditionalRequestTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void encodingsHaveTheirOwnETags() throws Exception {
+        String bearer = bearer();
+        MockHttpServletResponse gzipped = fetch(bearer, "gzip", null);
+        MockHttpServletResponse identity = fetch(bearer, null, null);
+        assertEquals(200, gzipped.getStatus());
+        assertEquals("gzip", gzipped.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertNull(identity.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(gzipped.getHeader(HttpHeaders.ETAG).endsWith("-gzip\""));
+        assertNotEquals(gzipped.getHeader(HttpHeaders.ETAG), identity.getHeader(HttpHeaders.ETAG));
+
+        // Each copy revalidates in its own encoding, with a 304 that still varies by encoding
+        MockHttpServletResponse notModified = fetch(bearer, "gzip", gzipped.getHeader(HttpHeaders.ETAG));
+        assertEquals(304, notModified.getStatus());
+        assertTrue(notModified.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT_ENCODING));
+        assertEquals(304, fetch(bearer, null, identity.getHeader(HttpHeaders.ETAG)).getStatus());
+
+        // The gzipped copy's ETag does not match the identity body, so a client without gzip gets the body
+        MockHttpServletResponse switched = fetch(bearer, null, gzipped.getHeader(HttpHeaders.ETAG));
+        assertEquals(200, switched.getStatus());
+        assertNull(switched.getHeader(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void honorsTheQualityOfGzip() throws Exception {
+        String bearer = bearer();
+        assertNull(fetch(bearer, "gzip;q=0, identity", null).getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertNull(fetch(bearer, "*;q=0.5, gzip; q=0", null).getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertNull(fetch(bearer, "gzip;q=invalid", null).getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("gzip", fetch(bearer, "deflate, gzip;q=0.8", null).getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("gzip", fetch(bearer, "*", null).getHeader(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void changesMadeThroughOtherInstancesAreSeenWithinTheMaxAge() throws Exception {
+        String bearer = bearer();
+        String eTag = fetch(bearer, null, null).getHeader(HttpHeaders.ETAG);
+        assertEquals(304, fetch(bearer, null, eTag).getStatus());
+
+        // Another instance changed the catalogue, in the database only
+        jdbcTemplate.update("UPDATE catalogue_version SET version = version + 1, modified_at = LOCALTIMESTAMP");
+        Thread.sleep(200);
+
+        MockHttpServletResponse changed = fetch(bearer, null, eTag);
+        assertEquals(200, changed.getStatus());
+        assertNotEquals(eTag, changed.getHeader(HttpHeaders.ETAG));
+    }
+
+    private MockHttpServletResponse fetch(String bearer, String acceptEncoding, String ifNoneMatch) throws Exception {
+        var request = get("/hotels").header(HttpHeaders.AUTHORIZATION, bearer);
+        if (acceptEncoding != null) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        if (ifNoneMatch != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+
+    private String bearer() {
+        User user = userRepository.save(new User("conditional-" + System.nanoTime(), "password", Set.of("USER")));
+        return "Bearer " + jwtUtil.generateToken(userService.loadUserByUsername(user.getUsername()));
+    }
+}
@@ -0,0 +1,380 @@
+package com.example.hotelreservation.controller;
+
+import com.example.hotelreservation.model.Feedback;
+import com.example.hotelreservation.model.Hotel;
+import com.example.hotelreservation.model.Reservation;
+import com.example.hotelreservation.model.Room;
+import com.example.hotelreservation.model.User;
+import com.example.hotelreservation.modelDto.AuthenticationRequest;
+import com.example.hotelreservation.modelDto.ChangeReservationDto;
+import com.example.hotelreservation.modelDto.FeedbackDto;
+import com.example.hotelreservation.modelDto.ReservationDto;
+import com.example.hotelreservation.modelDto.RoomTypeReservationDto;
+import com.example.hotelreservation.repository.FeedbackRepository;
+import com.example.hotelreservation.repository.HotelRepository;
+import com.example.hotelreservation.repository.UserRepository;
+import com.example.hotelreservation.security.JwtUtil;
+import com.example.hotelreservation.service.HotelService;
+import com.example.hotelreservation.service.HotelVersionService;
+import com.example.hotelreservation.service.ReservationService;
+import com.example.hotelreservation.service.UserService;
+import com.example.hotelreservation.support.QueryCounter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that every endpoint stays within the number of SQL statements declared by its {@link QueryBudget}.
+ *
+ * Each request runs with cold second-level caches, against hotels that have several rooms, reviews
+ * and reservations, so a lazy association loaded once per row (N+1) shows up as a blown budget.
+ */
+// An own database, and an own cache manager so entities cached by other test contexts in this JVM are not seen
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-budget;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.javax.cache.uri=application.conf"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryBudgetTest {
+
+    private static final String PASSWORD = "password";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    @Qualifier("requestMappingHandlerMapping")
+    private RequestMappingHandlerMapping handlerMapping;
+
+    @Autowired
+    private HotelVersionService hotelVersionService;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private HotelService hotelService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private final AtomicInteger users = new AtomicInteger();
+
+    // Every booking gets its own week, so bookings of different tests never conflict
+    private final AtomicInteger weeks = new AtomicInteger();
+
+    private QueryCounter queryCounter;
+    private List<Hotel> hotels;
+
+    @BeforeAll
+    void setUp() {
+        queryCounter = new QueryCounter(entityManagerFactory);
+        hotels = hotelRepository.findAll();
+
+        // Several reviews per hotel, so loading them one by one would show up
+        for (Hotel hotel : hotels) {
+            for (int i = 0; i < 3; i++) {
+                Feedback feedback = new Feedback();
+                feedback.setHotel(hotel);
+                feedback.setUserId(1L);
+                feedback.setComment("Review " + i);
+                feedback.setRating(3 + i % 3);
+                feedbackRepository.save(feedback);
+            }
+        }
+    }
+
+    @Test
+    void everyEndpointDeclaresABudget() {
+        List<HandlerMethod> endpoints = handlerMapping.getHandlerMethods().values().stream()
+                .filter(handler -> handler.getBeanType().getPackageName().startsWith("com.example.hotelreservation"))
+                .toList();
+
+        assertFalse(endpoints.isEmpty());
+        for (HandlerMethod endpoint : endpoints) {
+            assertTrue(endpoint.hasMethodAnnotation(QueryBudget.class), endpoint.getShortLogMessage() + " has no @QueryBudget");
+        }
+    }
+
+    @Test
+    void login() throws Exception {
+        String username = nextUsername();
+        mockMvc.perform(post("/auth/register").contentType(MediaType.APPLICATION_JSON)
+                        .content(json(new User(username, PASSWORD, Set.of("USER")))))
+                .andExpect(status().isOk());
+
+        assertWithinBudget(post("/auth/login").contentType(MediaType.APPLICATION_JSON)
+                .content(json(new AuthenticationRequest(username, PASSWORD))));
+    }
+
+    @Test
+    void register() throws Exception {
+        assertWithinBudget(post("/auth/register").contentType(MediaType.APPLICATION_JSON)
+                .content(json(new User(nextUsername(), PASSWORD, Set.of("USER")))));
+    }
+
+    @Test
+    void allHotels() throws Exception {
+        assertWithinBudget(get("/hotels").header(HttpHeaders.AUTHORIZATION, bearer(createUser())));
+    }
+
+    @Test
+    void hotelsWithinRadius() throws Exception {
+        assertWithinBudget(get("/hotels/withinRadius")
+                .param("userLat", "46.77").param("userLon", "23.60").param("radius", "100"));
+    }
+
+    @Test
+    void nearestHotels() throws Exception {
+        assertWithinBudget(get("/hotels/nearest")
+                .param("userLat", "46.77").param("userLon", "23.60").param("k", "2").param("ratingWeight", "0.5"));
+    }
+
+    @Test
+    void searchHotels() throws Exception {
+        // One hotel per page, so the count query runs as well
+        assertWithinBudget(get("/hotels/search")
+                .param("userLat", "46.77").param("userLon", "23.60").param("radius", "100")
+                .param("checkIn", nextWeek().toLocalDate().toString()).param("roomType", "2").param("size", "1"));
+    }
+
+    @Test
+    void textSearch() throws Exception {
+        assertWithinBudget(get("/hotels/text-search").param("q", "review hotel"));
+    }
+
+    @Test
+    void autocomplete() throws Exception {
+        assertWithinBudget(get("/hotels/autocomplete").param("prefix", "ham"));
+    }
+
+    @Test
+    void topRatedHotels() throws Exception {
+        assertWithinBudget(get("/hotels/top-rated").param("limit", "5"));
+        assertWithinBudget(get("/hotels/top-rated").param("lat", "46.77").param("lon", "23.60"));
+    }
+
+    @Test
+    void rooms() throws Exception {
+        assertWithinBudget(get("/hotels/{hotelId}/rooms", hotels.get(0).getId())
+                .header(HttpHeaders.AUTHORIZATION, bearer(createUser())));
+    }
+
+    @Test
+    void hotelDetails() throws Exception {
+        User user = createUser();
+        book(user, room(0, 210));
+
+        assertWithinBudget(get("/hotels/{hotelId}/details", hotels.get(0).getId())
+                .param("userId", user.getId().toString())
+                .header(HttpHeaders.AUTHORIZATION, bearer(user)));
+    }
+
+    @Test
+    void bookRoom() throws Exception {
+        User user = createUser();
+        LocalDateTime checkIn = nextWeek();
+
+        ReservationDto request = new ReservationDto();
+        request.setUserId(user.getId());
+        request.setRoomId(room(0, 210).getId());
+        request.setCheckIn(checkIn);
+        request.setCheckOut(checkIn.plusDays(3));
+        // With an idempotency key, so claiming and completing the key count as well
+        assertWithinBudget(post("/hotels/book").contentType(MediaType.APPLICATION_JSON).content(json(request))
+                .header(HttpHeaders.AUTHORIZATION, bearer(user))
+                .header("Idempotency-Key", "book-" + user.getId()));
+    }
+
+    @Test
+    void bookRoomType() throws Exception {
+        User user = createUser();
+        LocalDateTime checkIn = nextWeek();
+
+        RoomTypeReservationDto request = new RoomTypeReservationDto();
+        request.setUserId(user.getId());
+        request.setHotelId(hotels.get(2).getId());
+        request.setRoomType(2);
+        request.setCheckIn(checkIn);
+        request.setCheckOut(checkIn.plusDays(3));
+        assertWithinBudget(post("/hotels/book-type").contentType(MediaType.APPLICATION_JSON).content(json(request))
+                .header(HttpHeaders.AUTHORIZATION, bearer(user)));
+    }
+
+    @Test
+    void checkIn() throws Exception {
+        User user = createUser();
+        LocalDateTime checkIn = nextWeek();
+        Reservation reservation = reservationService.bookRoomType(
+                user.getId(), hotels.get(2).getId(), 3, checkIn, checkIn.plusDays(3));
+
+        assertWithinBudget(put("/hotels/reservations/{reservationId}/check-in", reservation.getId())
+                .header(HttpHeaders.AUTHORIZATION, bearer(user)));
+    }
+
+    @Test
+    void changeReservation() throws Exception {
+        User user = createUser();
+        book(user, room(0, 210));
+
+        ChangeReservationDto request = new ChangeReservationDto();
+        request.setUserId(user.getId());
+        request.setHotelId(hotels.get(0).getId());
+        request.setNewRoomId(room(0, 125).getId());
+        assertWithinBudget(post("/hotels/change").contentType(MediaType.APPLICATION_JSON).content(json(request))
+                .header(HttpHeaders.AUTHORIZATION, bearer(user))
+                .header("Idempotency-Key", "change-" + user.getId()));
+    }
+
+    @Test
+    void submitFeedback() throws Exception {
+        User user = createUser();
+
+        FeedbackDto request = new FeedbackDto();
+        request.setUserId(user.getId());
+        request.setComment("Quiet rooms");
+        request.setRating(4);
+        assertWithinBudget(post("/hotels/{hotelId}/feedback", hotels.get(1).getId())
+                .contentType(MediaType.APPLICATION_JSON).content(json(request))
+                .header(HttpHeaders.AUTHORIZATION, bearer(user)));
+    }
+
+    @Test
+    void checkOut() throws Exception {
+        User user = createUser();
+        Room room = room(1, 41);
+        book(user, room);
+        book(createUser(), room);
+
+        assertWithinBudget(put("/hotels/{hotelId}/rooms/{roomId}/check-out", hotels.get(1).getId(), room.getId())
+                .header(HttpHeaders.AUTHORIZATION, bearer(user)));
+    }
+
+    @Test
+    void userDetails() throws Exception {
+        assertWithinBudget(get("/user/details").header(HttpHeaders.AUTHORIZATION, bearer(createUser())));
+    }
+
+    @Test
+    void userReservations() throws Exception {
+        // One reservation in every hotel, so loading rooms and hotels row by row would show up
+        User user = createUser();
+        book(user, room(0, 210));
+        book(user, room(1, 41));
+        book(user, room(2, 21));
+
+        assertWithinBudget(get("/user/reservations").header(HttpHeaders.AUTHORIZATION, bearer(user)));
+    }
+
+    @Test
+    void cancelReservation() throws Exception {
+        User user = createUser();
+        Reservation reservation = book(user, room(2, 21));
+
+        assertWithinBudget(delete("/user/reservations/{reservationId}", reservation.getId())
+                .header(HttpHeaders.AUTHORIZATION, bearer(user)));
+    }
+
+    @Test
+    void cacheStatistics() throws Exception {
+        assertWithinBudget(get("/statistics/cache").header(HttpHeaders.AUTHORIZATION, bearer(createUser())));
+    }
+
+    /**
+     * Performs a request with cold caches and checks its statement count against the budget of the endpoint.
+     */
+    private void assertWithinBudget(MockHttpServletRequestBuilder request) throws Exception {
+        // Drop cached responses and entities, so the request does all of its work
+        hotelVersionService.touchAll();
+        queryCounter.reset();
+
+        MvcResult result = mockMvc.perform(request).andExpect(status().is2xxSuccessful()).andReturn();
+        long statements = queryCounter.getStatementCount();
+
+        HandlerMethod handler = (HandlerMethod) result.getHandler();
+        QueryBudget budget = handler.getMethodAnnotation(QueryBudget.class);
+        assertNotNull(budget, handler.getShortLogMessage() + " has no @QueryBudget");
+        assertTrue(statements <= budget.value(), () -> String.format(
+                "%s sent %d SQL statements, its budget is %d", handler.getShortLogMessage(), statements, budget.value()));
+    }
+
+    private User createUser() {
+        return userRepository.save(new User(nextUsername(), PASSWORD, Set.of("USER")));
+    }
+
+    private String nextUsername() {
+        return "budget-" + users.incrementAndGet();
+    }
+
+    private String bearer(User user) {
+        return "Bearer " + jwtUtil.generateToken(userService.loadUserByUsername(user.getUsername()));
+    }
+
+    private Room room(int hotelIndex, int roomNumber) {
+        return hotelService.getRooms(hotels.get(hotelIndex).getId()).stream()
+                .filter(room -> room.getRoomNumber() == roomNumber)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private Reservation book(User user, Room room) {
+        LocalDateTime checkIn = nextWeek();
+        return reservationService.bookRoom(user.getId(), room.getId(), checkIn, checkIn.plusDays(3));
+    }
+
+    private LocalDateTime nextWeek() {
+        return LocalDateTime.now().withNano(0).plusYears(1).plusWeeks(weeks.incrementAndGet());
+    }
+
+    private String json(Object body) throws Exception {
+        return objectMapper.writeValueAsString(body);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.hotelreservation.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.sql.Connection;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that a database created by Hibernate before the migrations existed is baselined at version 1
+ * and upgraded in place, keeping its reservations.
+ */
+class MigrationTest {
+
+    @Test
+    void upgradesADatabaseCreatedByHibernate() throws Exception {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:hibernate-created;MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // The schema of version 1, as ddl-auto=update left it, without Flyway's history table
+        try (Connection connection = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/migration/h2/V1__create_schema.sql"));
+        }
+        jdbcTemplate.update("INSERT INTO hotels (id, name, latitude, longitude) VALUES (1, 'Old Hotel', 46.77, 23.6)");
+        jdbcTemplate.update("INSERT INTO rooms (id, hotel_id, room_number, type, price, available) VALUES (1, 1, 101, 2, 120, TRUE)");
+        jdbcTemplate.update("INSERT INTO reservations (id, user_id, room_id, check_in_time, check_out_time) " +
+                "VALUES (1, 7, 1, TIMESTAMP '2030-06-01 14:00:00', TIMESTAMP '2030-06-03 11:00:00')");
+
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/h2")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+
+        // The old reservation got its hotel and room type, and the new tables are there
+        Map<String, Object> reservation = jdbcTemplate.queryForMap("SELECT hotel_id, room_type FROM reservations WHERE id = 1");
+        assertEquals(1L, ((Number) reservation.get("hotel_id")).longValue());
+        assertEquals(2, ((Number) reservation.get("room_type")).intValue());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM reservations_archive", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM room_type_inventory", Integer.class));
+        assertEquals("6", jdbcTemplate.queryForObject(
+                "SELECT MAX(\"version\") FROM \"flyway_schema_history\" WHERE \"success\"", String.class));
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.hotelreservation.repository;
+
+import com.example.hotelreservation.support.SqlRecorder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Checks with {@code EXPLAIN} that the queries of {@link ReservationRepository} and
+ * {@link RoomRepository} are answered from the indexes created by the migrations.
+ */
+// An own database, and no second-level or query cache, so every call reaches the database
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-plans;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.hotelreservation.support.SqlRecorder"
+})
+@ActiveProfiles("h2")
+class QueryPlanTest {
+
+    private final LocalDateTime now = LocalDateTime.of(2030, 6, 1, 14, 0);
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void clear() {
+        SqlRecorder.clear();
+    }
+
+    @Test
+    void reservationQueriesUseIndexes() {
+        // idx_reservations_user
+        reservationRepository.findByUserId(1L);
+        assertUsesIndexes();
+
+        // idx_reservations_user
+        reservationRepository.findCurrentByUserIdAndHotelId(1L, 1L, now);
+        assertUsesIndexes();
+
+        // idx_reservations_user, then the room by its primary key
+        reservationRepository.existsForUserAtHotel(1L, 1L);
+        assertUsesIndexes();
+
+        // idx_reservations_hotel_type_stay
+        reservationRepository.findConflictingReservations(1L, now, now.plusDays(2));
+        assertUsesIndexes();
+
+        // idx_reservations_room_stay
+        reservationRepository.findActiveByRoomId(1L, now);
+        assertUsesIndexes();
+
+        // idx_reservations_room_stay
+        reservationRepository.existsConflictForRoom(1L, now, now.plusDays(2));
+        assertUsesIndexes();
+        reservationRepository.existsOtherConflictForRoom(1L, 1L, now, now.plusDays(2));
+        assertUsesIndexes();
+
+        // idx_reservations_hotel_type_stay
+        reservationRepository.countReservationsForNight(1L, 1, now, now.plusDays(1));
+        assertUsesIndexes();
+    }
+
+    @Test
+    void roomQueriesUseIndexes() {
+        // idx_rooms_hotel_type_price; the hotels of the rooms are loaded by primary key
+        roomRepository.findAvailableRoomsByHotelId(1L);
+        assertUsesIndexes();
+
+        // idx_rooms_hotel_type_price
+        roomRepository.findByHotelIdAndType(1L, 1);
+        assertUsesIndexes();
+
+        // idx_rooms_hotel_type_price
+        roomRepository.countByHotelIdAndType(1L, 1);
+        assertUsesIndexes();
+
+        // countRoomsByPrice summarizes every room by design, so it is the one query that reads the whole table
+    }
+
+    /**
+     * Explains the statements of the last repository call and checks that no table is scanned.
+     *
+     * H2 names each table access in the plan: the index it reads, or {@code tableScan}.
+     */
+    private void assertUsesIndexes() {
+        List<String> statements = SqlRecorder.getStatements();
+        assertFalse(statements.isEmpty(), "no statement was run");
+        for (String sql : statements) {
+            String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+            assertFalse(plan.toLowerCase().contains("tablescan"), () -> "Table scan in plan:\n" + plan);
+        }
+        SqlRecorder.clear();
+    }
+}
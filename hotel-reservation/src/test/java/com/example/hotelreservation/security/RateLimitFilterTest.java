@@ -0,0 +1,98 @@
+package com.example.hotelreservation.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.userdetails.User;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checks the token buckets of {@link RateLimiter} and the responses of {@link RateLimitFilter}.
+ */
+class RateLimitFilterTest {
+
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    private final JwtUtil jwtUtil = new JwtUtil();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void acceptsBurstsAndRefillsEvenly() {
+        RateLimiter rateLimiter = new RateLimiter("/hotels/withinRadius=4/1s,/**=100/1s", 1000);
+        RateLimiter.Rule rule = rateLimiter.findRule("/hotels/withinRadius");
+        assertEquals(4, rule.getRequests());
+
+        long now = 1_000 * SECOND;
+        for (int i = 0; i < 4; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(rule, "ip:1", now));
+        }
+        // Empty: the next token arrives a quarter of the period later
+        assertEquals(SECOND / 4, rateLimiter.tryAcquire(rule, "ip:1", now));
+        assertEquals(0, rateLimiter.tryAcquire(rule, "ip:2", now));
+        assertEquals(0, rateLimiter.tryAcquire(rule, "ip:1", now + SECOND / 4));
+        assertEquals(SECOND / 4, rateLimiter.tryAcquire(rule, "ip:1", now + SECOND / 4));
+
+        // Idle for longer than the period: full again, but not fuller
+        long later = now + 10 * SECOND;
+        for (int i = 0; i < 4; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(rule, "ip:1", later));
+        }
+        assertEquals(SECOND / 4, rateLimiter.tryAcquire(rule, "ip:1", later));
+    }
+
+    @Test
+    void appliesTheFirstMatchingRule() {
+        RateLimiter rateLimiter = new RateLimiter("/auth/login=10/1m, /hotels/**=50/1s", 1000);
+
+        assertEquals(Duration.ofMinutes(1), rateLimiter.findRule("/auth/login").getPeriod());
+        assertEquals("/hotels/**", rateLimiter.findRule("/hotels/1/rooms").getPattern());
+        assertNull(rateLimiter.findRule("/user/details"));
+    }
+
+    @Test
+    void rejectsClientsOverTheirLimit() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(jwtUtil, meterRegistry, true, "/hotels/**=2/1m", 1000);
+        String token = jwtUtil.generateToken(User.withUsername("alice").password("x").roles("USER").build());
+
+        assertEquals(200, send(filter, "10.0.0.1", null).getStatus());
+        assertEquals(200, send(filter, "10.0.0.1", null).getStatus());
+        MockHttpServletResponse rejected = send(filter, "10.0.0.1", null);
+        assertEquals(429, rejected.getStatus());
+        assertEquals("30", rejected.getHeader("Retry-After"));
+        assertEquals(1, meterRegistry.counter("rate.limit.rejections", "rule", "/hotels/**").count());
+
+        // A signed-in user has an own bucket, wherever the requests come from
+        assertEquals(200, send(filter, "10.0.0.1", token).getStatus());
+        assertEquals(200, send(filter, "10.0.0.2", token).getStatus());
+        assertEquals(429, send(filter, "10.0.0.3", token).getStatus());
+        // Forged tokens count against the address
+        assertEquals(429, send(filter, "10.0.0.1", token + "x").getStatus());
+    }
+
+    @Test
+    void canBeDisabled() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(jwtUtil, meterRegistry, false, "/hotels/**=1/1m", 1000);
+
+        for (String address : List.of("10.0.0.1", "10.0.0.1", "10.0.0.1")) {
+            assertEquals(200, send(filter, address, null).getStatus());
+        }
+    }
+
+    private static MockHttpServletResponse send(RateLimitFilter filter, String address, String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/hotels/withinRadius");
+        request.setRemoteAddr(address);
+        if (token != null) {
+            request.addHeader("Authorization", "Bearer " + token);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
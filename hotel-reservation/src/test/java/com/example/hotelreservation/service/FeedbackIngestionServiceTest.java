@@ -0,0 +1,216 @@
+package com.example.hotelreservation.service;
+
+import com.example.hotelreservation.model.Hotel;
+import com.example.hotelreservation.model.User;
+import com.example.hotelreservation.repository.FeedbackRepository;
+import com.example.hotelreservation.repository.HotelRepository;
+import com.example.hotelreservation.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that {@link FeedbackIngestionService} writes accepted feedback in batches and recovers
+ * journaled feedback after a restart.
+ */
+// An own database, and no second-level cache, so entities cached by other test contexts in this JVM are neither seen nor shadowed
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:feedback-ingestion;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+@ActiveProfiles("h2")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class FeedbackIngestionServiceTest {
+
+    @Autowired
+    private FeedbackIngestionService feedbackIngestionService;
+
+    @Autowired
+    private FeedbackRepository feedbackRepository;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private HotelVersionService hotelVersionService;
+
+    @Autowired
+    private HotelGeoIndex hotelGeoIndex;
+
+    @Autowired
+    private HotelTextIndex hotelTextIndex;
+
+    @Autowired
+    private HotelLeaderboard hotelLeaderboard;
+
+    private List<Hotel> hotels;
+    private User user;
+
+    @BeforeAll
+    void setUp() {
+        hotels = hotelRepository.findAll();
+        user = userRepository.save(new User("reviewer", "password", Set.of("USER")));
+    }
+
+    @Test
+    void writesAcceptedFeedbackInBatches() {
+        Long hotelId = hotels.get(0).getId();
+        int before = feedbackRepository.findByHotelId(hotelId).size();
+
+        for (int i = 0; i < 25; i++) {
+            feedbackIngestionService.submit(hotelId, user.getId(), "Quiet rooms " + i, 4);
+        }
+
+        awaitTrue(() -> feedbackRepository.findByHotelId(hotelId).size() == before + 25);
+        awaitTrue(() -> !hotelTextIndex.search("quiet", 10).isEmpty());
+    }
+
+    @Test
+    void rejectsUnknownHotels() {
+        assertThrows(IllegalArgumentException.class, () -> feedbackIngestionService.submit(-1L, user.getId(), "Nice", 5));
+        assertThrows(IllegalArgumentException.class, () -> feedbackIngestionService.submit(hotels.get(0).getId(), null, "Nice", 5));
+    }
+
+    @Test
+    void pushesBackWhenTheQueueIsFull(@TempDir Path journal) throws Exception {
+        // Not started, so nothing leaves the queue
+        FeedbackIngestionService stalled = service(journal, 2);
+        stalled.submit(hotels.get(0).getId(), user.getId(), "One", 3);
+        stalled.submit(hotels.get(0).getId(), user.getId(), "Two", 3);
+
+        assertThrows(RejectedExecutionException.class, () -> stalled.submit(hotels.get(0).getId(), user.getId(), "Three", 3));
+        stalled.stop();
+
+        // Accepted submissions were journaled and are recovered by the next instance
+        FeedbackJournal reopened = FeedbackJournal.open(journal, true);
+        assertEquals(List.of("One", "Two"), reopened.getRecovered().stream().map(FeedbackJournal.Entry::getComment).toList());
+        reopened.close();
+    }
+
+    @Test
+    void writesRecoveredFeedbackAfterARestart(@TempDir Path journal) throws Exception {
+        Long hotelId = hotels.get(2).getId();
+        int before = feedbackRepository.findByHotelId(hotelId).size();
+
+        // A previous run journaled three submissions and wrote only the first before it crashed mid-line
+        FeedbackJournal crashed = FeedbackJournal.open(journal, true);
+        FeedbackJournal.Entry first = crashed.append(hotelId, user.getId(), "Written before the crash", 5);
+        crashed.append(hotelId, user.getId(), "Line\twith\ntabs", 2);
+        crashed.append(hotelId, user.getId(), null, 3);
+        crashed.complete(List.of(first));
+        crashed.close();
+        Files.writeString(journal.resolve("feedback-0.journal"), "F\t4\t" + hotelId, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        FeedbackIngestionService restarted = service(journal, 10);
+        restarted.start();
+        awaitTrue(() -> feedbackRepository.findByHotelId(hotelId).size() == before + 2);
+        restarted.stop();
+
+        assertTrue(feedbackRepository.findByHotelId(hotelId).stream().anyMatch(feedback -> "Line\twith\ntabs".equals(feedback.getComment())));
+        // Everything written, so the journal is empty again
+        assertEquals(0, Files.size(journal.resolve("feedback-0.journal")));
+    }
+
+    @Test
+    void skipsEntriesReplayedAfterTheirBatchCommitted(@TempDir Path journal) throws Exception {
+        Long hotelId = hotels.get(1).getId();
+        int before = feedbackRepository.findByHotelId(hotelId).size();
+        FeedbackJournal previous = FeedbackJournal.open(journal, true);
+        previous.append(hotelId, user.getId(), "Written once", 4);
+        previous.close();
+        Path file = journal.resolve("feedback-0.journal");
+        byte[] journaled = Files.readAllBytes(file);
+
+        FeedbackIngestionService first = service(journal, 10);
+        first.start();
+        awaitTrue(() -> feedbackRepository.findByHotelId(hotelId).size() == before + 1);
+        first.stop();
+
+        // The process crashed after the batch committed, before the journal recorded it
+        Files.write(file, journaled);
+        FeedbackIngestionService replayed = service(journal, 10);
+        replayed.start();
+        awaitTrue(() -> {
+            try {
+                return Files.size(file) == 0;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        replayed.stop();
+
+        assertEquals(before + 1, feedbackRepository.findByHotelId(hotelId).size());
+    }
+
+    @Test
+    void keepsEarlierEntriesWrittenOutOfOrder(@TempDir Path journal) throws Exception {
+        // Later submissions reach the database first, e.g. when they were queued before an earlier one
+        FeedbackJournal crashed = FeedbackJournal.open(journal, true);
+        FeedbackJournal.Entry one = crashed.append(hotels.get(0).getId(), user.getId(), "One", 1);
+        FeedbackJournal.Entry two = crashed.append(hotels.get(0).getId(), user.getId(), "Two", 2);
+        FeedbackJournal.Entry three = crashed.append(hotels.get(0).getId(), user.getId(), "Three", 3);
+        FeedbackJournal.Entry four = crashed.append(hotels.get(0).getId(), user.getId(), "Four", 4);
+        crashed.complete(List.of(three));
+        crashed.complete(List.of(one));
+        crashed.close();
+
+        // Only the submissions that never reached the database are recovered
+        FeedbackJournal reopened = FeedbackJournal.open(journal, true);
+        assertEquals(List.of(two.getSequence(), four.getSequence()),
+                reopened.getRecovered().stream().map(FeedbackJournal.Entry::getSequence).toList());
+        reopened.complete(reopened.getRecovered());
+        assertEquals(0, Files.size(journal.resolve("feedback-0.journal")));
+        reopened.close();
+    }
+
+    private FeedbackIngestionService service(Path journal, int queueCapacity) {
+        return new FeedbackIngestionService(jdbcTemplate, transactionManager, hotelVersionService, hotelGeoIndex,
+                hotelTextIndex, hotelLeaderboard, new SimpleMeterRegistry(), journal, true, queueCapacity, 10,
+                Duration.ofMillis(20), Duration.ofMillis(10));
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met within 10 seconds");
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        }
+    }
+}
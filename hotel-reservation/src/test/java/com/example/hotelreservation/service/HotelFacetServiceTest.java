@@ -0,0 +1,113 @@
+package com.example.hotelreservation.service;
+
+import com.example.hotelreservation.modelDto.HotelFacets;
+import com.example.hotelreservation.modelDto.RoomPriceCount;
+import com.example.hotelreservation.repository.HotelRepository;
+import com.example.hotelreservation.repository.RoomRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks the room summaries kept by {@link HotelFacetService}.
+ */
+class HotelFacetServiceTest {
+
+    private final List<RoomPriceCount> counts = new ArrayList<>();
+    private final RoomRepository roomRepository = mock(RoomRepository.class);
+    private final HotelVersionService hotelVersionService =
+            new HotelVersionService(mock(HotelRepository.class), Duration.ofSeconds(1), 100);
+    private final HotelFacetService hotelFacetService = new HotelFacetService(roomRepository, hotelVersionService, 100, 4);
+
+    HotelFacetServiceTest() {
+        when(roomRepository.countRoomsByPrice()).thenReturn(counts);
+        counts.add(count(1L, 1, 80, true, 2));
+        counts.add(count(1L, 1, 150, false, 1));
+        counts.add(count(1L, 2, 150, true, 3));
+        counts.add(count(1L, 3, 990, true, 1));
+        counts.add(count(2L, 2, 200, true, 1));
+    }
+
+    @Test
+    void summarizesTheRoomsOfEachHotel() {
+        HotelFacets facets = hotelFacetService.getFacets(1L);
+
+        assertEquals(7, facets.getTotalRooms());
+        assertEquals(6, facets.getAvailableRooms());
+        assertEquals(80, facets.getMinPrice());
+        assertEquals(990, facets.getMaxPrice());
+        // The last bucket holds every price from 300 up
+        assertArrayEquals(new int[]{2, 4, 0, 1}, facets.getPriceHistogram());
+        assertEquals(Map.of(1, 3, 2, 3, 3, 1), facets.getRoomsByType());
+
+        assertEquals(1, hotelFacetService.getFacets(2L).getTotalRooms());
+        assertEquals(0, hotelFacetService.getFacets(3L).getTotalRooms());
+        verify(roomRepository, times(1)).countRoomsByPrice();
+    }
+
+    @Test
+    void countsOccupiedAndFreedRooms() {
+        hotelFacetService.getFacets(1L);
+
+        hotelFacetService.recordAvailability(1L, false);
+        hotelFacetService.recordAvailability(1L, false);
+        hotelFacetService.recordAvailability(1L, true);
+
+        assertEquals(5, hotelFacetService.getFacets(1L).getAvailableRooms());
+        assertEquals(7, hotelFacetService.getFacets(1L).getTotalRooms());
+    }
+
+    @Test
+    void rebuildsWhenTheCatalogueIsReplaced() {
+        hotelFacetService.getFacets(1L);
+
+        counts.clear();
+        counts.add(count(1L, 4, 500, false, 2));
+        hotelVersionService.touchAll();
+
+        HotelFacets facets = hotelFacetService.getFacets(1L);
+        assertEquals(2, facets.getTotalRooms());
+        assertEquals(0, facets.getAvailableRooms());
+        assertEquals(Map.of(4, 2), facets.getRoomsByType());
+        verify(roomRepository, times(2)).countRoomsByPrice();
+    }
+
+    private static RoomPriceCount count(Long hotelId, int type, double price, boolean available, long rooms) {
+        return new RoomPriceCount() {
+            @Override
+            public Long getHotelId() {
+                return hotelId;
+            }
+
+            @Override
+            public Integer getType() {
+                return type;
+            }
+
+            @Override
+            public Double getPrice() {
+                return price;
+            }
+
+            @Override
+            public Boolean getAvailable() {
+                return available;
+            }
+
+            @Override
+            public Long getRooms() {
+                return rooms;
+            }
+        };
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.hotelreservation.service;
+
+import com.example.hotelreservation.model.Hotel;
+import com.example.hotelreservation.modelDto.HotelRatingTotals;
+import com.example.hotelreservation.modelDto.HotelWithDistance;
+import com.example.hotelreservation.modelDto.SimpleHotelDto;
+import com.example.hotelreservation.repository.FeedbackRepository;
+import com.example.hotelreservation.repository.HotelRepository;
+import com.example.hotelreservation.utlis.DistanceCalculator;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks the k-nearest and radius searches of {@link HotelGeoIndex} against measuring every hotel.
+ */
+class HotelGeoIndexTest {
+
+    private final Random random = new Random(42);
+    private final List<Hotel> hotels = new ArrayList<>();
+    private final List<HotelRatingTotals> ratings = new ArrayList<>();
+
+    HotelGeoIndexTest() {
+        // Dense clusters around two cities and a sprinkle of hotels anywhere on Earth
+        for (int i = 0; i < 3000; i++) {
+            double lat;
+            double lon;
+            if (i % 3 == 0) {
+                lat = 46.77 + random.nextGaussian() * 0.3;
+                lon = 23.62 + random.nextGaussian() * 0.3;
+            } else if (i % 3 == 1) {
+                lat = 48.85 + random.nextGaussian() * 0.5;
+                lon = 2.35 + random.nextGaussian() * 0.5;
+            } else {
+                lat = random.nextDouble() * 170 - 85;
+                lon = random.nextDouble() * 360 - 180;
+            }
+            hotels.add(hotel(i + 1L, lat, lon));
+            if (random.nextBoolean()) {
+                ratings.add(totals(i + 1L, 1 + random.nextInt(20), 1 + random.nextInt(4)));
+            }
+        }
+    }
+
+    @Test
+    void findsTheNearestHotels() {
+        HotelGeoIndex index = index(0.25);
+
+        double[][] positions = {{46.77, 23.62}, {48.0, 10.0}, {-33.9, 151.2}, {89.9, 179.9}, {0, -180}};
+        for (double[] position : positions) {
+            for (int k : new int[]{1, 10, 100}) {
+                assertSameRanking(expected(position[0], position[1], k, 0), index.findNearest(position[0], position[1], k, 0), 0);
+            }
+        }
+    }
+
+    @Test
+    void ranksByDistanceAndRating() {
+        HotelGeoIndex index = index(0.5);
+
+        for (double weight : new double[]{0.3, 0.9}) {
+            assertSameRanking(expected(46.5, 23.0, 20, weight), index.findNearest(46.5, 23.0, 20, weight), weight);
+            assertSameRanking(expected(10, 100, 20, weight), index.findNearest(10, 100, 20, weight), weight);
+        }
+    }
+
+    @Test
+    void searchesSparseCataloguesCompletely() {
+        hotels.subList(3, hotels.size()).clear();
+        HotelGeoIndex index = index(0.1);
+
+        List<HotelWithDistance> nearest = index.findNearest(-40, -70, 10, 0);
+        assertEquals(3, nearest.size());
+        assertSameRanking(expected(-40, -70, 3, 0), nearest, 0);
+    }
+
+    @Test
+    void findsTheHotelsWithinARadius() {
+        HotelGeoIndex index = index(0.25);
+
+        for (double radius : new double[]{0, 5, 50, 500}) {
+            List<Long> expected = new ArrayList<>();
+            for (Hotel hotel : hotels) {
+                if (DistanceCalculator.calculateDistance(46.77, 23.62, hotel.getLatitude(), hotel.getLongitude()) <= radius) {
+                    expected.add(hotel.getId());
+                }
+            }
+            List<Long> actual = index.findWithinRadius(46.77, 23.62, radius).stream()
+                    .map(SimpleHotelDto::getId)
+                    .collect(Collectors.toList());
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void countsNewRatings() {
+        hotels.subList(2, hotels.size()).clear();
+        hotels.get(0).setLatitude(46.0);
+        hotels.get(1).setLatitude(46.005);
+        hotels.get(1).setLongitude(hotels.get(0).getLongitude());
+        ratings.clear();
+        HotelGeoIndex index = index(0.25);
+
+        // The slightly further hotel overtakes the nearest one once it is rated well
+        assertEquals(1L, index.findNearest(45.99, hotels.get(0).getLongitude(), 1, 0.5).get(0).getHotel().getId());
+        index.recordRating(2L, 5);
+        HotelWithDistance best = index.findNearest(45.99, hotels.get(0).getLongitude(), 1, 0.5).get(0);
+        assertEquals(2L, best.getHotel().getId());
+        assertEquals(5.0, best.getAverageRating());
+    }
+
+    private HotelGeoIndex index(double cellDegrees) {
+        HotelRepository hotelRepository = mock(HotelRepository.class);
+        when(hotelRepository.findAll()).thenReturn(hotels);
+        FeedbackRepository feedbackRepository = mock(FeedbackRepository.class);
+        when(feedbackRepository.findRatingTotals()).thenReturn(ratings);
+        return new HotelGeoIndex(hotelRepository, feedbackRepository,
+                new HotelVersionService(hotelRepository, Duration.ofSeconds(1), 100), cellDegrees);
+    }
+
+    /**
+     * Ranks every hotel and keeps the best k.
+     */
+    private List<double[]> expected(double lat, double lon, int k, double weight) {
+        List<double[]> ranked = new ArrayList<>();
+        for (Hotel hotel : hotels) {
+            double distance = DistanceCalculator.calculateDistance(lat, lon, hotel.getLatitude(), hotel.getLongitude());
+            double rating = averageRating(hotel.getId());
+            ranked.add(new double[]{hotel.getId(), distance * (1 - weight * rating / 5)});
+        }
+        ranked.sort(Comparator.comparingDouble(entry -> entry[1]));
+        return ranked.subList(0, Math.min(k, ranked.size()));
+    }
+
+    private void assertSameRanking(List<double[]> expected, List<HotelWithDistance> actual, double weight) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            HotelWithDistance hotel = actual.get(i);
+            assertEquals((long) expected.get(i)[0], hotel.getHotel().getId().longValue(), "hotel of rank " + i);
+            assertEquals(expected.get(i)[1], hotel.getDistance() * (1 - weight * hotel.getAverageRating() / 5), 1e-6, "score of rank " + i);
+        }
+    }
+
+    private double averageRating(Long hotelId) {
+        for (HotelRatingTotals rating : ratings) {
+            if (rating.getHotelId().equals(hotelId)) {
+                return (double) rating.getRatingSum() / rating.getRatingCount();
+            }
+        }
+        return 0;
+    }
+
+    private static Hotel hotel(Long id, double lat, double lon) {
+        Hotel hotel = new Hotel();
+        hotel.setId(id);
+        hotel.setName("Hotel " + id);
+        hotel.setLatitude(lat);
+        hotel.setLongitude(lon);
+        return hotel;
+    }
+
+    private static HotelRatingTotals totals(Long hotelId, long count, int rating) {
+        return new HotelRatingTotals() {
+            @Override
+            public Long getHotelId() {
+                return hotelId;
+            }
+
+            @Override
+            public Long getRatingSum() {
+                return count * rating;
+            }
+
+            @Override
+            public Long getRatingCount() {
+                return count;
+            }
+        };
+    }
+}
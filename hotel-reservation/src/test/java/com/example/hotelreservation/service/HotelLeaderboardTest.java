@@ -0,0 +1,174 @@
+package com.example.hotelreservation.service;
+
+import com.example.hotelreservation.model.Hotel;
+import com.example.hotelreservation.modelDto.HotelRatingTotals;
+import com.example.hotelreservation.modelDto.RankedHotel;
+import com.example.hotelreservation.repository.FeedbackRepository;
+import com.example.hotelreservation.repository.HotelRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks the rankings of {@link HotelLeaderboard}, and that new ratings move hotels in them.
+ */
+class HotelLeaderboardTest {
+
+    private final List<Hotel> hotels = new ArrayList<>();
+    private final List<HotelRatingTotals> ratings = new ArrayList<>();
+
+    HotelLeaderboardTest() {
+        // Three hotels in Cluj, one in Paris and one without ratings
+        hotels.add(hotel(1L, 46.77, 23.60));
+        hotels.add(hotel(2L, 46.78, 23.61));
+        hotels.add(hotel(3L, 46.76, 23.59));
+        hotels.add(hotel(4L, 48.85, 2.35));
+        hotels.add(hotel(5L, 46.75, 23.58));
+        ratings.add(totals(1L, 1, 5));
+        ratings.add(totals(2L, 100, 450));
+        ratings.add(totals(3L, 50, 100));
+        ratings.add(totals(4L, 20, 80));
+    }
+
+    @Test
+    void ranksBySmoothedRating() {
+        HotelLeaderboard leaderboard = leaderboard();
+
+        // The single 5-star review ranks below many 4.5-star ones, but above many 2-star ones
+        List<RankedHotel> top = leaderboard.top(10);
+        assertEquals(List.of(2L, 4L, 1L, 3L), ids(top));
+        double mean = (5 + 450 + 100 + 80) / 171.0;
+        assertEquals((10 * mean + 5) / 11, top.get(2).getScore(), 1e-9);
+        assertEquals(5.0, top.get(2).getAverageRating());
+        assertEquals(1, top.get(2).getRatingCount());
+
+        assertEquals(List.of(2L, 4L), ids(leaderboard.top(2)));
+    }
+
+    @Test
+    void ranksPerRegion() {
+        HotelLeaderboard leaderboard = leaderboard();
+
+        assertEquals(List.of(2L, 1L, 3L), ids(leaderboard.topInRegion(46.0, 23.0, 10)));
+        assertEquals(List.of(4L), ids(leaderboard.topInRegion(48.0, 2.0, 10)));
+        assertTrue(leaderboard.topInRegion(-33.9, 151.2, 10).isEmpty());
+    }
+
+    @Test
+    void movesHotelsWithNewRatings() {
+        HotelLeaderboard leaderboard = leaderboard();
+        leaderboard.top(1);
+
+        // Enough 5-star reviews lift the hotel to the top, overall and in its region
+        for (int i = 0; i < 30; i++) {
+            leaderboard.recordRating(1L, 5);
+        }
+        assertEquals(List.of(1L, 2L, 4L, 3L), ids(leaderboard.top(10)));
+        assertEquals(List.of(1L, 2L, 3L), ids(leaderboard.topInRegion(46.77, 23.60, 10)));
+        assertEquals(31, leaderboard.top(1).get(0).getRatingCount());
+
+        // A first rating puts an unrated hotel on the board
+        leaderboard.recordRating(5L, 1);
+        assertEquals(5L, leaderboard.top(10).get(3).getHotel().getId());
+    }
+
+    @Test
+    void refreshAddsRatingsSubmittedElsewhere() {
+        HotelLeaderboard leaderboard = leaderboard();
+        leaderboard.top(1);
+
+        // Another instance wrote a thousand 5-star reviews for the Paris hotel
+        ratings.set(3, totals(4L, 1020, 5080));
+        assertEquals(List.of(2L, 4L, 1L, 3L), ids(leaderboard.top(10)));
+
+        // The overall average rose with them, which lifts the single 5-star review above the 4.5 average as well
+        leaderboard.refresh();
+        assertEquals(List.of(4L, 1L, 2L, 3L), ids(leaderboard.top(10)));
+        assertEquals(1020, leaderboard.top(1).get(0).getRatingCount());
+    }
+
+    @Test
+    void keepsEveryConcurrentRating() throws Exception {
+        HotelLeaderboard leaderboard = leaderboard();
+        leaderboard.top(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        leaderboard.recordRating(1L + i % 4, 1 + i % 5);
+                        // Readers always see each rated hotel exactly once
+                        assertEquals(4, leaderboard.top(10).size());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long count = leaderboard.top(10).stream().mapToLong(RankedHotel::getRatingCount).sum();
+        assertEquals(1 + 100 + 50 + 20 + 4000, count);
+    }
+
+    /**
+     * Creates a leaderboard over the test hotels. Like in the application, ratings only move hotels
+     * once the rankings have been read and thereby built.
+     */
+    private HotelLeaderboard leaderboard() {
+        HotelRepository hotelRepository = mock(HotelRepository.class);
+        when(hotelRepository.findAll()).thenReturn(hotels);
+        FeedbackRepository feedbackRepository = mock(FeedbackRepository.class);
+        when(feedbackRepository.findRatingTotals()).thenReturn(ratings);
+        return new HotelLeaderboard(hotelRepository, feedbackRepository,
+                new HotelVersionService(hotelRepository, Duration.ofSeconds(1), 100), 10, 10);
+    }
+
+    private static List<Long> ids(List<RankedHotel> ranked) {
+        return ranked.stream().map(hotel -> hotel.getHotel().getId()).collect(Collectors.toList());
+    }
+
+    private static Hotel hotel(Long id, double lat, double lon) {
+        Hotel hotel = new Hotel();
+        hotel.setId(id);
+        hotel.setName("Hotel " + id);
+        hotel.setLatitude(lat);
+        hotel.setLongitude(lon);
+        return hotel;
+    }
+
+    private static HotelRatingTotals totals(Long hotelId, long count, long sum) {
+        return new HotelRatingTotals() {
+            @Override
+            public Long getHotelId() {
+                return hotelId;
+            }
+
+            @Override
+            public Long getRatingSum() {
+                return sum;
+            }
+
+            @Override
+            public Long getRatingCount() {
+                return count;
+            }
+        };
+    }
+}
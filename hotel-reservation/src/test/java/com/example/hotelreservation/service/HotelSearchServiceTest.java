@@ -0,0 +1,147 @@
+package com.example.hotelreservation.service;
+
+import com.example.hotelreservation.model.Hotel;
+import com.example.hotelreservation.model.Room;
+import com.example.hotelreservation.model.User;
+import com.example.hotelreservation.modelDto.HotelSearchResult;
+import com.example.hotelreservation.repository.HotelRepository;
+import com.example.hotelreservation.repository.UserRepository;
+import com.example.hotelreservation.utlis.DistanceCalculator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that {@link HotelSearchService} applies the location, stay, price and type filters together.
+ *
+ * Runs against the three hotels of {@code hotels.json}, which lie within two kilometers of each other.
+ */
+// An own database, and an own cache manager so entities cached by other test contexts in this JVM are not seen
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:hotel-search;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.javax.cache.uri=application.conf"
+})
+@ActiveProfiles("h2")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class HotelSearchServiceTest {
+
+    private static final double LAT = 46.77;
+    private static final double LON = 23.60;
+
+    @Autowired
+    private HotelSearchService hotelSearchService;
+
+    @Autowired
+    private HotelService hotelService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private HotelRepository hotelRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private List<Hotel> hotels;
+    private User user;
+
+    @BeforeAll
+    void setUp() {
+        hotels = hotelRepository.findAll();
+        user = userRepository.save(new User("search", "password", Set.of("USER")));
+    }
+
+    @Test
+    void findsHotelsNearestFirst() {
+        List<HotelSearchResult> results = search(LAT, LON, 10, day(1), day(2), null, null, null).getContent();
+
+        assertEquals(List.of(hotels.get(0).getId(), hotels.get(2).getId(), hotels.get(1).getId()), ids(results));
+        for (HotelSearchResult result : results) {
+            assertEquals(DistanceCalculator.calculateDistance(LAT, LON, result.getLatitude(), result.getLongitude()), result.getDistance(), 1e-6);
+        }
+        assertEquals(3, results.get(0).getMatchingRooms());
+        assertEquals(200, results.get(0).getMinPrice());
+
+        // Only the hotel at the searched location lies within half a kilometer
+        Hotel ramada = hotels.get(0);
+        assertEquals(List.of(ramada.getId()), ids(search(ramada.getLatitude(), ramada.getLongitude(), 0.5, day(1), day(2), null, null, null).getContent()));
+    }
+
+    @Test
+    void filtersByPriceAndType() {
+        assertEquals(List.of(hotels.get(2).getId(), hotels.get(1).getId()),
+                ids(search(LAT, LON, 10, day(1), day(2), null, null, 3).getContent()));
+
+        List<HotelSearchResult> results = search(LAT, LON, 10, day(1), day(2), 250.0, 320.0, null).getContent();
+        assertEquals(List.of(hotels.get(0).getId(), hotels.get(2).getId()), ids(results));
+        assertEquals(1, results.get(0).getMatchingRooms());
+        assertEquals(300, results.get(0).getMinPrice());
+    }
+
+    @Test
+    void skipsReservedRoomsAndSoldOutTypes() {
+        // One of the two double rooms of the third hotel is reserved for the stay
+        reservationService.bookRoom(user.getId(), room(2, 21).getId(), day(10).atStartOfDay(), day(13).atStartOfDay());
+        assertEquals(1, search(LAT, LON, 10, day(11), day(12), null, null, 2).getContent().stream()
+                .filter(result -> result.getHotelId().equals(hotels.get(2).getId()))
+                .findFirst().orElseThrow().getMatchingRooms());
+
+        // The only suite of the third hotel is sold out for one night of the stay
+        reservationService.bookRoomType(user.getId(), hotels.get(2).getId(), 3, day(20).atStartOfDay(), day(21).atStartOfDay());
+        assertEquals(List.of(hotels.get(1).getId()), ids(search(LAT, LON, 10, day(19), day(22), null, null, 3).getContent()));
+
+        // Stays that end when the reservations start are not affected
+        assertEquals(2, ids(search(LAT, LON, 10, day(19), day(20), null, null, 3).getContent()).size());
+    }
+
+    @Test
+    void paginatesResults() {
+        Page<HotelSearchResult> page = search(LAT, LON, 10, day(30), day(31), null, null, null, 1, 1);
+
+        assertEquals(3, page.getTotalElements());
+        assertEquals(List.of(hotels.get(2).getId()), ids(page.getContent()));
+    }
+
+    @Test
+    void rejectsInvalidStays() {
+        assertThrows(IllegalArgumentException.class, () -> search(LAT, LON, 10, day(2), day(2), null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> search(LAT, LON, 10, day(1), day(2), null, null, null, 0, 101));
+    }
+
+    private Page<HotelSearchResult> search(double lat, double lon, double radius, LocalDate checkIn, LocalDate checkOut,
+                                           Double minPrice, Double maxPrice, Integer roomType) {
+        return search(lat, lon, radius, checkIn, checkOut, minPrice, maxPrice, roomType, 0, 20);
+    }
+
+    private Page<HotelSearchResult> search(double lat, double lon, double radius, LocalDate checkIn, LocalDate checkOut,
+                                           Double minPrice, Double maxPrice, Integer roomType, int page, int size) {
+        return hotelSearchService.search(lat, lon, radius, checkIn, checkOut, minPrice, maxPrice, roomType, page, size);
+    }
+
+    private Room room(int hotelIndex, int roomNumber) {
+        return hotelService.getRooms(hotels.get(hotelIndex).getId()).stream()
+                .filter(room -> room.getRoomNumber() == roomNumber)
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static LocalDate day(int days) {
+        return LocalDate.now().plusYears(1).plusDays(days);
+    }
+
+    private static List<Long> ids(List<HotelSearchResult> results) {
+        return results.stream().map(HotelSearchResult::getHotelId).toList();
+    }
+}
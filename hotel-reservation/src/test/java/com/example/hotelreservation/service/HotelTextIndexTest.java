@@ -0,0 +1,119 @@
+package com.example.hotelreservation.service;
+
+import com.example.hotelreservation.model.Hotel;
+import com.example.hotelreservation.modelDto.FeedbackComment;
+import com.example.hotelreservation.modelDto.HotelTextMatch;
+import com.example.hotelreservation.modelDto.SimpleHotelDto;
+import com.example.hotelreservation.repository.FeedbackRepository;
+import com.example.hotelreservation.repository.HotelRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checks keyword search and autocompletion of {@link HotelTextIndex}.
+ */
+class HotelTextIndexTest {
+
+    private final List<Hotel> hotels = new ArrayList<>();
+    private final List<FeedbackComment> comments = new ArrayList<>();
+    private final HotelTextIndex index;
+
+    HotelTextIndexTest() {
+        hotels.add(hotel(1L, "Grand Hotel Italia"));
+        hotels.add(hotel(2L, "Hampton by Hilton"));
+        hotels.add(hotel(3L, "Hôtel Ramada Plaza"));
+        hotels.add(hotel(4L, "Grandview Suites"));
+        comments.add(comment(2L, "Quiet rooms and a great breakfast, the staff at the front desk were helpful and parking was free"));
+        comments.add(comment(3L, "Close to the airport. Breakfast was cold."));
+        comments.add(comment(3L, "Breakfast included, friendly staff"));
+
+        HotelRepository hotelRepository = mock(HotelRepository.class);
+        when(hotelRepository.findAll()).thenReturn(hotels);
+        FeedbackRepository feedbackRepository = mock(FeedbackRepository.class);
+        when(feedbackRepository.findComments()).thenReturn(comments);
+        index = new HotelTextIndex(hotelRepository, feedbackRepository,
+                new HotelVersionService(hotelRepository, Duration.ofSeconds(1), 100));
+    }
+
+    @Test
+    void ranksByRelevance() {
+        // Two reviews mention breakfast at the third hotel, one at the second
+        List<HotelTextMatch> matches = index.search("breakfast", 10);
+        assertEquals(List.of(3L, 2L), ids(matches));
+        assertTrue(matches.get(0).getScore() > matches.get(1).getScore());
+
+        // Accents and case are ignored
+        assertEquals(List.of(1L, 3L), ids(index.search("HOTEL", 10)));
+        assertEquals(2, index.search("quiet airport", 10).size());
+        assertEquals(List.of(), ids(index.search("casino", 10)));
+    }
+
+    @Test
+    void completesTheLastWord() {
+        // Both names start with the prefix; the shorter name ranks first
+        assertEquals(List.of(4L, 1L), suggestionIds(index.autocomplete("gra", 10)));
+        assertEquals(List.of(1L), suggestionIds(index.autocomplete("grand ho", 10)));
+        // A trailing space completes the word, so "grandview" no longer matches
+        assertEquals(List.of(1L), suggestionIds(index.autocomplete("grand ", 10)));
+        // Review text is not suggested
+        assertEquals(List.of(), suggestionIds(index.autocomplete("breakf", 10)));
+        assertEquals(1, index.autocomplete("h", 1).size());
+    }
+
+    @Test
+    void addsNewReviews() {
+        index.search("spa", 10);
+
+        index.recordReview(4L, "Lovely spa and pool");
+        assertEquals(List.of(4L), ids(index.search("spa", 10)));
+    }
+
+    @Test
+    void refreshAddsReviewsSubmittedElsewhere() {
+        index.search("sauna", 10);
+
+        // Another instance wrote the review
+        comments.add(comment(1L, "Rooftop sauna"));
+        assertEquals(List.of(), ids(index.search("sauna", 10)));
+
+        index.refresh();
+        assertEquals(List.of(1L), ids(index.search("sauna", 10)));
+    }
+
+    private static List<Long> ids(List<HotelTextMatch> matches) {
+        return matches.stream().map(match -> match.getHotel().getId()).toList();
+    }
+
+    private static List<Long> suggestionIds(List<SimpleHotelDto> suggestions) {
+        return suggestions.stream().map(SimpleHotelDto::getId).toList();
+    }
+
+    private static Hotel hotel(Long id, String name) {
+        Hotel hotel = new Hotel();
+        hotel.setId(id);
+        hotel.setName(name);
+        return hotel;
+    }
+
+    private static FeedbackComment comment(Long hotelId, String comment) {
+        return new FeedbackComment() {
+            @Override
+            public Long getHotelId() {
+                return hotelId;
+            }
+
+            @Override
+            public String getComment() {
+                return comment;
+            }
+        };
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.hotelreservation.service;
+
+import com.example.hotelreservation.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that {@link IdempotencyService} runs each keyed request once and replays its response.
+ */
+// An own database, and no second-level cache, so entities cached by other test contexts in this JVM are neither seen nor shadowed
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:idempotency;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+@ActiveProfiles("h2")
+class IdempotencyServiceTest {
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @Test
+    void replaysTheFirstResponse() {
+        IdempotencyService.StoredResponse first = idempotencyService.execute("book", "alice", "k1", Map.of("roomId", 1), this::book);
+        IdempotencyService.StoredResponse retry = idempotencyService.execute("book", "alice", "k1", Map.of("roomId", 1), this::book);
+
+        assertFalse(first.isReplayed());
+        assertTrue(retry.isReplayed());
+        assertEquals(first.getJson(), retry.getJson());
+        assertEquals(1, runs.get());
+
+        // Another node finds the response in the database
+        IdempotencyService otherNode = new IdempotencyService(idempotencyRecordRepository, objectMapper,
+                transactionManager, Duration.ofHours(1), 100);
+        assertEquals(first.getJson(), otherNode.execute("book", "alice", "k1", Map.of("roomId", 1), this::book).getJson());
+        assertEquals(1, runs.get());
+
+        // The same key of another user or operation is a different request
+        idempotencyService.execute("book", "bob", "k1", Map.of("roomId", 1), this::book);
+        idempotencyService.execute("change", "alice", "k1", Map.of("roomId", 1), this::book);
+        assertEquals(3, runs.get());
+    }
+
+    @Test
+    void rejectsKeysReusedForOtherRequests() {
+        idempotencyService.execute("book", "alice", "k2", Map.of("roomId", 1), this::book);
+
+        assertThrows(IllegalStateException.class,
+                () -> idempotencyService.execute("book", "alice", "k2", Map.of("roomId", 2), this::book));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void retriesWaitForTheFirstRequestAndReplayIt() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<IdempotencyService.StoredResponse> first = executor.submit(() ->
+                    idempotencyService.execute("book", "alice", "k3", Map.of("roomId", 1), () -> {
+                        started.countDown();
+                        try {
+                            finish.await(10, TimeUnit.SECONDS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return book();
+                    }));
+            started.await(10, TimeUnit.SECONDS);
+            // Another node, so the retry cannot be answered from the local cache
+            IdempotencyService otherNode = new IdempotencyService(idempotencyRecordRepository, objectMapper,
+                    transactionManager, Duration.ofHours(1), 100);
+            Future<IdempotencyService.StoredResponse> retry = executor.submit(() ->
+                    otherNode.execute("book", "alice", "k3", Map.of("roomId", 1), this::book));
+            Thread.sleep(200);
+            finish.countDown();
+
+            assertFalse(first.get(10, TimeUnit.SECONDS).isReplayed());
+            assertTrue(retry.get(10, TimeUnit.SECONDS).isReplayed());
+            assertEquals(first.get().getJson(), retry.get().getJson());
+            assertEquals(1, runs.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedRequestsLeaveNoTraceAndCanBeRetried() {
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute("book", "alice", "k4", Map.of("roomId", 1), () -> {
+            jdbcTemplate.update("INSERT INTO hotels (name, latitude, longitude) VALUES ('Rolled back', 0, 0)");
+            throw new IllegalStateException("Room is not available");
+        }));
+
+        // The operation's writes and the claim of its key were rolled back together
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM hotels WHERE name = 'Rolled back'", Integer.class));
+        assertFalse(idempotencyRecordRepository.findAll().stream().anyMatch(record -> record.getResponse() == null));
+        assertFalse(idempotencyService.execute("book", "alice", "k4", Map.of("roomId", 1), this::book).isReplayed());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void reusesAndPurgesExpiredKeys() throws InterruptedException {
+        IdempotencyService shortLived = new IdempotencyService(idempotencyRecordRepository, objectMapper,
+                transactionManager, Duration.ZERO, 100);
+        shortLived.execute("book", "carol", "k5", Map.of("roomId", 1), this::book);
+        Thread.sleep(5);
+
+        assertFalse(shortLived.execute("book", "carol", "k5", Map.of("roomId", 1), this::book).isReplayed());
+        assertEquals(2, runs.get());
+
+        Thread.sleep(5);
+        long before = idempotencyRecordRepository.count();
+        shortLived.purgeExpired();
+        assertEquals(before - 1, idempotencyRecordRepository.count());
+    }
+
+    private Map<String, Integer> book() {
+        return Map.of("id", runs.incrementAndGet());
+    }
+}
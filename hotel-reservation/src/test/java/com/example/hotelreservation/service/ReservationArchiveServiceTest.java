@@ -0,0 +1,96 @@
+package com.example.hotelreservation.service;
+
+import com.example.hotelreservation.model.Reservation;
+import com.example.hotelreservation.repository.ArchivedReservationRepository;
+import com.example.hotelreservation.repository.ReservationRepository;
+import com.example.hotelreservation.repository.RoomRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that {@link ReservationArchiveService} moves past stays out of the reservations table
+ * without losing them from the history of their users.
+ */
+// An own database, and no second-level cache, so entities cached by other test contexts in this JVM are neither seen nor shadowed
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:archive;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+        "reservations.archive.batch-size=2"
+})
+@ActiveProfiles("h2")
+class ReservationArchiveServiceTest {
+
+    private static final long USER = 4242L;
+
+    @Autowired
+    private ReservationArchiveService reservationArchiveService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private ArchivedReservationRepository archivedReservationRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private ReservationMembershipService reservationMembershipService;
+
+    @Test
+    void movesPastStaysToTheArchive() {
+        LocalDateTime now = LocalDateTime.now();
+        Long roomId = roomRepository.findAll().get(0).getId();
+        Long hotelId = roomRepository.findById(roomId).orElseThrow().getHotel().getId();
+        // Five past stays take three batches of two
+        Reservation latestPast = save(roomId, hotelId, now.minusDays(43), now.minusDays(41));
+        for (int i = 2; i <= 5; i++) {
+            save(roomId, hotelId, now.minusDays(40 + 3 * i), now.minusDays(38 + 3 * i));
+        }
+        Reservation upcoming = save(roomId, hotelId, now.plusDays(10), now.plusDays(12));
+
+        assertEquals(5, reservationArchiveService.archiveStaysBefore(now.minusDays(30)));
+
+        List<Reservation> current = reservationRepository.findByUserId(USER);
+        assertEquals(1, current.size());
+        assertEquals(upcoming.getId(), current.get(0).getId());
+        assertEquals(5, archivedReservationRepository.findByUserIdOrderByCheckOutTimeDesc(USER).size());
+
+        // The history spans both tables, current stays first
+        List<Reservation> history = reservationService.getReservationsByUserId(USER);
+        assertEquals(6, history.size());
+        assertEquals(upcoming.getId(), history.get(0).getId());
+        assertEquals(latestPast.getId(), history.get(1).getId());
+        assertEquals(roomId, history.get(5).getRoom().getId());
+
+        // Archived stays still entitle the user to leave feedback
+        reservationRepository.delete(upcoming);
+        // The stays were saved past the booking service, like bookings of another instance: only a rebuilt filter has them
+        reservationMembershipService.rebuild();
+        assertTrue(reservationService.userHasReservation(USER, hotelId));
+
+        assertEquals(0, reservationArchiveService.archiveStaysBefore(now.minusDays(30)));
+    }
+
+    private Reservation save(Long roomId, Long hotelId, LocalDateTime checkIn, LocalDateTime checkOut) {
+        Reservation reservation = new Reservation();
+        reservation.setUserId(USER);
+        reservation.setRoomId(roomId);
+        reservation.setHotelId(hotelId);
+        reservation.setCheckInTime(checkIn);
+        reservation.setCheckOutTime(checkOut);
+        return reservationRepository.save(reservation);
+    }
+}
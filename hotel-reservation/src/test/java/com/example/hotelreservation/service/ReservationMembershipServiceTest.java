@@ -0,0 +1,166 @@
+package com.example.hotelreservation.service;
+
+import com.example.hotelreservation.model.Reservation;
+import com.example.hotelreservation.model.Room;
+import com.example.hotelreservation.repository.ReservationRepository;
+import com.example.hotelreservation.repository.RoomRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that {@link ReservationMembershipService} answers most checks without the database, and
+ * follows bookings, cancellations and check-outs, also those made through other instances.
+ */
+// An own database, and no second-level cache, so entities cached by other test contexts in this JVM are neither seen nor shadowed
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:membership;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+@ActiveProfiles("h2")
+class ReservationMembershipServiceTest {
+
+    @Autowired
+    private ReservationMembershipService reservationMembershipService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private HotelVersionService hotelVersionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void answersUsersWithoutReservationsFromTheFilter() {
+        List<Long> hotels = roomRepository.findAll().stream()
+                .map(room -> room.getHotel().getId())
+                .distinct()
+                .collect(Collectors.toList());
+        reservationMembershipService.rebuild();
+        double queried = lookups("queried");
+
+        int checks = 0;
+        for (long user = 900_000; user < 900_050; user++) {
+            for (Long hotel : hotels.subList(0, Math.min(10, hotels.size()))) {
+                assertFalse(reservationMembershipService.hasReservation(user, hotel));
+                checks++;
+            }
+        }
+        // Only the false positives of the filter reach the database
+        assertTrue(lookups("queried") - queried < checks * 0.05, "Too many queries for " + checks + " checks");
+    }
+
+    @Test
+    void followsBookingsCancellationsAndCheckOuts() {
+        long user = 800_001;
+        Room room = roomRepository.findAll().stream()
+                .min(Comparator.comparing(Room::getId))
+                .orElseThrow();
+        Long hotelId = room.getHotel().getId();
+        LocalDateTime checkIn = LocalDateTime.now().plusMonths(3).withHour(14).withMinute(0).withSecond(0).withNano(0);
+
+        reservationMembershipService.rebuild();
+        assertFalse(reservationService.userHasReservation(user, hotelId));
+
+        // A booking is known right after it commits, without asking the database
+        Reservation byType = reservationService.bookRoomType(user, hotelId, room.getType(), checkIn, checkIn.plusDays(1));
+        double queried = lookups("queried");
+        assertTrue(reservationService.userHasReservation(user, hotelId));
+        assertEquals(queried, lookups("queried"));
+
+        Reservation byRoom = reservationService.bookRoom(user, room.getId(), checkIn.plusDays(5), checkIn.plusDays(6));
+
+        // With another reservation left, a cancellation still leaves the user with one
+        reservationService.cancelReservation(byType);
+        assertTrue(reservationService.userHasReservation(user, hotelId));
+        assertEquals(queried + 1, lookups("queried"));
+        double cached = lookups("cached");
+        assertTrue(reservationService.userHasReservation(user, hotelId));
+        assertEquals(cached + 1, lookups("cached"));
+
+        // Checking out the last one leaves none; the filter still lets the pair through, the database answers
+        reservationService.checkOut(byRoom.getRoomId());
+        assertFalse(reservationService.userHasReservation(user, hotelId));
+        assertEquals(queried + 2, lookups("queried"));
+
+        // A rebuilt filter no longer contains the pair
+        reservationMembershipService.rebuild();
+        double filtered = lookups("filtered");
+        assertFalse(reservationService.userHasReservation(user, hotelId));
+        assertEquals(filtered + 1, lookups("filtered"));
+    }
+
+    @Test
+    void picksUpBookingsMadeThroughOtherInstances() {
+        long user = 800_002;
+        Room room = roomRepository.findAll().stream()
+                .min(Comparator.comparing(Room::getId))
+                .orElseThrow();
+        Long hotelId = room.getHotel().getId();
+        LocalDateTime checkIn = LocalDateTime.now().plusMonths(4).withHour(14).withMinute(0).withSecond(0).withNano(0);
+
+        reservationMembershipService.rebuild();
+        reservationMembershipService.catchUp();
+        // The filter rules the pair out, or the cache keeps the answer of the database
+        assertFalse(reservationService.userHasReservation(user, hotelId));
+
+        // Another instance books, in the database only
+        Reservation reservation = new Reservation();
+        reservation.setUserId(user);
+        reservation.setRoomId(room.getId());
+        reservation.setHotelId(hotelId);
+        reservation.setRoomType(room.getType());
+        reservation.setCheckInTime(checkIn);
+        reservation.setCheckOutTime(checkIn.plusDays(1));
+        reservationRepository.save(reservation);
+
+        // Once read, neither of them rules the pair out any longer
+        reservationMembershipService.catchUp();
+        assertTrue(reservationService.userHasReservation(user, hotelId));
+    }
+
+    @Test
+    void answersFromTheDatabaseUntilTheFilterIsBuilt() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ReservationMembershipService fresh = new ReservationMembershipService(reservationRepository, hotelVersionService,
+                jdbcTemplate, transactionManager, registry, 100, Duration.ofMinutes(1), 0.01);
+
+        assertFalse(fresh.hasReservation(900_100L, 1L));
+        assertEquals(1, registry.get("reservations.membership.lookups").tag("outcome", "queried").counter().count());
+        assertEquals(0, registry.get("reservations.membership.lookups").tag("outcome", "filtered").counter().count());
+    }
+
+    private double lookups(String outcome) {
+        return meterRegistry.get("reservations.membership.lookups").tag("outcome", outcome).counter().count();
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.hotelreservation.service;
+
+import com.example.hotelreservation.model.Reservation;
+import com.example.hotelreservation.model.Room;
+import com.example.hotelreservation.repository.ReservationRepository;
+import com.example.hotelreservation.repository.RoomRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that {@link ReservationService} books and changes rooms without double-booking them,
+ * also when changes run concurrently.
+ */
+// An own database, and no second-level cache, so entities cached by other test contexts in this JVM are neither seen nor shadowed
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reservations;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+@ActiveProfiles("h2")
+class ReservationServiceTest {
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    private final AtomicLong users = new AtomicLong(5000);
+
+    // Every test gets its own month, so stays of different tests never overlap
+    private static final AtomicInteger months = new AtomicInteger();
+
+    @Test
+    void changesTheChosenOfSeveralReservationsAtAHotel() {
+        long user = users.incrementAndGet();
+        List<Room> rooms = roomsOfLargestHotel();
+        LocalDateTime checkIn = nextMonth();
+        Reservation first = reservationService.bookRoom(user, rooms.get(0).getId(), checkIn, checkIn.plusDays(2));
+        Reservation second = reservationService.bookRoom(user, rooms.get(0).getId(), checkIn.plusDays(5), checkIn.plusDays(7));
+        Long hotelId = first.getHotelId();
+
+        Reservation changed = reservationService.changeReservation(user, hotelId, second.getId(), rooms.get(1).getId());
+        assertEquals(second.getId(), changed.getId());
+        assertEquals(rooms.get(1).getId(), changed.getRoomId());
+        assertEquals(rooms.get(0).getId(), reservationRepository.findById(first.getId()).orElseThrow().getRoomId());
+
+        // Without a reservation ID, the earlier stay is changed
+        changed = reservationService.changeReservation(user, hotelId, null, rooms.get(2).getId());
+        assertEquals(first.getId(), changed.getId());
+        assertEquals(rooms.get(2).getId(), changed.getRoomId());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> reservationService.changeReservation(user + 1, hotelId, first.getId(), rooms.get(0).getId()));
+    }
+
+    @Test
+    void rejectsRoomsTakenDuringTheStay() {
+        List<Room> rooms = roomsOfLargestHotel();
+        LocalDateTime checkIn = nextMonth();
+        Reservation guest = reservationService.bookRoom(users.incrementAndGet(), rooms.get(0).getId(), checkIn, checkIn.plusDays(3));
+        long other = users.incrementAndGet();
+        Reservation overlapping = reservationService.bookRoom(other, rooms.get(1).getId(), checkIn.plusDays(2), checkIn.plusDays(4));
+
+        // Booking and changing into the occupied room both see the overlap
+        assertThrows(IllegalStateException.class,
+                () -> reservationService.bookRoom(other, rooms.get(0).getId(), checkIn.plusDays(1), checkIn.plusDays(2)));
+        assertThrows(IllegalStateException.class,
+                () -> reservationService.changeReservation(other, overlapping.getHotelId(), overlapping.getId(), rooms.get(0).getId()));
+        assertEquals(rooms.get(1).getId(), reservationRepository.findById(overlapping.getId()).orElseThrow().getRoomId());
+
+        // Once the guest has moved on, the room is free for that stay
+        reservationService.changeReservation(guest.getUserId(), guest.getHotelId(), guest.getId(), rooms.get(2).getId());
+        reservationService.changeReservation(other, overlapping.getHotelId(), overlapping.getId(), rooms.get(0).getId());
+    }
+
+    @Test
+    void concurrentSwapsNeitherDeadlockNorDoubleBook() throws Exception {
+        List<Room> rooms = roomsOfLargestHotel();
+        Long roomA = rooms.get(0).getId();
+        Long roomB = rooms.get(1).getId();
+        Long roomC = rooms.get(2).getId();
+        LocalDateTime checkIn = nextMonth();
+        // Two stays swapping between A and B in opposite directions, on different dates
+        Reservation early = reservationService.bookRoom(users.incrementAndGet(), roomA, checkIn, checkIn.plusDays(2));
+        Reservation late = reservationService.bookRoom(users.incrementAndGet(), roomB, checkIn.plusDays(4), checkIn.plusDays(6));
+        // Two overlapping stays racing for C
+        Reservation first = reservationService.bookRoom(users.incrementAndGet(), roomA, checkIn.plusDays(10), checkIn.plusDays(12));
+        Reservation second = reservationService.bookRoom(users.incrementAndGet(), roomB, checkIn.plusDays(11), checkIn.plusDays(13));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger movedToC = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            futures.add(executor.submit(() -> swap(start, early, roomB, roomA)));
+            futures.add(executor.submit(() -> swap(start, late, roomA, roomB)));
+            for (Reservation racer : List.of(first, second)) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        reservationService.changeReservation(racer.getUserId(), racer.getHotelId(), racer.getId(), roomC);
+                        movedToC.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        // Lost the race for C
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, movedToC.get());
+        List<Long> inC = reservationRepository.findActiveByRoomId(roomC, checkIn).stream()
+                .map(Reservation::getId)
+                .collect(Collectors.toList());
+        assertEquals(1, inC.size());
+        assertTrue(inC.contains(first.getId()) || inC.contains(second.getId()));
+        // Each swap ended where it started
+        assertEquals(roomA, reservationRepository.findById(early.getId()).orElseThrow().getRoomId());
+        assertEquals(roomB, reservationRepository.findById(late.getId()).orElseThrow().getRoomId());
+    }
+
+    @Test
+    void concurrentCheckInsGetDifferentRooms() throws Exception {
+        List<Room> rooms = roomsOfLargestHotel();
+        int type = rooms.get(0).getType();
+        Long hotelId = rooms.get(0).getHotel().getId();
+        long ofType = rooms.stream().filter(room -> room.getType() == type).count();
+        LocalDateTime checkIn = nextMonth();
+        List<Reservation> stays = new ArrayList<>();
+        for (int i = 0; i < Math.min(4, ofType); i++) {
+            stays.add(reservationService.bookRoomType(users.incrementAndGet(), hotelId, type, checkIn, checkIn.plusDays(2)));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(stays.size());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Long> assigned;
+        try {
+            List<Future<Reservation>> futures = new ArrayList<>();
+            for (Reservation stay : stays) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return reservationService.checkIn(stay.getId());
+                }));
+            }
+            start.countDown();
+            assigned = new ArrayList<>();
+            for (Future<Reservation> future : futures) {
+                assigned.add(future.get(60, TimeUnit.SECONDS).getRoomId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Every guest got a room of the booked type, and no two guests the same
+        assertEquals(stays.size(), assigned.stream().distinct().count());
+        for (Long roomId : assigned) {
+            assertEquals(type, roomRepository.findById(roomId).orElseThrow().getType());
+        }
+    }
+
+    @Test
+    void concurrentRoomTypeBookingsDoNotOversell() throws Exception {
+        List<Room> rooms = roomsOfLargestHotel();
+        int type = rooms.get(0).getType();
+        Long hotelId = rooms.get(0).getHotel().getId();
+        int capacity = (int) rooms.stream().filter(room -> room.getType() == type).count();
+        LocalDateTime checkIn = nextMonth();
+
+        // A day stay stored before the night had a counter still takes one room of that night
+        Reservation dayStay = new Reservation();
+        dayStay.setUserId(users.incrementAndGet());
+        dayStay.setHotelId(hotelId);
+        dayStay.setRoomType(type);
+        dayStay.setCheckInTime(checkIn.withHour(8));
+        dayStay.setCheckOutTime(checkIn.withHour(12));
+        reservationRepository.save(dayStay);
+
+        // One booking more than there are rooms left, all for the night of the day stay
+        ExecutorService executor = Executors.newFixedThreadPool(capacity);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger soldOut = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < capacity; i++) {
+                long user = users.incrementAndGet();
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        reservationService.bookRoomType(user, hotelId, type, checkIn, checkIn.plusDays(2));
+                    } catch (IllegalStateException e) {
+                        soldOut.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, soldOut.get());
+        assertEquals(capacity, reservationRepository.countReservationsForNight(
+                hotelId, type, checkIn.toLocalDate().atStartOfDay(), checkIn.toLocalDate().plusDays(1).atStartOfDay()));
+    }
+
+    @Test
+    void availableRoomsLeaveOutRoomsClaimedByRoomTypeBookings() {
+        List<Room> rooms = roomsOfLargestHotel();
+        int type = rooms.get(0).getType();
+        Long hotelId = rooms.get(0).getHotel().getId();
+        LocalDateTime checkIn = nextMonth();
+        List<Room> before = reservationService.getAvailableRooms(hotelId, checkIn, checkIn.plusDays(2));
+
+        // A booking of the type, not yet checked in, takes one free room of that type
+        reservationService.bookRoomType(users.incrementAndGet(), hotelId, type, checkIn, checkIn.plusDays(2));
+        List<Room> after = reservationService.getAvailableRooms(hotelId, checkIn, checkIn.plusDays(2));
+        assertEquals(before.size() - 1, after.size());
+        assertEquals(before.stream().filter(room -> room.getType() == type).count() - 1,
+                after.stream().filter(room -> room.getType() == type).count());
+
+        // Stays on other dates are not affected
+        assertEquals(before.size(), reservationService.getAvailableRooms(hotelId, checkIn.plusDays(2), checkIn.plusDays(4)).size());
+    }
+
+    /**
+     * Moves a reservation back and forth between two rooms, an even number of times.
+     */
+    private Void swap(CountDownLatch start, Reservation reservation, Long there, Long back) throws InterruptedException {
+        start.await();
+        for (int i = 0; i < 20; i++) {
+            reservationService.changeReservation(reservation.getUserId(), reservation.getHotelId(), reservation.getId(), there);
+            reservationService.changeReservation(reservation.getUserId(), reservation.getHotelId(), reservation.getId(), back);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the rooms of the hotel with the most rooms, by ID.
+     */
+    private List<Room> roomsOfLargestHotel() {
+        return roomRepository.findAll().stream()
+                .collect(Collectors.groupingBy(room -> room.getHotel().getId()))
+                .values().stream()
+                .max(Comparator.comparingInt(List::size))
+                .orElseThrow().stream()
+                .sorted(Comparator.comparing(Room::getId))
+                .collect(Collectors.toList());
+    }
+
+    private static LocalDateTime nextMonth() {
+        return LocalDateTime.now().plusMonths(2 + months.getAndIncrement()).withHour(14).withMinute(0).withSecond(0).withNano(0);
+    }
+}
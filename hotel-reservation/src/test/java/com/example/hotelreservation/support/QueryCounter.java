@@ -0,0 +1,50 @@
+package com.example.hotelreservation.support;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+/**
+ * Counts the SQL statements Hibernate sends to the database.
+ *
+ * Relies on {@code hibernate.generate_statistics=true}, which the application enables for the cache
+ * statistics endpoint anyway. Counts cover the whole application, so measure one request at a time.
+ */
+public class QueryCounter {
+
+    private final SessionFactory sessionFactory;
+    private final Statistics statistics;
+
+    /**
+     * Constructor for QueryCounter.
+     *
+     * @param entityManagerFactory the entity manager factory of the application.
+     */
+    public QueryCounter(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.statistics = sessionFactory.getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            throw new IllegalStateException("Hibernate statistics are disabled, statements cannot be counted");
+        }
+    }
+
+    /**
+     * Empties the second-level and query caches and starts counting from zero.
+     *
+     * With cold caches every lookup a request makes reaches the database, so the count is the
+     * worst case of the request rather than whatever the previous requests happened to cache.
+     */
+    public void reset() {
+        sessionFactory.getCache().evictAllRegions();
+        statistics.clear();
+    }
+
+    /**
+     * Gets the number of statements prepared since the last {@link #reset()}.
+     *
+     * @return the number of SQL statements sent to the database.
+     */
+    public long getStatementCount() {
+        return statistics.getPrepareStatementCount();
+    }
+}
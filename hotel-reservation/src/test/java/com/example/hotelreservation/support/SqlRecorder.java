@@ -0,0 +1,52 @@
+package com.example.hotelreservation.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the SQL statements Hibernate prepares, so tests can inspect what a repository method runs.
+ *
+ * Enabled with {@code spring.jpa.properties.hibernate.session_factory.statement_inspector} set to this
+ * class. Hibernate creates the instance, so the statements are kept in a shared list; record one call
+ * at a time.
+ */
+public class SqlRecorder implements StatementInspector {
+
+    private static final List<String> statements = new ArrayList<>();
+
+    /**
+     * Records a statement and leaves it unchanged.
+     *
+     * @param sql the statement about to be prepared.
+     * @return the same statement.
+     */
+    @Override
+    public String inspect(String sql) {
+        synchronized (statements) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+
+    /**
+     * Forgets all recorded statements.
+     */
+    public static void clear() {
+        synchronized (statements) {
+            statements.clear();
+        }
+    }
+
+    /**
+     * Gets the statements recorded since the last {@link #clear()}.
+     *
+     * @return a copy of the recorded statements, in order.
+     */
+    public static List<String> getStatements() {
+        synchronized (statements) {
+            return new ArrayList<>(statements);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.hotelreservation.utlis;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks that the batch methods of {@link DistanceCalculator} agree with the single-pair haversine
+ * distance, and that the vectorized kernel agrees with the scalar one.
+ */
+class DistanceCalculatorTest {
+
+    // Not a multiple of any vector length, so the scalar tail of the vectorized loops is covered too
+    private static final int POINTS = 1003;
+
+    private static final double USER_LAT = 46.7712;
+    private static final double USER_LON = 23.6236;
+
+    private final double[] latitudes = new double[POINTS];
+    private final double[] longitudes = new double[POINTS];
+    private final GeoPoints points;
+
+    DistanceCalculatorTest() {
+        // Half of the points around the reference point, the rest anywhere on Earth
+        Random random = new Random(42);
+        for (int i = 0; i < POINTS; i++) {
+            if (i % 2 == 0) {
+                latitudes[i] = USER_LAT + random.nextGaussian() * 0.5;
+                longitudes[i] = USER_LON + random.nextGaussian() * 0.5;
+            } else {
+                latitudes[i] = random.nextDouble() * 180 - 90;
+                longitudes[i] = random.nextDouble() * 360 - 180;
+            }
+        }
+        points = GeoPoints.fromDegrees(latitudes, longitudes);
+    }
+
+    @Test
+    void batchDistancesMatchSinglePairDistances() {
+        double[] distances = new double[POINTS];
+        DistanceCalculator.calculateDistances(USER_LAT, USER_LON, points, distances);
+
+        for (int i = 0; i < POINTS; i++) {
+            double expected = DistanceCalculator.calculateDistance(USER_LAT, USER_LON, latitudes[i], longitudes[i]);
+            assertEquals(expected, distances[i], 1e-6, "distance to point " + i);
+        }
+    }
+
+    @Test
+    void withinRadiusMatchesDistances() {
+        for (double radius : new double[]{0, 5, 50, 1000, 20_000, 30_000}) {
+            boolean[] matches = new boolean[POINTS];
+            int count = DistanceCalculator.withinRadius(USER_LAT, USER_LON, radius, points, matches);
+
+            int expectedCount = 0;
+            for (int i = 0; i < POINTS; i++) {
+                boolean expected = DistanceCalculator.calculateDistance(USER_LAT, USER_LON, latitudes[i], longitudes[i]) <= radius;
+                assertEquals(expected, matches[i], "point " + i + " for radius " + radius);
+                if (expected) {
+                    expectedCount++;
+                }
+            }
+            assertEquals(expectedCount, count, "matches for radius " + radius);
+        }
+    }
+
+    @Test
+    void vectorKernelMatchesScalarKernel() {
+        assumeTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent(), "Vector API module not added");
+        assertTrue(DistanceCalculator.isVectorized());
+
+        double lat = Math.toRadians(USER_LAT);
+        double lon = Math.toRadians(USER_LON);
+        DistanceKernel scalar = new ScalarDistanceKernel();
+        DistanceKernel vector = new VectorDistanceKernel();
+
+        double[] scalarTerms = new double[POINTS];
+        double[] vectorTerms = new double[POINTS];
+        scalar.haversine(lat, lon, Math.cos(lat), points, scalarTerms);
+        vector.haversine(lat, lon, Math.cos(lat), points, vectorTerms);
+        for (int i = 0; i < POINTS; i++) {
+            assertEquals(scalarTerms[i], vectorTerms[i], 1e-12, "haversine term of point " + i);
+        }
+
+        double bound = DistanceCalculator.haversineBound(50);
+        boolean[] scalarMatches = new boolean[POINTS];
+        boolean[] vectorMatches = new boolean[POINTS];
+        assertEquals(scalar.withinBound(lat, lon, Math.cos(lat), points, bound, scalarMatches),
+                vector.withinBound(lat, lon, Math.cos(lat), points, bound, vectorMatches));
+        for (int i = 0; i < POINTS; i++) {
+            assertEquals(scalarMatches[i], vectorMatches[i], "match of point " + i);
+        }
+    }
+}